@@ -5,6 +5,7 @@ import com.connection.token.generator.AccessTokenGenerator;
 import com.connection.token.validator.AccessTokenValidator;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,8 +21,10 @@ public class AccessTokenUtilsConfig {
     AccessTokenGenerator accessTokenGenerator(
             @Qualifier("jwtSecretKey") SecretKey secretKey,
             @Qualifier("appName") String appNameString,
-            @Qualifier("jwtSubject") String subjecString) {
-        return new AccessTokenGenerator(secretKey, appNameString, subjecString);
+            @Qualifier("jwtSubject") String subjecString,
+            @Value("${app.jwt.verified-cache-size:100000}") int verifiedCacheSize) {
+        return new AccessTokenGenerator(secretKey, appNameString, subjecString,
+                verifiedCacheSize);
     }
 
     @Bean("AccessTokenConverter")
@@ -0,0 +1,10 @@
+package com.connection.service.auth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Периодические задачи auth-service (удаление истекших refresh-токенов). */
+@Configuration
+@EnableScheduling
+public class AuthSchedulingConfig {
+}
@@ -3,8 +3,10 @@ package com.connection.service.auth.config;
 import com.atomikos.jdbc.AtomikosDataSourceBean;
 import java.util.Properties;
 import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -84,4 +86,18 @@ public class RefreshTokenJdbcConfig {
             @Qualifier("RefreshTokenDataSource") DataSource refreshTokenDataSource) {
         return new NamedParameterJdbcTemplate(refreshTokenDataSource);
     }
+
+    // Миграции token-shared
+    @Bean(name = "RefreshTokenSchemaMigration", initMethod = "migrate")
+    @ConditionalOnProperty(name = "app.schema.migration.enabled", havingValue = "true",
+            matchIfMissing = true)
+    Flyway refreshTokenSchemaMigration() {
+        return Flyway.configure()
+                .dataSource(jdbcUrl, username, password)
+                .locations("classpath:db/migration/refresh-token")
+                .table("refresh_token_schema_history")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
 }
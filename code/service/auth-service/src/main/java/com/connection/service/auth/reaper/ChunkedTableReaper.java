@@ -0,0 +1,88 @@
+package com.connection.service.auth.reaper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.function.IntUnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Очистка одной таблицы токенов: deleteChunk вызывается, пока порция
+ * заполняется целиком, с паузой pauseMillis между порциями. Метрики
+ * token.reaper.* помечены тегом table. Используется планировщиками
+ * auth-service и device-auth-service.
+ */
+@Slf4j
+public class ChunkedTableReaper {
+
+    private final String table;
+    private final IntUnaryOperator deleteChunk;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    private final Counter deleted;
+    private final Counter failed;
+    private final Timer sweepDuration;
+
+    /**
+     * Очистка таблицы table порциями по chunkSize строк.
+     *
+     * @param deleteChunk удаляет не больше переданного числа строк и
+     *        возвращает число удаленных
+     */
+    public ChunkedTableReaper(String table, IntUnaryOperator deleteChunk,
+            int chunkSize, long pauseMillis, MeterRegistry meterRegistry) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Reaper chunk size must be positive");
+        }
+        this.table = table;
+        this.deleteChunk = deleteChunk;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+
+        this.deleted = Counter.builder("token.reaper.deleted")
+                .description("Expired tokens removed by the reaper")
+                .tag("table", table)
+                .register(meterRegistry);
+        this.failed = Counter.builder("token.reaper.failed")
+                .description("Reaper sweeps that failed")
+                .tag("table", table)
+                .register(meterRegistry);
+        this.sweepDuration = Timer.builder("token.reaper.sweep")
+                .description("Duration of a reaper sweep over one table")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+
+    /** Одна очистка таблицы; сбой учитывается в метриках и не пробрасывается. */
+    public void reap() {
+        sweepDuration.record(this::sweep);
+    }
+
+    private void sweep() {
+        try {
+            int deletedRows;
+            do {
+                deletedRows = deleteChunk.applyAsInt(chunkSize);
+                // Счетчик растет по порциям: при сбое удаленное уже учтено
+                deleted.increment(deletedRows);
+            } while (deletedRows == chunkSize && pause());
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Failed to reap expired rows of {}", table, e);
+        }
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
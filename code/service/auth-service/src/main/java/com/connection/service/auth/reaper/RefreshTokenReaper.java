@@ -0,0 +1,36 @@
+package com.connection.service.auth.reaper;
+
+import com.connection.token.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодическое удаление refresh-токенов с истекшим сроком. Порция
+ * удаляется с FOR UPDATE SKIP LOCKED, поэтому планировщики нескольких
+ * экземпляров auth-service не ждут друг друга.
+ */
+@Component
+@ConditionalOnProperty(name = "app.token.reaper.enabled", havingValue = "true")
+public class RefreshTokenReaper {
+
+    private final ChunkedTableReaper refreshTokens;
+
+    /** . */
+    public RefreshTokenReaper(RefreshTokenRepository refreshTokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.token.reaper.chunk-size:1000}") int chunkSize,
+            @Value("${app.token.reaper.pause-ms:50}") long pauseMillis) {
+        this.refreshTokens = new ChunkedTableReaper("refresh_token",
+                refreshTokenRepository::deleteExpiredChunk, chunkSize, pauseMillis,
+                meterRegistry);
+    }
+
+    /** Удалить все истекшие refresh-токены. */
+    @Scheduled(fixedDelayString = "${app.token.reaper.refresh-token.interval-ms:300000}")
+    public void reap() {
+        refreshTokens.reap();
+    }
+}
@@ -8,15 +8,20 @@ import com.connection.processing.buffer.repository.BufferRepository;
 import com.connection.processing.buffer.validator.BufferValidator;
 import com.connection.service.auth.AuthService;
 import com.service.buffer.config.SecurityUtils;
+import com.service.buffer.event.BufferChangedEvent;
 import com.service.connectionscheme.ConnectionSchemeService;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +39,7 @@ public class ApiBufferServiceImpl implements BufferService {
     private final AuthService authClient;
     private final DeviceService deviceClient;
     private final ConnectionSchemeService connectionSchemeClient;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public BufferBlm createBuffer(BufferBlm bufferBlm) {
@@ -115,6 +121,32 @@ public class ApiBufferServiceImpl implements BufferService {
         return bufferBlms;
     }
 
+    @Override
+    public List<BufferBlm> getBuffersByUids(Collection<UUID> bufferUids) {
+        UUID clientUid = SecurityUtils.getCurrentClientUid();
+        List<BufferBlm> bufferBlms = bufferRepository.findByUids(bufferUids);
+
+        Set<UUID> clientDevices = getClientDeviceUids(clientUid);
+        for (BufferBlm buffer : bufferBlms) {
+            if (!clientDevices.contains(buffer.getDeviceUid())) {
+                throw new SecurityException(
+                        "Buffer doesn't exist or doesn't belong to the authenticated client");
+            }
+        }
+        return bufferBlms;
+    }
+
+    @Override
+    public List<BufferBlm> getBuffersByDevices(Collection<UUID> deviceUids) {
+        UUID clientUid = SecurityUtils.getCurrentClientUid();
+        if (!getClientDeviceUids(clientUid).containsAll(deviceUids)) {
+            throw new SecurityException(
+                    "Device doesn't belong to the authenticated client");
+        }
+
+        return bufferRepository.findByDeviceUids(deviceUids);
+    }
+
     @Override
     public List<BufferBlm> getBuffersByConnectionScheme(
             UUID connectionSchemeUid) {
@@ -154,6 +186,7 @@ public class ApiBufferServiceImpl implements BufferService {
         }
 
         bufferRepository.update(bufferBlm);
+        eventPublisher.publishEvent(new BufferChangedEvent(bufferUid));
 
         log.info("Buffer updated: {} for device: {}", bufferUid,
                 bufferBlm.getDeviceUid());
@@ -172,6 +205,7 @@ public class ApiBufferServiceImpl implements BufferService {
         }
 
         bufferRepository.delete(bufferUid);
+        eventPublisher.publishEvent(new BufferChangedEvent(bufferUid));
         log.info("Buffer deleted: {} for client: {}, device: {}", bufferUid,
                 clientUid, existingBuffer.getDeviceUid());
     }
@@ -270,6 +304,13 @@ public class ApiBufferServiceImpl implements BufferService {
                 .equals(clientUuid);
     }
 
+    // Один запрос к device-service вместо getDevice на каждое устройство
+    private Set<UUID> getClientDeviceUids(UUID clientUid) {
+        return deviceClient.getDevicesByClient(clientUid).stream()
+                .map(DeviceBlm::getUid)
+                .collect(Collectors.toSet());
+    }
+
     /** . */
     protected boolean connectionSchemeExistsAndBelongsToClient(
             UUID connectionSchemeUid, UUID clientUid) {
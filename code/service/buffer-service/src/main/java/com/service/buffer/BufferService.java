@@ -1,6 +1,7 @@
 package com.service.buffer;
 
 import com.connection.processing.buffer.model.BufferBlm;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -19,6 +20,12 @@ public interface BufferService {
     /** . */
     List<BufferBlm> getBuffersByDevice(UUID deviceUid);
 
+    /** Буферы из bufferUids одним запросом; несуществующие пропускаются. */
+    List<BufferBlm> getBuffersByUids(Collection<UUID> bufferUids);
+
+    /** Буферы всех устройств из deviceUids одним запросом. */
+    List<BufferBlm> getBuffersByDevices(Collection<UUID> deviceUids);
+
     /** . */
     List<BufferBlm> getBuffersByConnectionScheme(UUID connectionSchemeUid);
 
@@ -5,8 +5,10 @@ import com.atomikos.jdbc.AtomikosDataSourceBean;
 import java.util.Properties;
 import javax.sql.DataSource;
 import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -58,4 +60,18 @@ public class BufferJdbcConfig {
             @Qualifier("BufferDataSource") DataSource bufferDataSource) {
         return new NamedParameterJdbcTemplate(bufferDataSource);
     }
-}
\ No newline at end of file
+
+    // Миграции processing.buffer (buffer-shared): хранение, индексы, формат и сжатие тел
+    @Bean(name = "BufferSchemaMigration", initMethod = "migrate")
+    @ConditionalOnProperty(name = "app.schema.migration.enabled", havingValue = "true",
+            matchIfMissing = true)
+    Flyway bufferSchemaMigration() {
+        return Flyway.configure()
+                .dataSource(jdbcUrl, username, password)
+                .locations("classpath:db/migration/buffer")
+                .table("buffer_schema_history")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+}
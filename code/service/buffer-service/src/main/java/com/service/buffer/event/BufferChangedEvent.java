@@ -0,0 +1,16 @@
+package com.service.buffer.event;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Внутрипроцессное событие об изменении или удалении буфера.
+ * Кэши, хранящие владельца буфера, сбрасывают по нему свою запись.
+ */
+@Getter
+@AllArgsConstructor
+public class BufferChangedEvent {
+
+    private final UUID bufferUid;
+}
@@ -23,6 +23,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -37,6 +38,7 @@ import com.connection.processing.buffer.repository.BufferRepository;
 import com.connection.processing.buffer.validator.BufferValidator;
 import com.connection.scheme.model.ConnectionSchemeBlm;
 import com.connection.service.auth.AuthService;
+import com.service.buffer.event.BufferChangedEvent;
 import com.service.connectionscheme.ConnectionSchemeService;
 
 @ExtendWith(MockitoExtension.class)
@@ -64,6 +66,9 @@ class BufferServiceImplLondonTest {
     @Mock
     private ConnectionSchemeService connectionSchemeClient;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -256,6 +261,44 @@ class BufferServiceImplLondonTest {
         verify(bufferRepository, never()).findByDeviceUid(any());
     }
 
+    @Test
+    @DisplayName("Get buffers by devices - Positive: one device lookup and one query")
+    void shouldGetBuffersByDevicesWhenAllDevicesBelongToClient() {
+        // Arrange
+        DeviceBlm device = new DeviceBlm();
+        device.setUid(DEVICE_UUID);
+        device.setClientUuid(CLIENT_UUID);
+        when(deviceClient.getDevicesByClient(CLIENT_UUID)).thenReturn(List.of(device));
+        when(bufferRepository.findByDeviceUids(List.of(DEVICE_UUID)))
+                .thenReturn(List.of(createValidBufferBlm()));
+        setupAuthentication(CLIENT_UUID);
+
+        // Act
+        List<BufferBlm> result = bufferService.getBuffersByDevices(List.of(DEVICE_UUID));
+
+        // Assert
+        assertThat(result).hasSize(1);
+        verify(deviceClient, never()).getDevice(any());
+    }
+
+    @Test
+    @DisplayName("Get buffers by devices - Negative: one of the devices belongs to another client")
+    void shouldThrowExceptionWhenAnyDeviceNotBelongsToClient() {
+        // Arrange
+        DeviceBlm device = new DeviceBlm();
+        device.setUid(DEVICE_UUID);
+        device.setClientUuid(CLIENT_UUID);
+        when(deviceClient.getDevicesByClient(CLIENT_UUID)).thenReturn(List.of(device));
+        setupAuthentication(CLIENT_UUID);
+
+        // Act & Assert
+        assertThatThrownBy(() -> bufferService.getBuffersByDevices(
+                List.of(DEVICE_UUID, UUID.randomUUID())))
+            .isInstanceOf(SecurityException.class);
+
+        verify(bufferRepository, never()).findByDeviceUids(any());
+    }
+
     @Test
     @DisplayName("Update buffer - Positive")
     void shouldUpdateBufferWhenValidData() {
@@ -291,6 +334,7 @@ class BufferServiceImplLondonTest {
 
         // Assert
         verify(bufferRepository).delete(BUFFER_UUID);
+        verify(eventPublisher).publishEvent(any(BufferChangedEvent.class));
     }
 
     @Test
@@ -402,7 +446,11 @@ class BufferServiceImplLondonTest {
             bufferBlm.getDeviceUid(),
             bufferBlm.getMaxMessagesNumber(),
             bufferBlm.getMaxMessageSize(),
-            bufferBlm.getMessagePrototype()
+            bufferBlm.getMessagePrototype(),
+            bufferBlm.getRetentionSeconds(),
+            bufferBlm.getRetentionMessages(),
+            bufferBlm.getPayloadFormat(),
+            bufferBlm.getCompression()
         );
 
         when(bufferRepository.findByUid(BUFFER_UUID)).thenReturn(existingBuffer);
@@ -133,8 +133,11 @@ public class BufferServiceIntegrationTest extends BaseBufferIntegrationTest {
                 testDeviceUid,
                 2000, // updated max messages
                 2048, // updated max size
-                "{}" // message_prototype не используется
-        );
+                "{}", // message_prototype не используется
+                null,
+                null,
+                null,
+                null);
 
         // When
         BufferBlm updatedBuffer = bufferService.updateBuffer(testBufferUid, updatedBufferBlm);
@@ -413,6 +416,10 @@ public class BufferServiceIntegrationTest extends BaseBufferIntegrationTest {
                 testDeviceUid,
                 1000,
                 1024,
-                "{}");
+                "{}",
+                null,
+                null,
+                null,
+                null);
     }
 }
\ No newline at end of file
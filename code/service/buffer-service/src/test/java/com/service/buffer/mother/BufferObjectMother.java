@@ -38,19 +38,19 @@ public class BufferObjectMother {
     /** . */
     public static BufferDto createValidBufferDto() {
         return new BufferDto(BUFFER_UUID.toString(), SCHEME_UUID.toString(),
-                1000, 1024, "message prototype");
+                1000, 1024, "message prototype", null, null, null, null);
     }
 
     /** . */
     public static BufferBlm createValidBufferBlm() {
         return new BufferBlm(BUFFER_UUID, SCHEME_UUID, 1000, 1024,
-                "message prototype");
+                "message prototype", null, null, null, null);
     }
 
     /** . */
     public static BufferDalm createValidBufferDalm() {
         return new BufferDalm(BUFFER_UUID, SCHEME_UUID, 1000, 1024,
-                "message prototype");
+                "message prototype", null, null, null, null);
     }
 
     /** . */
@@ -82,14 +82,14 @@ public class BufferObjectMother {
     public static BufferDto createBufferDtoWithDifferentScheme() {
         return new BufferDto(BUFFER_UUID.toString(),
                 UUID.randomUUID().toString(), // different scheme
-                1000, 1024, "message prototype");
+                1000, 1024, "message prototype", null, null, null, null);
     }
 
     /** . */
     public static BufferDto createInvalidBufferDto() {
         return new BufferDto("invalid-uuid", "invalid-scheme-uuid", -1, // invalid max messages
                 -1, // invalid max size
-                null // null prototype
-        );
+                null, // null prototype
+                null, null, null, null);
     }
 }
@@ -1,14 +1,17 @@
 package com.service.connectionscheme;
 
 import com.connection.scheme.exception.ConnectionSchemeAlreadyExistsException;
+import com.connection.scheme.exception.ConnectionSchemeNotFoundException;
 import com.connection.scheme.model.ConnectionSchemeBlm;
 import com.connection.scheme.repository.ConnectionSchemeRepository;
 import com.connection.scheme.validator.ConnectionSchemeValidator;
 import com.connection.service.auth.AuthService;
 import com.service.connectionscheme.config.SecurityUtils;
+import com.service.connectionscheme.event.ConnectionSchemeChangedEvent;
 // import com.service.connectionscheme.kafka.KafkaAuthClient;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -17,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +37,7 @@ public class ConnectionSchemeServiceImpl implements ConnectionSchemeService {
     private final ConnectionSchemeRepository schemeRepository;
     private final ConnectionSchemeValidator schemeValidator;
     private final AuthService authClient;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public ConnectionSchemeBlm createScheme(ConnectionSchemeBlm schemeBlm) {
@@ -55,6 +60,7 @@ public class ConnectionSchemeServiceImpl implements ConnectionSchemeService {
             log.error(e.getMessage());
             throw e;
         }
+        publishSchemeChanged(schemeBlm.getUid(), sourceBuffers(schemeBlm));
         log.info("Connection scheme created: {} for client: {}", schemeBlm.getUid(), clientUid);
         return schemeBlm;
     }
@@ -73,11 +79,22 @@ public class ConnectionSchemeServiceImpl implements ConnectionSchemeService {
 
     @Override
     public List<ConnectionSchemeBlm> getSchemeByUid(List<UUID> schemeUids) {
-        Set<ConnectionSchemeBlm> connectionSchemeBlms = new HashSet<>();
-        for (UUID uuid : schemeUids) {
-            connectionSchemeBlms.add(getSchemeByUid(uuid));
+        Set<UUID> requested = new LinkedHashSet<>(schemeUids);
+        List<ConnectionSchemeBlm> schemesBlm = schemeRepository.findByUids(requested);
+        UUID clientUid = SecurityUtils.getCurrentClientUid();
+
+        if (schemesBlm.size() < requested.size()) {
+            schemesBlm.forEach(scheme -> requested.remove(scheme.getUid()));
+            throw new ConnectionSchemeNotFoundException(
+                    "Scheme with UID " + requested.iterator().next() + " not found");
         }
-        return new ArrayList<ConnectionSchemeBlm>(connectionSchemeBlms);
+        for (ConnectionSchemeBlm schemeBlm : schemesBlm) {
+            if (!clientUid.equals(schemeBlm.getClientUid())) {
+                throw new SecurityException("Scheme doesn't belong to the authenticated client");
+            }
+        }
+
+        return new ArrayList<>(schemesBlm);
     }
 
     @Override
@@ -109,6 +126,11 @@ public class ConnectionSchemeServiceImpl implements ConnectionSchemeService {
 
         schemeRepository.update(schemeBlm);
 
+        // Маршруты меняются как у старых, так и у новых буферов-источников
+        Set<UUID> affectedBuffers = sourceBuffers(existingScheme);
+        affectedBuffers.addAll(sourceBuffers(schemeBlm));
+        publishSchemeChanged(schemeUid, affectedBuffers);
+
         log.info("Connection scheme updated: {} for client: {}", schemeUid, clientUid);
         return schemeBlm;
     }
@@ -123,6 +145,7 @@ public class ConnectionSchemeServiceImpl implements ConnectionSchemeService {
         }
 
         schemeRepository.delete(schemeUid);
+        publishSchemeChanged(schemeUid, sourceBuffers(existingScheme));
         log.info("Connection scheme deleted: {} for client: {}", schemeUid, clientUid);
     }
 
@@ -169,4 +192,20 @@ public class ConnectionSchemeServiceImpl implements ConnectionSchemeService {
         return new ArrayList<ConnectionSchemeBlm>(connectionSchemeBlms);
 
     }
-}
\ No newline at end of file
+
+    private void publishSchemeChanged(UUID schemeUid, Set<UUID> affectedBuffers) {
+        eventPublisher.publishEvent(
+                new ConnectionSchemeChangedEvent(schemeUid, Set.copyOf(affectedBuffers)));
+    }
+
+    private static Set<UUID> sourceBuffers(ConnectionSchemeBlm schemeBlm) {
+        Set<UUID> buffers = new LinkedHashSet<>();
+        if (schemeBlm.getBufferTransitions() != null) {
+            buffers.addAll(schemeBlm.getBufferTransitions().keySet());
+        }
+        if (schemeBlm.getUsedBuffers() != null) {
+            buffers.addAll(schemeBlm.getUsedBuffers());
+        }
+        return buffers;
+    }
+}
@@ -4,8 +4,10 @@ package com.service.connectionscheme.config;
 import com.atomikos.jdbc.AtomikosDataSourceBean;
 import java.util.Properties;
 import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -52,4 +54,18 @@ public class ConnectionSchemeJdbcConfig {
             @Qualifier("ConnectionSchemeDataSource") DataSource connectionSchemeDataSource) {
         return new NamedParameterJdbcTemplate(connectionSchemeDataSource);
     }
+
+    // Миграции connection-scheme-shared: индексы схем и связей схема-буфер
+    @Bean(name = "ConnectionSchemeSchemaMigration", initMethod = "migrate")
+    @ConditionalOnProperty(name = "app.schema.migration.enabled", havingValue = "true",
+            matchIfMissing = true)
+    Flyway connectionSchemeSchemaMigration() {
+        return Flyway.configure()
+                .dataSource(jdbcUrl, username, password)
+                .locations("classpath:db/migration/connection-scheme")
+                .table("connection_scheme_schema_history")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
 }
@@ -0,0 +1,20 @@
+package com.service.connectionscheme.event;
+
+import java.util.Set;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Внутрипроцессное событие об изменении схемы подключения.
+ * Содержит буферы-источники, маршруты которых могли измениться
+ * (до и после изменения схемы).
+ */
+@Getter
+@AllArgsConstructor
+public class ConnectionSchemeChangedEvent {
+
+    private final UUID schemeUid;
+
+    private final Set<UUID> affectedBuffers;
+}
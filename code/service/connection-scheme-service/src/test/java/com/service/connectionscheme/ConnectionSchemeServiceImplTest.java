@@ -33,6 +33,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -44,6 +45,7 @@ import com.connection.scheme.model.ConnectionSchemeBlm;
 import com.connection.scheme.repository.ConnectionSchemeRepository;
 import com.connection.scheme.validator.ConnectionSchemeValidator;
 import com.connection.service.auth.AuthService;
+import com.service.connectionscheme.event.ConnectionSchemeChangedEvent;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Connection Scheme Service Implementation Tests - Kafka Version")
@@ -61,6 +63,9 @@ class ApiConnectionSchemeServiceImplTest {
     @Mock
     private AuthService authClient;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -160,6 +165,46 @@ class ApiConnectionSchemeServiceImplTest {
         verify(schemeRepository).findByUid(SCHEME_UUID);
     }
 
+    @Test
+    @DisplayName("Get schemes by UID list - Positive: one repository lookup")
+    void shouldGetSchemesByUidListInOneLookup() {
+        // Arrange
+        ConnectionSchemeBlm schemeBlm = createValidSchemeBlm();
+
+        setupAuthentication(CLIENT_UUID);
+        when(schemeRepository.findByUids(any())).thenReturn(List.of(schemeBlm));
+
+        // Act
+        List<ConnectionSchemeBlm> result =
+                connectionSchemeService.getSchemeByUid(List.of(SCHEME_UUID, SCHEME_UUID));
+
+        // Assert
+        assertThat(result).containsExactly(schemeBlm);
+        verify(schemeRepository, never()).findByUid(any());
+    }
+
+    @Test
+    @DisplayName("Get schemes by UID list - Negative: one scheme doesn't belong to client")
+    void shouldThrowExceptionWhenAnySchemeNotBelongsToClient() {
+        // Arrange
+        ConnectionSchemeBlm foreignScheme = ConnectionSchemeBlm.builder()
+            .uid(UUID.randomUUID())
+            .clientUid(UUID.randomUUID())
+            .schemeJson(SCHEME_JSON)
+            .usedBuffers(Arrays.asList(BUFFER_UUID_1))
+            .build();
+
+        setupAuthentication(CLIENT_UUID);
+        when(schemeRepository.findByUids(any()))
+            .thenReturn(List.of(createValidSchemeBlm(), foreignScheme));
+
+        // Act & Assert
+        assertThatThrownBy(() -> connectionSchemeService.getSchemeByUid(
+                List.of(SCHEME_UUID, foreignScheme.getUid())))
+            .isInstanceOf(SecurityException.class)
+            .hasMessageContaining("doesn't belong");
+    }
+
     @Test
     @DisplayName("Get schemes by client - Positive")
     void shouldGetSchemesByClientWhenValidRequest() {
@@ -277,6 +322,7 @@ class ApiConnectionSchemeServiceImplTest {
 
         // Assert
         verify(schemeRepository).delete(SCHEME_UUID);
+        verify(eventPublisher).publishEvent(any(ConnectionSchemeChangedEvent.class));
     }
 
     @Test
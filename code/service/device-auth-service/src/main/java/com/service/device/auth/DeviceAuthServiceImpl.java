@@ -1,6 +1,7 @@
 
 package com.service.device.auth;
 
+import com.connection.device.token.exception.DeviceAccessTokenValidateException;
 import com.connection.device.token.generator.DeviceAccessTokenGenerator;
 import com.connection.device.token.generator.DeviceTokenGenerator;
 import com.connection.device.token.model.DeviceAccessTokenBlm;
@@ -10,6 +11,7 @@ import com.connection.device.token.repository.DeviceTokenRepository;
 import com.connection.device.token.validator.DeviceAccessTokenValidator;
 import com.connection.device.token.validator.DeviceTokenValidator;
 import com.connection.service.auth.AuthService;
+import com.service.device.auth.revocation.DeviceTokenRevocationList;
 import java.time.Duration;
 import java.util.Date;
 import java.util.Map;
@@ -43,6 +45,8 @@ public class DeviceAuthServiceImpl implements DeviceAuthService {
     private final DeviceTokenRepository deviceTokenRepository;
     private final DeviceAccessTokenRepository deviceAccessTokenRepository;
 
+    private final DeviceTokenRevocationList revocationList;
+
     @Qualifier("deviceTokenDuration")
     private final Duration deviceTokenDuration;
     @Qualifier("deviceAccessTokenDuration")
@@ -134,14 +138,6 @@ public class DeviceAuthServiceImpl implements DeviceAuthService {
 
         deviceTokenValidator.validate(deviceToken);
 
-        // Проверяем, нет ли активного access token
-        if (deviceAccessTokenRepository
-                .hasDeviceAccessToken(deviceToken.getUid())) {
-            throw new com.connection.device.token.exception.DeviceAccessTokenExistsException(
-                    "Active device access token already exists for device token: "
-                            + deviceToken.getUid());
-        }
-
         Date createdAt = new Date();
         Date expiresAt = Date
                 .from(createdAt.toInstant().plus(deviceAccessTokenDuration));
@@ -150,16 +146,19 @@ public class DeviceAuthServiceImpl implements DeviceAuthService {
         // Генерируем access token
         String accessTokenString =
                 deviceAccessTokenGenerator.generateDeviceAccessToken(
-                        deviceToken.getUid(), createdAt, expiresAt);
+                        deviceToken.getUid(), deviceToken.getDeviceUid(),
+                        accessTokenUid, createdAt, expiresAt);
 
         DeviceAccessTokenBlm deviceAccessTokenBlm = DeviceAccessTokenBlm
                 .builder().token(accessTokenString).uid(accessTokenUid)
-                .deviceTokenUid(deviceToken.getUid()).createdAt(createdAt)
+                .deviceTokenUid(deviceToken.getUid())
+                .deviceUid(deviceToken.getDeviceUid()).createdAt(createdAt)
                 .expiresAt(expiresAt).build();
 
         deviceAccessTokenValidator.validate(deviceAccessTokenBlm);
 
-        // Сохраняем в БД
+        // Сохраняем в БД; при активном access token репозиторий бросает
+        // DeviceAccessTokenExistsException
 
         deviceAccessTokenRepository.add(deviceAccessTokenBlm);
 
@@ -181,22 +180,35 @@ public class DeviceAuthServiceImpl implements DeviceAuthService {
         // Отзываем старый токен
         // DeviceAccessTokenBlm oldAccessTokenBlm =
 
-        deviceAccessTokenRepository.revoke(deviceAccessToken.getUid());
+        // uid старого токена берется из claim; токены без него ищутся по строке
+        UUID oldAccessTokenUid = deviceAccessToken.getUid() != null
+                ? deviceAccessToken.getUid()
+                : deviceAccessTokenRepository
+                        .findByToken(deviceAccessToken.getToken()).getUid();
+        deviceAccessTokenRepository.revoke(oldAccessTokenUid);
 
         Date createdAt = new Date();
         Date expiresAt = Date
                 .from(createdAt.toInstant().plus(deviceAccessTokenDuration));
         UUID newAccessTokenUid = UUID.randomUUID();
 
+        // Токены, выданные до claim deviceUid, получают устройство из БД
+        UUID deviceUid = deviceAccessToken.getDeviceUid() != null
+                ? deviceAccessToken.getDeviceUid()
+                : deviceTokenRepository
+                        .findByUid(deviceAccessToken.getDeviceTokenUid())
+                        .getDeviceUid();
+
         // Генерируем новый access token
         String newAccessTokenString =
                 deviceAccessTokenGenerator.generateDeviceAccessToken(
-                        deviceAccessToken.getDeviceTokenUid(), createdAt,
-                        expiresAt);
+                        deviceAccessToken.getDeviceTokenUid(), deviceUid,
+                        newAccessTokenUid, createdAt, expiresAt);
 
         DeviceAccessTokenBlm newDeviceAccessTokenBlm = DeviceAccessTokenBlm
                 .builder().token(newAccessTokenString).uid(newAccessTokenUid)
                 .deviceTokenUid(deviceAccessToken.getDeviceTokenUid())
+                .deviceUid(deviceUid)
                 .createdAt(createdAt).expiresAt(expiresAt).build();
 
         deviceAccessTokenValidator.validate(newDeviceAccessTokenBlm);
@@ -214,8 +226,13 @@ public class DeviceAuthServiceImpl implements DeviceAuthService {
             DeviceAccessTokenBlm deviceAccessToken) {
         log.info("Validating device access token: {}",
                 deviceAccessToken.getUid());
-        // Только JWT валидация, без проверки в БД
+        // JWT и локальный список отзывов, без обращения к БД
         deviceAccessTokenValidator.validate(deviceAccessToken);
+        if (revocationList.isRevoked(deviceAccessToken)) {
+            throw new DeviceAccessTokenValidateException(
+                    String.valueOf(deviceAccessToken.getUid()),
+                    "Device access token is revoked");
+        }
         return deviceAccessToken;
     }
     
@@ -6,6 +6,7 @@ import com.connection.device.token.generator.DeviceAccessTokenGenerator;
 import com.connection.device.token.validator.DeviceAccessTokenValidator;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,9 +22,10 @@ public class DeviceAccessTokenUtilsConfig {
     @Bean
     DeviceAccessTokenGenerator deviceAccessTokenGenerator(
             SecretKey jwtSecretKey, @Qualifier("appName") String appNameString,
-            @Qualifier("deviceJwtSubject") String subjectString) {
+            @Qualifier("deviceJwtSubject") String subjectString,
+            @Value("${app.jwt.verified-cache-size:100000}") int verifiedCacheSize) {
         return new DeviceAccessTokenGenerator(jwtSecretKey, appNameString,
-                subjectString);
+                subjectString, verifiedCacheSize);
     }
 
     @Bean
@@ -4,8 +4,10 @@ package com.service.device.auth.config;
 import com.atomikos.jdbc.AtomikosDataSourceBean;
 import java.util.Properties;
 import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -73,6 +75,20 @@ public class DeviceAuthDatabaseConfig {
         return new NamedParameterJdbcTemplate(dataSource);
     }
 
+    // Миграции device-token-shared (обе таблицы токенов устройств)
+    @Bean(name = "deviceTokenSchemaMigration", initMethod = "migrate")
+    @ConditionalOnProperty(name = "app.schema.migration.enabled", havingValue = "true",
+            matchIfMissing = true)
+    Flyway deviceTokenSchemaMigration() {
+        return Flyway.configure()
+                .dataSource(deviceTokenJdbcUrl, deviceTokenUsername, deviceTokenPassword)
+                .locations("classpath:db/migration/device-token")
+                .table("device_token_schema_history")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+
     private DataSource createDataSource(String uniqueResourceName,
             String xaDataSourceClassName, String url, String username,
             String password) {
@@ -0,0 +1,10 @@
+package com.service.device.auth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Периодические задачи device-auth-service (удаление истекших токенов). */
+@Configuration
+@EnableScheduling
+public class DeviceAuthSchedulingConfig {
+}
@@ -6,7 +6,6 @@ import com.connection.device.token.model.DeviceAccessTokenBlm;
 import com.connection.device.token.model.DeviceAccessTokenDto;
 import com.connection.device.token.model.DeviceTokenBlm;
 import com.connection.device.token.model.DeviceTokenDto;
-import com.connection.device.token.util.TokenUtils;
 import com.service.device.auth.DeviceAuthService;
 import java.util.List;
 import java.util.UUID;
@@ -117,8 +116,7 @@ public class DeviceAuthController {
 
         return ResponseEntity.ok(new DeviceAccessTokenResponse(
                 newAccessToken.getToken(), newAccessToken.getExpiresAt(),
-                TokenUtils.extractDeviceUidFromDeviceToken(
-                        newAccessToken.getToken())));
+                newAccessToken.getDeviceUid()));
     }
 
     /** . */
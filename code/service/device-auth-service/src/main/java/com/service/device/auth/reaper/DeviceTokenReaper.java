@@ -0,0 +1,60 @@
+package com.service.device.auth.reaper;
+
+import com.connection.device.token.repository.DeviceAccessTokenRepository;
+import com.connection.device.token.repository.DeviceTokenRepository;
+import com.connection.service.auth.reaper.ChunkedTableReaper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Расписания очистки таблиц device-auth-service. Access-токены живут
+ * минуты и чистятся чаще всего; токен устройства удаляется только после
+ * истечения всех выданных по нему access-токенов; записи журнала отзывов
+ * нужны, пока отозванный токен мог бы пройти проверку подписи.
+ */
+@Component
+@ConditionalOnProperty(name = "app.token.reaper.enabled", havingValue = "true")
+public class DeviceTokenReaper {
+
+    private final ChunkedTableReaper deviceTokens;
+    private final ChunkedTableReaper deviceAccessTokens;
+    private final ChunkedTableReaper revocations;
+
+    /** . */
+    public DeviceTokenReaper(DeviceTokenRepository deviceTokenRepository,
+            DeviceAccessTokenRepository deviceAccessTokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.token.reaper.chunk-size:1000}") int chunkSize,
+            @Value("${app.token.reaper.pause-ms:50}") long pauseMillis) {
+        this.deviceTokens = new ChunkedTableReaper("device_token",
+                deviceTokenRepository::deleteExpiredChunk, chunkSize, pauseMillis,
+                meterRegistry);
+        this.deviceAccessTokens = new ChunkedTableReaper("device_access_token",
+                deviceAccessTokenRepository::deleteExpiredChunk, chunkSize, pauseMillis,
+                meterRegistry);
+        this.revocations = new ChunkedTableReaper("device_token_revocation",
+                deviceTokenRepository::deleteExpiredRevocationsChunk, chunkSize,
+                pauseMillis, meterRegistry);
+    }
+
+    /** Удалить истекшие токены устройств без действующих access-токенов. */
+    @Scheduled(fixedDelayString = "${app.token.reaper.device-token.interval-ms:3600000}")
+    public void reapDeviceTokens() {
+        deviceTokens.reap();
+    }
+
+    /** Удалить истекшие access-токены устройств. */
+    @Scheduled(fixedDelayString = "${app.token.reaper.device-access-token.interval-ms:300000}")
+    public void reapDeviceAccessTokens() {
+        deviceAccessTokens.reap();
+    }
+
+    /** Удалить записи журнала отзывов об истекших токенах. */
+    @Scheduled(fixedDelayString = "${app.token.reaper.device-token-revocation.interval-ms:600000}")
+    public void reapRevocations() {
+        revocations.reap();
+    }
+}
@@ -0,0 +1,51 @@
+package com.service.device.auth.revocation;
+
+import com.connection.device.token.model.DeviceAccessTokenBlm;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Отозванные, но еще не истекшие токены устройств: access-токены по uid
+ * и токены устройства, чьи access-токены больше не действуют. Проверка -
+ * два поиска в памяти; список наполняет
+ * {@link DeviceTokenRevocationListener} из журнала отзывов в БД.
+ * Запись хранится до истечения отозванного токена (мс эпохи).
+ */
+@Component
+public class DeviceTokenRevocationList {
+
+    private final Map<UUID, Long> accessTokens = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> deviceTokens = new ConcurrentHashMap<>();
+
+    /** Токен или выдавший его токен устройства отозван. */
+    public boolean isRevoked(DeviceAccessTokenBlm deviceAccessToken) {
+        UUID uid = deviceAccessToken.getUid();
+        UUID deviceTokenUid = deviceAccessToken.getDeviceTokenUid();
+        return uid != null && accessTokens.containsKey(uid)
+                || deviceTokenUid != null
+                        && deviceTokens.containsKey(deviceTokenUid);
+    }
+
+    /** Запомнить отзыв access-токена. */
+    public void revokeAccessToken(UUID uid, long expiresAt) {
+        accessTokens.merge(uid, expiresAt, Math::max);
+    }
+
+    /** Запомнить отзыв токена устройства. */
+    public void revokeDeviceToken(UUID deviceTokenUid, long expiresAt) {
+        deviceTokens.merge(deviceTokenUid, expiresAt, Math::max);
+    }
+
+    /** Забыть токены, истекшие к моменту now. */
+    public void removeExpired(long now) {
+        accessTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        deviceTokens.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    /** Количество записей об отозванных токенах. */
+    public int size() {
+        return accessTokens.size() + deviceTokens.size();
+    }
+}
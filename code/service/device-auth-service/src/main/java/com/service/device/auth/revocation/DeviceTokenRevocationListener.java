@@ -0,0 +1,223 @@
+package com.service.device.auth.revocation;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Поддерживает {@link DeviceTokenRevocationList} в актуальном состоянии.
+ * При старте загружает действующие отзывы, затем держит отдельное
+ * соединение с LISTEN и дочитывает журнал по каждому уведомлению, а при
+ * отсутствии уведомлений - раз в poll-interval. Без LISTEN (соединение
+ * потеряно) журнал только опрашивается, пока соединение не восстановится.
+ *
+ * <p>Дочитываются записи с revoked_at позже последней прочитанной минус
+ * lookback: запись транзакции, зафиксированной позже более новой, не
+ * теряется, если транзакция длилась меньше lookback.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.device-token.revocation.listener.enabled",
+        havingValue = "true", matchIfMissing = true)
+public class DeviceTokenRevocationListener implements SmartLifecycle {
+
+    static final String CHANNEL = "device_token_revocation";
+
+    private static final String SELECT_REVOCATION =
+            "SELECT device_access_token_uid, device_token_uid, revoked_at, expires_at"
+                    + " FROM access.device_token_revocation";
+    private static final String SELECT_ACTIVE_REVOCATIONS =
+            SELECT_REVOCATION + " WHERE expires_at > NOW()";
+    private static final String SELECT_REVOCATIONS_SINCE =
+            SELECT_REVOCATION + " WHERE revoked_at > :since AND expires_at > NOW()";
+    private static final String SELECT_NOW = "SELECT clock_timestamp()";
+
+    private static final long RECONNECT_DELAY_MS = 30_000;
+    private static final long PRUNE_INTERVAL_MS = 60_000;
+
+    private final DeviceTokenRevocationList revocationList;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long pollIntervalMs;
+    private final long lookbackMs;
+
+    private final RowMapper<Revocation> revocationRowMapper = (rs, rowNum) ->
+            new Revocation(rs.getObject("device_access_token_uid", UUID.class),
+                    rs.getObject("device_token_uid", UUID.class),
+                    rs.getTimestamp("revoked_at"),
+                    rs.getTimestamp("expires_at").getTime());
+
+    // Читается и пишется только потоком слушателя после start()
+    private Timestamp cursor;
+    private long prunedAt;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /** . */
+    public DeviceTokenRevocationListener(DeviceTokenRevocationList revocationList,
+            @Qualifier("deviceTokenJdbcTemplate") NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${app.datasource.device-token.xa-properties.url}") String url,
+            @Value("${app.datasource.device-token.xa-properties.user}") String username,
+            @Value("${app.datasource.device-token.xa-properties.password}") String password,
+            @Value("${app.device-token.revocation.poll-interval-ms:500}") long pollIntervalMs,
+            @Value("${app.device-token.revocation.lookback-ms:10000}") long lookbackMs) {
+        if (pollIntervalMs < 1 || lookbackMs < 0) {
+            throw new IllegalArgumentException("Invalid revocation polling settings");
+        }
+        this.revocationList = revocationList;
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollIntervalMs = pollIntervalMs;
+        this.lookbackMs = lookbackMs;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        // Загрузка до приема запросов; при недоступной БД ее повторит поток
+        refreshQuietly();
+        worker = new Thread(this::run, "device-token-revocation-listener");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Дочитать журнал отзывов; первый вызов загружает все действующие. */
+    void refresh() {
+        List<Revocation> revocations;
+        Timestamp next;
+        if (cursor == null) {
+            next = jdbcTemplate.getJdbcTemplate().queryForObject(SELECT_NOW,
+                    Timestamp.class);
+            revocations = jdbcTemplate.query(SELECT_ACTIVE_REVOCATIONS,
+                    revocationRowMapper);
+        } else {
+            next = cursor;
+            revocations = jdbcTemplate.query(SELECT_REVOCATIONS_SINCE,
+                    new MapSqlParameterSource("since",
+                            new Timestamp(cursor.getTime() - lookbackMs)),
+                    revocationRowMapper);
+        }
+
+        for (Revocation revocation : revocations) {
+            if (revocation.accessTokenUid != null) {
+                revocationList.revokeAccessToken(revocation.accessTokenUid,
+                        revocation.expiresAt);
+            }
+            if (revocation.deviceTokenUid != null) {
+                revocationList.revokeDeviceToken(revocation.deviceTokenUid,
+                        revocation.expiresAt);
+            }
+            if (revocation.revokedAt.after(next)) {
+                next = revocation.revokedAt;
+            }
+        }
+        if (cursor == null) {
+            log.info("Loaded {} device token revocations", revocations.size());
+        }
+        cursor = next;
+
+        long now = System.currentTimeMillis();
+        if (now - prunedAt >= PRUNE_INTERVAL_MS) {
+            revocationList.removeExpired(now);
+            prunedAt = now;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection =
+                    DriverManager.getConnection(url, username, password);
+                    Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection listener = connection.unwrap(PGConnection.class);
+                log.info("Listening for device token revocations");
+                // Отзывы, пропущенные без соединения
+                refreshQuietly();
+                while (running) {
+                    // Возврат по уведомлению или по таймауту - тогда это опрос
+                    listener.getNotifications((int) pollIntervalMs);
+                    refreshQuietly();
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("LISTEN {} unavailable, polling every {} ms: {}",
+                        CHANNEL, pollIntervalMs, e.getMessage());
+                poll(System.currentTimeMillis() + RECONNECT_DELAY_MS);
+            }
+        }
+    }
+
+    private void poll(long until) {
+        while (running && System.currentTimeMillis() < until) {
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            refreshQuietly();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            log.warn("Device token revocations refresh failed: {}",
+                    e.getMessage());
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Revocation {
+
+        private final UUID accessTokenUid;
+
+        private final UUID deviceTokenUid;
+
+        private final Timestamp revokedAt;
+
+        private final long expiresAt;
+    }
+}
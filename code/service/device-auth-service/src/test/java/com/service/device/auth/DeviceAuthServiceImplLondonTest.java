@@ -6,6 +6,7 @@ import static com.service.device.auth.mother.DeviceTokenObjectMother.createValid
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -28,6 +29,7 @@ import org.springframework.data.util.Pair;
 import com.connection.device.token.converter.DeviceAccessTokenConverter;
 import com.connection.device.token.converter.DeviceTokenConverter;
 import com.connection.device.token.exception.DeviceAccessTokenExistsException;
+import com.connection.device.token.exception.DeviceAccessTokenValidateException;
 import com.connection.device.token.exception.DeviceTokenAlreadyExistsException;
 import com.connection.device.token.exception.DeviceTokenNotFoundException;
 import com.connection.device.token.generator.DeviceAccessTokenGenerator;
@@ -39,6 +41,7 @@ import com.connection.device.token.repository.DeviceTokenRepository;
 import com.connection.device.token.validator.DeviceAccessTokenValidator;
 import com.connection.device.token.validator.DeviceTokenValidator;
 import com.connection.service.auth.AuthService;
+import com.service.device.auth.revocation.DeviceTokenRevocationList;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Device Auth Service Implementation Tests - London Style")
@@ -71,6 +74,9 @@ class DeviceAuthServiceImplLondonTest {
     @Mock
     private AuthService authClient;
 
+    @Mock
+    private DeviceTokenRevocationList revocationList;
+
     private Duration deviceTokenDuration = Duration.ofSeconds(2592000); // 30 days
     private Duration deviceAccessTokenDuration = Duration.ofSeconds(3600); // 1 hour
 
@@ -164,8 +170,7 @@ class DeviceAuthServiceImplLondonTest {
         String generatedAccessToken = "generated.access.jwt.token";
         DeviceAccessTokenBlm deviceAccessTokenBlm = createValidDeviceAccessTokenBlm();
 
-        when(deviceAccessTokenRepository.hasDeviceAccessToken(deviceToken.getUid())).thenReturn(false);
-        when(deviceAccessTokenGenerator.generateDeviceAccessToken(any(UUID.class), any(Date.class), any(Date.class)))
+        when(deviceAccessTokenGenerator.generateDeviceAccessToken(any(UUID.class), any(UUID.class), any(UUID.class), any(Date.class), any(Date.class)))
             .thenReturn(generatedAccessToken);
 
         // Act
@@ -185,13 +190,16 @@ class DeviceAuthServiceImplLondonTest {
         // Arrange
         DeviceTokenBlm deviceToken = createValidDeviceTokenBlm();
 
-        when(deviceAccessTokenRepository.hasDeviceAccessToken(deviceToken.getUid())).thenReturn(true);
+        when(deviceAccessTokenGenerator.generateDeviceAccessToken(any(UUID.class), any(UUID.class), any(UUID.class), any(Date.class), any(Date.class)))
+            .thenReturn("generated.access.jwt.token");
+        doThrow(new DeviceAccessTokenExistsException("exists"))
+            .when(deviceAccessTokenRepository).add(any(DeviceAccessTokenBlm.class));
 
         // Act & Assert
         assertThatThrownBy(() -> deviceAuthService.createDeviceAccessToken(deviceToken))
             .isInstanceOf(DeviceAccessTokenExistsException.class);
         verify(deviceTokenValidator).validate(deviceToken);
-        verify(deviceAccessTokenRepository, never()).add(any());
+        verify(deviceAccessTokenRepository, never()).hasDeviceAccessToken(any());
     }
 
     @Test
@@ -202,7 +210,7 @@ class DeviceAuthServiceImplLondonTest {
         String newGeneratedToken = "new.generated.access.token";
         DeviceAccessTokenBlm newAccessTokenBlm = createValidDeviceAccessTokenBlm();
 
-        when(deviceAccessTokenGenerator.generateDeviceAccessToken(any(UUID.class), any(Date.class), any(Date.class)))
+        when(deviceAccessTokenGenerator.generateDeviceAccessToken(any(UUID.class), any(UUID.class), any(UUID.class), any(Date.class), any(Date.class)))
             .thenReturn(newGeneratedToken);
 
         // Act
@@ -216,6 +224,28 @@ class DeviceAuthServiceImplLondonTest {
         verify(deviceAccessTokenRepository).revoke(oldAccessToken.getUid());
     }
 
+    @Test
+    @DisplayName("Refresh device access token without device uid - Positive")
+    void shouldResolveDeviceUidWhenRefreshingLegacyToken() {
+        // Arrange
+        DeviceAccessTokenBlm oldAccessToken = createValidDeviceAccessTokenBlm();
+        oldAccessToken.setDeviceUid(null);
+        DeviceTokenBlm deviceToken = createValidDeviceTokenBlm();
+
+        when(deviceTokenRepository.findByUid(oldAccessToken.getDeviceTokenUid()))
+            .thenReturn(deviceToken);
+        when(deviceAccessTokenGenerator.generateDeviceAccessToken(any(UUID.class), any(UUID.class), any(UUID.class), any(Date.class), any(Date.class)))
+            .thenReturn("new.generated.access.token");
+
+        // Act
+        DeviceAccessTokenBlm result = deviceAuthService.refreshDeviceAccessToken(oldAccessToken);
+
+        // Assert
+        assertThat(result.getDeviceUid()).isEqualTo(deviceToken.getDeviceUid());
+        verify(deviceAccessTokenGenerator).generateDeviceAccessToken(
+            eq(oldAccessToken.getDeviceTokenUid()), eq(deviceToken.getDeviceUid()), any(UUID.class), any(Date.class), any(Date.class));
+    }
+
     @Test
     @DisplayName("Validate device access token - Positive")
     void shouldValidateDeviceAccessTokenWhenValid() {
@@ -229,6 +259,18 @@ class DeviceAuthServiceImplLondonTest {
         verify(deviceAccessTokenValidator).validate(deviceAccessToken);
     }
 
+    @Test
+    @DisplayName("Validate device access token - Negative: Revoked token")
+    void shouldThrowExceptionWhenDeviceAccessTokenRevoked() {
+        // Arrange
+        DeviceAccessTokenBlm revokedToken = createValidDeviceAccessTokenBlm();
+        when(revocationList.isRevoked(revokedToken)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> deviceAuthService.validateDeviceAccessToken(revokedToken))
+            .isInstanceOf(DeviceAccessTokenValidateException.class);
+    }
+
     @Test
     @DisplayName("Validate device access token - Negative: Invalid token")
     void shouldThrowExceptionWhenDeviceAccessTokenInvalid() {
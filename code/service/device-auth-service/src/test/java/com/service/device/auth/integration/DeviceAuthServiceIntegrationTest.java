@@ -3,6 +3,7 @@ package com.service.device.auth.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import com.connection.device.token.exception.DeviceAccessTokenValidateException;
 import com.connection.device.token.model.DeviceAccessTokenBlm;
 import com.connection.device.token.model.DeviceTokenBlm;
 import com.connection.service.auth.AuthService;
@@ -176,6 +177,34 @@ public class DeviceAuthServiceIntegrationTest extends BaseDeviceAuthIntegrationT
         log.info("Successfully refreshed device access token for device: {}", testDeviceUid);
     }
 
+    @Test
+    @Order(6)
+    @DisplayName("Should reject refreshed device access token within a second")
+    void shouldRejectRefreshedDeviceAccessToken() {
+        // Given
+        setupAuthentication();
+        DeviceTokenBlm deviceToken = deviceAuthService.createDeviceToken(testDeviceUid);
+        DeviceAccessTokenBlm originalAccessToken =
+                deviceAuthService.createDeviceAccessToken(deviceToken).getFirst();
+        deviceAuthService.validateDeviceAccessToken(originalAccessToken.getToken());
+
+        // When
+        deviceAuthService.refreshDeviceAccessToken(originalAccessToken);
+
+        // Then - отзыв доходит до списка через NOTIFY или опрос журнала
+        long deadline = System.currentTimeMillis() + 1000;
+        boolean rejected = false;
+        while (!rejected && System.currentTimeMillis() < deadline) {
+            try {
+                deviceAuthService.validateDeviceAccessToken(originalAccessToken.getToken());
+                sleep(50);
+            } catch (DeviceAccessTokenValidateException e) {
+                rejected = true;
+            }
+        }
+        assertThat(rejected).isTrue();
+    }
+
     @Test
     @Order(7)
     @DisplayName("Should validate device access token successfully")
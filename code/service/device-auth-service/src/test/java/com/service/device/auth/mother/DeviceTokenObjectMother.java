@@ -64,6 +64,7 @@ public class DeviceTokenObjectMother {
         return DeviceAccessTokenBlm.builder()
                 .token(VALID_DEVICE_ACCESS_TOKEN_STRING)
                 .uid(DEVICE_ACCESS_TOKEN_UID).deviceTokenUid(DEVICE_TOKEN_UID)
+                .deviceUid(DEVICE_UID)
                 .createdAt(createdAt).expiresAt(expiresAt).build();
     }
 
@@ -86,6 +87,7 @@ public class DeviceTokenObjectMother {
         return DeviceAccessTokenBlm.builder()
                 .token("expired.device.access.token")
                 .uid(DEVICE_ACCESS_TOKEN_UID).deviceTokenUid(DEVICE_TOKEN_UID)
+                .deviceUid(DEVICE_UID)
                 .createdAt(createdAt).expiresAt(expiresAt).build();
     }
 }
@@ -0,0 +1,86 @@
+package com.service.device.auth.reaper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.connection.device.token.repository.DeviceAccessTokenRepository;
+import com.connection.device.token.repository.DeviceTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Device Token Reaper Tests")
+class DeviceTokenReaperTest {
+
+    @Mock
+    private DeviceTokenRepository deviceTokenRepository;
+
+    @Mock
+    private DeviceAccessTokenRepository deviceAccessTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeviceTokenReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reaper = new DeviceTokenReaper(deviceTokenRepository, deviceAccessTokenRepository,
+                meterRegistry, 10, 0);
+    }
+
+    private double deleted(String table) {
+        return meterRegistry.get("token.reaper.deleted").tag("table", table)
+                .counter().count();
+    }
+
+    @Test
+    @DisplayName("Expired access tokens are deleted in chunks until a partial chunk")
+    void shouldDeleteInChunks() {
+        when(deviceAccessTokenRepository.deleteExpiredChunk(10)).thenReturn(10, 10, 4);
+
+        reaper.reapDeviceAccessTokens();
+
+        verify(deviceAccessTokenRepository, times(3)).deleteExpiredChunk(10);
+        verify(deviceTokenRepository, never()).deleteExpiredChunk(10);
+        assertThat(deleted("device_access_token")).isEqualTo(24);
+        assertThat(deleted("device_token")).isZero();
+        assertThat(meterRegistry.get("token.reaper.sweep").tag("table", "device_access_token")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Each table is reaped by its own schedule")
+    void shouldReapTablesSeparately() {
+        when(deviceTokenRepository.deleteExpiredChunk(10)).thenReturn(2);
+        when(deviceTokenRepository.deleteExpiredRevocationsChunk(10)).thenReturn(0);
+
+        reaper.reapDeviceTokens();
+        reaper.reapRevocations();
+
+        verify(deviceAccessTokenRepository, never()).deleteExpiredChunk(10);
+        assertThat(deleted("device_token")).isEqualTo(2);
+        assertThat(deleted("device_token_revocation")).isZero();
+    }
+
+    @Test
+    @DisplayName("Rows deleted before a failure are still counted - Negative")
+    void shouldCountChunksBeforeFailure() {
+        when(deviceAccessTokenRepository.deleteExpiredChunk(10))
+                .thenReturn(10)
+                .thenThrow(new IllegalStateException("lock timeout"));
+
+        reaper.reapDeviceAccessTokens();
+
+        assertThat(deleted("device_access_token")).isEqualTo(10);
+        assertThat(meterRegistry.get("token.reaper.failed").tag("table", "device_access_token")
+                .counter().count()).isEqualTo(1);
+    }
+}
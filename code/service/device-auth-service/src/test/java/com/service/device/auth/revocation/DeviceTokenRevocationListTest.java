@@ -0,0 +1,55 @@
+package com.service.device.auth.revocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.connection.device.token.model.DeviceAccessTokenBlm;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Device Token Revocation List Tests")
+class DeviceTokenRevocationListTest {
+
+    private final DeviceTokenRevocationList revocationList = new DeviceTokenRevocationList();
+
+    private static DeviceAccessTokenBlm token(UUID uid, UUID deviceTokenUid) {
+        return DeviceAccessTokenBlm.builder().uid(uid).deviceTokenUid(deviceTokenUid).build();
+    }
+
+    @Test
+    @DisplayName("Revoked access token is rejected by uid")
+    void shouldRejectRevokedAccessToken() {
+        UUID uid = UUID.randomUUID();
+        UUID deviceTokenUid = UUID.randomUUID();
+        revocationList.revokeAccessToken(uid, System.currentTimeMillis() + 60_000);
+
+        assertThat(revocationList.isRevoked(token(uid, deviceTokenUid))).isTrue();
+        assertThat(revocationList.isRevoked(token(UUID.randomUUID(), deviceTokenUid))).isFalse();
+        assertThat(revocationList.isRevoked(token(null, deviceTokenUid))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Every access token of a revoked device token is rejected")
+    void shouldRejectTokensOfRevokedDeviceToken() {
+        UUID deviceTokenUid = UUID.randomUUID();
+        revocationList.revokeDeviceToken(deviceTokenUid, System.currentTimeMillis() + 60_000);
+
+        assertThat(revocationList.isRevoked(token(UUID.randomUUID(), deviceTokenUid))).isTrue();
+        assertThat(revocationList.isRevoked(token(null, deviceTokenUid))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Expired revocations are forgotten")
+    void shouldRemoveExpiredRevocations() {
+        long now = System.currentTimeMillis();
+        UUID expired = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        revocationList.revokeAccessToken(expired, now - 1);
+        revocationList.revokeDeviceToken(active, now + 60_000);
+
+        revocationList.removeExpired(now);
+
+        assertThat(revocationList.size()).isEqualTo(1);
+        assertThat(revocationList.isRevoked(token(expired, null))).isFalse();
+    }
+}
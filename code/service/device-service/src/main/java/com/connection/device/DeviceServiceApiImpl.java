@@ -1,6 +1,7 @@
 package com.connection.device;
 
 import com.connection.device.config.SecurityUtils;
+import com.connection.device.event.DeviceChangedEvent;
 import com.connection.device.exception.DeviceAlreadyExistsException;
 import com.connection.device.model.DeviceBlm;
 import com.connection.device.repository.DeviceRepository;
@@ -13,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +29,7 @@ public class DeviceServiceApiImpl implements DeviceService {
     private final DeviceRepository deviceRepository;
     private final DeviceValidator deviceValidator;
     private final AuthService authClient;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public DeviceBlm createDevice(DeviceBlm deviceBlm) {
@@ -145,6 +148,7 @@ public class DeviceServiceApiImpl implements DeviceService {
 
         log.debug("Updating device in repository");
         deviceRepository.update(deviceBlm);
+        eventPublisher.publishEvent(new DeviceChangedEvent(deviceBlm.getUid()));
 
         log.info("Device updated successfully: {} for client: {}",
                 deviceBlm.getUid(), clientUid);
@@ -174,6 +178,7 @@ public class DeviceServiceApiImpl implements DeviceService {
 
         log.debug("Deleting device from repository");
         deviceRepository.delete(deviceUid);
+        eventPublisher.publishEvent(new DeviceChangedEvent(deviceUid));
 
         log.info("Device deleted successfully: {} for client: {}", deviceUid,
                 clientUid);
@@ -3,8 +3,10 @@ package com.connection.device.config;
 import com.atomikos.jdbc.AtomikosDataSourceBean;
 import java.util.Properties;
 import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -51,4 +53,18 @@ public class DeviceJdbcConfig {
             @Qualifier("DeviceDataSource") DataSource deviceDataSource) {
         return new NamedParameterJdbcTemplate(deviceDataSource);
     }
+
+    // Миграции device-shared
+    @Bean(name = "DeviceSchemaMigration", initMethod = "migrate")
+    @ConditionalOnProperty(name = "app.schema.migration.enabled", havingValue = "true",
+            matchIfMissing = true)
+    Flyway deviceSchemaMigration() {
+        return Flyway.configure()
+                .dataSource(jdbcUrl, username, password)
+                .locations("classpath:db/migration/device")
+                .table("device_schema_history")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
 }
@@ -0,0 +1,17 @@
+package com.connection.device.event;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Внутрипроцессное событие об изменении или удалении устройства.
+ * Удаление устройства каскадно удаляет его буферы, поэтому кэши
+ * сбрасывают и записи буферов этого устройства.
+ */
+@Getter
+@AllArgsConstructor
+public class DeviceChangedEvent {
+
+    private final UUID deviceUid;
+}
@@ -23,12 +23,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import com.connection.auth.events.responses.HealthCheckResponse;
 
+import com.connection.device.event.DeviceChangedEvent;
 import com.connection.device.exception.DeviceAlreadyExistsException;
 import com.connection.device.model.DeviceBlm;
 import com.connection.device.repository.DeviceRepository;
@@ -48,6 +50,9 @@ class DeviceServiceImplTest {
     @Mock
     private AuthService authKafkaClient;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -216,6 +221,7 @@ class DeviceServiceImplTest {
 
         // Assert
         verify(deviceRepository).delete(DEVICE_UUID);
+        verify(eventPublisher).publishEvent(any(DeviceChangedEvent.class));
     }
 
     @Test
@@ -1,7 +1,6 @@
 package com.connection.gateway.config.security;
 
 import com.connection.device.token.model.DeviceAccessTokenBlm;
-import com.connection.device.token.model.DeviceTokenBlm;
 import com.connection.service.auth.AuthService;
 import com.connection.token.model.AccessTokenBlm;
 import com.service.device.auth.DeviceAuthService;
@@ -11,6 +10,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -125,12 +125,15 @@ public class AuthenticationFilter extends OncePerRequestFilter {
 
             DeviceAccessTokenBlm deviceAccessTokenBlm =
                     deviceAuthClient.validateDeviceAccessToken(cleanToken);
-            DeviceTokenBlm deviceTokenBlm = deviceAuthClient
-                    .getDeviceToken(deviceAccessTokenBlm.getDeviceTokenUid());
+            // Устройство берется из подписанного токена, без запроса к БД
+            UUID deviceUid = deviceAccessTokenBlm.getDeviceUid();
+            if (deviceUid == null) {
+                throw new SecurityException("Device access token has no device uid");
+            }
 
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
-                            deviceTokenBlm.getDeviceUid(), null,
+                            deviceUid, null,
                             Collections.singletonList(
                                     new SimpleGrantedAuthority("ROLE_DEVICE")));
 
@@ -139,8 +142,7 @@ public class AuthenticationFilter extends OncePerRequestFilter {
             SecurityContextHolder.getContext()
                     .setAuthentication(authentication);
 
-            log.info("Successfully authenticated device: {}",
-                    deviceTokenBlm.getDeviceUid());
+            log.info("Successfully authenticated device: {}", deviceUid);
             return true;
         } catch (Exception e) {
             log.warn("Device authentication failed: {}", e.getMessage());
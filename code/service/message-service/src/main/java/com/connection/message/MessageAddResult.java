@@ -0,0 +1,24 @@
+package com.connection.message;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Результат добавления одного сообщения из пакета. */
+@AllArgsConstructor
+@Getter
+public class MessageAddResult {
+    private final UUID uid;
+    private final boolean accepted;
+    private final String error;
+
+    /** . */
+    public static MessageAddResult accepted(UUID uid) {
+        return new MessageAddResult(uid, true, null);
+    }
+
+    /** . */
+    public static MessageAddResult rejected(UUID uid, String error) {
+        return new MessageAddResult(uid, false, error);
+    }
+}
@@ -0,0 +1,56 @@
+package com.connection.message;
+
+import com.connection.message.model.MessageBlm;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Позиция в буфере для keyset-пагинации: (created_at, uid) последнего
+ * отданного сообщения. Клиенту передаётся в виде непрозрачной строки.
+ */
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+public class MessageCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final Date createdAt;
+    private final UUID uid;
+
+    /** Курсор, указывающий на позицию сразу после сообщения. */
+    public static MessageCursor after(MessageBlm messageBlm) {
+        return new MessageCursor(messageBlm.getCreatedAt(),
+                messageBlm.getUid());
+    }
+
+    /** . */
+    public String encode() {
+        String raw = createdAt.getTime() + SEPARATOR + uid;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбор строки, полученной от {@link #encode()}.
+     *
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    public static MessageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor),
+                    StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            return new MessageCursor(
+                    new Date(Long.parseLong(raw.substring(0, separatorIndex))),
+                    UUID.fromString(raw.substring(separatorIndex + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid message cursor");
+        }
+    }
+}
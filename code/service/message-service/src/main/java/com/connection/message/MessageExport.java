@@ -0,0 +1,16 @@
+package com.connection.message;
+
+import com.connection.message.model.MessageBlm;
+import java.util.function.Consumer;
+
+/**
+ * Подготовленная потоковая выгрузка сообщений. Доступ проверяется при
+ * создании выгрузки, сообщения читаются из БД только при вызове
+ * {@link #forEach(Consumer)}.
+ */
+@FunctionalInterface
+public interface MessageExport {
+
+    /** Передать сообщения по одному в порядке (created_at, uid). */
+    void forEach(Consumer<MessageBlm> consumer);
+}
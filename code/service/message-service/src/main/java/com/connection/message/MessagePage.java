@@ -0,0 +1,14 @@
+package com.connection.message;
+
+import com.connection.message.model.MessageBlm;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Страница сообщений и курсор следующей страницы (null, если это конец). */
+@AllArgsConstructor
+@Getter
+public class MessagePage {
+    private final List<MessageBlm> messages;
+    private final MessageCursor nextCursor;
+}
@@ -1,6 +1,8 @@
 package com.connection.message;
 
 import com.connection.message.model.MessageBlm;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -10,10 +12,65 @@ public interface MessageService {
     /** . */
     void addMessage(MessageBlm messageBlm);
 
+    /**
+     * Пакетное добавление сообщений. Доступ проверяется один раз на каждый
+     * буфер пакета, принятые сообщения записываются одним пакетом.
+     *
+     * @return результаты в порядке входного списка
+     */
+    List<MessageAddResult> addMessages(List<MessageBlm> messageBlms);
+
     /** . */
     List<MessageBlm> getMessagesByBuffer(UUID bufferUuid, boolean deleteOnGet,
             int offset, int limit);
 
+    /**
+     * Keyset-пагинация по буферу: стоимость страницы не зависит от
+     * количества сообщений в буфере.
+     */
+    MessagePage getMessagesPageByBuffer(UUID bufferUuid, boolean deleteOnGet,
+            MessageCursor cursor, int limit);
+
+    /**
+     * Курсор после последнего сообщения буфера: чтение с него вернет
+     * только сообщения, поступившие позже.
+     *
+     * @return . (null, если буфер пуст)
+     */
+    MessageCursor getTailCursor(UUID bufferUuid);
+
+    /**
+     * Keyset-пагинация сообщений буфера за интервал [from, to).
+     * Читается только диапазон индекса (buffer_uid, created_at, uid)
+     * за интервал, независимо от объема остального буфера.
+     */
+    MessagePage getMessagesPageByTimeRange(UUID bufferUuid, Date from, Date to,
+            MessageCursor cursor, int limit);
+
+    /**
+     * Потоковая выгрузка всех сообщений буфера без загрузки в память.
+     * Доступ к буферу проверяется в вызывающем потоке.
+     */
+    MessageExport exportMessagesByBuffer(UUID bufferUuid);
+
+    /**
+     * Извлечь limit самых старых входящих сообщений буфера (сценарий 4).
+     * Извлечённые сообщения удаляются и не будут выданы повторно.
+     */
+    List<MessageBlm> dequeueIncomingMessages(UUID bufferUuid, int limit);
+
+    /**
+     * Общая страница сообщений из всех указанных источников.
+     * Схемы и устройства раскрываются в буферы, повторяющиеся буферы
+     * объединяются, сообщения читаются одним запросом в порядке
+     * (created_at, uid). С курсором offset не применяется.
+     *
+     * @return страница и курсор следующей страницы (null, если это конец)
+     */
+    MessagePage getMessagesPage(Collection<UUID> schemeUuids,
+            Collection<UUID> bufferUuids, Collection<UUID> deviceUuids,
+            boolean deleteOnGet, MessageCursor cursor, int offset, int limit);
+
     /** . */
     List<MessageBlm> getMessagesByScheme(UUID schemeUuid, boolean deleteOnGet,
             int offset, int limit);
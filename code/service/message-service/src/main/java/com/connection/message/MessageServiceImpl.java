@@ -2,10 +2,16 @@ package com.connection.message;
 
 import com.connection.device.DeviceService;
 import com.connection.device.converter.DeviceConverter;
+import com.connection.message.access.BufferOwnershipCache;
 import com.connection.message.config.SecurityUtils;
 import com.connection.message.converter.MessageConverter;
+import com.connection.message.dedup.RecentMessageIds;
+import com.connection.message.delivery.MessageArrivalNotifier;
+import com.connection.message.exception.MessageValidateException;
 import com.connection.message.model.MessageBlm;
+import com.connection.message.model.MessageRejection;
 import com.connection.message.repository.MessageRepository;
+import com.connection.message.routing.MessageRoutingPipeline;
 import com.connection.message.validator.MessageValidator;
 import com.connection.processing.buffer.converter.BufferConverter;
 import com.connection.processing.buffer.model.BufferBlm;
@@ -16,14 +22,17 @@ import com.service.buffer.BufferService;
 import com.service.connectionscheme.ConnectionSchemeService;
 import com.service.device.auth.DeviceAuthService;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -52,6 +61,11 @@ public class MessageServiceImpl implements MessageService {
     protected final DeviceConverter deviceConverter;
     protected final MessageConverter messageConverter;
 
+    protected final MessageRoutingPipeline routingPipeline;
+    protected final MessageArrivalNotifier arrivalNotifier;
+    protected final BufferOwnershipCache ownershipCache;
+    protected final RecentMessageIds recentMessageIds;
+
     @Override
     public void addMessage(MessageBlm messageBlm) {
         // Для добавления сообщений требуется аутентификация устройства
@@ -66,8 +80,7 @@ public class MessageServiceImpl implements MessageService {
                         "Device doesn't have access to this buffer");
             }
 
-            messageRepository.add(messageBlm);
-            processMessageMovement(messageBlm);
+            store(messageBlm);
         } else if (SecurityUtils.isClientAuthenticated()) {
             UUID currentClientUid = SecurityUtils.getCurrentClientUid();
             messageValidator.validate(messageBlm);
@@ -79,54 +92,224 @@ public class MessageServiceImpl implements MessageService {
                         "Client doesn't have access to this buffer");
             }
 
-            messageRepository.add(messageBlm);
-            processMessageMovement(messageBlm);
+            store(messageBlm);
         } else {
             throw new SecurityException(
                     "Cannot add messages without authorization");
         }
     }
 
+    @Override
+    public List<MessageAddResult> addMessages(List<MessageBlm> messageBlms) {
+        Predicate<UUID> bufferAccess = currentBufferWriteAccess();
+        Map<UUID, Boolean> accessByBuffer = new HashMap<>();
+        List<MessageAddResult> results = new ArrayList<>(messageBlms.size());
+        List<MessageBlm> acceptedMessages = new ArrayList<>();
+        // Позиции результатов принятых сообщений: репозиторий может отклонить
+        // их по емкости буфера
+        Map<MessageBlm, Integer> resultIndex = new IdentityHashMap<>();
+
+        for (MessageBlm messageBlm : messageBlms) {
+            try {
+                messageValidator.validate(messageBlm);
+            } catch (MessageValidateException e) {
+                results.add(MessageAddResult.rejected(
+                        messageBlm != null ? messageBlm.getUid() : null,
+                        e.getDescription()));
+                continue;
+            }
+
+            // Владение проверяется один раз на каждый буфер пакета
+            if (!accessByBuffer.computeIfAbsent(messageBlm.getBufferUid(),
+                    bufferAccess::test)) {
+                results.add(MessageAddResult.rejected(messageBlm.getUid(),
+                        "No access to this buffer"));
+                continue;
+            }
+            if (recentMessageIds.contains(messageBlm.getBufferUid(),
+                    messageBlm.getUid())) {
+                results.add(MessageAddResult.accepted(messageBlm.getUid()));
+                continue;
+            }
+            acceptedMessages.add(messageBlm);
+            resultIndex.put(messageBlm, results.size());
+            results.add(MessageAddResult.accepted(messageBlm.getUid()));
+        }
+
+        if (!acceptedMessages.isEmpty()) {
+            List<MessageRejection> rejections =
+                    messageRepository.addAll(acceptedMessages);
+            if (!rejections.isEmpty()) {
+                for (MessageRejection rejection : rejections) {
+                    MessageBlm rejected = rejection.getMessage();
+                    // Повтор остается принятым, но не доставляется повторно
+                    if (rejection.isDuplicate()) {
+                        recentMessageIds.rememberDuplicate(
+                                rejected.getBufferUid(), rejected.getUid());
+                    } else {
+                        results.set(resultIndex.get(rejected),
+                                MessageAddResult.rejected(rejected.getUid(),
+                                        rejection.getReason()));
+                    }
+                    resultIndex.remove(rejected);
+                }
+                acceptedMessages.removeIf(m -> !resultIndex.containsKey(m));
+            }
+            if (!acceptedMessages.isEmpty()) {
+                acceptedMessages.forEach(m -> recentMessageIds.remember(
+                        m.getBufferUid(), m.getUid()));
+                arrivalNotifier.signal(acceptedMessages.stream()
+                        .map(MessageBlm::getBufferUid).distinct().toList());
+                acceptedMessages.forEach(this::processMessageMovement);
+            }
+        }
+        return results;
+    }
+
+    // Повтор недавно принятого сообщения отвечает успехом без записи
+    // и маршрутизации
+    private void store(MessageBlm messageBlm) {
+        if (recentMessageIds.contains(messageBlm.getBufferUid(),
+                messageBlm.getUid())) {
+            return;
+        }
+        if (!messageRepository.add(messageBlm)) {
+            recentMessageIds.rememberDuplicate(messageBlm.getBufferUid(),
+                    messageBlm.getUid());
+            return;
+        }
+        recentMessageIds.remember(messageBlm.getBufferUid(), messageBlm.getUid());
+        arrivalNotifier.signal(List.of(messageBlm.getBufferUid()));
+        processMessageMovement(messageBlm);
+    }
+
+    private Predicate<UUID> currentBufferWriteAccess() {
+        if (SecurityUtils.isDeviceAuthenticated()) {
+            UUID currentDeviceUid = SecurityUtils.getCurrentDeviceUid();
+            return bufferUid -> hasDeviceAccessToBuffer(currentDeviceUid,
+                    bufferUid);
+        } else if (SecurityUtils.isClientAuthenticated()) {
+            UUID currentClientUid = SecurityUtils.getCurrentClientUid();
+            return bufferUid -> hasClientAccessToBuffer(currentClientUid,
+                    bufferUid);
+        }
+        throw new SecurityException(
+                "Cannot add messages without authorization");
+    }
+
     /** . */
     @Override
     public List<MessageBlm> getMessagesByBuffer(UUID bufferUuid,
             boolean deleteOnGet, int offset, int limit) {
         checkBufferAccess(bufferUuid);
 
-        List<MessageBlm> messageBlms =
-                messageRepository.findByBufferUid(bufferUuid);
-        messageBlms = messageBlms.stream()
-                .sorted((x, y) -> x.getCreatedAt().compareTo(y.getCreatedAt()))
-                .toList()
-                .subList(offset, Math.min(offset + limit, messageBlms.size()));
+        // Читаем из БД только offset + limit первых сообщений
+        List<MessageBlm> messageBlms = messageRepository.findByBufferUid(
+                bufferUuid, null, null, saturatedSum(offset, limit));
+        if (offset >= messageBlms.size()) {
+            return List.of();
+        }
+        messageBlms = messageBlms.subList(offset, messageBlms.size());
 
         if (deleteOnGet) {
-            messageBlms.forEach(this::deleteMessage);
+            messageRepository.deleteAll(messageBlms);
         }
         return messageBlms;
     }
 
     @Override
-    public List<MessageBlm> getMessagesByScheme(UUID schemeUuid,
-            boolean deleteOnGet, int offset, int limit) {
+    public MessagePage getMessagesPageByBuffer(UUID bufferUuid,
+            boolean deleteOnGet, MessageCursor cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        checkBufferAccess(bufferUuid);
 
-        // Проверка прав доступа
-        validateSchemeAccess(schemeUuid);
+        // Запрашиваем на одно сообщение больше, чтобы узнать, есть ли
+        // следующая страница
+        List<MessageBlm> messageBlms = messageRepository.findByBufferUid(
+                bufferUuid, cursor != null ? cursor.getCreatedAt() : null,
+                cursor != null ? cursor.getUid() : null,
+                saturatedSum(limit, 1));
+        boolean hasMore = messageBlms.size() > limit;
+        if (hasMore) {
+            messageBlms = messageBlms.subList(0, limit);
+        }
 
-        // Получение сообщений из всех буферов схемы
-        List<MessageBlm> messages =
-                getMessagesFromSchemeBuffers(schemeUuid, deleteOnGet);
+        if (deleteOnGet) {
+            messageRepository.deleteAll(messageBlms);
+        }
+        MessageCursor nextCursor = hasMore
+                ? MessageCursor.after(messageBlms.get(messageBlms.size() - 1))
+                : null;
+        return new MessagePage(messageBlms, nextCursor);
+    }
 
-        // Применение пагинации
-        List<MessageBlm> paginatedMessages =
-                applyPagination(messages, offset, limit);
+    @Override
+    public MessageCursor getTailCursor(UUID bufferUuid) {
+        checkBufferAccess(bufferUuid);
+        MessageBlm last = messageRepository.findLastByBufferUid(bufferUuid);
+        return last != null ? MessageCursor.after(last) : null;
+    }
 
-        // Удаление сообщений если требуется
-        if (deleteOnGet) {
-            paginatedMessages.forEach(this::deleteMessage);
+    @Override
+    public List<MessageBlm> dequeueIncomingMessages(UUID bufferUuid,
+            int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        checkBufferAccess(bufferUuid);
+        return messageRepository.dequeueIncoming(bufferUuid, limit);
+    }
+
+    @Override
+    public MessagePage getMessagesPageByTimeRange(UUID bufferUuid, Date from,
+            Date to, MessageCursor cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        if (!from.before(to)) {
+            throw new IllegalArgumentException(
+                    "Time range start must be before its end");
+        }
+        checkBufferAccess(bufferUuid);
+
+        List<MessageBlm> messageBlms = messageRepository
+                .findByBufferUidAndTimeRange(bufferUuid, from, to,
+                        cursor != null ? cursor.getCreatedAt() : null,
+                        cursor != null ? cursor.getUid() : null,
+                        saturatedSum(limit, 1));
+        boolean hasMore = messageBlms.size() > limit;
+        if (hasMore) {
+            messageBlms = messageBlms.subList(0, limit);
         }
+        MessageCursor nextCursor = hasMore
+                ? MessageCursor.after(messageBlms.get(messageBlms.size() - 1))
+                : null;
+        return new MessagePage(messageBlms, nextCursor);
+    }
+
+    @Override
+    public MessageExport exportMessagesByBuffer(UUID bufferUuid) {
+        checkBufferAccess(bufferUuid);
+        return consumer -> messageRepository.streamByBufferUid(bufferUuid,
+                consumer);
+    }
+
+    private static int saturatedSum(int a, int b) {
+        return (int) Math.min((long) a + b, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<MessageBlm> getMessagesByScheme(UUID schemeUuid,
+            boolean deleteOnGet, int offset, int limit) {
+
+        // Проверка прав доступа
+        validateSchemeAccess(schemeUuid);
 
-        return paginatedMessages;
+        // Одна страница из всех буферов схемы
+        return getMessagesPage(getSchemeBuffers(schemeUuid), deleteOnGet,
+                offset, limit);
     }
 
     private void validateSchemeAccess(UUID schemeUuid) {
@@ -157,65 +340,171 @@ public class MessageServiceImpl implements MessageService {
         }
     }
 
-    private List<MessageBlm> getMessagesFromSchemeBuffers(UUID schemeUuid,
-            boolean deleteOnGet) {
-        List<BufferBlm> buffers = getSchemeBuffers(schemeUuid);
-        Set<MessageBlm> messages = new HashSet<>();
+    /**
+     * Страница сообщений нескольких буферов в общем порядке (created_at, uid).
+     * Доступ проверяется для всего набора буферов, сообщения читаются одним
+     * запросом; при deleteOnGet удаляется только возвращенная страница.
+     */
+    private List<MessageBlm> getMessagesPage(List<BufferBlm> buffers,
+            boolean deleteOnGet, int offset, int limit) {
+        Set<UUID> bufferUids = new LinkedHashSet<>();
+        buffers.forEach(buffer -> bufferUids.add(buffer.getUid()));
+        checkBuffersAccess(bufferUids);
 
-        for (BufferBlm buffer : buffers) {
-            messages.addAll(getMessagesByBuffer(buffer.getUid(), deleteOnGet, 0,
-                    Integer.MAX_VALUE));
+        List<MessageBlm> messageBlms =
+                messageRepository.findByBufferUids(bufferUids, offset, limit);
+        if (deleteOnGet) {
+            messageRepository.deleteAll(messageBlms);
         }
-
-        return messages.stream()
-                .sorted(Comparator.comparing(MessageBlm::getCreatedAt))
-                .collect(Collectors.toList());
-    }
-
-    private List<MessageBlm> applyPagination(List<MessageBlm> messages,
-            int offset, int limit) {
-        int endIndex = Math.min(offset + limit, messages.size());
-        return messages.subList(offset, endIndex);
+        return messageBlms;
     }
 
     @Override
-    public List<MessageBlm> getMessagesByDevice(UUID deviceUuid,
-            boolean deleteOnGet, int offset, int limit) {
-
-        // Проверка прав доступа к устройству
-        validateDeviceAccess(deviceUuid);
-
-        // Получение сообщений из всех буферов устройства
-        List<MessageBlm> messages =
-                getMessagesFromDeviceBuffers(deviceUuid, deleteOnGet);
+    public MessagePage getMessagesPage(Collection<UUID> schemeUuids,
+            Collection<UUID> bufferUuids, Collection<UUID> deviceUuids,
+            boolean deleteOnGet, MessageCursor cursor, int offset, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
 
-        // Применение пагинации
-        List<MessageBlm> paginatedMessages =
-                applyPagination(messages, offset, limit);
+        // Все источники раскрываются в один набор буферов без повторов:
+        // схемы и устройства - одним запросом на вид источника
+        Set<UUID> bufferUids = new LinkedHashSet<>();
+        if (schemeUuids != null && !schemeUuids.isEmpty()) {
+            bufferUids.addAll(resolveSchemeBuffers(schemeUuids));
+        }
+        if (deviceUuids != null && !deviceUuids.isEmpty()) {
+            bufferUids.addAll(resolveDeviceBuffers(deviceUuids));
+        }
+        if (bufferUuids != null) {
+            bufferUids.addAll(bufferUuids);
+        }
+        checkBuffersAccess(bufferUids);
+
+        // Запрашиваем на одно сообщение больше, чтобы узнать, есть ли
+        // следующая страница
+        List<MessageBlm> messageBlms = cursor != null
+                ? messageRepository.findByBufferUids(bufferUids,
+                        cursor.getCreatedAt(), cursor.getUid(),
+                        saturatedSum(limit, 1))
+                : messageRepository.findByBufferUids(bufferUids, offset,
+                        saturatedSum(limit, 1));
+        boolean hasMore = messageBlms.size() > limit;
+        if (hasMore) {
+            messageBlms = messageBlms.subList(0, limit);
+        }
 
-        // Удаление сообщений если требуется
         if (deleteOnGet) {
-            paginatedMessages.forEach(this::deleteMessage);
+            messageRepository.deleteAll(messageBlms);
         }
-
-        return paginatedMessages;
+        MessageCursor nextCursor = hasMore
+                ? MessageCursor.after(messageBlms.get(messageBlms.size() - 1))
+                : null;
+        return new MessagePage(messageBlms, nextCursor);
     }
 
-    private List<MessageBlm> getMessagesFromDeviceBuffers(UUID deviceUuid,
-            boolean deleteOnGet) {
-        List<BufferBlm> buffers = getDeviceBuffers(deviceUuid);
-        Set<MessageBlm> messages = new HashSet<>();
+    private Set<UUID> resolveSchemeBuffers(Collection<UUID> schemeUuids) {
+        Set<UUID> requested = new LinkedHashSet<>(schemeUuids);
+        Set<UUID> bufferUids = new LinkedHashSet<>();
+        if (SecurityUtils.isClientAuthenticated()) {
+            UUID currentClientUid = SecurityUtils.getCurrentClientUid();
+            List<ConnectionSchemeBlm> schemes = findSchemes(requested);
+            if (schemes.size() < requested.size() || !schemes.stream()
+                    .allMatch(scheme -> currentClientUid.equals(scheme.getClientUid()))) {
+                throw new SecurityException(
+                        "Connection scheme doesn't belong to the authenticated client");
+            }
+            schemes.forEach(scheme -> bufferUids.addAll(scheme.getUsedBuffers()));
+        } else if (SecurityUtils.isDeviceAuthenticated()) {
+            UUID currentDeviceUid = SecurityUtils.getCurrentDeviceUid();
+            // Схема доступна устройству, если в ней есть хотя бы один его буфер
+            Set<UUID> deviceBufferUids = new HashSet<>();
+            List<ConnectionSchemeBlm> schemes;
+            try {
+                getDeviceBuffers(currentDeviceUid)
+                        .forEach(buffer -> deviceBufferUids.add(buffer.getUid()));
+                schemes = findSchemes(requested);
+            } catch (Exception e) {
+                log.error("Error checking device scheme access: {}",
+                        e.getMessage());
+                schemes = List.of();
+            }
+            if (schemes.size() < requested.size() || !schemes.stream()
+                    .allMatch(scheme -> scheme.getUsedBuffers().stream()
+                            .anyMatch(deviceBufferUids::contains))) {
+                throw new SecurityException(
+                        "Device doesn't have access to this connection scheme");
+            }
+            schemes.forEach(scheme -> bufferUids.addAll(scheme.getUsedBuffers()));
+        } else {
+            throw new SecurityException(
+                    "Authentication required to access messages by scheme");
+        }
+        return bufferUids;
+    }
 
-        for (BufferBlm buffer : buffers) {
-            messages.addAll(getMessagesByBuffer(buffer.getUid(), deleteOnGet, 0,
-                    Integer.MAX_VALUE));
+    // Пустой список, если хотя бы одна схема не найдена
+    private List<ConnectionSchemeBlm> findSchemes(Set<UUID> schemeUuids) {
+        Map<UUID, ConnectionSchemeBlm> schemes = new HashMap<>();
+        for (ConnectionSchemeBlm scheme : connectionSchemeClient
+                .getSchemeByUid(new ArrayList<>(schemeUuids))) {
+            if (scheme != null && schemeUuids.contains(scheme.getUid())) {
+                schemes.put(scheme.getUid(), scheme);
+            }
         }
+        return schemes.size() < schemeUuids.size()
+                ? List.of() : new ArrayList<>(schemes.values());
+    }
 
-        return messages.stream()
-                .sorted(Comparator.comparing(MessageBlm::getCreatedAt))
-                .collect(Collectors.toList());
+    private Set<UUID> resolveDeviceBuffers(Collection<UUID> deviceUuids) {
+        Set<UUID> requested = new LinkedHashSet<>(deviceUuids);
+        List<BufferBlm> buffers;
+        if (SecurityUtils.isClientAuthenticated()) {
+            UUID currentClientUid = SecurityUtils.getCurrentClientUid();
+            Map<UUID, UUID> deviceClients;
+            try {
+                deviceClients = ownershipCache.getDeviceClients(requested,
+                        currentClientUid);
+            } catch (Exception e) {
+                log.error("Error checking client device access: {}",
+                        e.getMessage());
+                deviceClients = Map.of();
+            }
+            for (UUID deviceUuid : requested) {
+                if (!currentClientUid.equals(deviceClients.get(deviceUuid))) {
+                    throw new SecurityException(
+                            "Device doesn't belong to the authenticated client");
+                }
+            }
+            buffers = bufferClient.getBuffersByDevices(requested);
+        } else if (SecurityUtils.isDeviceAuthenticated()) {
+            // Устройству доступны только собственные буферы
+            UUID currentDeviceUid = SecurityUtils.getCurrentDeviceUid();
+            if (!Set.of(currentDeviceUid).containsAll(requested)) {
+                throw new SecurityException(
+                        "Device doesn't have access to messages of another device");
+            }
+            buffers = getDeviceBuffers(currentDeviceUid);
+        } else {
+            throw new SecurityException(
+                    "Authentication required to access messages by device");
+        }
+        Set<UUID> bufferUids = new LinkedHashSet<>();
+        buffers.forEach(buffer -> bufferUids.add(buffer.getUid()));
+        return bufferUids;
     }
 
+    @Override
+    public List<MessageBlm> getMessagesByDevice(UUID deviceUuid,
+            boolean deleteOnGet, int offset, int limit) {
+
+        // Проверка прав доступа к устройству
+        validateDeviceAccess(deviceUuid);
+
+        // Одна страница из всех буферов устройства
+        return getMessagesPage(getDeviceBuffers(deviceUuid), deleteOnGet,
+                offset, limit);
+    }
 
     /** . */
     @Override
@@ -275,12 +564,65 @@ public class MessageServiceImpl implements MessageService {
         }
     }
 
+    /** Проверка доступа ко всему набору буферов за один проход по кэшу. */
+    private void checkBuffersAccess(Set<UUID> bufferUuids) {
+        if (SecurityUtils.isClientAuthenticated()) {
+            UUID currentClientUid = SecurityUtils.getCurrentClientUid();
+            if (!hasClientAccessToBuffers(currentClientUid, bufferUuids)) {
+                throw new SecurityException(
+                        "Client doesn't have access to this buffer");
+            }
+        } else if (SecurityUtils.isDeviceAuthenticated()) {
+            UUID currentDeviceUid = SecurityUtils.getCurrentDeviceUid();
+            if (!hasDeviceAccessToBuffers(currentDeviceUid, bufferUuids)) {
+                throw new SecurityException(
+                        "Device doesn't have access to this buffer");
+            }
+        } else {
+            throw new SecurityException("Authentication required");
+        }
+    }
+
+    private boolean hasClientAccessToBuffers(UUID clientUid,
+            Set<UUID> bufferUuids) {
+        try {
+            Map<UUID, UUID> bufferDevices =
+                    ownershipCache.getBufferDevices(bufferUuids);
+            if (bufferDevices.size() < bufferUuids.size()) {
+                return false;
+            }
+            Map<UUID, UUID> deviceClients = ownershipCache.getDeviceClients(
+                    new HashSet<>(bufferDevices.values()), clientUid);
+            return bufferDevices.values().stream()
+                    .allMatch(deviceUid -> clientUid.equals(deviceClients.get(deviceUid)));
+
+        } catch (Exception e) {
+            log.error("Error checking client buffers access: {}",
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean hasDeviceAccessToBuffers(UUID deviceUid,
+            Set<UUID> bufferUuids) {
+        try {
+            Map<UUID, UUID> bufferDevices =
+                    ownershipCache.getBufferDevices(bufferUuids);
+            return bufferDevices.size() == bufferUuids.size()
+                    && bufferDevices.values().stream().allMatch(deviceUid::equals);
+        } catch (Exception e) {
+            log.error("Error checking device buffers access: {}",
+                    e.getMessage());
+            return false;
+        }
+    }
+
     private boolean hasClientAccessToBuffer(UUID clientUid, UUID bufferUuid) {
         try {
-            // Получаем информацию о буфере и проверяем принадлежность устройства клиенту
-            BufferBlm bufferBlm = bufferClient.getBufferByUid(bufferUuid);
-            return deviceExistsAndBelongsToClient(bufferBlm.getDeviceUid(),
-                    clientUid);
+            // Владелец буфера и владелец его устройства берутся из кэша
+            UUID deviceUid = ownershipCache.getBufferDevice(bufferUuid);
+            return deviceUid != null
+                    && deviceExistsAndBelongsToClient(deviceUid, clientUid);
 
         } catch (Exception e) {
             log.error("Error checking client buffer access: {}",
@@ -291,9 +633,8 @@ public class MessageServiceImpl implements MessageService {
 
     private boolean hasDeviceAccessToBuffer(UUID deviceUid, UUID bufferUuid) {
         try {
-            // Получаем информацию о буфере и проверяем принадлежность устройству
-            BufferBlm bufferBlm = bufferClient.getBufferByUid(bufferUuid);
-            return deviceUid.equals(bufferBlm.getDeviceUid());
+            // Получаем владельца буфера и проверяем принадлежность устройству
+            return deviceUid.equals(ownershipCache.getBufferDevice(bufferUuid));
         } catch (Exception e) {
             log.error("Error checking device buffer access: {}",
                     e.getMessage());
@@ -346,45 +687,14 @@ public class MessageServiceImpl implements MessageService {
         if (!"OUTGOING".equals(messageBlm.getContentType())) {
             return;
         }
-        List<ConnectionSchemeBlm> connectionSchemeBlms =
-                getBufferSchemes(messageBlm.getBufferUid());
-        Map<UUID, List<UUID>> bufferTransitions = new HashMap<>();
-        for (ConnectionSchemeBlm cs : connectionSchemeBlms) {
-            cs.getBufferTransitions().forEach((key, value) -> bufferTransitions
-                    .merge(key, value, (oldList, newList) -> {
-                        List<UUID> merged = new ArrayList<>(oldList);
-                        merged.addAll(newList);
-                        return merged;
-                    }));
-        }
-
-        List<UUID> targetBuffers =
-                bufferTransitions.get(messageBlm.getBufferUid());
-        if (targetBuffers != null) {
-            for (UUID b : targetBuffers) {
-                MessageBlm messageBlmn = MessageBlm.builder().bufferUid(b)
-                        .content(messageBlm.getContent())
-                        .contentType("INCOMING").createdAt(new Date())
-                        .uid(UUID.randomUUID()).build();
-                messageValidator.validate(messageBlmn);
-                messageRepository.add(messageBlmn);
-            }
-        }
-    }
-
-    private void deleteMessage(UUID messageUuid) {
-        messageRepository.deleteByUid(messageUuid);
-    }
-
-    private void deleteMessage(MessageBlm messageBlm) {
-        deleteMessage(messageBlm.getUid());
+        // Копии в буферы-получатели пишутся асинхронно, запрос ждет только постановки в очередь
+        routingPipeline.submit(messageBlm);
     }
 
     /** . */
     protected boolean deviceExistsAndBelongsToClient(UUID deviceUuid,
             UUID clientUuid) {
-        return deviceClient.getDevice(deviceUuid).getClientUuid()
-                .equals(clientUuid);
+        return clientUuid.equals(ownershipCache.getDeviceClient(deviceUuid));
     }
 
     /** . */
@@ -395,11 +705,6 @@ public class MessageServiceImpl implements MessageService {
                         .getClientUid().equals(clientUid);
     }
 
-    private List<ConnectionSchemeBlm> getBufferSchemes(UUID bufferUuid) {
-        return connectionSchemeClient.getSchemesByBuffer(bufferUuid);
-
-    }
-
     private List<BufferBlm> getSchemeBuffers(UUID connectionSchemeUuid) {
         return bufferClient.getBuffersByConnectionScheme(connectionSchemeUuid);
     }
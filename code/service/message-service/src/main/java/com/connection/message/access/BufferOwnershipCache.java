@@ -0,0 +1,342 @@
+package com.connection.message.access;
+
+import com.connection.device.DeviceService;
+import com.connection.device.event.DeviceChangedEvent;
+import com.connection.device.model.DeviceBlm;
+import com.connection.processing.buffer.model.BufferBlm;
+import com.service.buffer.BufferService;
+import com.service.buffer.event.BufferChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Кэш фактов владения между запросами: буфер -> устройство и
+ * устройство -> клиент. Хранятся только факты, загруженные успешной
+ * проверкой доступа; решение о доступе по-прежнему принимается для
+ * каждого запроса сравнением с текущим устройством или клиентом.
+ * Отказы не кэшируются. Записи сбрасываются событиями изменения и
+ * удаления буферов и устройств; TTL страхует от изменений, сделанных
+ * другими экземплярами сервиса. TTL у всех записей один, поэтому порядок
+ * добавления совпадает с порядком истечения: вставка снимает истекшие
+ * записи с головы очереди, не обходя кэш.
+ */
+@Slf4j
+@Component
+public class BufferOwnershipCache {
+
+    private final BufferService bufferClient;
+    private final DeviceService deviceClient;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    // Буферы индексируются по устройству: сброс устройства снимает только его буферы
+    private final OwnerTable bufferDevices = new OwnerTable(true);
+    private final OwnerTable deviceClients = new OwnerTable(false);
+
+    // Поколение инвалидаций: факт, загруженный до инвалидации, не сохраняется
+    private final Object lock = new Object();
+    private long generation;
+
+    private final Counter bufferHits;
+    private final Counter bufferMisses;
+    private final Counter deviceHits;
+    private final Counter deviceMisses;
+
+    /** . */
+    public BufferOwnershipCache(BufferService bufferClient,
+            DeviceService deviceClient, MeterRegistry meterRegistry,
+            @Value("${app.message.access.cache-ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.message.access.cache-max-entries:100000}") int maxEntries) {
+        this.bufferClient = bufferClient;
+        this.deviceClient = deviceClient;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+
+        this.bufferHits = lookups(meterRegistry, "buffer-device", "hit");
+        this.bufferMisses = lookups(meterRegistry, "buffer-device", "miss");
+        this.deviceHits = lookups(meterRegistry, "device-client", "hit");
+        this.deviceMisses = lookups(meterRegistry, "device-client", "miss");
+        hitRatio(meterRegistry, "buffer-device", bufferHits, bufferMisses);
+        hitRatio(meterRegistry, "device-client", deviceHits, deviceMisses);
+    }
+
+    /**
+     * Устройство, которому принадлежит буфер.
+     * При промахе буфер читается с проверкой доступа текущего пользователя.
+     *
+     * @return uid устройства или null, если буфер не найден
+     */
+    public UUID getBufferDevice(UUID bufferUid) {
+        return get(bufferDevices, bufferUid, bufferHits, bufferMisses, uid -> {
+            BufferBlm bufferBlm = bufferClient.getBufferByUid(uid);
+            return bufferBlm != null ? bufferBlm.getDeviceUid() : null;
+        });
+    }
+
+    /**
+     * Клиент, которому принадлежит устройство.
+     *
+     * @return uid клиента или null, если устройство не найдено
+     */
+    public UUID getDeviceClient(UUID deviceUid) {
+        return get(deviceClients, deviceUid, deviceHits, deviceMisses, uid -> {
+            DeviceBlm deviceBlm = deviceClient.getDevice(uid);
+            return deviceBlm != null ? deviceBlm.getClientUuid() : null;
+        });
+    }
+
+    /**
+     * Устройства буферов за один проход по кэшу; промахи читаются одним
+     * запросом с проверкой доступа текущего пользователя.
+     *
+     * @return буфер -> устройство; ненайденных буферов в результате нет
+     */
+    public Map<UUID, UUID> getBufferDevices(Collection<UUID> bufferUids) {
+        return getAll(bufferDevices, bufferUids, bufferHits, bufferMisses,
+                missing -> bufferClient.getBuffersByUids(missing).stream()
+                        .collect(Collectors.toMap(BufferBlm::getUid,
+                                BufferBlm::getDeviceUid, (a, b) -> a)));
+    }
+
+    /**
+     * Клиенты устройств за один проход по кэшу. Промахи загружаются
+     * одним списком устройств клиента clientUid, поэтому устройства других
+     * клиентов в результат не попадают.
+     *
+     * @return устройство -> клиент; для чужих и ненайденных устройств записи нет
+     */
+    public Map<UUID, UUID> getDeviceClients(Collection<UUID> deviceUids, UUID clientUid) {
+        return getAll(deviceClients, deviceUids, deviceHits, deviceMisses, missing -> {
+            Map<UUID, UUID> owners = new HashMap<>();
+            for (DeviceBlm deviceBlm : deviceClient.getDevicesByClient(clientUid)) {
+                if (missing.contains(deviceBlm.getUid())) {
+                    owners.put(deviceBlm.getUid(), deviceBlm.getClientUuid());
+                }
+            }
+            return owners;
+        });
+    }
+
+    /** Сброс владельца буфера. */
+    public void invalidateBuffer(UUID bufferUid) {
+        synchronized (lock) {
+            generation++;
+            bufferDevices.remove(bufferUid);
+        }
+    }
+
+    /** Сброс владельца устройства и всех буферов устройства. */
+    public void invalidateDevice(UUID deviceUid) {
+        synchronized (lock) {
+            generation++;
+            deviceClients.remove(deviceUid);
+            bufferDevices.removeOwnedBy(deviceUid);
+        }
+    }
+
+    /** Сброс всего кэша. */
+    public void invalidateAll() {
+        synchronized (lock) {
+            generation++;
+            bufferDevices.clear();
+            deviceClients.clear();
+        }
+    }
+
+    /** Инвалидация после фиксации транзакции, изменившей буфер. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBufferChanged(BufferChangedEvent event) {
+        invalidateBuffer(event.getBufferUid());
+        log.debug("Ownership of buffer {} invalidated", event.getBufferUid());
+    }
+
+    /** Инвалидация после фиксации транзакции, изменившей устройство. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        invalidateDevice(event.getDeviceUid());
+        log.debug("Ownership of device {} invalidated", event.getDeviceUid());
+    }
+
+    private UUID get(OwnerTable entries, UUID key, Counter hits,
+            Counter misses, Function<UUID, UUID> loader) {
+        long now = System.currentTimeMillis();
+        Owner owner = entries.owners.get(key);
+        if (owner != null && now < owner.expiresAt) {
+            hits.increment();
+            return owner.uid;
+        }
+        misses.increment();
+
+        long loadedGeneration;
+        synchronized (lock) {
+            loadedGeneration = generation;
+        }
+        UUID ownerUid = loader.apply(key);
+        if (ownerUid == null) {
+            return null;
+        }
+        synchronized (lock) {
+            if (loadedGeneration == generation) {
+                entries.put(key, new Owner(key, ownerUid, now + ttlMillis), now);
+            }
+        }
+        return ownerUid;
+    }
+
+    private Map<UUID, UUID> getAll(OwnerTable entries, Collection<UUID> keys,
+            Counter hits, Counter misses,
+            Function<Set<UUID>, Map<UUID, UUID>> loader) {
+        long now = System.currentTimeMillis();
+        Map<UUID, UUID> result = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        for (UUID key : keys) {
+            Owner owner = entries.owners.get(key);
+            if (owner != null && now < owner.expiresAt) {
+                hits.increment();
+                result.put(key, owner.uid);
+            } else if (missing.add(key)) {
+                misses.increment();
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long loadedGeneration;
+        synchronized (lock) {
+            loadedGeneration = generation;
+        }
+        Map<UUID, UUID> loaded = loader.apply(missing);
+        synchronized (lock) {
+            if (loadedGeneration == generation) {
+                loaded.forEach((key, ownerUid) ->
+                        entries.put(key, new Owner(key, ownerUid, now + ttlMillis), now));
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String cache,
+            String result) {
+        return Counter.builder("message.access.cache.lookups")
+                .description("Ownership cache lookups")
+                .tag("cache", cache).tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static void hitRatio(MeterRegistry meterRegistry, String cache,
+            Counter hits, Counter misses) {
+        Gauge.builder("message.access.cache.hit.ratio", () -> {
+            double total = hits.count() + misses.count();
+            return total == 0 ? 0 : hits.count() / total;
+        }).description("Share of ownership lookups served from the cache")
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+
+    /** Записи одного вида; изменяются только под lock. */
+    private final class OwnerTable {
+
+        // Читается без блокировки
+        private final Map<UUID, Owner> owners = new ConcurrentHashMap<>();
+
+        private final Deque<Owner> expiryOrder = new ArrayDeque<>();
+
+        // null - индекс по владельцу не ведется
+        private final Map<UUID, Set<UUID>> keysByOwner;
+
+        OwnerTable(boolean indexByOwner) {
+            this.keysByOwner = indexByOwner ? new HashMap<>() : null;
+        }
+
+        // Истекшие записи снимаются с головы очереди; если места все равно
+        // нет - новый факт не кэшируется
+        void put(UUID key, Owner owner, long now) {
+            Owner head;
+            while ((head = expiryOrder.peek()) != null && head.expiresAt <= now) {
+                expiryOrder.poll();
+                if (owners.remove(head.key, head)) {
+                    unindex(head);
+                }
+            }
+            Owner previous = owners.get(key);
+            if (previous == null && owners.size() >= maxEntries) {
+                return;
+            }
+            if (previous != null) {
+                unindex(previous);
+            }
+            owners.put(key, owner);
+            expiryOrder.add(owner);
+            // Сброшенные до истечения записи копятся в очереди; чистка раз
+            // на maxEntries таких записей
+            if (expiryOrder.size() > 2 * maxEntries) {
+                expiryOrder.removeIf(queued -> owners.get(queued.key) != queued);
+            }
+            if (keysByOwner != null) {
+                keysByOwner.computeIfAbsent(owner.uid, uid -> new HashSet<>()).add(key);
+            }
+        }
+
+        // Запись остается в очереди и снимается при истечении
+        void remove(UUID key) {
+            Owner owner = owners.remove(key);
+            if (owner != null) {
+                unindex(owner);
+            }
+        }
+
+        void removeOwnedBy(UUID ownerUid) {
+            Set<UUID> keys = keysByOwner.remove(ownerUid);
+            if (keys != null) {
+                keys.forEach(owners::remove);
+            }
+        }
+
+        void clear() {
+            owners.clear();
+            expiryOrder.clear();
+            if (keysByOwner != null) {
+                keysByOwner.clear();
+            }
+        }
+
+        private void unindex(Owner owner) {
+            if (keysByOwner == null) {
+                return;
+            }
+            Set<UUID> keys = keysByOwner.get(owner.uid);
+            if (keys != null && keys.remove(owner.key) && keys.isEmpty()) {
+                keysByOwner.remove(owner.uid);
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Owner {
+
+        private final UUID key;
+
+        private final UUID uid;
+
+        private final long expiresAt;
+    }
+}
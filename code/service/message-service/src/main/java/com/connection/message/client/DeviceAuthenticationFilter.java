@@ -1,7 +1,6 @@
 package com.connection.message.client;
 
 import com.connection.device.token.model.DeviceAccessTokenBlm;
-import com.connection.device.token.model.DeviceTokenBlm;
 import com.service.device.auth.DeviceAuthService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -63,13 +63,15 @@ public class DeviceAuthenticationFilter extends OncePerRequestFilter {
 
             DeviceAccessTokenBlm deviceAccessTokenBlm =
                     deviceAuthClient.validateDeviceAccessToken(cleanToken);
-
-            DeviceTokenBlm deviceTokenBlm = deviceAuthClient
-                    .getDeviceToken(deviceAccessTokenBlm.getDeviceTokenUid());
+            // Токены без deviceUid выданы до появления claim и обновляются через refresh
+            UUID deviceUid = deviceAccessTokenBlm.getDeviceUid();
+            if (deviceUid == null) {
+                throw new SecurityException("Device access token has no device uid");
+            }
 
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
-                            deviceTokenBlm.getDeviceUid(), null,
+                            deviceUid, null,
                             Collections.singletonList(
                                     new SimpleGrantedAuthority("ROLE_DEVICE")));
 
@@ -78,8 +80,7 @@ public class DeviceAuthenticationFilter extends OncePerRequestFilter {
             SecurityContextHolder.getContext()
                     .setAuthentication(authentication);
 
-            log.info("Successfully authenticated device: {}",
-                    deviceTokenBlm.getDeviceUid());
+            log.info("Successfully authenticated device: {}", deviceUid);
         } catch (Exception e) {
             throw new SecurityException(
                     "Authentication failed: " + e.getMessage());
@@ -1,10 +1,13 @@
 package com.connection.message.config;
 
 import com.atomikos.jdbc.AtomikosDataSourceBean;
+import com.zaxxer.hikari.HikariDataSource;
 import java.util.Properties;
 import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -38,6 +41,9 @@ public class MessageJdbcConfig {
         xaProperties.setProperty("url", jdbcUrl);
         xaProperties.setProperty("user", username);
         xaProperties.setProperty("password", password);
+        // reWriteBatchedInserts не включается: переписанный пакет возвращает
+        // SUCCESS_NO_INFO вместо числа строк, и addAll не отличил бы строки,
+        // пропущенные ON CONFLICT. Пакет и без него уходит за один обмен
 
         dataSource.setXaProperties(xaProperties);
         dataSource.setPoolSize(5);
@@ -46,9 +52,60 @@ public class MessageJdbcConfig {
         return dataSource;
     }
 
+    // Выгрузка буфера читает курсором, пока клиент принимает ответ: у нее
+    // свой пул вне XA, чтобы не занимать соединения записи и не попадать
+    // под таймаут XA-транзакции. Размер пула - предел одновременных выгрузок
+    @Bean("MessageExportDataSource")
+    DataSource messageExportDataSource(
+            @Value("${app.message.export.max-concurrent:2}") int maxConcurrentExports) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("message-export");
+        dataSource.setJdbcUrl(jdbcUrl);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maxConcurrentExports);
+        dataSource.setMinimumIdle(0);
+        dataSource.setAutoCommit(false);
+        dataSource.setReadOnly(true);
+
+        return dataSource;
+    }
+
     @Bean("MessageJdbcTemplate")
     NamedParameterJdbcTemplate messageNamedParameterJdbcTemplate(
             @Qualifier("MessageDataSource") DataSource messageDataSource) {
         return new NamedParameterJdbcTemplate(messageDataSource);
     }
+
+    // Версионные миграции message-shared (db/migration/message) применяются при старте
+    // отдельным соединением, вне XA-транзакций. Базы, созданные init-скриптами
+    // до появления миграций, принимаются за версию 0
+    @Bean(name = "MessageSchemaMigration", initMethod = "migrate")
+    @ConditionalOnProperty(name = "app.schema.migration.enabled", havingValue = "true",
+            matchIfMissing = true)
+    Flyway messageSchemaMigration() {
+        return Flyway.configure()
+                .dataSource(jdbcUrl, username, password)
+                .locations("classpath:db/migration/message")
+                .table("message_schema_history")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+
+    // Запись сообщений читает формат, сжатие и хранение буферов, поэтому
+    // миграции buffer-shared применяются и здесь: порядок запуска с
+    // buffer-service не важен, история у них общая
+    @Bean(name = "MessageBufferSchemaMigration", initMethod = "migrate")
+    @ConditionalOnProperty(name = "app.schema.migration.enabled", havingValue = "true",
+            matchIfMissing = true)
+    Flyway messageBufferSchemaMigration() {
+        return Flyway.configure()
+                .dataSource(jdbcUrl, username, password)
+                .locations("classpath:db/migration/buffer")
+                .table("buffer_schema_history")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
 }
@@ -1,8 +1,23 @@
 package com.connection.message.config;
 
+import com.connection.message.events.MessageEventUtils;
+import com.connection.message.events.domain.MessageCreatedEvent;
+import com.connection.message.model.BufferOverflowPolicy;
+import com.connection.message.model.MessageBlm;
+import com.connection.message.repository.MessageOutboxRepository;
+import com.connection.message.repository.MessageOutboxRepositorySqlImpl;
+import com.connection.message.repository.MessagePartitionRepository;
+import com.connection.message.repository.MessagePartitionRepositorySqlImpl;
 import com.connection.message.repository.MessageRepository;
 import com.connection.message.repository.MessageRepositorySqlImpl;
+import com.connection.message.repository.MessageRetentionRepository;
+import com.connection.message.repository.MessageRetentionRepositorySqlImpl;
+import com.connection.message.repository.MessageRoutingTaskRepository;
+import com.connection.message.repository.MessageRoutingTaskRepositorySqlImpl;
+import java.util.Date;
+import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -11,9 +26,58 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 @Configuration
 public class MessageRepositoryConfig {
 
+    @Bean("MessageOutboxRepository")
+    MessageOutboxRepository messageOutboxRepository(
+            @Qualifier("MessageJdbcTemplate") NamedParameterJdbcTemplate template) {
+        return new MessageOutboxRepositorySqlImpl(template,
+                MessageRepositoryConfig::toMessageCreatedJson);
+    }
+
     @Bean("MessageRepository")
     MessageRepository messageRepository(
+            @Qualifier("MessageJdbcTemplate") NamedParameterJdbcTemplate template,
+            MessageOutboxRepository outboxRepository,
+            @Value("${app.message.outbox.enabled:false}") boolean outboxEnabled,
+            @Value("${app.message.capacity.overflow-policy:REJECT}")
+                    BufferOverflowPolicy overflowPolicy,
+            @Value("${app.message.compression.min-size:1024}") int compressionMinSize,
+            @Qualifier("MessageExportDataSource") DataSource exportDataSource,
+            @Value("${app.message.export.max-concurrent:2}") int maxConcurrentExports,
+            @Value("${app.message.export.timeout-ms:1800000}") long exportTimeoutMillis) {
+        // Без релея события копились бы в outbox, поэтому запись включается вместе с ним
+        return new MessageRepositorySqlImpl(template,
+                outboxEnabled ? outboxRepository : null, overflowPolicy,
+                compressionMinSize, exportDataSource, maxConcurrentExports,
+                exportTimeoutMillis);
+    }
+
+    @Bean("MessageRetentionRepository")
+    MessageRetentionRepository messageRetentionRepository(
             @Qualifier("MessageJdbcTemplate") NamedParameterJdbcTemplate template) {
-        return new MessageRepositorySqlImpl(template);
+        return new MessageRetentionRepositorySqlImpl(template);
+    }
+
+    @Bean("MessagePartitionRepository")
+    MessagePartitionRepository messagePartitionRepository(
+            @Qualifier("MessageJdbcTemplate") NamedParameterJdbcTemplate template) {
+        return new MessagePartitionRepositorySqlImpl(template);
+    }
+
+    @Bean("MessageRoutingTaskRepository")
+    MessageRoutingTaskRepository messageRoutingTaskRepository(
+            @Qualifier("MessageJdbcTemplate") NamedParameterJdbcTemplate template) {
+        return new MessageRoutingTaskRepositorySqlImpl(template);
+    }
+
+    private static String toMessageCreatedJson(MessageBlm messageBlm) {
+        // Пустое сообщение без тела публикуется с content "{}", как и прежде
+        String content = messageBlm.getContent() != null || messageBlm.getPayload() != null
+                ? messageBlm.getContent() : "{}";
+        MessageCreatedEvent event = new MessageCreatedEvent(messageBlm.getUid(), null,
+                messageBlm.getBufferUid(), content, messageBlm.getContentType(),
+                messageBlm.getCreatedAt() != null ? messageBlm.getCreatedAt() : new Date(),
+                null);
+        event.setPayload(messageBlm.getPayload());
+        return MessageEventUtils.toJson(event);
     }
 }
@@ -0,0 +1,10 @@
+package com.connection.message.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Периодические задачи message-service (релей outbox, очистка по хранению, секции). */
+@Configuration
+@EnableScheduling
+public class MessageSchedulingConfig {
+}
@@ -0,0 +1,39 @@
+package com.connection.message.controller;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** . */
+@AllArgsConstructor
+@Getter
+@Schema(description = "Ответ на пакетное добавление сообщений")
+public class MessageBatchResponse {
+
+    @Schema(description = "Количество принятых сообщений")
+    private final int acceptedCount;
+
+    @Schema(description = "Результаты в порядке сообщений запроса")
+    private final List<ItemResult> results;
+
+    /** . */
+    @AllArgsConstructor
+    @Getter
+    @Schema(description = "Результат добавления одного сообщения")
+    public static class ItemResult {
+
+        @Schema(description = "Позиция сообщения в запросе", example = "0")
+        private final int index;
+
+        @Schema(description = "UID сообщения")
+        private final UUID uid;
+
+        @Schema(description = "Сообщение принято")
+        private final boolean accepted;
+
+        @Schema(description = "Причина отказа")
+        private final String error;
+    }
+}
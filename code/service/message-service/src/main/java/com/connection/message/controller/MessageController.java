@@ -1,28 +1,46 @@
 package com.connection.message.controller;
 
+import com.connection.message.MessageAddResult;
+import com.connection.message.MessageCursor;
+import com.connection.message.MessageExport;
+import com.connection.message.MessagePage;
 import com.connection.message.MessageService;
 import com.connection.message.converter.MessageConverter;
+import com.connection.message.delivery.MessageDelivery;
 import com.connection.message.model.MessageBlm;
 import com.connection.message.model.MessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** . */
 @Slf4j
@@ -37,13 +55,27 @@ public class MessageController {
     private static final int DEFAULT_OFFSET = 0;
     private static final int DEFAULT_LIMIT = 1;
     // private static final int MAX_LIMIT = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    // Long-poll короче таймаута async-запроса контейнера
+    private static final long DEFAULT_POLL_TIMEOUT_MILLIS = 20_000;
+    private static final long MAX_POLL_TIMEOUT_MILLIS = 25_000;
+    private static final long STREAM_TIMEOUT_MILLIS = 300_000;
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final String MESSAGE_UID_HEADER = "X-Message-Uid";
+    private static final String MESSAGE_CONTENT_TYPE_HEADER = "X-Message-Content-Type";
+    private static final String MESSAGE_CREATED_AT_HEADER = "X-Message-Created-At";
 
     protected final MessageConverter messageConverter;
     protected final MessageService messageService;
+    protected final MessageDelivery messageDelivery;
+    protected final ObjectMapper objectMapper;
 
     /** . */
-    @Operation(security = {@SecurityRequirement(name = "clientAuth"),
-        @SecurityRequirement(name = "deviceAuth")})
+    @Operation(description = "Повторная отправка сообщения с тем же uid"
+                    + " отвечает успехом и не создает копию.",
+            security = {@SecurityRequirement(name = "clientAuth"),
+                @SecurityRequirement(name = "deviceAuth")})
     @PostMapping("/messages")
     public ResponseEntity<Void> addMessage(@Parameter(
             description = "Dto сообщения для добавления") @RequestBody MessageDto messageDto) {
@@ -63,6 +95,70 @@ public class MessageController {
         }
     }
 
+    /** . */
+    @Operation(summary = "Добавление двоичного сообщения",
+            description = "Тело запроса сохраняется как есть, без JSON и base64."
+                    + " Буфер должен иметь payloadFormat BINARY. uid назначается"
+                    + " сервером, если не передан; при повторной отправке uid"
+                    + " нужно передавать, тогда повтор не создает копию.",
+            security = {@SecurityRequirement(name = "clientAuth"),
+                @SecurityRequirement(name = "deviceAuth")})
+    @PostMapping(path = "/messages", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> addBinaryMessage(
+            @Parameter(description = "UID буфера") @RequestParam UUID bufferUid,
+            @Parameter(description = "UID сообщения") @RequestParam(
+                    required = false) UUID uid,
+            @Parameter(description = "Тип сообщения (OUTGOING/INCOMING)") @RequestParam(
+                    defaultValue = "OUTGOING") String contentType,
+            @RequestBody byte[] payload) {
+
+        try {
+            MessageBlm messageBlm = MessageBlm.builder()
+                    .uid(uid != null ? uid : UUID.randomUUID())
+                    .bufferUid(bufferUid).payload(payload)
+                    .contentType(contentType).createdAt(new Date()).build();
+
+            messageService.addMessage(messageBlm);
+
+            return ResponseEntity.ok().build();
+
+        } catch (Exception e) {
+            log.error("Error adding binary message: {}", e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /** . */
+    @Operation(summary = "Пакетное добавление сообщений",
+            description = "Принимает до " + MAX_BATCH_SIZE + " сообщений."
+                    + " Результат возвращается для каждого сообщения.",
+            security = {@SecurityRequirement(name = "clientAuth"),
+                @SecurityRequirement(name = "deviceAuth")})
+    @PostMapping("/messages/batch")
+    public ResponseEntity<MessageBatchResponse> addMessages(@Parameter(
+            description = "Dto сообщений для добавления")
+            @RequestBody List<MessageDto> messageDtos) {
+        if (messageDtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "Batch size exceeds " + MAX_BATCH_SIZE);
+        }
+
+        List<MessageBlm> messageBlms =
+                messageDtos.stream().map(messageConverter::toBlm).toList();
+        List<MessageAddResult> results = messageService.addMessages(messageBlms);
+
+        List<MessageBatchResponse.ItemResult> itemResults = IntStream
+                .range(0, results.size())
+                .mapToObj(i -> new MessageBatchResponse.ItemResult(i,
+                        results.get(i).getUid(), results.get(i).isAccepted(),
+                        results.get(i).getError()))
+                .toList();
+        int acceptedCount = (int) results.stream()
+                .filter(MessageAddResult::isAccepted).count();
+        return ResponseEntity.ok()
+                .body(new MessageBatchResponse(acceptedCount, itemResults));
+    }
+
     /** . */
     @Operation(
             security = {@SecurityRequirement(name = "clientAuth"),
@@ -79,10 +175,15 @@ public class MessageController {
                 @Parameter(name = "deleteOnGet",
                         description = "Удалять сообщения после получения",
                         in = ParameterIn.QUERY),
-                @Parameter(name = "offset", description = "Смещение для пагинации",
+                @Parameter(name = "offset",
+                        description = "Смещение для пагинации (без курсора)",
                         in = ParameterIn.QUERY),
                 @Parameter(name = "limit",
                         description = "Лимит для пагинации (макс. 1000)",
+                        in = ParameterIn.QUERY),
+                @Parameter(name = "cursor",
+                        description = "Курсор из nextCursor предыдущего ответа."
+                                + " Сообщения всех источников идут в общем порядке",
                         in = ParameterIn.QUERY)})
     @GetMapping("/messages/")
     public ResponseEntity<MessageResponse> getMessage(
@@ -91,40 +192,207 @@ public class MessageController {
             @RequestParam(required = false) List<UUID> deviceUids,
             @RequestParam(defaultValue = "false") Boolean deleteOnGet,
             @RequestParam(defaultValue = "" + DEFAULT_OFFSET) int offset,
-            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit) {
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String cursor) {
 
-        Set<MessageBlm> messageBlms = new HashSet<>();
         log.info("Getting messages");
 
-        if (schemeUids != null) {
-            for (UUID schemeUid : schemeUids) {
-                log.info("Getting messages for schemeUid: {}", schemeUid);
-                messageBlms.addAll(messageService.getMessagesByScheme(schemeUid,
-                        deleteOnGet, offset, limit));
-            }
+        // Все источники - один запрос в общем порядке и один курсор
+        MessagePage page = messageService.getMessagesPage(schemeUids,
+                bufferUids, deviceUids, deleteOnGet,
+                cursor != null ? MessageCursor.decode(cursor) : null, offset,
+                limit);
+        log.info("Got messages: {}", page.getMessages().size());
+
+        List<MessageDto> pageDto = page.getMessages().stream()
+                .map(messageConverter::toDto).toList();
+        String nextCursor = page.getNextCursor() != null
+                ? page.getNextCursor().encode()
+                : null;
+        return ResponseEntity.ok().body(new MessageResponse(pageDto, nextCursor));
+    }
+
+    /** . */
+    @Operation(summary = "Сообщения буфера за интервал времени",
+            description = "Сообщения с created_at в [from, to) в порядке создания."
+                    + " to по умолчанию - текущий момент. nextCursor ответа -"
+                    + " курсор следующей страницы того же интервала.",
+            security = {@SecurityRequirement(name = "clientAuth"),
+                @SecurityRequirement(name = "deviceAuth")})
+    @GetMapping("/messages/range")
+    public ResponseEntity<MessageResponse> getMessagesByTimeRange(
+            @Parameter(description = "UID буфера") @RequestParam UUID bufferUid,
+            @Parameter(description = "Начало интервала, ISO-8601 (включительно)")
+            @RequestParam Instant from,
+            @Parameter(description = "Конец интервала, ISO-8601 (не включительно)")
+            @RequestParam(required = false) Instant to,
+            @Parameter(description = "Курсор из предыдущего ответа") @RequestParam(
+                    required = false) String cursor,
+            @Parameter(description = "Количество сообщений") @RequestParam(
+                    defaultValue = "" + DEFAULT_LIMIT) int limit) {
+        log.info("Getting messages for bufferUid: {} from {} to {}", bufferUid,
+                from, to);
+
+        MessagePage page = messageService.getMessagesPageByTimeRange(bufferUid,
+                Date.from(from), Date.from(to != null ? to : Instant.now()),
+                cursor != null ? MessageCursor.decode(cursor) : null, limit);
+        List<MessageDto> pageDto = page.getMessages().stream()
+                .map(messageConverter::toDto).toList();
+        String nextCursor = page.getNextCursor() != null
+                ? page.getNextCursor().encode()
+                : null;
+        return ResponseEntity.ok().body(new MessageResponse(pageDto, nextCursor));
+    }
+
+    /** . */
+    @Operation(summary = "Получить входящие сообщения",
+            description = "Атомарно извлекает самые старые входящие сообщения"
+                    + " буфера. Извлечённые сообщения удаляются.",
+            security = {@SecurityRequirement(name = "clientAuth"),
+                @SecurityRequirement(name = "deviceAuth")})
+    @PostMapping("/messages/dequeue")
+    public ResponseEntity<MessageResponse> dequeueMessages(
+            @Parameter(description = "UID буфера") @RequestParam UUID bufferUid,
+            @Parameter(description = "Количество сообщений") @RequestParam(
+                    defaultValue = "" + DEFAULT_LIMIT) int limit) {
+        log.info("Dequeue messages for bufferUid: {}", bufferUid);
+
+        List<MessageDto> resultDto = messageService
+                .dequeueIncomingMessages(bufferUid, limit).stream()
+                .map(messageConverter::toDto).toList();
+        return ResponseEntity.ok().body(new MessageResponse(resultDto, null));
+    }
+
+    /** . */
+    @Operation(summary = "Получить входящее сообщение без JSON-обертки",
+            description = "Выбирается при Accept: application/octet-stream."
+                    + " Извлекает одно самое старое входящее сообщение и отдает его"
+                    + " тело как есть (JSON-сообщение - текстом UTF-8); uid,"
+                    + " тип и время создания - в заголовках X-Message-*."
+                    + " 204, если сообщений нет.",
+            security = {@SecurityRequirement(name = "clientAuth"),
+                @SecurityRequirement(name = "deviceAuth")})
+    @PostMapping(path = "/messages/dequeue",
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> dequeueBinaryMessage(
+            @Parameter(description = "UID буфера") @RequestParam UUID bufferUid) {
+        log.info("Dequeue binary message for bufferUid: {}", bufferUid);
+
+        List<MessageBlm> messages =
+                messageService.dequeueIncomingMessages(bufferUid, 1);
+        if (messages.isEmpty()) {
+            return ResponseEntity.noContent().build();
         }
+        MessageBlm messageBlm = messages.get(0);
+        byte[] body = messageBlm.getPayload() != null ? messageBlm.getPayload()
+                : messageBlm.getContent().getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(MESSAGE_UID_HEADER, messageBlm.getUid().toString())
+                .header(MESSAGE_CONTENT_TYPE_HEADER, messageBlm.getContentType())
+                .header(MESSAGE_CREATED_AT_HEADER,
+                        messageBlm.getCreatedAt().toInstant().toString())
+                .body(body);
+    }
 
-        if (bufferUids != null) {
-            for (UUID bufferUid : bufferUids) {
-                log.info("Getting messages for bufferUid: {}", bufferUid);
-                messageBlms.addAll(messageService.getMessagesByBuffer(bufferUid,
-                        deleteOnGet, offset, limit));
-            }
+    /** . */
+    @Operation(summary = "Long-poll новых сообщений буфера",
+            description = "Возвращает сообщения после курсора сразу, если они есть,"
+                    + " иначе ждет их поступления до timeoutMs. nextCursor ответа -"
+                    + " позиция для следующего запроса. Сообщения не удаляются.",
+            security = {@SecurityRequirement(name = "clientAuth"),
+                @SecurityRequirement(name = "deviceAuth")})
+    @GetMapping("/messages/poll")
+    public CompletableFuture<ResponseEntity<MessageResponse>> pollMessages(
+            @Parameter(description = "UID буфера") @RequestParam UUID bufferUid,
+            @Parameter(description = "Курсор из предыдущего ответа") @RequestParam(
+                    required = false) String cursor,
+            @Parameter(description = "Количество сообщений") @RequestParam(
+                    defaultValue = "" + DEFAULT_LIMIT) int limit,
+            @Parameter(description = "Время ожидания, мс (макс. " + MAX_POLL_TIMEOUT_MILLIS
+                    + ")") @RequestParam(defaultValue = "" + DEFAULT_POLL_TIMEOUT_MILLIS)
+                    long timeoutMs) {
+        if (timeoutMs < 0 || timeoutMs > MAX_POLL_TIMEOUT_MILLIS) {
+            throw new IllegalArgumentException(
+                    "timeoutMs must be between 0 and " + MAX_POLL_TIMEOUT_MILLIS);
         }
 
-        if (deviceUids != null) {
-            for (UUID deviceUid : deviceUids) {
-                log.info("Getting messages for deviceUid: {}", deviceUid);
-                messageBlms.addAll(messageService.getMessagesByDevice(deviceUid,
-                        deleteOnGet, offset, limit));
+        return messageDelivery.poll(bufferUid,
+                cursor != null ? MessageCursor.decode(cursor) : null, limit, timeoutMs)
+                .thenApply(page -> ResponseEntity.ok().body(new MessageResponse(
+                        page.getMessages().stream().map(messageConverter::toDto).toList(),
+                        page.getNextCursor() != null ? page.getNextCursor().encode()
+                                : null)));
+    }
+
+    /** . */
+    @Operation(summary = "Поток новых сообщений буфера (SSE)",
+            description = "Событие \"message\" на каждое сообщение после курсора;"
+                    + " id события - курсор для переподключения (Last-Event-ID).",
+            security = {@SecurityRequirement(name = "clientAuth"),
+                @SecurityRequirement(name = "deviceAuth")})
+    @GetMapping(path = "/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages(
+            @Parameter(description = "UID буфера") @RequestParam UUID bufferUid,
+            @Parameter(description = "Курсор, с которого начать") @RequestParam(
+                    required = false) String cursor,
+            @Parameter(hidden = true) @RequestHeader(value = "Last-Event-ID",
+                    required = false) String lastEventId) {
+        String resumeFrom = cursor != null ? cursor : lastEventId;
+        return messageDelivery.stream(bufferUid,
+                resumeFrom != null ? MessageCursor.decode(resumeFrom) : null,
+                STREAM_TIMEOUT_MILLIS);
+    }
+
+    /** . */
+    @Operation(summary = "Выгрузка буфера (NDJSON)",
+            description = "Все сообщения буфера в порядке создания, по одному JSON"
+                    + " на строку. Ответ пишется по мере чтения из БД; gzip=true"
+                    + " сжимает его (Content-Encoding: gzip). Сверх предела"
+                    + " одновременных выгрузок - 503.",
+            security = {@SecurityRequirement(name = "clientAuth"),
+                @SecurityRequirement(name = "deviceAuth")})
+    @GetMapping(path = "/messages/export", produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @Parameter(description = "UID буфера") @RequestParam UUID bufferUid,
+            @Parameter(description = "Сжать ответ gzip") @RequestParam(
+                    defaultValue = "false") boolean gzip) {
+        log.info("Export messages for bufferUid: {}", bufferUid);
+
+        // Доступ проверяется до начала ответа, чтение - в потоке записи
+        MessageExport export = messageService.exportMessagesByBuffer(bufferUid);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip
+                    ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE)
+                    : outputStream;
+            OutputStream out = new BufferedOutputStream(target, EXPORT_BUFFER_SIZE);
+            try {
+                export.forEach(messageBlm -> writeLine(out, messageBlm));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
+            out.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
-        log.info("Got messages: {}", messageBlms.size());
+        return response.body(body);
+    }
 
-        List<MessageBlm> resultBlm = new ArrayList<>(messageBlms);
-        List<MessageDto> resultDto =
-                resultBlm.stream().map(messageConverter::toDto).toList();
-        return ResponseEntity.ok().body(new MessageResponse(resultDto));
+    private void writeLine(OutputStream out, MessageBlm messageBlm) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(
+                    messageConverter.toDto(messageBlm)));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /** . */
@@ -1,5 +1,6 @@
 package com.connection.message.controller;
 
+import com.connection.message.exception.MessageExportLimitException;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -41,6 +42,25 @@ public class MessageGlobalExceptionHandler {
                 new ErrorResponse("access_denied", "Insufficient permissions"));
     }
 
+    /** . */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleIllegalArgumentException(
+            IllegalArgumentException e) {
+        log.warn("Bad request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse("bad_request", e.getMessage()));
+    }
+
+    /** . */
+    @ExceptionHandler(MessageExportLimitException.class)
+    public ResponseEntity<?> handleExportLimitException(
+            MessageExportLimitException e) {
+        log.warn("Export rejected: too many concurrent exports");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse("export_limit_exceeded",
+                        "Too many concurrent exports, retry later"));
+    }
+
     /** . */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGenericException(Exception e) {
@@ -14,4 +14,8 @@ public class MessageResponse {
     
     @Schema(description = "Список сообщений")
     private final List<MessageDto> messageDtos;
+
+    @Schema(description = "Курсор следующей страницы (null, если страниц больше нет"
+            + " или пагинация курсором не применялась)")
+    private final String nextCursor;
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.connection.message.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Недавно принятые uid сообщений по буферам. Повторная отправка
+ * устройством того же сообщения отвечает успехом без обращения к базе
+ * и без повторной маршрутизации. На буфер хранится не больше
+ * idsPerBuffer последних uid, буферов - не больше maxBuffers
+ * (вытесняются давно не писавшие). Промах ничего не гарантирует:
+ * вытесненные из памяти и пришедшие на другой экземпляр повторы
+ * распознает репозиторий.
+ */
+@Component
+public class RecentMessageIds {
+
+    private final int idsPerBuffer;
+    // Порядок доступа: при переполнении вытесняется буфер, в который дольше всех не писали
+    private final Map<UUID, Set<UUID>> buffers;
+
+    private final Counter memoryDuplicates;
+    private final Counter storedDuplicates;
+
+    /** . */
+    public RecentMessageIds(MeterRegistry meterRegistry,
+            @Value("${app.message.dedup.ids-per-buffer:32}") int idsPerBuffer,
+            @Value("${app.message.dedup.max-buffers:10000}") int maxBuffers) {
+        if (idsPerBuffer < 1 || maxBuffers < 1) {
+            throw new IllegalArgumentException(
+                    "Recent id limits must be positive");
+        }
+        this.idsPerBuffer = idsPerBuffer;
+        this.buffers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Set<UUID>> eldest) {
+                return size() > maxBuffers;
+            }
+        };
+
+        this.memoryDuplicates = duplicates(meterRegistry, "memory");
+        this.storedDuplicates = duplicates(meterRegistry, "database");
+    }
+
+    /** Сообщение с этим uid недавно принято в буфер. */
+    public boolean contains(UUID bufferUid, UUID uid) {
+        if (uid == null) {
+            return false;
+        }
+        synchronized (buffers) {
+            Set<UUID> ids = buffers.get(bufferUid);
+            if (ids == null || !ids.contains(uid)) {
+                return false;
+            }
+        }
+        memoryDuplicates.increment();
+        return true;
+    }
+
+    /** Запомнить сообщение, сохраненное в буфер. */
+    public void remember(UUID bufferUid, UUID uid) {
+        if (uid == null) {
+            return;
+        }
+        synchronized (buffers) {
+            buffers.computeIfAbsent(bufferUid, b -> newIdSet()).add(uid);
+        }
+    }
+
+    /** Запомнить повтор, который распознал репозиторий. */
+    public void rememberDuplicate(UUID bufferUid, UUID uid) {
+        storedDuplicates.increment();
+        remember(bufferUid, uid);
+    }
+
+    /** Количество буферов с запомненными uid. */
+    public int bufferCount() {
+        synchronized (buffers) {
+            return buffers.size();
+        }
+    }
+
+    private Set<UUID> newIdSet() {
+        return Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+                return size() > idsPerBuffer;
+            }
+        });
+    }
+
+    private static Counter duplicates(MeterRegistry meterRegistry,
+            String detectedBy) {
+        return Counter.builder("message.ingest.duplicates")
+                .description("Retried messages answered without a new insert")
+                .tag("detected-by", detectedBy)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,135 @@
+package com.connection.message.delivery;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ожидающие новых сообщений получатели, сгруппированные по буферу.
+ * Ожидание не занимает ни поток, ни соединение с БД: получатель - это
+ * колбэк, который запускается на небольшом пуле при поступлении сигнала.
+ * Сигнал отправляется после фиксации вставки. Если включен
+ * app.message.notify.enabled, сигнал идет через NOTIFY и доходит до
+ * всех экземпляров сервиса (см. {@link PgMessageArrivalListener}),
+ * иначе - только до ожидающих в этом процессе.
+ */
+@Slf4j
+@Component
+public class MessageArrivalNotifier {
+
+    static final String CHANNEL = "message_arrival";
+
+    private static final String NOTIFY =
+            "SELECT pg_notify('" + CHANNEL + "', :buffer_uid)";
+
+    private final Map<UUID, Set<Runnable>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final ExecutorService dispatcher;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean notifyEnabled;
+
+    /** . */
+    public MessageArrivalNotifier(
+            @Qualifier("MessageJdbcTemplate") NamedParameterJdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.message.notify.enabled:false}") boolean notifyEnabled,
+            @Value("${app.message.delivery.dispatch-threads:2}") int dispatchThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notifyEnabled = notifyEnabled;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable,
+                    "message-arrival-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("message.delivery.waiters", waiterCount, AtomicInteger::get)
+                .description("Long-poll and SSE receivers waiting for messages")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Подписка на поступление сообщений в буфер.
+     * Колбэк может быть вызван несколько раз и конкурентно.
+     *
+     * @return действие для отмены подписки
+     */
+    public Runnable subscribe(UUID bufferUid, Runnable onArrival) {
+        waiters.compute(bufferUid, (uid, set) -> {
+            Set<Runnable> result = set != null ? set : ConcurrentHashMap.newKeySet();
+            result.add(onArrival);
+            return result;
+        });
+        waiterCount.incrementAndGet();
+
+        return () -> waiters.computeIfPresent(bufferUid, (uid, set) -> {
+            if (set.remove(onArrival)) {
+                waiterCount.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /** Сигнал о зафиксированных сообщениях в буферах. */
+    public void signal(Collection<UUID> bufferUids) {
+        for (UUID bufferUid : bufferUids) {
+            if (!notifyEnabled) {
+                dispatch(bufferUid);
+                continue;
+            }
+            try {
+                MapSqlParameterSource params = new MapSqlParameterSource();
+                params.addValue("buffer_uid", bufferUid.toString());
+                jdbcTemplate.query(NOTIFY, params, rs -> null);
+            } catch (RuntimeException e) {
+                // Локальные получатели не должны ждать таймаута из-за сбоя NOTIFY
+                log.warn("NOTIFY failed for buffer {}: {}", bufferUid, e.getMessage());
+                dispatch(bufferUid);
+            }
+        }
+    }
+
+    /** Разбудить получателей буфера в этом процессе. */
+    public void dispatch(UUID bufferUid) {
+        Set<Runnable> bufferWaiters = waiters.get(bufferUid);
+        if (bufferWaiters == null) {
+            return;
+        }
+        for (Runnable waiter : bufferWaiters) {
+            try {
+                dispatcher.execute(waiter);
+            } catch (RejectedExecutionException e) {
+                log.debug("Dispatcher stopped, wakeup for buffer {} dropped", bufferUid);
+            }
+        }
+    }
+
+    /** Разбудить всех получателей процесса (например, после потери сигналов). */
+    public void dispatchAll() {
+        waiters.keySet().forEach(this::dispatch);
+    }
+
+    /** . */
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+    }
+}
@@ -0,0 +1,245 @@
+package com.connection.message.delivery;
+
+import com.connection.message.MessageCursor;
+import com.connection.message.MessagePage;
+import com.connection.message.MessageService;
+import com.connection.message.converter.MessageConverter;
+import com.connection.message.model.MessageBlm;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Доставка сообщений без опроса в цикле: long-poll и SSE.
+ * Запрос подписывается на буфер и читает новые сообщения только по
+ * сигналу {@link MessageArrivalNotifier}. Чтение идет после курсора и
+ * не удаляет сообщения, поэтому обрыв соединения их не теряет -
+ * клиент продолжает с последнего курсора.
+ * Сигнал только ставит чтение и отправку на отдельный ограниченный пул:
+ * медленный клиент занимает поток этого пула, а не поток рассылки
+ * сигналов.
+ */
+@Slf4j
+@Component
+public class MessageDelivery {
+
+    private static final int STREAM_BATCH_SIZE = 100;
+
+    private final MessageService messageService;
+    private final MessageConverter messageConverter;
+    private final MessageArrivalNotifier notifier;
+    private final ExecutorService deliveryExecutor;
+
+    /** . */
+    public MessageDelivery(MessageService messageService,
+            MessageConverter messageConverter, MessageArrivalNotifier notifier,
+            @Value("${app.message.delivery.threads:8}") int deliveryThreads,
+            @Value("${app.message.delivery.queue-capacity:10000}") int queueCapacity) {
+        this.messageService = messageService;
+        this.messageConverter = messageConverter;
+        this.notifier = notifier;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.deliveryExecutor = new ThreadPoolExecutor(deliveryThreads, deliveryThreads,
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "message-delivery-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Дождаться сообщений буфера после курсора.
+     * Проверка доступа и первое чтение выполняются в вызывающем потоке.
+     *
+     * @return страница с сообщениями (nextCursor - позиция для следующего
+     *         запроса) или пустая страница по истечении таймаута
+     */
+    public CompletableFuture<MessagePage> poll(UUID bufferUid,
+            MessageCursor cursor, int limit, long timeoutMillis) {
+        CompletableFuture<MessagePage> result = new CompletableFuture<>();
+        SecurityContext context = SecurityContextHolder.getContext();
+
+        Runnable check = () -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                MessagePage page = readAfter(bufferUid, cursor, limit);
+                if (!page.getMessages().isEmpty()) {
+                    result.complete(page);
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        // Подписка до первого чтения, чтобы не пропустить сообщение между ними
+        Runnable contextCheck = DelegatingSecurityContextRunnable.create(check, context);
+        Runnable unsubscribe = notifier.subscribe(bufferUid,
+                () -> execute(bufferUid, contextCheck));
+        result.whenComplete((page, error) -> unsubscribe.run());
+
+        try {
+            MessagePage page = readAfter(bufferUid, cursor, limit);
+            if (!page.getMessages().isEmpty()) {
+                result.complete(page);
+                return result;
+            }
+        } catch (RuntimeException e) {
+            unsubscribe.run();
+            throw e;
+        }
+
+        return result.completeOnTimeout(new MessagePage(List.of(), cursor),
+                timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Поток сообщений буфера после курсора. Каждое сообщение - событие
+     * "message" с id, равным курсору после него (для Last-Event-ID).
+     * Без курсора поток начинается с текущего конца буфера.
+     */
+    public SseEmitter stream(UUID bufferUid, MessageCursor cursor,
+            long timeoutMillis) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        SecurityContext context = SecurityContextHolder.getContext();
+        StreamPosition position = new StreamPosition(cursor != null ? cursor
+                : messageService.getTailCursor(bufferUid));
+
+        position.drain = DelegatingSecurityContextRunnable.create(
+                () -> drain(bufferUid, emitter, position), context);
+        // Сигналы до окончания первой отправки только отмечаются
+        position.scheduled.set(true);
+        Runnable unsubscribe = notifier.subscribe(bufferUid,
+                () -> schedule(bufferUid, position));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe.run());
+
+        // Первая отправка в вызывающем потоке: ошибки доступа уходят клиенту
+        // как обычный ответ
+        try {
+            pushNew(bufferUid, emitter, position);
+        } catch (IOException | RuntimeException e) {
+            unsubscribe.run();
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        release(bufferUid, position);
+        return emitter;
+    }
+
+    /** . */
+    @PreDestroy
+    public void stop() {
+        deliveryExecutor.shutdownNow();
+    }
+
+    // Отправки одного потока не пересекаются: одновременно поставлено
+    // не больше одной задачи, сигналы во время отправки ее повторяют
+    private void schedule(UUID bufferUid, StreamPosition position) {
+        position.pending = true;
+        if (position.scheduled.compareAndSet(false, true)
+                && !execute(bufferUid, position.drain)) {
+            position.scheduled.set(false);
+        }
+    }
+
+    private void drain(UUID bufferUid, SseEmitter emitter, StreamPosition position) {
+        try {
+            do {
+                position.pending = false;
+                pushNew(bufferUid, emitter, position);
+            } while (position.pending);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Message stream for buffer {} closed: {}", bufferUid,
+                    e.getMessage());
+            emitter.completeWithError(e);
+            return;
+        }
+        release(bufferUid, position);
+    }
+
+    private void release(UUID bufferUid, StreamPosition position) {
+        position.scheduled.set(false);
+        if (position.pending) {
+            schedule(bufferUid, position);
+        }
+    }
+
+    // Переполненный пул пропускает пробуждение: сообщения не теряются,
+    // получатель прочитает их по следующему сигналу или запросу
+    private boolean execute(UUID bufferUid, Runnable task) {
+        try {
+            deliveryExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Delivery pool is full, wakeup for buffer {} dropped", bufferUid);
+            return false;
+        }
+    }
+
+    private void pushNew(UUID bufferUid, SseEmitter emitter,
+            StreamPosition position) throws IOException {
+        MessagePage page;
+        do {
+            page = messageService.getMessagesPageByBuffer(bufferUid, false,
+                    position.cursor, STREAM_BATCH_SIZE);
+            for (MessageBlm messageBlm : page.getMessages()) {
+                MessageCursor next = MessageCursor.after(messageBlm);
+                emitter.send(SseEmitter.event().id(next.encode())
+                        .name("message")
+                        .data(messageConverter.toDto(messageBlm)));
+                position.cursor = next;
+            }
+        } while (page.getNextCursor() != null);
+    }
+
+    private MessagePage readAfter(UUID bufferUid, MessageCursor cursor,
+            int limit) {
+        List<MessageBlm> messages = messageService
+                .getMessagesPageByBuffer(bufferUid, false, cursor, limit)
+                .getMessages();
+        MessageCursor resume = messages.isEmpty() ? cursor
+                : MessageCursor.after(messages.get(messages.size() - 1));
+        return new MessagePage(messages, resume);
+    }
+
+    private static final class StreamPosition {
+
+        // Пишется только владельцем scheduled
+        private MessageCursor cursor;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean pending;
+
+        private Runnable drain;
+
+        private StreamPosition(MessageCursor cursor) {
+            this.cursor = cursor;
+        }
+    }
+}
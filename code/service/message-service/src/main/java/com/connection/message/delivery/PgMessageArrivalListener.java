@@ -0,0 +1,108 @@
+package com.connection.message.delivery;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Получает NOTIFY о новых сообщениях от всех экземпляров сервиса и будит
+ * локальных получателей. Использует отдельное не-XA соединение: LISTEN
+ * должен жить вне пула и вне транзакций.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.message.notify.enabled", havingValue = "true")
+public class PgMessageArrivalListener {
+
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final MessageArrivalNotifier notifier;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    /** . */
+    public PgMessageArrivalListener(MessageArrivalNotifier notifier,
+            @Value("${app.datasource.message.xa-properties.url}") String jdbcUrl,
+            @Value("${app.datasource.message.xa-properties.user}") String username,
+            @Value("${app.datasource.message.xa-properties.password}") String password) {
+        this.notifier = notifier;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    /** . */
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "message-arrival-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    /** . */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection =
+                    DriverManager.getConnection(jdbcUrl, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + MessageArrivalNotifier.CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                // Сигналы, пришедшие во время разрыва, потеряны - будим всех
+                notifier.dispatchAll();
+
+                while (running) {
+                    PGNotification[] notifications =
+                            pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Message arrival listener disconnected: {}", e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(String bufferUid) {
+        try {
+            notifier.dispatch(UUID.fromString(bufferUid));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed arrival notification: {}", bufferUid);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.connection.message.outbox;
+
+import com.connection.message.events.MessageEventConstants;
+import com.connection.message.model.MessageOutboxEventBlm;
+import com.connection.message.repository.MessageOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Релей outbox: пачками читает события из processing.message_outbox,
+ * публикует их в message.events и удаляет опубликованные строки.
+ * Пачка блокируется (FOR UPDATE SKIP LOCKED) до подтверждения отправки,
+ * поэтому несколько экземпляров не публикуют одно событие одновременно.
+ * Доставка - at-least-once: при сбое пачка публикуется повторно,
+ * потребители различают повторы по eventId.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.message.outbox.enabled", havingValue = "true")
+public class MessageOutboxRelay {
+
+    private static final String EVENT_TYPE_HEADER = "eventType";
+
+    private final MessageOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DefaultKafkaProducerFactory<String, String> producerFactory;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMillis;
+
+    private final Counter publishedEvents;
+    private final Counter failedBatches;
+
+    /** . */
+    public MessageOutboxRelay(MessageOutboxRepository outboxRepository,
+            @Qualifier("atomicosTransactionManager") PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${spring.kafka.bootstrap-servers:localhost:29092}") String bootstrapServers,
+            @Value("${app.message.outbox.batch-size:500}") int batchSize,
+            @Value("${app.message.outbox.send-timeout-ms:30000}") long sendTimeoutMillis) {
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+
+        // Идемпотентный продюсер: повторные отправки внутри сессии
+        // не дублируются, порядок в партиции сохраняется
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        this.producerFactory = new DefaultKafkaProducerFactory<>(props);
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+
+        this.publishedEvents = Counter.builder("message.outbox.published")
+                .description("Message events published to Kafka")
+                .register(meterRegistry);
+        this.failedBatches = Counter.builder("message.outbox.failed")
+                .description("Outbox batches that failed to publish")
+                .register(meterRegistry);
+    }
+
+    /** Публикация накопившихся событий; полные пачки выбираются без паузы. */
+    @Scheduled(fixedDelayString = "${app.message.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            log.error("Failed to relay message events: {}", e.getMessage());
+        }
+    }
+
+    /** . */
+    @PreDestroy
+    public void stop() {
+        producerFactory.destroy();
+    }
+
+    private int publishBatch() {
+        List<MessageOutboxEventBlm> batch = outboxRepository.lockBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Отправляем всю пачку асинхронно и ждем подтверждения разом
+        List<CompletableFuture<SendResult<String, String>>> sends =
+                new ArrayList<>(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (MessageOutboxEventBlm event : batch) {
+            ProducerRecord<String, String> record = new ProducerRecord<>(
+                    MessageEventConstants.MESSAGE_EVENTS_TOPIC,
+                    event.getAggregateUid().toString(), event.getPayload());
+            record.headers().add(EVENT_TYPE_HEADER,
+                    event.getEventType().getBytes(StandardCharsets.UTF_8));
+            sends.add(kafkaTemplate.send(record));
+            ids.add(event.getId());
+        }
+        kafkaTemplate.flush();
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing message events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to publish message events", e);
+        }
+
+        outboxRepository.deleteByIds(ids);
+        publishedEvents.increment(batch.size());
+        return batch.size();
+    }
+}
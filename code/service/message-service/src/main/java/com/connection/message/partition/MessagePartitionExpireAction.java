@@ -0,0 +1,9 @@
+package com.connection.message.partition;
+
+/** Что делать с секцией processing.message после истечения срока хранения. */
+public enum MessagePartitionExpireAction {
+    // Удалить таблицу секции
+    DROP,
+    // Оставить отсоединенную таблицу processing.message_pYYYYMMDD_archived
+    DETACH
+}
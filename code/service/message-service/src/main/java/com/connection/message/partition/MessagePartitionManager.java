@@ -0,0 +1,126 @@
+package com.connection.message.partition;
+
+import com.connection.message.repository.MessagePartitionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обслуживание суточных секций processing.message: заранее создает
+ * секции на precreate-days вперед, чтобы вставки не попадали в секцию по
+ * умолчанию, и убирает секции старше retention-days целиком, без
+ * построчного удаления. Сообщения, попавшие в секцию по умолчанию,
+ * по сроку не удаляются - их очищает политика хранения буфера.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.message.partition.enabled", havingValue = "true")
+public class MessagePartitionManager {
+
+    private final MessagePartitionRepository partitionRepository;
+    private final int precreateDays;
+    // 0 - секции не удаляются
+    private final int retentionDays;
+    private final MessagePartitionExpireAction expireAction;
+
+    private final Counter createdPartitions;
+    private final Counter expiredPartitions;
+    private final Counter expiredMessages;
+    private final Counter failures;
+
+    /** . */
+    public MessagePartitionManager(MessagePartitionRepository partitionRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.message.partition.precreate-days:7}") int precreateDays,
+            @Value("${app.message.partition.retention-days:0}") int retentionDays,
+            @Value("${app.message.partition.expire-action:DROP}")
+                    MessagePartitionExpireAction expireAction) {
+        if (precreateDays < 0 || retentionDays < 0) {
+            throw new IllegalArgumentException(
+                    "Partition precreate and retention days must not be negative");
+        }
+        this.partitionRepository = partitionRepository;
+        this.precreateDays = precreateDays;
+        this.retentionDays = retentionDays;
+        this.expireAction = expireAction;
+
+        this.createdPartitions = Counter.builder("message.partition.created")
+                .description("Message partitions created ahead of time")
+                .register(meterRegistry);
+        this.expiredPartitions = Counter.builder("message.partition.expired")
+                .description("Expired message partitions removed from processing.message")
+                .tag("action", expireAction.name().toLowerCase())
+                .register(meterRegistry);
+        this.expiredMessages = Counter.builder("message.partition.expired.messages")
+                .description("Messages removed together with expired partitions")
+                .register(meterRegistry);
+        this.failures = Counter.builder("message.partition.failed")
+                .description("Failed partition maintenance operations")
+                .register(meterRegistry);
+    }
+
+    /** Создание будущих и удаление устаревших секций. */
+    @Scheduled(fixedDelayString = "${app.message.partition.check-interval-ms:3600000}")
+    public void maintain() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        createAhead(today);
+        if (retentionDays > 0) {
+            detachExpired(today.minusDays(retentionDays));
+        }
+        // Также дорабатывает секции, отсоединенные до сбоя
+        releaseDetached();
+    }
+
+    private void createAhead(LocalDate today) {
+        for (int i = 0; i <= precreateDays; i++) {
+            LocalDate day = today.plusDays(i);
+            try {
+                if (partitionRepository.createPartition(day)) {
+                    createdPartitions.increment();
+                    log.info("Created message partition for {}", day);
+                }
+            } catch (RuntimeException e) {
+                // Обычно - строки за эти сутки уже лежат в секции по умолчанию
+                failures.increment();
+                log.error("Failed to create message partition for {}: {}", day,
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void detachExpired(LocalDate before) {
+        for (String partitionName : partitionRepository.findPartitionsBefore(before)) {
+            try {
+                partitionRepository.detachPartition(partitionName);
+                log.info("Detached expired message partition {}", partitionName);
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.error("Failed to detach message partition {}: {}",
+                        partitionName, e.getMessage());
+            }
+        }
+    }
+
+    private void releaseDetached() {
+        boolean drop = expireAction == MessagePartitionExpireAction.DROP;
+        for (String detachedName : partitionRepository.findDetachedPartitions()) {
+            try {
+                long messages = partitionRepository.releaseDetached(detachedName, drop);
+                expiredPartitions.increment();
+                expiredMessages.increment(messages);
+                log.info("Released message partition {} ({} messages, {})",
+                        detachedName, messages, expireAction);
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.error("Failed to release message partition {}: {}",
+                        detachedName, e.getMessage());
+            }
+        }
+    }
+}
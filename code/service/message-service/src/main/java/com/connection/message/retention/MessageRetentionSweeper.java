@@ -0,0 +1,135 @@
+package com.connection.message.retention;
+
+import com.connection.message.model.MessageRetentionPolicyBlm;
+import com.connection.message.repository.MessageRetentionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Фоновая очистка буферов по политикам хранения (retention_seconds,
+ * retention_messages). Сообщения удаляются порциями от самых старых,
+ * каждая порция - отдельная транзакция; между полными порциями
+ * выдерживается пауза, чтобы очистка не вытесняла запись и чтение.
+ * Несколько экземпляров могут работать одновременно: захваченные
+ * другим экземпляром строки пропускаются.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.message.retention.enabled", havingValue = "true")
+public class MessageRetentionSweeper {
+
+    private final MessageRetentionRepository retentionRepository;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    private final Counter expiredMessages;
+    private final Counter overflowMessages;
+    private final Counter failedBuffers;
+    private final Timer sweepDuration;
+
+    /** . */
+    public MessageRetentionSweeper(MessageRetentionRepository retentionRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.message.retention.chunk-size:1000}") int chunkSize,
+            @Value("${app.message.retention.pause-ms:50}") long pauseMillis) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Retention chunk size must be positive");
+        }
+        this.retentionRepository = retentionRepository;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+
+        this.expiredMessages = deleted(meterRegistry, "age");
+        this.overflowMessages = deleted(meterRegistry, "count");
+        this.failedBuffers = Counter.builder("message.retention.failed")
+                .description("Buffers whose retention sweep failed")
+                .register(meterRegistry);
+        this.sweepDuration = Timer.builder("message.retention.sweep")
+                .description("Duration of a full retention sweep")
+                .register(meterRegistry);
+    }
+
+    /** Проход по всем буферам с заданной политикой хранения. */
+    @Scheduled(fixedDelayString = "${app.message.retention.sweep-interval-ms:60000}")
+    public void sweep() {
+        sweepDuration.record(this::sweepAll);
+    }
+
+    private void sweepAll() {
+        List<MessageRetentionPolicyBlm> policies;
+        try {
+            policies = retentionRepository.findRetentionPolicies();
+        } catch (RuntimeException e) {
+            log.error("Failed to load retention policies: {}", e.getMessage());
+            return;
+        }
+
+        for (MessageRetentionPolicyBlm policy : policies) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                sweepBuffer(policy);
+            } catch (RuntimeException e) {
+                failedBuffers.increment();
+                log.error("Failed to apply retention to buffer {}: {}",
+                        policy.getBufferUid(), e.getMessage());
+            }
+        }
+    }
+
+    private void sweepBuffer(MessageRetentionPolicyBlm policy) {
+        if (policy.getRetentionSeconds() != null) {
+            // Граница фиксируется один раз на проход: новые сообщения не догоняются
+            Date olderThan = new Date(System.currentTimeMillis()
+                    - policy.getRetentionSeconds() * 1000L);
+            int deleted = deleteInChunks(() -> retentionRepository.deleteExpiredChunk(
+                    policy.getBufferUid(), olderThan, chunkSize));
+            expiredMessages.increment(deleted);
+        }
+        if (policy.getRetentionMessages() != null) {
+            int deleted = deleteInChunks(() -> retentionRepository.deleteOverflowChunk(
+                    policy.getBufferUid(), policy.getRetentionMessages(), chunkSize));
+            overflowMessages.increment(deleted);
+        }
+    }
+
+    private int deleteInChunks(IntSupplier chunk) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = chunk.getAsInt();
+            total += deleted;
+        } while (deleted == chunkSize && pause());
+        return total;
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Counter deleted(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("message.retention.deleted")
+                .description("Messages removed by retention policies")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
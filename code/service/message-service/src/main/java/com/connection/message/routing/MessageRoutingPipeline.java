@@ -0,0 +1,371 @@
+package com.connection.message.routing;
+
+import com.connection.message.delivery.MessageArrivalNotifier;
+import com.connection.message.events.MessageEventConstants;
+import com.connection.message.events.MessageEventUtils;
+import com.connection.message.events.domain.MessageRoutedEvent;
+import com.connection.message.exception.MessageRoutingException;
+import com.connection.message.model.MessageBlm;
+import com.connection.message.model.MessageRejection;
+import com.connection.message.repository.MessageOutboxRepository;
+import com.connection.message.repository.MessageRepository;
+import com.connection.message.repository.MessageRoutingTaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Асинхронная маршрутизация OUTGOING сообщений по схемам подключения.
+ * Запрос устройства сохраняет только исходное сообщение и ставит задачу
+ * в очередь; копии в буферы-получатели пишут рабочие потоки.
+ * Очереди разбиты на полосы по буферу-источнику: все сообщения одного
+ * буфера обрабатывает один поток, порядок доставки сохраняется.
+ * Заполненная полоса задерживает вызывающий поток до освобождения места
+ * (обратное давление на запись); в обход очереди, в вызывающем потоке,
+ * маршрутизируются только сообщения, поступившие после остановки.
+ * Копии и событие MESSAGE_ROUTED в outbox пишутся одной транзакцией.
+ * Временные ошибки БД (блокировки, таймауты, нехватка соединений пула)
+ * повторяются с растущей паузой; задача, не разосланная за все попытки,
+ * откладывается в processing.message_routing_task и дорабатывается
+ * {@link MessageRoutingRedrive}. Туда же при остановке переносятся
+ * задачи, не разобранные за время ожидания.
+ */
+@Slf4j
+@Component
+public class MessageRoutingPipeline {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final MessageRepository messageRepository;
+    private final RoutingTable routingTable;
+    private final MessageArrivalNotifier arrivalNotifier;
+    // null - события маршрутизации не публикуются
+    private final MessageOutboxRepository outboxRepository;
+    // null вместе с outboxRepository: копии пишутся транзакцией репозитория
+    private final TransactionTemplate transactionTemplate;
+    private final MessageRoutingTaskRepository routingTaskRepository;
+
+    private final List<BlockingQueue<RoutingTask>> stripes;
+    private final List<Thread> workers = new ArrayList<>();
+    private final long enqueueTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private volatile boolean running;
+
+    private final Timer routingLag;
+    private final Counter inlineRoutings;
+    private final Counter backpressureWaits;
+    private final Counter failedRoutings;
+    private final Counter retriedRoutings;
+    private final Counter parkedRoutings;
+    private final Counter rejectedCopies;
+
+    /** . */
+    public MessageRoutingPipeline(MessageRepository messageRepository,
+            RoutingTable routingTable, MessageArrivalNotifier arrivalNotifier,
+            MessageOutboxRepository outboxRepository,
+            MessageRoutingTaskRepository routingTaskRepository,
+            @Qualifier("atomicosTransactionManager") PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.message.outbox.enabled:false}") boolean outboxEnabled,
+            @Value("${app.message.routing.workers:4}") int workerCount,
+            @Value("${app.message.routing.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.message.routing.enqueue-timeout-ms:100}") long enqueueTimeoutMillis,
+            @Value("${app.message.routing.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis,
+            @Value("${app.message.routing.max-attempts:3}") int maxAttempts,
+            @Value("${app.message.routing.retry-backoff-ms:200}") long retryBackoffMillis) {
+        if (workerCount < 1 || queueCapacity < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException(
+                    "Routing workers, queue capacity and attempts must be positive");
+        }
+        this.messageRepository = messageRepository;
+        this.routingTable = routingTable;
+        this.arrivalNotifier = arrivalNotifier;
+        this.outboxRepository = outboxEnabled ? outboxRepository : null;
+        this.transactionTemplate = outboxEnabled
+                ? new TransactionTemplate(transactionManager) : null;
+        this.routingTaskRepository = routingTaskRepository;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+
+        this.stripes = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            stripes.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+
+        this.routingLag = Timer.builder("message.routing.lag")
+                .description("Time from enqueue to completed fan-out")
+                .register(meterRegistry);
+        this.inlineRoutings = Counter.builder("message.routing.inline")
+                .description("Messages routed in the caller thread after shutdown")
+                .register(meterRegistry);
+        this.backpressureWaits = Counter.builder("message.routing.backpressure")
+                .description("Enqueue timeouts spent waiting on a full stripe")
+                .register(meterRegistry);
+        this.failedRoutings = Counter.builder("message.routing.failed")
+                .description("Messages whose fan-out failed after all attempts")
+                .register(meterRegistry);
+        this.retriedRoutings = Counter.builder("message.routing.retried")
+                .description("Fan-out attempts repeated after a transient error")
+                .register(meterRegistry);
+        this.parkedRoutings = Counter.builder("message.routing.parked")
+                .description("Routing tasks parked for a later redrive")
+                .register(meterRegistry);
+        this.rejectedCopies = Counter.builder("message.routing.rejected")
+                .description("Routed copies rejected by target buffer capacity")
+                .register(meterRegistry);
+        Gauge.builder("message.routing.queue.depth", this, MessageRoutingPipeline::queueDepth)
+                .description("Routing tasks waiting in all stripes")
+                .register(meterRegistry);
+    }
+
+    /** Запуск рабочих потоков. */
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < stripes.size(); i++) {
+            BlockingQueue<RoutingTask> stripe = stripes.get(i);
+            Thread worker = new Thread(() -> work(stripe), "message-routing-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Остановка с дообработкой уже поставленных задач; не разобранные
+     * за shutdown-timeout откладываются в БД.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<RoutingTask> pending = new ArrayList<>();
+        for (BlockingQueue<RoutingTask> stripe : stripes) {
+            stripe.drainTo(pending);
+        }
+        if (!pending.isEmpty()) {
+            log.warn("Routing stopped with {} pending tasks, parking them", pending.size());
+            pending.forEach(task -> park(task.message, 0, "Routing stopped"));
+        }
+    }
+
+    /**
+     * Постановка OUTGOING сообщения в очередь маршрутизации.
+     * Пока очередь полосы заполнена, вызов ждет освобождения места:
+     * обход очереди нарушил бы порядок сообщений буфера.
+     */
+    public void submit(MessageBlm messageBlm) {
+        RoutingTask task = new RoutingTask(messageBlm, System.nanoTime());
+        BlockingQueue<RoutingTask> stripe = stripeOf(messageBlm.getBufferUid());
+        try {
+            while (running) {
+                if (stripe.offer(task, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                backpressureWaits.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessageRoutingException(
+                    "Interrupted while waiting for routing queue of buffer "
+                            + messageBlm.getBufferUid());
+        }
+        // Рабочие потоки остановлены: очередь больше не разбирается
+        inlineRoutings.increment();
+        route(task);
+    }
+
+    /** Количество задач, ожидающих маршрутизации. */
+    public int queueDepth() {
+        int depth = 0;
+        for (BlockingQueue<RoutingTask> stripe : stripes) {
+            depth += stripe.size();
+        }
+        return depth;
+    }
+
+    private BlockingQueue<RoutingTask> stripeOf(UUID bufferUid) {
+        return stripes.get(Math.floorMod(bufferUid.hashCode(), stripes.size()));
+    }
+
+    private void work(BlockingQueue<RoutingTask> stripe) {
+        while (running || !stripe.isEmpty()) {
+            try {
+                RoutingTask task = stripe.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    route(task);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void route(RoutingTask task) {
+        MessageBlm messageBlm = task.message;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    fanOut(messageBlm);
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxAttempts || !isTransient(e)) {
+                        failedRoutings.increment();
+                        log.error("Failed to route message {} from buffer {} "
+                                + "after {} attempts: {}", messageBlm.getUid(),
+                                messageBlm.getBufferUid(), attempt, e.getMessage());
+                        park(messageBlm, attempt, e.getMessage());
+                        return;
+                    }
+                    retriedRoutings.increment();
+                    log.warn("Retrying routing of message {} after attempt {}: {}",
+                            messageBlm.getUid(), attempt, e.getMessage());
+                }
+                // Пауза удваивается с каждой попыткой; полоса ждет, порядок сохраняется
+                Thread.sleep(retryBackoffMillis << (attempt - 1));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            park(messageBlm, 0, "Interrupted while retrying");
+        } finally {
+            routingLag.record(System.nanoTime() - task.enqueuedAtNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Повторная рассылка отложенного сообщения, без повторов и откладывания.
+     * Вызывается в транзакции, удаляющей отложенную задачу; получателей
+     * уведомляет вызывающий после ее фиксации.
+     *
+     * @param messageBlm исходное OUTGOING сообщение
+     * @return буферы, получившие копию
+     */
+    public List<UUID> redrive(MessageBlm messageBlm) {
+        return deliver(messageBlm);
+    }
+
+    private void fanOut(MessageBlm messageBlm) {
+        List<UUID> delivered = deliver(messageBlm);
+        // Получатели узнают о копиях только после фиксации
+        if (!delivered.isEmpty()) {
+            arrivalNotifier.signal(delivered);
+        }
+    }
+
+    private List<UUID> deliver(MessageBlm messageBlm) {
+        List<UUID> targetBuffers = routingTable.getTargetBuffers(messageBlm.getBufferUid());
+        if (targetBuffers.isEmpty()) {
+            return List.of();
+        }
+        return transactionTemplate == null
+                ? addCopies(messageBlm, targetBuffers)
+                : transactionTemplate.execute(status -> addCopies(messageBlm, targetBuffers));
+    }
+
+    // Ошибки, которые могут не повториться: блокировки, таймауты, пул соединений
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void park(MessageBlm messageBlm, int attempts, String reason) {
+        try {
+            routingTaskRepository.park(messageBlm.getUid(), messageBlm.getBufferUid(),
+                    attempts, reason);
+            parkedRoutings.increment();
+        } catch (RuntimeException e) {
+            log.error("Failed to park routing of message {} from buffer {}, copies are lost: {}",
+                    messageBlm.getUid(), messageBlm.getBufferUid(), e.getMessage());
+        }
+    }
+
+    // Возвращает буферы, получившие копию
+    private List<UUID> addCopies(MessageBlm messageBlm, List<UUID> targetBuffers) {
+        // Все копии записываются одним пакетом, валидация - в репозитории
+        Date routedAt = new Date();
+        List<MessageBlm> incomingCopies = targetBuffers.stream()
+                .map(b -> MessageBlm.builder().bufferUid(b)
+                        .content(messageBlm.getContent())
+                        .payload(messageBlm.getPayload())
+                        .contentType("INCOMING").createdAt(routedAt)
+                        .uid(UUID.randomUUID()).build())
+                .toList();
+        List<MessageRejection> rejections = messageRepository.addAll(incomingCopies);
+        if (!rejections.isEmpty()) {
+            // Заполненные буферы-получатели копию не получают
+            rejectedCopies.increment(rejections.size());
+            Set<MessageBlm> rejected = Collections.newSetFromMap(
+                    new IdentityHashMap<>());
+            rejections.forEach(r -> rejected.add(r.getMessage()));
+            incomingCopies = incomingCopies.stream()
+                    .filter(c -> !rejected.contains(c)).toList();
+            if (incomingCopies.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<UUID> delivered = incomingCopies.stream()
+                .map(MessageBlm::getBufferUid).toList();
+        recordRouted(messageBlm, delivered, incomingCopies);
+        return delivered;
+    }
+
+    private void recordRouted(MessageBlm messageBlm, List<UUID> targetBuffers,
+            List<MessageBlm> incomingCopies) {
+        if (outboxRepository == null) {
+            return;
+        }
+        MessageRoutedEvent event = new MessageRoutedEvent(messageBlm.getUid(),
+                messageBlm.getBufferUid(), targetBuffers,
+                incomingCopies.stream().map(MessageBlm::getUid).toList(), null);
+        outboxRepository.add(MessageEventConstants.EVENT_MESSAGE_ROUTED,
+                messageBlm.getBufferUid(), MessageEventUtils.toJson(event));
+    }
+
+    @AllArgsConstructor
+    private static final class RoutingTask {
+
+        private final MessageBlm message;
+
+        private final long enqueuedAtNanos;
+    }
+}
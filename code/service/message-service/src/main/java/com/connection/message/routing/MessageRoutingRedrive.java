@@ -0,0 +1,144 @@
+package com.connection.message.routing;
+
+import com.connection.message.delivery.MessageArrivalNotifier;
+import com.connection.message.exception.MessageNotFoundException;
+import com.connection.message.model.MessageRoutingTaskBlm;
+import com.connection.message.repository.MessageRepository;
+import com.connection.message.repository.MessageRoutingTaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Повтор маршрутизации отложенных задач processing.message_routing_task.
+ * Каждая задача обрабатывается своей транзакцией: строка блокируется
+ * (FOR UPDATE SKIP LOCKED), копии пишутся, строка удаляется - при сбое
+ * откатывается все, и задача откладывается еще на интервал.
+ * Повторно разосланное сообщение может прийти получателям позже
+ * более новых сообщений того же буфера.
+ */
+@Slf4j
+@Component
+public class MessageRoutingRedrive {
+
+    private final MessageRoutingTaskRepository routingTaskRepository;
+    private final MessageRepository messageRepository;
+    private final MessageRoutingPipeline routingPipeline;
+    private final MessageArrivalNotifier arrivalNotifier;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long delayMillis;
+
+    private final Counter redrivenTasks;
+    private final Counter failedTasks;
+
+    /** . */
+    public MessageRoutingRedrive(MessageRoutingTaskRepository routingTaskRepository,
+            MessageRepository messageRepository, MessageRoutingPipeline routingPipeline,
+            MessageArrivalNotifier arrivalNotifier,
+            @Qualifier("atomicosTransactionManager") PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.message.routing.redrive.batch-size:100}") int batchSize,
+            @Value("${app.message.routing.redrive.delay-ms:30000}") long delayMillis) {
+        this.routingTaskRepository = routingTaskRepository;
+        this.messageRepository = messageRepository;
+        this.routingPipeline = routingPipeline;
+        this.arrivalNotifier = arrivalNotifier;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.delayMillis = delayMillis;
+
+        this.redrivenTasks = Counter.builder("message.routing.redriven")
+                .description("Parked routing tasks completed by the redrive")
+                .register(meterRegistry);
+        this.failedTasks = Counter.builder("message.routing.redrive.failed")
+                .description("Parked routing tasks that failed again")
+                .register(meterRegistry);
+    }
+
+    /** Обработка не более batch-size задач, отложенных дольше delay-ms назад. */
+    @Scheduled(fixedDelayString = "${app.message.routing.redrive.poll-interval-ms:10000}")
+    public void redrive() {
+        Date parkedBefore = new Date(System.currentTimeMillis() - delayMillis);
+        for (int i = 0; i < batchSize; i++) {
+            AtomicReference<MessageRoutingTaskBlm> locked = new AtomicReference<>();
+            List<UUID> delivered;
+            try {
+                delivered = transactionTemplate.execute(
+                        status -> redriveNext(parkedBefore, locked));
+            } catch (MessageNotFoundException e) {
+                // Сообщение уже удалено очисткой: рассылать нечего
+                drop(locked.get());
+                continue;
+            } catch (RuntimeException e) {
+                failedTasks.increment();
+                MessageRoutingTaskBlm task = locked.get();
+                if (task == null) {
+                    log.error("Failed to lock parked routing tasks: {}", e.getMessage());
+                    return;
+                }
+                log.error("Failed to redrive routing of message {} from buffer {}: {}",
+                        task.getMessageUid(), task.getBufferUid(), e.getMessage());
+                repark(task, e);
+                continue;
+            }
+            if (delivered == null) {
+                return;
+            }
+            redrivenTasks.increment();
+            // Получатели узнают о копиях только после фиксации
+            if (!delivered.isEmpty()) {
+                arrivalNotifier.signal(delivered);
+            }
+        }
+    }
+
+    // null - задач, готовых к повтору, нет
+    private List<UUID> redriveNext(Date parkedBefore,
+            AtomicReference<MessageRoutingTaskBlm> locked) {
+        List<MessageRoutingTaskBlm> tasks = routingTaskRepository.lockBatch(parkedBefore, 1);
+        if (tasks.isEmpty()) {
+            return null;
+        }
+        MessageRoutingTaskBlm task = tasks.get(0);
+        locked.set(task);
+        List<UUID> delivered = routingPipeline.redrive(
+                messageRepository.findByUid(task.getMessageUid()));
+        routingTaskRepository.delete(task.getMessageUid());
+        log.info("Redrove routing of message {} from buffer {} after {} attempts",
+                task.getMessageUid(), task.getBufferUid(), task.getAttempts());
+        return delivered;
+    }
+
+    private void drop(MessageRoutingTaskBlm task) {
+        try {
+            routingTaskRepository.delete(task.getMessageUid());
+            log.warn("Dropped routing task of deleted message {} from buffer {}",
+                    task.getMessageUid(), task.getBufferUid());
+        } catch (RuntimeException e) {
+            log.error("Failed to drop routing task of message {}: {}",
+                    task.getMessageUid(), e.getMessage());
+        }
+    }
+
+    // Откат снял блокировку строки; задача снова ждет полный интервал
+    private void repark(MessageRoutingTaskBlm task, RuntimeException cause) {
+        try {
+            routingTaskRepository.park(task.getMessageUid(), task.getBufferUid(), 1,
+                    cause.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Failed to repark routing of message {}: {}",
+                    task.getMessageUid(), e.getMessage());
+        }
+    }
+}
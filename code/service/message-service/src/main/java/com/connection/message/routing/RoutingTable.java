@@ -0,0 +1,117 @@
+package com.connection.message.routing;
+
+import com.connection.scheme.model.ConnectionSchemeBlm;
+import com.service.connectionscheme.ConnectionSchemeService;
+import com.service.connectionscheme.event.ConnectionSchemeChangedEvent;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Скомпилированная таблица маршрутизации: буфер-источник -> буферы-получатели.
+ * Маршрут источника собирается из всех его схем один раз и хранится в виде
+ * неизменяемого списка; при изменении схемы пересобираются только
+ * затронутые источники. TTL страхует от изменений, сделанных другими
+ * экземплярами сервиса.
+ */
+@Slf4j
+@Component
+public class RoutingTable {
+
+    private final ConnectionSchemeService connectionSchemeClient;
+    private final long ttlMillis;
+
+    private final Map<UUID, Route> routes = new ConcurrentHashMap<>();
+
+    // Поколение инвалидаций: маршрут, загруженный до инвалидации, не сохраняется
+    private final Object lock = new Object();
+    private long generation;
+
+    /** . */
+    public RoutingTable(ConnectionSchemeService connectionSchemeClient,
+            @Value("${app.message.routing.cache-ttl-seconds:300}") long ttlSeconds) {
+        this.connectionSchemeClient = connectionSchemeClient;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * Буферы-получатели для сообщений источника (без повторов).
+     * При попадании в таблицу обращений к БД нет.
+     */
+    public List<UUID> getTargetBuffers(UUID sourceBufferUid) {
+        long now = System.currentTimeMillis();
+        Route route = routes.get(sourceBufferUid);
+        if (route != null && now < route.expiresAt) {
+            return route.targets;
+        }
+
+        long loadedGeneration;
+        synchronized (lock) {
+            loadedGeneration = generation;
+        }
+        List<UUID> targets = compile(sourceBufferUid);
+        synchronized (lock) {
+            if (loadedGeneration == generation) {
+                routes.put(sourceBufferUid, new Route(targets, now + ttlMillis));
+            }
+        }
+        return targets;
+    }
+
+    /** Сброс маршрутов указанных источников. */
+    public void invalidate(Collection<UUID> sourceBufferUids) {
+        synchronized (lock) {
+            generation++;
+            sourceBufferUids.forEach(routes::remove);
+        }
+    }
+
+    /** Сброс всей таблицы. */
+    public void invalidateAll() {
+        synchronized (lock) {
+            generation++;
+            routes.clear();
+        }
+    }
+
+    /** Инвалидация после фиксации транзакции, изменившей схему. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSchemeChanged(ConnectionSchemeChangedEvent event) {
+        invalidate(event.getAffectedBuffers());
+        log.debug("Routes invalidated for scheme {}: {} source buffers",
+                event.getSchemeUid(), event.getAffectedBuffers().size());
+    }
+
+    private List<UUID> compile(UUID sourceBufferUid) {
+        Set<UUID> targets = new LinkedHashSet<>();
+        for (ConnectionSchemeBlm scheme
+                : connectionSchemeClient.getSchemesByBuffer(sourceBufferUid)) {
+            if (scheme.getBufferTransitions() == null) {
+                continue;
+            }
+            List<UUID> schemeTargets =
+                    scheme.getBufferTransitions().get(sourceBufferUid);
+            if (schemeTargets != null) {
+                targets.addAll(schemeTargets);
+            }
+        }
+        return List.copyOf(targets);
+    }
+
+    @AllArgsConstructor
+    private static final class Route {
+
+        private final List<UUID> targets;
+
+        private final long expiresAt;
+    }
+}
@@ -2,14 +2,21 @@ package com.connection.message;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.junit.jupiter.api.AfterEach;
@@ -27,6 +34,10 @@ import com.connection.message.config.SecurityUtils;
 import com.connection.message.converter.MessageConverter;
 import com.connection.message.model.MessageBlm;
 import com.connection.message.repository.MessageRepository;
+import com.connection.message.access.BufferOwnershipCache;
+import com.connection.message.dedup.RecentMessageIds;
+import com.connection.message.delivery.MessageArrivalNotifier;
+import com.connection.message.routing.MessageRoutingPipeline;
 import com.connection.message.validator.MessageValidator;
 import com.connection.processing.buffer.converter.BufferConverter;
 import com.connection.scheme.converter.ConnectionSchemeConverter;
@@ -71,6 +82,18 @@ class MessageServiceImplTest {
     @Mock
     private MessageConverter messageConverter;
 
+    @Mock
+    private MessageRoutingPipeline routingPipeline;
+
+    @Mock
+    private MessageArrivalNotifier arrivalNotifier;
+
+    @Mock
+    private BufferOwnershipCache ownershipCache;
+
+    @Mock
+    private RecentMessageIds recentMessageIds;
+
     private MessageServiceImpl messageService;
     private MockedStatic<SecurityUtils> securityUtilsMock;
 
@@ -88,7 +111,11 @@ class MessageServiceImplTest {
             bufferConverter,
             connectionSchemeConverter,
             deviceConverter,
-            messageConverter
+            messageConverter,
+            routingPipeline,
+            arrivalNotifier,
+            ownershipCache,
+            recentMessageIds
         );
     }
 
@@ -310,4 +337,50 @@ class MessageServiceImplTest {
         //     () -> messageService.getMessagesByDevice(deviceUid, false, 0, 10));
         // assertTrue(exception.getMessage().contains("Device doesn't belong to the authenticated client"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetMessagesPage_ChecksBufferSetInOneCachePass() {
+        // Arrange
+        UUID clientUid = UUID.randomUUID();
+        UUID deviceUid = UUID.randomUUID();
+        UUID firstBuffer = UUID.randomUUID();
+        UUID secondBuffer = UUID.randomUUID();
+        Set<UUID> buffers = Set.of(firstBuffer, secondBuffer);
+
+        securityUtilsMock.when(SecurityUtils::isClientAuthenticated).thenReturn(true);
+        securityUtilsMock.when(SecurityUtils::getCurrentClientUid).thenReturn(clientUid);
+        when(ownershipCache.getBufferDevices(buffers))
+            .thenReturn(Map.of(firstBuffer, deviceUid, secondBuffer, deviceUid));
+        when(ownershipCache.getDeviceClients(Set.of(deviceUid), clientUid))
+            .thenReturn(Map.of(deviceUid, clientUid));
+        when(messageRepository.findByBufferUids(buffers, 0, 11)).thenReturn(List.of());
+
+        // Act
+        MessagePage result = messageService.getMessagesPage(null,
+            List.of(firstBuffer, secondBuffer), null, false, null, 0, 10);
+
+        // Assert
+        assertTrue(result.getMessages().isEmpty());
+        verify(ownershipCache, never()).getBufferDevice(any());
+    }
+
+    @Test
+    void testGetMessagesPage_ForeignBuffer_ThrowsSecurityException() {
+        // Arrange
+        UUID clientUid = UUID.randomUUID();
+        UUID foreignDevice = UUID.randomUUID();
+        UUID bufferUid = UUID.randomUUID();
+
+        securityUtilsMock.when(SecurityUtils::isClientAuthenticated).thenReturn(true);
+        securityUtilsMock.when(SecurityUtils::getCurrentClientUid).thenReturn(clientUid);
+        when(ownershipCache.getBufferDevices(Set.of(bufferUid)))
+            .thenReturn(Map.of(bufferUid, foreignDevice));
+        when(ownershipCache.getDeviceClients(Set.of(foreignDevice), clientUid))
+            .thenReturn(Map.of());
+
+        // Act & Assert
+        assertThrows(SecurityException.class, () -> messageService.getMessagesPage(
+            null, List.of(bufferUid), null, false, null, 0, 10));
+        verify(messageRepository, never()).findByBufferUids(any(), anyInt(), anyInt());
+    }
+}
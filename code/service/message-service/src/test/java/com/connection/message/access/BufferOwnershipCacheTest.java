@@ -0,0 +1,162 @@
+package com.connection.message.access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.connection.device.DeviceService;
+import com.connection.device.event.DeviceChangedEvent;
+import com.connection.device.model.DeviceBlm;
+import com.connection.processing.buffer.model.BufferBlm;
+import com.service.buffer.BufferService;
+import com.service.buffer.event.BufferChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Buffer Ownership Cache Tests")
+class BufferOwnershipCacheTest {
+
+    private static final UUID BUFFER = UUID.randomUUID();
+    private static final UUID DEVICE = UUID.randomUUID();
+    private static final UUID CLIENT = UUID.randomUUID();
+
+    @Mock
+    private BufferService bufferClient;
+
+    @Mock
+    private DeviceService deviceClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BufferOwnershipCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new BufferOwnershipCache(bufferClient, deviceClient,
+                meterRegistry, 60, 100);
+    }
+
+    @Test
+    @DisplayName("Owners are loaded once and hit ratio is exposed")
+    void shouldCacheOwners() {
+        when(bufferClient.getBufferByUid(BUFFER))
+                .thenReturn(BufferBlm.builder().uid(BUFFER).deviceUid(DEVICE).build());
+        when(deviceClient.getDevice(DEVICE))
+                .thenReturn(DeviceBlm.builder().uid(DEVICE).clientUuid(CLIENT).build());
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(cache.getBufferDevice(BUFFER)).isEqualTo(DEVICE);
+            assertThat(cache.getDeviceClient(DEVICE)).isEqualTo(CLIENT);
+        }
+
+        verify(bufferClient, times(1)).getBufferByUid(BUFFER);
+        verify(deviceClient, times(1)).getDevice(DEVICE);
+        assertThat(meterRegistry.get("message.access.cache.hit.ratio")
+                .tag("cache", "buffer-device").gauge().value()).isEqualTo(0.75);
+    }
+
+    @Test
+    @DisplayName("Buffer and device change events drop cached owners")
+    void shouldReloadAfterChangeEvents() {
+        UUID otherDevice = UUID.randomUUID();
+        when(bufferClient.getBufferByUid(BUFFER))
+                .thenReturn(BufferBlm.builder().uid(BUFFER).deviceUid(DEVICE).build())
+                .thenReturn(BufferBlm.builder().uid(BUFFER).deviceUid(otherDevice).build())
+                .thenReturn(BufferBlm.builder().uid(BUFFER).deviceUid(otherDevice).build());
+
+        assertThat(cache.getBufferDevice(BUFFER)).isEqualTo(DEVICE);
+
+        cache.onBufferChanged(new BufferChangedEvent(BUFFER));
+        assertThat(cache.getBufferDevice(BUFFER)).isEqualTo(otherDevice);
+
+        // Удаление устройства удаляет и его буферы
+        cache.onDeviceChanged(new DeviceChangedEvent(otherDevice));
+        cache.getBufferDevice(BUFFER);
+
+        verify(bufferClient, times(3)).getBufferByUid(BUFFER);
+    }
+
+    @Test
+    @DisplayName("Full cache admits new owners after old ones expire")
+    void shouldEvictExpiredOwnersOnInsert() throws InterruptedException {
+        cache = new BufferOwnershipCache(bufferClient, deviceClient, meterRegistry, 1, 1);
+        UUID otherBuffer = UUID.randomUUID();
+        when(bufferClient.getBufferByUid(BUFFER))
+                .thenReturn(BufferBlm.builder().uid(BUFFER).deviceUid(DEVICE).build());
+        when(bufferClient.getBufferByUid(otherBuffer))
+                .thenReturn(BufferBlm.builder().uid(otherBuffer).deviceUid(DEVICE).build());
+
+        cache.getBufferDevice(BUFFER);
+        Thread.sleep(1100);
+
+        // Единственное место занято истекшей записью: вставка ее вытесняет
+        assertThat(cache.getBufferDevice(otherBuffer)).isEqualTo(DEVICE);
+        assertThat(cache.getBufferDevice(otherBuffer)).isEqualTo(DEVICE);
+
+        verify(bufferClient, times(1)).getBufferByUid(otherBuffer);
+    }
+
+    @Test
+    @DisplayName("Device invalidation drops only buffers of that device")
+    void shouldDropOnlyBuffersOfInvalidatedDevice() {
+        UUID otherBuffer = UUID.randomUUID();
+        UUID otherDevice = UUID.randomUUID();
+        when(bufferClient.getBufferByUid(BUFFER))
+                .thenReturn(BufferBlm.builder().uid(BUFFER).deviceUid(DEVICE).build());
+        when(bufferClient.getBufferByUid(otherBuffer))
+                .thenReturn(BufferBlm.builder().uid(otherBuffer).deviceUid(otherDevice).build());
+
+        cache.getBufferDevice(BUFFER);
+        cache.getBufferDevice(otherBuffer);
+        cache.onDeviceChanged(new DeviceChangedEvent(DEVICE));
+        cache.getBufferDevice(BUFFER);
+        cache.getBufferDevice(otherBuffer);
+
+        verify(bufferClient, times(2)).getBufferByUid(BUFFER);
+        verify(bufferClient, times(1)).getBufferByUid(otherBuffer);
+    }
+
+    @Test
+    @DisplayName("Bulk lookup loads only cache misses in one call")
+    void shouldLoadMissesInOneCall() {
+        UUID otherBuffer = UUID.randomUUID();
+        when(bufferClient.getBufferByUid(BUFFER))
+                .thenReturn(BufferBlm.builder().uid(BUFFER).deviceUid(DEVICE).build());
+        when(bufferClient.getBuffersByUids(Set.of(otherBuffer))).thenReturn(List.of(
+                BufferBlm.builder().uid(otherBuffer).deviceUid(DEVICE).build()));
+        cache.getBufferDevice(BUFFER);
+
+        assertThat(cache.getBufferDevices(List.of(BUFFER, otherBuffer, otherBuffer)))
+                .containsOnlyKeys(BUFFER, otherBuffer).containsValue(DEVICE);
+        assertThat(cache.getBufferDevices(List.of(BUFFER, otherBuffer))).hasSize(2);
+
+        verify(bufferClient, times(1)).getBuffersByUids(Set.of(otherBuffer));
+    }
+
+    @Test
+    @DisplayName("Bulk device lookup skips devices of other clients - Negative")
+    void shouldSkipForeignDevicesInBulkLookup() {
+        UUID foreignDevice = UUID.randomUUID();
+        when(deviceClient.getDevicesByClient(CLIENT)).thenReturn(List.of(
+                DeviceBlm.builder().uid(DEVICE).clientUuid(CLIENT).build()));
+
+        assertThat(cache.getDeviceClients(List.of(DEVICE, foreignDevice), CLIENT))
+                .containsOnlyKeys(DEVICE);
+        // Отказ не кэшируется, найденный факт кэшируется
+        cache.getDeviceClients(List.of(DEVICE), CLIENT);
+
+        verify(deviceClient, times(1)).getDevicesByClient(CLIENT);
+        verify(deviceClient, never()).getDevice(foreignDevice);
+    }
+}
@@ -0,0 +1,84 @@
+package com.connection.message.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Recent Message Ids Tests")
+class RecentMessageIdsTest {
+
+    private static final UUID BUFFER = UUID.randomUUID();
+
+    private SimpleMeterRegistry meterRegistry;
+    private RecentMessageIds recentIds;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recentIds = new RecentMessageIds(meterRegistry, 2, 2);
+    }
+
+    private double duplicates(String detectedBy) {
+        return meterRegistry.get("message.ingest.duplicates")
+                .tag("detected-by", detectedBy).counter().count();
+    }
+
+    @Test
+    @DisplayName("Remembered id is a duplicate only in its own buffer")
+    void shouldRecognizeRetryInSameBuffer() {
+        UUID uid = UUID.randomUUID();
+        recentIds.remember(BUFFER, uid);
+
+        assertThat(recentIds.contains(BUFFER, uid)).isTrue();
+        assertThat(recentIds.contains(UUID.randomUUID(), uid)).isFalse();
+        assertThat(recentIds.contains(BUFFER, UUID.randomUUID())).isFalse();
+        assertThat(recentIds.contains(BUFFER, null)).isFalse();
+        assertThat(duplicates("memory")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Oldest ids of a buffer are forgotten first")
+    void shouldKeepLatestIdsPerBuffer() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        recentIds.remember(BUFFER, first);
+        recentIds.remember(BUFFER, second);
+        recentIds.remember(BUFFER, third);
+
+        assertThat(recentIds.contains(BUFFER, first)).isFalse();
+        assertThat(recentIds.contains(BUFFER, second)).isTrue();
+        assertThat(recentIds.contains(BUFFER, third)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Least recently written buffer is evicted")
+    void shouldBoundBufferCount() {
+        UUID idle = UUID.randomUUID();
+        UUID busy = UUID.randomUUID();
+        UUID uid = UUID.randomUUID();
+        recentIds.remember(idle, uid);
+        recentIds.remember(busy, uid);
+        recentIds.remember(busy, UUID.randomUUID());
+        recentIds.remember(UUID.randomUUID(), uid);
+
+        assertThat(recentIds.bufferCount()).isEqualTo(2);
+        assertThat(recentIds.contains(idle, uid)).isFalse();
+        assertThat(recentIds.contains(busy, uid)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Duplicates found by the repository are counted separately")
+    void shouldCountStoredDuplicates() {
+        UUID uid = UUID.randomUUID();
+        recentIds.rememberDuplicate(BUFFER, uid);
+
+        assertThat(recentIds.contains(BUFFER, uid)).isTrue();
+        assertThat(duplicates("database")).isEqualTo(1);
+        assertThat(duplicates("memory")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.connection.message.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Message Arrival Notifier Tests")
+class MessageArrivalNotifierTest {
+
+    private static final UUID BUFFER = UUID.randomUUID();
+
+    private SimpleMeterRegistry meterRegistry;
+    private MessageArrivalNotifier notifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        notifier = new MessageArrivalNotifier(null, meterRegistry, false, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        notifier.stop();
+    }
+
+    @Test
+    @DisplayName("Signal wakes subscribers of the buffer only")
+    void shouldWakeSubscribersOfSignalledBuffer() throws InterruptedException {
+        CountDownLatch woken = new CountDownLatch(1);
+        AtomicInteger otherWakeups = new AtomicInteger();
+        notifier.subscribe(BUFFER, woken::countDown);
+        notifier.subscribe(UUID.randomUUID(), otherWakeups::incrementAndGet);
+
+        notifier.signal(List.of(BUFFER));
+
+        assertThat(woken.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(otherWakeups.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Unsubscribed waiter is not counted")
+    void shouldRemoveWaiterOnUnsubscribe() {
+        Runnable unsubscribe = notifier.subscribe(BUFFER, () -> { });
+        assertThat(meterRegistry.get("message.delivery.waiters").gauge().value())
+                .isEqualTo(1.0);
+
+        unsubscribe.run();
+        unsubscribe.run();
+
+        assertThat(meterRegistry.get("message.delivery.waiters").gauge().value())
+                .isZero();
+    }
+}
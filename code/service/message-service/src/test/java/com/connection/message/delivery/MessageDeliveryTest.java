@@ -0,0 +1,125 @@
+package com.connection.message.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.connection.message.MessageCursor;
+import com.connection.message.MessagePage;
+import com.connection.message.MessageService;
+import com.connection.message.converter.MessageConverter;
+import com.connection.message.model.MessageBlm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Message Delivery Tests")
+class MessageDeliveryTest {
+
+    private static final UUID BUFFER = UUID.randomUUID();
+    private static final MessageCursor TAIL = new MessageCursor(new Date(), UUID.randomUUID());
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private MessageConverter messageConverter;
+
+    private MessageArrivalNotifier notifier;
+    private MessageDelivery delivery;
+
+    @BeforeEach
+    void setUp() {
+        notifier = new MessageArrivalNotifier(null, new SimpleMeterRegistry(), false, 1);
+        delivery = new MessageDelivery(messageService, messageConverter, notifier, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        delivery.stop();
+        notifier.stop();
+    }
+
+    @Test
+    @DisplayName("A stream without a cursor starts at the buffer tail")
+    void shouldStartStreamAtTail() {
+        when(messageService.getTailCursor(BUFFER)).thenReturn(TAIL);
+        when(messageService.getMessagesPageByBuffer(eq(BUFFER), eq(false), any(), anyInt()))
+                .thenReturn(new MessagePage(List.of(), null));
+
+        delivery.stream(BUFFER, null, 10_000);
+
+        verify(messageService).getMessagesPageByBuffer(eq(BUFFER), eq(false), eq(TAIL),
+                anyInt());
+    }
+
+    @Test
+    @DisplayName("Reads after a signal run on the delivery pool, not the dispatcher")
+    void shouldReadOnDeliveryPool() throws InterruptedException {
+        MessageBlm message = MessageBlm.builder().uid(UUID.randomUUID()).bufferUid(BUFFER)
+                .content("{}").contentType("INCOMING").createdAt(new Date()).build();
+        AtomicReference<String> readThread = new AtomicReference<>();
+        CountDownLatch read = new CountDownLatch(1);
+        when(messageService.getMessagesPageByBuffer(eq(BUFFER), eq(false), any(), anyInt()))
+                .thenReturn(new MessagePage(List.of(), null))
+                .thenAnswer(invocation -> {
+                    readThread.set(Thread.currentThread().getName());
+                    read.countDown();
+                    return new MessagePage(List.of(message), null);
+                });
+
+        delivery.stream(BUFFER, TAIL, 10_000);
+        notifier.signal(List.of(BUFFER));
+
+        assertThat(read.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(readThread.get()).startsWith("message-delivery-");
+        verify(messageConverter, timeout(5000)).toDto(message);
+    }
+
+    @Test
+    @DisplayName("Signals during a slow send are coalesced into one more read")
+    void shouldCoalesceSignalsDuringSend() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MessageBlm message = MessageBlm.builder().uid(UUID.randomUUID()).bufferUid(BUFFER)
+                .content("{}").contentType("INCOMING").createdAt(new Date()).build();
+        when(messageService.getMessagesPageByBuffer(eq(BUFFER), eq(false), any(), anyInt()))
+                .thenReturn(new MessagePage(List.of(), null))
+                .thenReturn(new MessagePage(List.of(message), null))
+                .thenReturn(new MessagePage(List.of(), null));
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(messageConverter).toDto(message);
+
+        delivery.stream(BUFFER, TAIL, 10_000);
+        notifier.signal(List.of(BUFFER));
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 5; i++) {
+            notifier.signal(List.of(BUFFER));
+        }
+        release.countDown();
+
+        // Первое чтение, чтение по сигналу и одно повторное на все сигналы во время отправки
+        verify(messageService, timeout(5000).times(3))
+                .getMessagesPageByBuffer(eq(BUFFER), eq(false), any(), anyInt());
+    }
+}
@@ -3,8 +3,14 @@ package com.connection.message.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import com.connection.message.MessageAddResult;
+import com.connection.message.MessageCursor;
+import com.connection.message.MessageExport;
+import com.connection.message.MessagePage;
 import com.connection.message.MessageService;
 import com.connection.message.model.MessageBlm;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -79,6 +85,26 @@ public class MessageServiceIntegrationTest extends BaseMessageIntegrationTest {
         log.info("Successfully added message as device: {}", message.getUid());
     }
 
+    @Test
+    @DisplayName("Should store retried message once")
+    void shouldStoreRetriedMessageOnce() {
+        // Given - повтор с устройства приходит с тем же uid и новым временем
+        MessageBlm message = createTestMessage(getTestBufferUid(), "OUTGOING", "[1, 2, 3]");
+        MessageBlm retry = createTestMessage(getTestBufferUid(), "OUTGOING", "[1, 2, 3]");
+        retry.setUid(message.getUid());
+
+        // When
+        setupDeviceAuthentication();
+        messageService.addMessage(message);
+        messageService.addMessage(retry);
+        List<MessageAddResult> results = messageService.addMessages(List.of(retry));
+
+        // Then
+        assertThat(results).extracting(MessageAddResult::isAccepted).containsExactly(true);
+        List<MessageBlm> messages = messageService.getMessagesByBuffer(getTestBufferUid(), false, 0, 10);
+        assertThat(messages).extracting(MessageBlm::getUid).containsExactly(message.getUid());
+    }
+
     @Test
     @DisplayName("Should get messages by buffer as client")
     void shouldGetMessagesByBufferAsClient() {
@@ -178,7 +204,7 @@ public class MessageServiceIntegrationTest extends BaseMessageIntegrationTest {
 
     @Test
     @DisplayName("Should process message movement for OUTGOING messages")
-    void shouldProcessMessageMovementForOutgoingMessages() {
+    void shouldProcessMessageMovementForOutgoingMessages() throws InterruptedException {
         // Given
         MessageBlm outgoingMessage = createTestMessage(getTestBufferUid(), "OUTGOING", "[12, 56, 64, 123, 2, 489]");
 
@@ -186,9 +212,9 @@ public class MessageServiceIntegrationTest extends BaseMessageIntegrationTest {
         setupClientAuthentication();
         messageService.addMessage(outgoingMessage);
 
-        // Then - сообщение должно быть скопировано в целевой буфер
+        // Then - сообщение должно быть скопировано в целевой буфер (маршрутизация асинхронная)
         List<MessageBlm> sourceMessages = messageService.getMessagesByBuffer(getTestBufferUid(), false, 0, 10);
-        List<MessageBlm> targetMessages = messageService.getMessagesByBuffer(getTestTargetBufferUid(), false, 0, 10);
+        List<MessageBlm> targetMessages = awaitMessages(getTestTargetBufferUid());
 
         assertThat(sourceMessages).isNotEmpty();
         assertThat(targetMessages).isNotEmpty();
@@ -241,6 +267,52 @@ public class MessageServiceIntegrationTest extends BaseMessageIntegrationTest {
                 firstPage.size(), secondPage.size());
     }
 
+    @Test
+    @DisplayName("Should page several sources in global order with one cursor")
+    void shouldPageSeveralSourcesWithCursor() {
+        // Given - сообщения в двух буферах
+        setupClientAuthentication();
+        for (int i = 1; i <= 3; i++) {
+            messageService.addMessage(createTestMessage(getTestBufferUid(), "INCOMING", "[" + i + "]"));
+            messageService.addMessage(createTestMessage(getTestTargetBufferUid(), "INCOMING", "[" + i + "]"));
+        }
+
+        // When - буфер указан дважды, страницы по 2 сообщения
+        List<UUID> buffers = List.of(getTestBufferUid(), getTestTargetBufferUid(), getTestBufferUid());
+        List<MessageBlm> collected = new ArrayList<>();
+        MessageCursor cursor = null;
+        do {
+            MessagePage page = messageService.getMessagesPage(null, buffers, null, false, cursor, 0, 2);
+            assertThat(page.getMessages()).hasSizeLessThanOrEqualTo(2);
+            collected.addAll(page.getMessages());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then - каждое сообщение один раз, в порядке created_at
+        assertThat(collected).hasSize(6);
+        assertThat(collected).extracting(MessageBlm::getUid).doesNotHaveDuplicates();
+        assertThat(collected).isSortedAccordingTo(Comparator.comparing(MessageBlm::getCreatedAt));
+    }
+
+    @Test
+    @DisplayName("Should export all buffer messages in creation order")
+    void shouldExportBufferMessages() {
+        // Given
+        setupClientAuthentication();
+        for (int i = 1; i <= 3; i++) {
+            messageService.addMessage(createTestMessage(getTestBufferUid(), "INCOMING", "[" + i + "]"));
+        }
+
+        // When - выгрузка читается после проверки доступа
+        MessageExport export = messageService.exportMessagesByBuffer(getTestBufferUid());
+        List<MessageBlm> exported = new ArrayList<>();
+        export.forEach(exported::add);
+
+        // Then
+        assertThat(exported).hasSize(3);
+        assertThat(exported).isSortedAccordingTo(Comparator.comparing(MessageBlm::getCreatedAt));
+    }
+
     @Test
     @DisplayName("Should throw SecurityException when adding message without authentication")
     void shouldThrowSecurityExceptionWhenAddingMessageWithoutAuthentication() {
@@ -326,4 +398,14 @@ public class MessageServiceIntegrationTest extends BaseMessageIntegrationTest {
                 .createdAt(new Date())
                 .build();
     }
-}
\ No newline at end of file
+
+    private List<MessageBlm> awaitMessages(UUID bufferUid) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<MessageBlm> messages = messageService.getMessagesByBuffer(bufferUid, false, 0, 10);
+        while (messages.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            messages = messageService.getMessagesByBuffer(bufferUid, false, 0, 10);
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,228 @@
+package com.connection.message.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.connection.client.repository.ClientRepositorySqlImpl;
+import com.connection.device.repository.DeviceRepositorySqlImpl;
+import com.connection.device.token.repository.DeviceAccessTokenRepositorySqlImpl;
+import com.connection.device.token.repository.DeviceTokenRepositorySqlImpl;
+import com.connection.message.repository.MessageOutboxRepositorySqlImpl;
+import com.connection.message.repository.MessageRepositorySqlImpl;
+import com.connection.message.repository.MessageRetentionRepositorySqlImpl;
+import com.connection.message.repository.MessageRoutingTaskRepositorySqlImpl;
+import com.connection.processing.buffer.repository.BufferRepositorySqlImpl;
+import com.connection.scheme.repository.ConnectionSchemeRepositorySqlImpl;
+import com.connection.token.repository.RefreshTokenRepositorySqlImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Планы всех SQL-констант репозиториев: после миграций ни один запрос
+ * не должен читать таблицы полным просмотром. Таблицы тестовой базы
+ * маленькие, поэтому последовательный просмотр запрещается
+ * (enable_seqscan = off) - он остается в плане, только если подходящего
+ * индекса нет. Проверяется обобщенный план, как у подготовленных
+ * запросов с параметрами.
+ */
+@DisplayName("Repository Query Plan Integration Tests")
+class RepositoryQueryPlanIntegrationTest {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            BufferRepositorySqlImpl.class,
+            ClientRepositorySqlImpl.class,
+            ConnectionSchemeRepositorySqlImpl.class,
+            DeviceRepositorySqlImpl.class,
+            DeviceTokenRepositorySqlImpl.class,
+            DeviceAccessTokenRepositorySqlImpl.class,
+            RefreshTokenRepositorySqlImpl.class,
+            MessageRepositorySqlImpl.class,
+            MessageOutboxRepositorySqlImpl.class,
+            MessageRetentionRepositorySqlImpl.class,
+            MessageRoutingTaskRepositorySqlImpl.class);
+
+    private static final List<String> MIGRATIONS = List.of("buffer",
+            "connection-scheme", "device", "device-token", "refresh-token", "message");
+
+    // Запросы, которым полный просмотр допустим
+    private static final Map<String, String> ALLOWED_SEQ_SCANS = Map.of(
+            "MessageRetentionRepositorySqlImpl.SELECT_RETENTION_POLICIES",
+            "фоновый проход по всем буферам раз в интервал очистки");
+
+    // Список пар (uid, created_at) передается одним параметром
+    private static final Map<String, String> PARAMETER_REWRITES = Map.of(
+            "(:keys)", "((:key_uid, :key_created_at))");
+
+    private static final Pattern NAMED_PARAMETER =
+            Pattern.compile("(?<!:):([a-zA-Z_][a-zA-Z0-9_]*)");
+    private static final Pattern STATEMENT =
+            Pattern.compile("^\\s*(SELECT|WITH|INSERT|UPDATE|DELETE)\\b.*",
+                    Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static String url;
+    private static String user;
+    private static String password;
+
+    @BeforeAll
+    static void migrate() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = RepositoryQueryPlanIntegrationTest.class
+                .getResourceAsStream("/application-integrationtest.properties")) {
+            properties.load(in);
+        }
+        url = properties.getProperty("app.datasource.message.xa-properties.url");
+        user = properties.getProperty("app.datasource.message.xa-properties.user");
+        password = properties.getProperty("app.datasource.message.xa-properties.password");
+
+        // Так же, как бины *SchemaMigration сервисов
+        for (String location : MIGRATIONS) {
+            Flyway.configure()
+                    .dataSource(url, user, password)
+                    .locations("classpath:db/migration/" + location)
+                    .table(location.replace('-', '_') + "_schema_history")
+                    .baselineOnMigrate(true)
+                    .baselineVersion("0")
+                    .load()
+                    .migrate();
+        }
+    }
+
+    @TestFactory
+    @DisplayName("Repository queries do not scan tables sequentially")
+    Stream<DynamicTest> repositoryQueriesUseIndexes() {
+        return statements().entrySet().stream()
+                .map(entry -> DynamicTest.dynamicTest(entry.getKey(),
+                        () -> assertIndexed(entry.getKey(), entry.getValue())));
+    }
+
+    private static Map<String, String> statements() {
+        Map<String, String> statements = new LinkedHashMap<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Field field : repository.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (field.getType() != String.class || !Modifier.isStatic(modifiers)
+                        || !Modifier.isFinal(modifiers)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                String sql;
+                try {
+                    sql = (String) field.get(null);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+                // Фрагменты (список колонок, FROM) отдельно не выполняются
+                boolean fragment = sql.trim().toUpperCase(Locale.ROOT).startsWith("SELECT")
+                        && !sql.toUpperCase(Locale.ROOT).contains(" FROM ");
+                if (STATEMENT.matcher(sql).matches() && !fragment) {
+                    statements.put(repository.getSimpleName() + "." + field.getName(), sql);
+                }
+            }
+        }
+        return statements;
+    }
+
+    private static void assertIndexed(String name, String sql) throws SQLException {
+        List<String> parameters = new ArrayList<>();
+        String prepared = toPositional(sql, parameters);
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL enable_seqscan = off");
+                statement.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE plan_check AS " + prepared);
+
+                String arguments = parameters.isEmpty() ? ""
+                        : "(" + String.join(", ", parameters.stream()
+                                .map(p -> "NULL").toList()) + ")";
+                try (ResultSet rs = statement.executeQuery(
+                        "EXPLAIN (FORMAT JSON) EXECUTE plan_check" + arguments)) {
+                    rs.next();
+                    List<String> scanned = new ArrayList<>();
+                    collectSeqScans(readPlan(rs.getString(1)), scanned);
+                    if (!ALLOWED_SEQ_SCANS.containsKey(name)) {
+                        assertThat(scanned).as("Sequential scans in %s:%n%s", name, sql)
+                                .isEmpty();
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    // Именованные параметры NamedParameterJdbcTemplate и позиционные "?"
+    // заменяются на $n; повторное имя получает тот же номер
+    private static String toPositional(String sql, List<String> parameters) {
+        String rewritten = sql;
+        for (Map.Entry<String, String> rewrite : PARAMETER_REWRITES.entrySet()) {
+            rewritten = rewritten.replace(rewrite.getKey(), rewrite.getValue());
+        }
+        Matcher matcher = NAMED_PARAMETER.matcher(rewritten);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String parameter = matcher.group(1);
+            if (!parameters.contains(parameter)) {
+                parameters.add(parameter);
+            }
+            matcher.appendReplacement(result, "\\$" + (parameters.indexOf(parameter) + 1));
+        }
+        matcher.appendTail(result);
+        if (!parameters.isEmpty()) {
+            return result.toString();
+        }
+
+        StringBuilder positional = new StringBuilder();
+        for (char c : rewritten.toCharArray()) {
+            if (c == '?') {
+                parameters.add("?");
+                positional.append('$').append(parameters.size());
+            } else {
+                positional.append(c);
+            }
+        }
+        return positional.toString();
+    }
+
+    private static JsonNode readPlan(String json) {
+        try {
+            return OBJECT_MAPPER.readTree(json).get(0).get("Plan");
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable plan: " + json, e);
+        }
+    }
+
+    private static void collectSeqScans(JsonNode plan, List<String> scanned) {
+        if ("Seq Scan".equals(plan.path("Node Type").asText())) {
+            scanned.add(plan.path("Relation Name").asText());
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSeqScans(child, scanned);
+        }
+    }
+}
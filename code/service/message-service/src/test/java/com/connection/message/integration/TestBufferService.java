@@ -2,6 +2,7 @@
 package com.connection.message.integration;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,7 +37,11 @@ public class TestBufferService implements BufferService {
                 deviceUid,
                 maxMessages,
                 maxSize,
-                "{}"
+                "{}",
+                null,
+                null,
+                null,
+                null
         );
 
         testBuffers.put(bufferUid, buffer);
@@ -191,6 +196,26 @@ public class TestBufferService implements BufferService {
         return new ArrayList<>(buffers); // Возвращаем копию для безопасности
     }
 
+    @Override
+    public List<BufferBlm> getBuffersByUids(Collection<UUID> bufferUids) {
+        List<BufferBlm> buffers = bufferUids.stream()
+                .map(testBuffers::get)
+                .filter(java.util.Objects::nonNull)
+                .toList();
+        log.debug("🔍 Test Responder: Found {} of {} buffers", buffers.size(), bufferUids.size());
+        return buffers;
+    }
+
+    @Override
+    public List<BufferBlm> getBuffersByDevices(Collection<UUID> deviceUids) {
+        List<BufferBlm> buffers = new ArrayList<>();
+        for (UUID deviceUid : deviceUids) {
+            buffers.addAll(deviceBuffers.getOrDefault(deviceUid, new ArrayList<>()));
+        }
+        log.debug("🔍 Test Responder: Found {} buffers for {} devices", buffers.size(), deviceUids.size());
+        return buffers;
+    }
+
     @Override
     public Map<String, Object> getHealthStatus() {
         Map<String, Object> healthStatus = new HashMap<>();
@@ -0,0 +1,100 @@
+package com.connection.message.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.connection.message.repository.MessagePartitionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Message Partition Manager Tests")
+class MessagePartitionManagerTest {
+
+    @Mock
+    private MessagePartitionRepository partitionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Future partitions are created and expired ones dropped")
+    void shouldCreateAndExpirePartitions() {
+        MessagePartitionManager manager = new MessagePartitionManager(partitionRepository,
+                meterRegistry, 2, 30, MessagePartitionExpireAction.DROP);
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        when(partitionRepository.createPartition(any(LocalDate.class)))
+                .thenReturn(false, true, true);
+        when(partitionRepository.findPartitionsBefore(today.minusDays(30)))
+                .thenReturn(List.of("message_p20200101"));
+        when(partitionRepository.findDetachedPartitions())
+                .thenReturn(List.of("message_p20200101_detached"));
+        when(partitionRepository.releaseDetached("message_p20200101_detached", true))
+                .thenReturn(42L);
+
+        manager.maintain();
+
+        verify(partitionRepository).createPartition(today);
+        verify(partitionRepository).createPartition(today.plusDays(2));
+        verify(partitionRepository).detachPartition("message_p20200101");
+        assertThat(meterRegistry.get("message.partition.created").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("message.partition.expired").tag("action", "drop")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("message.partition.expired.messages").counter().count())
+                .isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("Partitions are kept when retention is disabled")
+    void shouldKeepPartitionsWithoutRetention() {
+        MessagePartitionManager manager = new MessagePartitionManager(partitionRepository,
+                meterRegistry, 0, 0, MessagePartitionExpireAction.DETACH);
+        when(partitionRepository.findDetachedPartitions()).thenReturn(List.of());
+
+        manager.maintain();
+
+        verify(partitionRepository, times(1)).createPartition(any(LocalDate.class));
+        verify(partitionRepository, never()).findPartitionsBefore(any(LocalDate.class));
+        verify(partitionRepository, never()).releaseDetached(anyString(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Failed detach does not stop maintenance - Negative")
+    void shouldContinueAfterFailedDetach() {
+        MessagePartitionManager manager = new MessagePartitionManager(partitionRepository,
+                meterRegistry, 0, 7, MessagePartitionExpireAction.DETACH);
+        when(partitionRepository.findPartitionsBefore(any(LocalDate.class)))
+                .thenReturn(List.of("message_p20200101", "message_p20200102"));
+        doThrow(new IllegalStateException("lock timeout"))
+                .when(partitionRepository).detachPartition("message_p20200101");
+        when(partitionRepository.findDetachedPartitions())
+                .thenReturn(List.of("message_p20200102_detached"));
+
+        manager.maintain();
+
+        verify(partitionRepository).detachPartition("message_p20200102");
+        verify(partitionRepository).releaseDetached("message_p20200102_detached", false);
+        assertThat(meterRegistry.get("message.partition.failed").counter().count())
+                .isEqualTo(1);
+    }
+}
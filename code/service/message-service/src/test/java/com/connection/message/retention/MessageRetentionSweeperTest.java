@@ -0,0 +1,85 @@
+package com.connection.message.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.connection.message.model.MessageRetentionPolicyBlm;
+import com.connection.message.repository.MessageRetentionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Message Retention Sweeper Tests")
+class MessageRetentionSweeperTest {
+
+    private static final UUID AGED = UUID.randomUUID();
+    private static final UUID COUNTED = UUID.randomUUID();
+
+    @Mock
+    private MessageRetentionRepository retentionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MessageRetentionSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new MessageRetentionSweeper(retentionRepository, meterRegistry, 10, 0);
+    }
+
+    private double deleted(String reason) {
+        return meterRegistry.get("message.retention.deleted").tag("reason", reason)
+                .counter().count();
+    }
+
+    @Test
+    @DisplayName("Buffers are swept in chunks until a partial chunk")
+    void shouldDeleteInChunks() {
+        when(retentionRepository.findRetentionPolicies()).thenReturn(List.of(
+                new MessageRetentionPolicyBlm(AGED, 3600, null),
+                new MessageRetentionPolicyBlm(COUNTED, null, 100)));
+        when(retentionRepository.deleteExpiredChunk(eq(AGED), any(Date.class), eq(10)))
+                .thenReturn(10, 10, 3);
+        when(retentionRepository.deleteOverflowChunk(COUNTED, 100, 10))
+                .thenReturn(10, 0);
+
+        sweeper.sweep();
+
+        verify(retentionRepository, times(3)).deleteExpiredChunk(eq(AGED), any(Date.class), eq(10));
+        verify(retentionRepository, times(2)).deleteOverflowChunk(COUNTED, 100, 10);
+        verify(retentionRepository, never()).deleteOverflowChunk(eq(AGED), anyInt(), anyInt());
+        assertThat(deleted("age")).isEqualTo(23);
+        assertThat(deleted("count")).isEqualTo(10);
+        assertThat(meterRegistry.get("message.retention.sweep").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Failure on one buffer does not stop the sweep - Negative")
+    void shouldContinueAfterFailure() {
+        when(retentionRepository.findRetentionPolicies()).thenReturn(List.of(
+                new MessageRetentionPolicyBlm(AGED, 60, null),
+                new MessageRetentionPolicyBlm(COUNTED, null, 5)));
+        when(retentionRepository.deleteExpiredChunk(eq(AGED), any(Date.class), eq(10)))
+                .thenThrow(new IllegalStateException("lock timeout"));
+        when(retentionRepository.deleteOverflowChunk(COUNTED, 5, 10)).thenReturn(4);
+
+        sweeper.sweep();
+
+        assertThat(meterRegistry.get("message.retention.failed").counter().count()).isEqualTo(1);
+        assertThat(deleted("count")).isEqualTo(4);
+    }
+}
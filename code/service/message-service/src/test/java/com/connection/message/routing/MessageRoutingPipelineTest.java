@@ -0,0 +1,264 @@
+package com.connection.message.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.connection.message.delivery.MessageArrivalNotifier;
+import com.connection.message.events.MessageEventConstants;
+import com.connection.message.model.MessageBlm;
+import com.connection.message.repository.MessageOutboxRepository;
+import com.connection.message.repository.MessageRepository;
+import com.connection.message.repository.MessageRoutingTaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Message Routing Pipeline Tests")
+class MessageRoutingPipelineTest {
+
+    private static final UUID SOURCE = UUID.randomUUID();
+    private static final UUID TARGET = UUID.randomUUID();
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private RoutingTable routingTable;
+
+    @Mock
+    private MessageArrivalNotifier arrivalNotifier;
+
+    @Mock
+    private MessageOutboxRepository outboxRepository;
+
+    @Mock
+    private MessageRoutingTaskRepository routingTaskRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MessageRoutingPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new MessageRoutingPipeline(messageRepository, routingTable,
+                arrivalNotifier, null, routingTaskRepository, null, meterRegistry, false, 2, 100,
+                100, 1000, 3, 1);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    private static MessageBlm outgoing(String content) {
+        return MessageBlm.builder().uid(UUID.randomUUID()).bufferUid(SOURCE)
+                .content(content).contentType("OUTGOING").createdAt(new Date())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Messages of one source are routed in submission order")
+    void shouldRouteInSubmissionOrder() {
+        List<String> routed = Collections.synchronizedList(new ArrayList<>());
+        when(routingTable.getTargetBuffers(SOURCE)).thenReturn(List.of(TARGET));
+        doAnswer(invocation -> {
+            List<MessageBlm> copies = invocation.getArgument(0);
+            routed.add(copies.get(0).getContent());
+            return List.of();
+        }).when(messageRepository).addAll(anyList());
+
+        for (int i = 0; i < 20; i++) {
+            pipeline.submit(outgoing("m" + i));
+        }
+
+        // Остановка дожидается обработки всех поставленных задач
+        pipeline.stop();
+
+        verify(messageRepository, times(20)).addAll(anyList());
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add("m" + i);
+        }
+        assertThat(routed).containsExactlyElementsOf(expected);
+        assertThat(meterRegistry.get("message.routing.lag").timer().count()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("A full stripe blocks the caller instead of routing out of order")
+    void shouldBlockOnFullStripe() throws Exception {
+        pipeline.stop();
+        pipeline = new MessageRoutingPipeline(messageRepository, routingTable,
+                arrivalNotifier, null, routingTaskRepository, null, meterRegistry, false, 1, 1,
+                20, 1000, 3, 1);
+        pipeline.start();
+
+        CountDownLatch firstTaken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> routed = Collections.synchronizedList(new ArrayList<>());
+        when(routingTable.getTargetBuffers(SOURCE)).thenReturn(List.of(TARGET));
+        doAnswer(invocation -> {
+            List<MessageBlm> copies = invocation.getArgument(0);
+            firstTaken.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            routed.add(copies.get(0).getContent());
+            return List.of();
+        }).when(messageRepository).addAll(anyList());
+
+        // m0 занимает рабочий поток, m1 - единственное место в очереди
+        pipeline.submit(outgoing("m0"));
+        assertThat(firstTaken.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.submit(outgoing("m1"));
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            pipeline.submit(outgoing("m2"));
+            submitted.countDown();
+        });
+        producer.start();
+
+        assertThat(submitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(meterRegistry.get("message.routing.backpressure").counter().count())
+                .isPositive();
+
+        release.countDown();
+        assertThat(submitted.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.stop();
+
+        assertThat(routed).containsExactly("m0", "m1", "m2");
+        assertThat(meterRegistry.get("message.routing.inline").counter().count()).isZero();
+    }
+
+    private void restartWithOutbox() {
+        pipeline.stop();
+        pipeline = new MessageRoutingPipeline(messageRepository, routingTable,
+                arrivalNotifier, outboxRepository, routingTaskRepository,
+                transactionManager, meterRegistry, true, 1, 100, 100, 1000, 3, 1);
+        pipeline.start();
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        when(routingTable.getTargetBuffers(SOURCE)).thenReturn(List.of(TARGET));
+    }
+
+    @Test
+    @DisplayName("Routed copies and the MESSAGE_ROUTED event share one transaction")
+    void shouldWriteCopiesAndEventInOneTransaction() {
+        restartWithOutbox();
+        when(messageRepository.addAll(anyList())).thenReturn(List.of());
+
+        pipeline.submit(outgoing("m"));
+        pipeline.stop();
+
+        InOrder order = inOrder(transactionManager, messageRepository,
+                outboxRepository, arrivalNotifier);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(messageRepository).addAll(anyList());
+        order.verify(outboxRepository).add(eq(MessageEventConstants.EVENT_MESSAGE_ROUTED),
+                eq(SOURCE), anyString());
+        order.verify(transactionManager).commit(transactionStatus);
+        order.verify(arrivalNotifier).signal(List.of(TARGET));
+    }
+
+    @Test
+    @DisplayName("A failed outbox write rolls back the routed copies - Negative")
+    void shouldRollBackCopiesWhenEventFails() {
+        restartWithOutbox();
+        when(messageRepository.addAll(anyList())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            throw new IllegalStateException("outbox unavailable");
+        }).when(outboxRepository).add(anyString(), any(), anyString());
+
+        pipeline.submit(outgoing("m"));
+        pipeline.stop();
+
+        verify(transactionManager).rollback(transactionStatus);
+        verify(transactionManager, never()).commit(any());
+        verify(arrivalNotifier, never()).signal(anyList());
+        assertThat(meterRegistry.get("message.routing.failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A transient database error is retried until the fan-out succeeds")
+    void shouldRetryTransientFailure() {
+        when(routingTable.getTargetBuffers(SOURCE)).thenReturn(List.of(TARGET));
+        when(messageRepository.addAll(anyList()))
+                .thenThrow(new CannotAcquireLockException("deadlock"))
+                .thenReturn(List.of());
+
+        pipeline.submit(outgoing("m"));
+        pipeline.stop();
+
+        verify(messageRepository, times(2)).addAll(anyList());
+        verify(arrivalNotifier).signal(List.of(TARGET));
+        verify(routingTaskRepository, never()).park(any(), any(), anyInt(), any());
+        assertThat(meterRegistry.get("message.routing.retried").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A fan-out failing all attempts is parked instead of dropped - Negative")
+    void shouldParkExhaustedTask() {
+        when(routingTable.getTargetBuffers(SOURCE)).thenReturn(List.of(TARGET));
+        when(messageRepository.addAll(anyList()))
+                .thenThrow(new CannotAcquireLockException("deadlock"));
+        MessageBlm message = outgoing("m");
+
+        pipeline.submit(message);
+        pipeline.stop();
+
+        verify(messageRepository, times(3)).addAll(anyList());
+        verify(routingTaskRepository).park(eq(message.getUid()), eq(SOURCE), eq(3),
+                anyString());
+        verify(arrivalNotifier, never()).signal(anyList());
+        assertThat(meterRegistry.get("message.routing.parked").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A non-transient failure is parked without retries - Negative")
+    void shouldParkNonTransientFailureImmediately() {
+        when(routingTable.getTargetBuffers(SOURCE)).thenReturn(List.of(TARGET));
+        when(messageRepository.addAll(anyList()))
+                .thenThrow(new IllegalStateException("broken"));
+        MessageBlm message = outgoing("m");
+
+        pipeline.submit(message);
+        pipeline.stop();
+
+        verify(messageRepository, times(1)).addAll(anyList());
+        verify(routingTaskRepository).park(message.getUid(), SOURCE, 1, "broken");
+    }
+}
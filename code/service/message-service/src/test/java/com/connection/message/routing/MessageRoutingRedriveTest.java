@@ -0,0 +1,127 @@
+package com.connection.message.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.connection.message.delivery.MessageArrivalNotifier;
+import com.connection.message.exception.MessageNotFoundException;
+import com.connection.message.model.MessageBlm;
+import com.connection.message.model.MessageRoutingTaskBlm;
+import com.connection.message.repository.MessageRepository;
+import com.connection.message.repository.MessageRoutingTaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Message Routing Redrive Tests")
+class MessageRoutingRedriveTest {
+
+    private static final UUID SOURCE = UUID.randomUUID();
+    private static final UUID TARGET = UUID.randomUUID();
+
+    @Mock
+    private MessageRoutingTaskRepository routingTaskRepository;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MessageRoutingPipeline routingPipeline;
+
+    @Mock
+    private MessageArrivalNotifier arrivalNotifier;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MessageRoutingRedrive redrive;
+    private MessageRoutingTaskBlm task;
+    private MessageBlm message;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        redrive = new MessageRoutingRedrive(routingTaskRepository, messageRepository,
+                routingPipeline, arrivalNotifier, transactionManager, meterRegistry, 10, 0);
+        message = MessageBlm.builder().uid(UUID.randomUUID()).bufferUid(SOURCE)
+                .content("m").contentType("OUTGOING").createdAt(new Date()).build();
+        task = new MessageRoutingTaskBlm(message.getUid(), SOURCE, 3, new Date());
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+    }
+
+    @Test
+    @DisplayName("A parked task is routed and deleted in one transaction")
+    void shouldRouteAndDeleteParkedTask() {
+        when(routingTaskRepository.lockBatch(any(), eq(1)))
+                .thenReturn(List.of(task)).thenReturn(List.of());
+        when(messageRepository.findByUid(message.getUid())).thenReturn(message);
+        when(routingPipeline.redrive(message)).thenReturn(List.of(TARGET));
+
+        redrive.redrive();
+
+        InOrder order = inOrder(routingPipeline, routingTaskRepository,
+                transactionManager, arrivalNotifier);
+        order.verify(routingPipeline).redrive(message);
+        order.verify(routingTaskRepository).delete(message.getUid());
+        order.verify(transactionManager).commit(transactionStatus);
+        order.verify(arrivalNotifier).signal(List.of(TARGET));
+        assertThat(meterRegistry.get("message.routing.redriven").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A failed redrive rolls back and parks the task again - Negative")
+    void shouldReparkFailedTask() {
+        when(routingTaskRepository.lockBatch(any(), eq(1)))
+                .thenReturn(List.of(task)).thenReturn(List.of());
+        when(messageRepository.findByUid(message.getUid())).thenReturn(message);
+        when(routingPipeline.redrive(message))
+                .thenThrow(new CannotAcquireLockException("deadlock"));
+
+        redrive.redrive();
+
+        verify(transactionManager).rollback(transactionStatus);
+        verify(routingTaskRepository, never()).delete(any());
+        verify(routingTaskRepository).park(message.getUid(), SOURCE, 1, "deadlock");
+        verify(arrivalNotifier, never()).signal(anyList());
+        assertThat(meterRegistry.get("message.routing.redrive.failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A task of an already deleted message is dropped")
+    void shouldDropTaskOfDeletedMessage() {
+        when(routingTaskRepository.lockBatch(any(), eq(1)))
+                .thenReturn(List.of(task)).thenReturn(List.of());
+        when(messageRepository.findByUid(message.getUid()))
+                .thenThrow(new MessageNotFoundException("not found"));
+
+        redrive.redrive();
+
+        verify(routingPipeline, never()).redrive(any());
+        verify(routingTaskRepository).delete(message.getUid());
+        verify(routingTaskRepository, never()).park(any(), any(), eq(1), any());
+    }
+}
@@ -0,0 +1,77 @@
+package com.connection.message.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.connection.scheme.model.ConnectionSchemeBlm;
+import com.service.connectionscheme.ConnectionSchemeService;
+import com.service.connectionscheme.event.ConnectionSchemeChangedEvent;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Routing Table Tests")
+class RoutingTableTest {
+
+    private static final UUID SOURCE = UUID.randomUUID();
+    private static final UUID TARGET_1 = UUID.randomUUID();
+    private static final UUID TARGET_2 = UUID.randomUUID();
+
+    @Mock
+    private ConnectionSchemeService connectionSchemeClient;
+
+    private RoutingTable routingTable;
+
+    @BeforeEach
+    void setUp() {
+        routingTable = new RoutingTable(connectionSchemeClient, 300);
+    }
+
+    private static ConnectionSchemeBlm scheme(UUID source, List<UUID> targets) {
+        return ConnectionSchemeBlm.builder()
+                .uid(UUID.randomUUID())
+                .bufferTransitions(Map.of(source, targets))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Targets of all schemes are merged without duplicates and cached")
+    void shouldMergeTargetsAndCache() {
+        when(connectionSchemeClient.getSchemesByBuffer(SOURCE)).thenReturn(List.of(
+                scheme(SOURCE, List.of(TARGET_1)),
+                scheme(SOURCE, List.of(TARGET_1, TARGET_2))));
+
+        List<UUID> first = routingTable.getTargetBuffers(SOURCE);
+        List<UUID> second = routingTable.getTargetBuffers(SOURCE);
+
+        assertThat(first).containsExactly(TARGET_1, TARGET_2);
+        assertThat(second).isSameAs(first);
+        verify(connectionSchemeClient, times(1)).getSchemesByBuffer(SOURCE);
+    }
+
+    @Test
+    @DisplayName("Scheme change event rebuilds route of affected source")
+    void shouldReloadAfterSchemeChanged() {
+        when(connectionSchemeClient.getSchemesByBuffer(SOURCE))
+                .thenReturn(List.of(scheme(SOURCE, List.of(TARGET_1))))
+                .thenReturn(List.of());
+
+        assertThat(routingTable.getTargetBuffers(SOURCE)).containsExactly(TARGET_1);
+
+        routingTable.onSchemeChanged(
+                new ConnectionSchemeChangedEvent(UUID.randomUUID(), Set.of(SOURCE)));
+
+        assertThat(routingTable.getTargetBuffers(SOURCE)).isEmpty();
+        verify(connectionSchemeClient, times(2)).getSchemesByBuffer(SOURCE);
+    }
+}
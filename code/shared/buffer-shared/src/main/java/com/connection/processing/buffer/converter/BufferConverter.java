@@ -12,27 +12,35 @@ public class BufferConverter {
     public BufferBlm toBlm(BufferDalm dalm) {
         return new BufferBlm(dalm.getUid(), dalm.getDeviceUid(),
                 dalm.getMaxMessagesNumber(), dalm.getMaxMessageSize(),
-                dalm.getMessagePrototype());
+                dalm.getMessagePrototype(), dalm.getRetentionSeconds(),
+                dalm.getRetentionMessages(), dalm.getPayloadFormat(),
+                dalm.getCompression());
     }
 
     /** . */
     public BufferBlm toBlm(BufferDto dto) {
         return new BufferBlm(UUID.fromString(dto.getUid()),
                 UUID.fromString(dto.getDeviceUid()), dto.getMaxMessagesNumber(),
-                dto.getMaxMessageSize(), dto.getMessagePrototype());
+                dto.getMaxMessageSize(), dto.getMessagePrototype(),
+                dto.getRetentionSeconds(), dto.getRetentionMessages(),
+                dto.getPayloadFormat(), dto.getCompression());
     }
 
     /** . */
     public BufferDto toDto(BufferBlm blm) {
         return new BufferDto(blm.getUid().toString(),
                 blm.getDeviceUid().toString(), blm.getMaxMessagesNumber(),
-                blm.getMaxMessageSize(), blm.getMessagePrototype());
+                blm.getMaxMessageSize(), blm.getMessagePrototype(),
+                blm.getRetentionSeconds(), blm.getRetentionMessages(),
+                blm.getPayloadFormat(), blm.getCompression());
     }
 
     /** . */
     public BufferDalm toDalm(BufferBlm blm) {
         return new BufferDalm(blm.getUid(), blm.getDeviceUid(),
                 blm.getMaxMessagesNumber(), blm.getMaxMessageSize(),
-                blm.getMessagePrototype());
+                blm.getMessagePrototype(), blm.getRetentionSeconds(),
+                blm.getRetentionMessages(), blm.getPayloadFormat(),
+                blm.getCompression());
     }
 }
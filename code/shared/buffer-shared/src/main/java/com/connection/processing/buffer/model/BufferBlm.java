@@ -22,4 +22,11 @@ public class BufferBlm {
     protected Integer maxMessagesNumber;
     protected Integer maxMessageSize;
     protected String messagePrototype;
+    // Хранение сообщений: по возрасту и/или по количеству (null - без ограничения)
+    protected Integer retentionSeconds;
+    protected Integer retentionMessages;
+    // JSON или BINARY (BufferPayloadFormat); null при создании - JSON
+    protected String payloadFormat;
+    // Сжатие тел сообщений (BufferCompression); null при создании - NONE
+    protected String compression;
 }
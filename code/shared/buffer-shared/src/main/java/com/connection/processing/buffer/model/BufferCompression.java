@@ -0,0 +1,11 @@
+package com.connection.processing.buffer.model;
+
+/** Сжатие тел сообщений буфера при записи. */
+public enum BufferCompression {
+    /** Тела хранятся без сжатия. */
+    NONE,
+    /** Deflate (zlib): лучше сжимает, дороже по CPU. */
+    DEFLATE,
+    /** LZ4: быстрее, сжимает слабее. */
+    LZ4
+}
@@ -0,0 +1,9 @@
+package com.connection.processing.buffer.model;
+
+/** Формат тела сообщений буфера. */
+public enum BufferPayloadFormat {
+    /** JSON-документ, хранится в processing.message.content. */
+    JSON,
+    /** Байты как есть, хранятся в processing.message.payload. */
+    BINARY
+}
@@ -3,6 +3,7 @@ package com.connection.processing.buffer.repository;
 import com.connection.processing.buffer.exception.BufferAlreadyExistsException;
 import com.connection.processing.buffer.exception.BufferNotFoundException;
 import com.connection.processing.buffer.model.BufferBlm;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,6 +24,12 @@ public interface BufferRepository {
     /** . */
     List<BufferBlm> findByDeviceUid(UUID deviceUid);
 
+    /** Найденные буферы из uids одним запросом; отсутствующие пропускаются. */
+    List<BufferBlm> findByUids(Collection<UUID> uids);
+
+    /** Буферы всех устройств из deviceUids одним запросом. */
+    List<BufferBlm> findByDeviceUids(Collection<UUID> deviceUids);
+
     /** . */
     boolean exists(UUID uid);
 
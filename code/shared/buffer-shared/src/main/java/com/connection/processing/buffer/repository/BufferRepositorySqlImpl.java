@@ -6,6 +6,7 @@ import com.connection.processing.buffer.exception.BufferNotFoundException;
 import com.connection.processing.buffer.model.BufferBlm;
 import com.connection.processing.buffer.model.BufferDalm;
 import com.connection.processing.buffer.validator.BufferValidator;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -20,28 +21,42 @@ public class BufferRepositorySqlImpl implements BufferRepository {
     // Fixed SQL strings with consistent spacing
     private static final String SELECT_BUFFER =
             "SELECT b.uid, b.device_uid,"
-            + " b.max_messages_number, b.max_message_size, b.message_prototype";
+            + " b.max_messages_number, b.max_message_size, b.message_prototype,"
+            + " b.retention_seconds, b.retention_messages, b.payload_format,"
+            + " b.compression";
     private static final String FROM_BUFFER = " FROM processing.buffer b";
 
     private static final String SELECT_BUFFER_BY_UID =
             SELECT_BUFFER + FROM_BUFFER + " WHERE b.uid = :uid";
     private static final String SELECT_BUFFERS_BY_DEVICE =
             SELECT_BUFFER + FROM_BUFFER + " WHERE b.device_uid = :device_uid";
+    private static final String SELECT_BUFFERS_BY_UIDS =
+            SELECT_BUFFER + FROM_BUFFER + " WHERE b.uid IN (:uids)";
+    private static final String SELECT_BUFFERS_BY_DEVICES =
+            SELECT_BUFFER + FROM_BUFFER + " WHERE b.device_uid IN (:device_uids)";
     private static final String SELECT_BUFFERS_BY_SCHEME = SELECT_BUFFER
             + FROM_BUFFER
             + " INNER JOIN processing.connection_scheme_buffer csb ON b.uid = csb.buffer_uid"
             + " WHERE csb.scheme_uid = :scheme_uid";
 
     private static final String INSERT_BUFFER = "INSERT INTO processing.buffer "
-            + "(uid, device_uid, max_messages_number, max_message_size, message_prototype) "
+            + "(uid, device_uid, max_messages_number, max_message_size, message_prototype,"
+            + " retention_seconds, retention_messages, payload_format, compression) "
             + "VALUES (:uid, :device_uid,"
-            + " :max_messages_number, :max_message_size, :message_prototype)";
+            + " :max_messages_number, :max_message_size, :message_prototype,"
+            + " :retention_seconds, :retention_messages,"
+            + " coalesce(:payload_format, 'JSON'), coalesce(:compression, 'NONE'))";
 
     private static final String UPDATE_BUFFER =
             "UPDATE processing.buffer SET device_uid = :device_uid, "
                     + "max_messages_number = :max_messages_number,"
                     + " max_message_size = :max_message_size, "
-                    + "message_prototype = :message_prototype WHERE uid = :uid";
+                    + "message_prototype = :message_prototype, "
+                    + "retention_seconds = :retention_seconds, "
+                    + "retention_messages = :retention_messages, "
+                    + "payload_format = coalesce(:payload_format, payload_format), "
+                    + "compression = coalesce(:compression, compression) "
+                    + "WHERE uid = :uid";
 
     private static final String DELETE_BUFFER =
             "DELETE FROM processing.buffer WHERE uid = :uid";
@@ -74,6 +89,10 @@ public class BufferRepositorySqlImpl implements BufferRepository {
         buffer.setMaxMessagesNumber(rs.getInt("max_messages_number"));
         buffer.setMaxMessageSize(rs.getInt("max_message_size"));
         buffer.setMessagePrototype(rs.getString("message_prototype"));
+        buffer.setRetentionSeconds(rs.getObject("retention_seconds", Integer.class));
+        buffer.setRetentionMessages(rs.getObject("retention_messages", Integer.class));
+        buffer.setPayloadFormat(rs.getString("payload_format"));
+        buffer.setCompression(rs.getString("compression"));
         return buffer;
     };
 
@@ -101,6 +120,10 @@ public class BufferRepositorySqlImpl implements BufferRepository {
                 dalBuffer.getMaxMessagesNumber());
         params.addValue("max_message_size", dalBuffer.getMaxMessageSize());
         params.addValue("message_prototype", dalBuffer.getMessagePrototype());
+        params.addValue("retention_seconds", dalBuffer.getRetentionSeconds());
+        params.addValue("retention_messages", dalBuffer.getRetentionMessages());
+        params.addValue("payload_format", dalBuffer.getPayloadFormat());
+        params.addValue("compression", dalBuffer.getCompression());
 
         jdbcTemplate.update(INSERT_BUFFER, params);
     }
@@ -124,6 +147,10 @@ public class BufferRepositorySqlImpl implements BufferRepository {
                 dalBuffer.getMaxMessagesNumber());
         params.addValue("max_message_size", dalBuffer.getMaxMessageSize());
         params.addValue("message_prototype", dalBuffer.getMessagePrototype());
+        params.addValue("retention_seconds", dalBuffer.getRetentionSeconds());
+        params.addValue("retention_messages", dalBuffer.getRetentionMessages());
+        params.addValue("payload_format", dalBuffer.getPayloadFormat());
+        params.addValue("compression", dalBuffer.getCompression());
 
         jdbcTemplate.update(UPDATE_BUFFER, params);
     }
@@ -188,6 +215,34 @@ public class BufferRepositorySqlImpl implements BufferRepository {
         return dalBuffers.stream().map(converter::toBlm).toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<BufferBlm> findByUids(Collection<UUID> uids) {
+        if (uids.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("uids", uids);
+        List<BufferDalm> dalBuffers = jdbcTemplate
+                .query(SELECT_BUFFERS_BY_UIDS, params, bufferRowMapper);
+
+        return dalBuffers.stream().map(converter::toBlm).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BufferBlm> findByDeviceUids(Collection<UUID> deviceUids) {
+        if (deviceUids.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("device_uids", deviceUids);
+        List<BufferDalm> dalBuffers = jdbcTemplate
+                .query(SELECT_BUFFERS_BY_DEVICES, params, bufferRowMapper);
+
+        return dalBuffers.stream().map(converter::toBlm).toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<BufferBlm> findByConnectionSchemeUid(UUID connectionSchemeUid) {
@@ -3,8 +3,10 @@ package com.connection.processing.buffer.validator;
 
 import com.connection.processing.buffer.exception.BufferValidateException;
 import com.connection.processing.buffer.model.BufferBlm;
+import com.connection.processing.buffer.model.BufferCompression;
 import com.connection.processing.buffer.model.BufferDalm;
 import com.connection.processing.buffer.model.BufferDto;
+import com.connection.processing.buffer.model.BufferPayloadFormat;
 import java.util.UUID;
 
 /** . */
@@ -20,6 +22,10 @@ public class BufferValidator {
             validateMaxMessagesNumber(buffer.getMaxMessagesNumber());
             validateMaxMessageSize(buffer.getMaxMessageSize());
             validateMessagePrototype(buffer.getMessagePrototype());
+            validateRetention(buffer.getRetentionSeconds(),
+                    buffer.getRetentionMessages());
+            validatePayloadFormat(buffer.getPayloadFormat());
+            validateCompression(buffer.getCompression());
         } catch (IllegalArgumentException e) {
             throw new BufferValidateException(buffer.getUid(), e.getMessage());
         }
@@ -36,6 +42,10 @@ public class BufferValidator {
             validateMaxMessagesNumber(buffer.getMaxMessagesNumber());
             validateMaxMessageSize(buffer.getMaxMessageSize());
             validateMessagePrototype(buffer.getMessagePrototype());
+            validateRetention(buffer.getRetentionSeconds(),
+                    buffer.getRetentionMessages());
+            validatePayloadFormat(buffer.getPayloadFormat());
+            validateCompression(buffer.getCompression());
         } catch (IllegalArgumentException e) {
             throw new BufferValidateException(
                     buffer.getUid() != null ? buffer.getUid().toString()
@@ -55,6 +65,10 @@ public class BufferValidator {
             validateMaxMessagesNumber(buffer.getMaxMessagesNumber());
             validateMaxMessageSize(buffer.getMaxMessageSize());
             validateMessagePrototype(buffer.getMessagePrototype());
+            validateRetention(buffer.getRetentionSeconds(),
+                    buffer.getRetentionMessages());
+            validatePayloadFormat(buffer.getPayloadFormat());
+            validateCompression(buffer.getCompression());
         } catch (IllegalArgumentException e) {
             throw new BufferValidateException(
                     buffer.getUid() != null ? buffer.getUid().toString()
@@ -119,6 +133,42 @@ public class BufferValidator {
         }
     }
 
+    private void validateRetention(Integer retentionSeconds,
+            Integer retentionMessages) {
+        if (retentionSeconds != null && retentionSeconds <= 0) {
+            throw new IllegalArgumentException(
+                    "Retention seconds must be greater than 0");
+        }
+        if (retentionMessages != null && retentionMessages <= 0) {
+            throw new IllegalArgumentException(
+                    "Retention messages must be greater than 0");
+        }
+    }
+
+    private void validatePayloadFormat(String payloadFormat) {
+        if (payloadFormat == null) {
+            return;
+        }
+        try {
+            BufferPayloadFormat.valueOf(payloadFormat);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Payload format must be one of JSON, BINARY");
+        }
+    }
+
+    private void validateCompression(String compression) {
+        if (compression == null) {
+            return;
+        }
+        try {
+            BufferCompression.valueOf(compression);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Compression must be one of NONE, DEFLATE, LZ4");
+        }
+    }
+
     private void validateMessagePrototype(String messagePrototype) {
         if (messagePrototype == null || messagePrototype.trim().isEmpty()) {
             throw new IllegalArgumentException(
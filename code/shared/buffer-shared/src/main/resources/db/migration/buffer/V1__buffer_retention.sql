@@ -0,0 +1,5 @@
+-- Хранение сообщений буфера: по возрасту (секунды) и по количеству,
+-- null - без ограничения
+alter table processing.buffer
+    add column if not exists retention_seconds integer CHECK (retention_seconds > 0),
+    add column if not exists retention_messages integer CHECK (retention_messages > 0);
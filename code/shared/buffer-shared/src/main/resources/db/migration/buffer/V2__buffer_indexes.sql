@@ -0,0 +1,3 @@
+-- Буферы устройства: выборка по устройству и каскадное удаление устройства
+create index if not exists idx_buffer_device_uid
+    on processing.buffer (device_uid);
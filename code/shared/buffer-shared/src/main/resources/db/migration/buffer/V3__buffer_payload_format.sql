@@ -0,0 +1,5 @@
+-- Формат тела сообщений буфера: JSON (content jsonb) или BINARY (payload bytea).
+-- Существующие буферы остаются JSON
+alter table processing.buffer
+    add column if not exists payload_format varchar(16) not null default 'JSON'
+        CHECK (payload_format in ('JSON', 'BINARY'));
@@ -0,0 +1,4 @@
+-- Сжатие тел сообщений буфера: NONE, DEFLATE или LZ4
+alter table processing.buffer
+    add column if not exists compression varchar(16) not null default 'NONE'
+        CHECK (compression in ('NONE', 'DEFLATE', 'LZ4'));
@@ -65,11 +65,11 @@ class BufferRepositorySqlImplTest {
         repository.add(testBuffer);
 
         verify(jdbcTemplate, times(1)).queryForObject(
-                eq("SELECT b.uid, b.device_uid, b.max_messages_number, b.max_message_size, b.message_prototype FROM processing.buffer b WHERE b.uid = :uid"),
+                eq("SELECT b.uid, b.device_uid, b.max_messages_number, b.max_message_size, b.message_prototype, b.retention_seconds, b.retention_messages, b.payload_format, b.compression FROM processing.buffer b WHERE b.uid = :uid"),
                 any(MapSqlParameterSource.class),
                 any(RowMapper.class));
         verify(jdbcTemplate, times(1)).update(
-                eq("INSERT INTO processing.buffer (uid, device_uid, max_messages_number, max_message_size, message_prototype) VALUES (:uid, :device_uid, :max_messages_number, :max_message_size, :message_prototype)"),
+                eq("INSERT INTO processing.buffer (uid, device_uid, max_messages_number, max_message_size, message_prototype, retention_seconds, retention_messages, payload_format, compression) VALUES (:uid, :device_uid, :max_messages_number, :max_message_size, :message_prototype, :retention_seconds, :retention_messages, coalesce(:payload_format, 'JSON'), coalesce(:compression, 'NONE'))"),
                 any(MapSqlParameterSource.class));
     }
 
@@ -97,7 +97,7 @@ class BufferRepositorySqlImplTest {
         repository.update(testBuffer);
 
         verify(jdbcTemplate, times(1)).update(
-                eq("UPDATE processing.buffer SET device_uid = :device_uid, max_messages_number = :max_messages_number, max_message_size = :max_message_size, message_prototype = :message_prototype WHERE uid = :uid"),
+                eq("UPDATE processing.buffer SET device_uid = :device_uid, max_messages_number = :max_messages_number, max_message_size = :max_message_size, message_prototype = :message_prototype, retention_seconds = :retention_seconds, retention_messages = :retention_messages, payload_format = coalesce(:payload_format, payload_format), compression = coalesce(:compression, compression) WHERE uid = :uid"),
                 any(MapSqlParameterSource.class));
     }
 
@@ -174,7 +174,7 @@ class BufferRepositorySqlImplTest {
 
         assertThat(result).isEqualTo(testBuffer);
         verify(jdbcTemplate, times(1)).queryForObject(
-                eq("SELECT b.uid, b.device_uid, b.max_messages_number, b.max_message_size, b.message_prototype FROM processing.buffer b WHERE b.uid = :uid"),
+                eq("SELECT b.uid, b.device_uid, b.max_messages_number, b.max_message_size, b.message_prototype, b.retention_seconds, b.retention_messages, b.payload_format, b.compression FROM processing.buffer b WHERE b.uid = :uid"),
                 any(MapSqlParameterSource.class),
                 any(RowMapper.class));
     }
@@ -202,7 +202,7 @@ class BufferRepositorySqlImplTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0)).isEqualTo(testBuffer);
         verify(jdbcTemplate, times(1)).query(
-                eq("SELECT b.uid, b.device_uid, b.max_messages_number, b.max_message_size, b.message_prototype FROM processing.buffer b WHERE b.device_uid = :device_uid"),
+                eq("SELECT b.uid, b.device_uid, b.max_messages_number, b.max_message_size, b.message_prototype, b.retention_seconds, b.retention_messages, b.payload_format, b.compression FROM processing.buffer b WHERE b.device_uid = :device_uid"),
                 any(MapSqlParameterSource.class),
                 any(RowMapper.class));
     }
@@ -220,7 +220,7 @@ class BufferRepositorySqlImplTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0)).isEqualTo(testBuffer);
         verify(jdbcTemplate, times(1)).query(
-                eq("SELECT b.uid, b.device_uid, b.max_messages_number, b.max_message_size, b.message_prototype FROM processing.buffer b INNER JOIN processing.connection_scheme_buffer csb ON b.uid = csb.buffer_uid WHERE csb.scheme_uid = :scheme_uid"),
+                eq("SELECT b.uid, b.device_uid, b.max_messages_number, b.max_message_size, b.message_prototype, b.retention_seconds, b.retention_messages, b.payload_format, b.compression FROM processing.buffer b INNER JOIN processing.connection_scheme_buffer csb ON b.uid = csb.buffer_uid WHERE csb.scheme_uid = :scheme_uid"),
                 any(MapSqlParameterSource.class),
                 any(RowMapper.class));
     }
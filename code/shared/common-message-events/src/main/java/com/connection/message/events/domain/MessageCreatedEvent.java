@@ -18,6 +18,8 @@ public class MessageCreatedEvent extends BaseEvent {
     private UUID deviceUid;
     private UUID bufferUid;
     private String content;
+    // Тело сообщения BINARY-буфера (в JSON - base64), content при этом null
+    private byte[] payload;
     private String contentType;
     private Date createdAt;
     private UUID clientUid;
@@ -4,6 +4,7 @@ package com.connection.scheme.repository;
 import com.connection.scheme.exception.ConnectionSchemeAlreadyExistsException;
 import com.connection.scheme.exception.ConnectionSchemeNotFoundException;
 import com.connection.scheme.model.ConnectionSchemeBlm;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -45,6 +46,15 @@ public interface ConnectionSchemeRepository {
     ConnectionSchemeBlm findByUid(UUID uid)
             throws ConnectionSchemeNotFoundException;
 
+    /**
+     * Получить схемы по списку Uid; отсутствующие пропускаются.
+     * Связи с буферами читаются одним запросом на весь список.
+     *
+     * @param uids .
+     * @return .
+     */
+    List<ConnectionSchemeBlm> findByUids(Collection<UUID> uids);
+
     /**
      * Получить все схемы клиента.
      * 
@@ -6,7 +6,11 @@ import com.connection.scheme.exception.ConnectionSchemeNotFoundException;
 import com.connection.scheme.model.ConnectionSchemeBlm;
 import com.connection.scheme.model.ConnectionSchemeDalm;
 import com.connection.scheme.validator.ConnectionSchemeValidator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.RowMapper;
@@ -26,6 +30,8 @@ public class ConnectionSchemeRepositorySqlImpl
 
     private static final String SELECT_SCHEME_BY_UID =
             SELECT_SCHEME + FROM_SCHEME + " WHERE cs.uid = :uid";
+    private static final String SELECT_SCHEMES_BY_UIDS =
+            SELECT_SCHEME + FROM_SCHEME + " WHERE cs.uid IN (:uids)";
     private static final String SELECT_SCHEMES_BY_CLIENT =
             SELECT_SCHEME + FROM_SCHEME + " WHERE cs.client_uid = :client_uid";
     private static final String SELECT_SCHEMES_BY_BUFFER = SELECT_SCHEME
@@ -37,6 +43,9 @@ public class ConnectionSchemeRepositorySqlImpl
     private static final String SELECT_USED_BUFFERS =
             "SELECT csb.buffer_uid FROM processing.connection_scheme_buffer csb "
                     + "WHERE csb.scheme_uid = :scheme_uid";
+    private static final String SELECT_USED_BUFFERS_BY_SCHEMES =
+            "SELECT csb.scheme_uid, csb.buffer_uid FROM processing.connection_scheme_buffer csb "
+                    + "WHERE csb.scheme_uid IN (:scheme_uids)";
 
     // Операции со схемами - РАСКОММЕНТИРОВАНО
     private static final String INSERT_SCHEME =
@@ -79,6 +88,17 @@ public class ConnectionSchemeRepositorySqlImpl
                 return scheme;
             };
 
+    // Без запроса usedBuffers на строку - их заполняет findByUids
+    private final RowMapper<ConnectionSchemeDalm> schemeOnlyRowMapper =
+            (rs, rowNum) -> {
+                ConnectionSchemeDalm scheme = new ConnectionSchemeDalm();
+                scheme.setUid(UUID.fromString(rs.getString("uid")));
+                scheme.setClientUid(
+                        UUID.fromString(rs.getString("client_uid")));
+                scheme.setSchemeJson(rs.getString("scheme_json"));
+                return scheme;
+            };
+
     /** . */
     public ConnectionSchemeRepositorySqlImpl(
             NamedParameterJdbcTemplate jdbcTemplate) {
@@ -192,6 +212,39 @@ public class ConnectionSchemeRepositorySqlImpl
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ConnectionSchemeBlm> findByUids(Collection<UUID> uids) {
+        if (uids.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("uids", uids);
+
+        List<ConnectionSchemeDalm> dalSchemes = jdbcTemplate
+                .query(SELECT_SCHEMES_BY_UIDS, params, schemeOnlyRowMapper);
+        if (dalSchemes.isEmpty()) {
+            return List.of();
+        }
+
+        MapSqlParameterSource bufferParams = new MapSqlParameterSource();
+        bufferParams.addValue("scheme_uids",
+                dalSchemes.stream().map(ConnectionSchemeDalm::getUid).toList());
+        Map<UUID, List<UUID>> usedBuffers = new HashMap<>();
+        jdbcTemplate.query(SELECT_USED_BUFFERS_BY_SCHEMES, bufferParams, rs -> {
+            usedBuffers.computeIfAbsent(
+                    UUID.fromString(rs.getString("scheme_uid")),
+                    k -> new ArrayList<>())
+                    .add(UUID.fromString(rs.getString("buffer_uid")));
+        });
+        for (ConnectionSchemeDalm scheme : dalSchemes) {
+            scheme.setUsedBuffers(
+                    usedBuffers.getOrDefault(scheme.getUid(), new ArrayList<>()));
+        }
+
+        return dalSchemes.stream().map(converter::toBlm).toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ConnectionSchemeBlm> findByClientUid(UUID clientUid) {
@@ -0,0 +1,11 @@
+-- Схемы клиента
+create index if not exists idx_connection_scheme_client_uid
+    on processing.connection_scheme (client_uid);
+
+-- Связи схема-буфер: буферы схемы (и проверка связи по паре) и схемы буфера,
+-- в том числе при каскадном удалении схемы или буфера
+create index if not exists idx_connection_scheme_buffer_scheme_buffer
+    on processing.connection_scheme_buffer (scheme_uid, buffer_uid);
+
+create index if not exists idx_connection_scheme_buffer_buffer_uid
+    on processing.connection_scheme_buffer (buffer_uid);
@@ -0,0 +1,3 @@
+-- Устройства клиента и поиск устройства клиента по имени
+create index if not exists idx_device_client_uuid_name
+    on core.device (client_uuid, device_name);
@@ -25,6 +25,7 @@ public class DeviceAccessTokenConverter {
             return DeviceAccessTokenBlm.builder().token(dalm.getToken()) 
                     .uid(dalm.getUid())
                     .deviceTokenUid(validatedToken.getDeviceTokenUid()) // Извлекаем из токена
+                    .deviceUid(validatedToken.getDeviceUid())
                     .createdAt(dalm.getCreatedAt())
                     .expiresAt(dalm.getExpiresAt()).build();
         } catch (JwtException e) {
@@ -2,48 +2,101 @@
 package com.connection.device.token.generator;
 
 import com.connection.device.token.model.DeviceAccessTokenBlm;
+import com.connection.token.generator.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import java.util.Date;
 import java.util.UUID;
 import javax.crypto.SecretKey;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /** . */
-@RequiredArgsConstructor
 public class DeviceAccessTokenGenerator {
-    @NonNull
     private final SecretKey jwtSecretKey;
 
-    @NonNull
     private final String appNameString;
 
-    @NonNull
     private final String jwtSubjectString;
 
+    private final JwtParser jwtParser;
+
+    // Устройство шлет один и тот же токен весь срок его действия;
+    // null - каждый токен проверяется заново
+    private final VerifiedTokenCache<DeviceAccessTokenBlm> verifiedTokens;
+
     /** . */
+    public DeviceAccessTokenGenerator(@NonNull SecretKey jwtSecretKey,
+            @NonNull String appNameString, @NonNull String jwtSubjectString) {
+        this(jwtSecretKey, appNameString, jwtSubjectString, 0);
+    }
+
+    /**
+     * Генератор с кэшем на verifiedCacheSize проверенных токенов
+     * (0 - без кэша).
+     */
+    public DeviceAccessTokenGenerator(@NonNull SecretKey jwtSecretKey,
+            @NonNull String appNameString, @NonNull String jwtSubjectString,
+            int verifiedCacheSize) {
+        this.jwtSecretKey = jwtSecretKey;
+        this.appNameString = appNameString;
+        this.jwtSubjectString = jwtSubjectString;
+        this.jwtParser = Jwts.parser().verifyWith(jwtSecretKey).build();
+        this.verifiedTokens = verifiedCacheSize > 0
+                ? new VerifiedTokenCache<>(verifiedCacheSize,
+                        DeviceAccessTokenBlm::getExpiresAt)
+                : null;
+    }
+
+    /** Токен без устройства: владельца придется искать по deviceTokenUid. */
     public String generateDeviceAccessToken(UUID deviceTokenUid, Date createdAt,
             Date expiresAt) {
-        String token = Jwts.builder().issuer(appNameString)
+        return generateDeviceAccessToken(deviceTokenUid, null, null, createdAt,
+                expiresAt);
+    }
+
+    /**
+     * Токен с uid устройства и собственным uid в подписанных claims:
+     * фильтры определяют устройство по самому токену, без обращения к
+     * device-auth и к БД, а отзыв проверяется по uid токена.
+     */
+    public String generateDeviceAccessToken(UUID deviceTokenUid,
+            UUID deviceUid, UUID deviceAccessTokenUid, Date createdAt,
+            Date expiresAt) {
+        JwtBuilder builder = Jwts.builder().issuer(appNameString)
                 .subject(jwtSubjectString)
-                .claim("deviceTokenUid", deviceTokenUid.toString())
-                .claim("type", "device_access_token").issuedAt(createdAt)
+                .claim("deviceTokenUid", deviceTokenUid.toString());
+        if (deviceUid != null) {
+            builder.claim("deviceUid", deviceUid.toString());
+        }
+        if (deviceAccessTokenUid != null) {
+            builder.claim("deviceAccessTokenUid",
+                    deviceAccessTokenUid.toString());
+        }
+        return builder.claim("type", "device_access_token").issuedAt(createdAt)
                 .expiration(expiresAt).signWith(jwtSecretKey).compact();
-        return token;
     }
 
     /** . */
     public DeviceAccessTokenBlm getDeviceAccessTokenBlm(String token) {
-        Jws<Claims> jws = Jwts.parser().verifyWith(jwtSecretKey).build()
-                .parseSignedClaims(token);
+        return verifiedTokens != null
+                ? verifiedTokens.get(token, this::parseDeviceAccessToken)
+                : parseDeviceAccessToken(token);
+    }
+
+    private DeviceAccessTokenBlm parseDeviceAccessToken(String token) {
+        Jws<Claims> jws = jwtParser.parseSignedClaims(token);
 
         Claims claims = jws.getPayload();
 
         UUID deviceTokenUid =
                 UUID.fromString(claims.get("deviceTokenUid", String.class));
+        // В токенах, выданных до появления claims, устройства и uid нет
+        String deviceUid = claims.get("deviceUid", String.class);
+        String uid = claims.get("deviceAccessTokenUid", String.class);
         Date issuedAt = claims.getIssuedAt();
         Date expiration = claims.getExpiration();
 
@@ -56,7 +109,10 @@ public class DeviceAccessTokenGenerator {
         }
 
         return DeviceAccessTokenBlm.builder().token(token)
-                .deviceTokenUid(deviceTokenUid).createdAt(issuedAt)
+                .uid(uid != null ? UUID.fromString(uid) : null)
+                .deviceTokenUid(deviceTokenUid)
+                .deviceUid(deviceUid != null ? UUID.fromString(deviceUid) : null)
+                .createdAt(issuedAt)
                 .expiresAt(expiration).build();
     }
 }
@@ -4,25 +4,32 @@ package com.connection.device.token.generator;
 import com.connection.device.token.model.DeviceTokenBlm;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import java.util.Date;
 import java.util.UUID;
 import javax.crypto.SecretKey;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /** . */
-@RequiredArgsConstructor
 public class DeviceTokenGenerator {
-    @NonNull
     private final SecretKey jwtSecretKey;
 
-    @NonNull
     private final String appNameString;
 
-    @NonNull
     private final String jwtSubjectString;
 
+    private final JwtParser jwtParser;
+
+    /** . */
+    public DeviceTokenGenerator(@NonNull SecretKey jwtSecretKey,
+            @NonNull String appNameString, @NonNull String jwtSubjectString) {
+        this.jwtSecretKey = jwtSecretKey;
+        this.appNameString = appNameString;
+        this.jwtSubjectString = jwtSubjectString;
+        this.jwtParser = Jwts.parser().verifyWith(jwtSecretKey).build();
+    }
+
     /** . */
     public String generateDeviceToken(UUID deviceUid, UUID deviceTokenUid,
             Date createdAt, Date expiresAt) {
@@ -37,8 +44,7 @@ public class DeviceTokenGenerator {
 
     /** . */
     public DeviceTokenBlm getDeviceTokenBlm(String token) {
-        Jws<Claims> jws = Jwts.parser().verifyWith(jwtSecretKey).build()
-                .parseSignedClaims(token);
+        Jws<Claims> jws = jwtParser.parseSignedClaims(token);
 
         Claims claims = jws.getPayload();
 
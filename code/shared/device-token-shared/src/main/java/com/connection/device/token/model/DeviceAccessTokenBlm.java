@@ -21,6 +21,7 @@ public class DeviceAccessTokenBlm {
     protected String token;
     protected UUID uid;
     protected UUID deviceTokenUid;
+    protected UUID deviceUid;
     protected Date createdAt;
     protected Date expiresAt;
 }
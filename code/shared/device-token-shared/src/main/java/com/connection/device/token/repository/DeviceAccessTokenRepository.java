@@ -66,6 +66,14 @@ public interface DeviceAccessTokenRepository {
      */
     void revokeAllExpired();
 
+    /**
+     * Удалить до limit истекших токенов, начиная с самых старых. Строки,
+     * захваченные другими транзакциями, пропускаются.
+     *
+     * @return количество удаленных токенов
+     */
+    int deleteExpiredChunk(int limit);
+
     /**
      * Проверить наличие активного токена для device token.
      * 
@@ -9,7 +9,9 @@ import com.connection.device.token.model.DeviceAccessTokenBlm;
 import com.connection.device.token.model.DeviceAccessTokenDalm;
 import com.connection.device.token.validator.DeviceAccessTokenValidator;
 import java.sql.Timestamp;
+import java.util.List;
 import java.util.UUID;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -34,10 +36,19 @@ public class DeviceAccessTokenRepositorySqlImpl
             SELECT_DEVICE_ACCESS_TOKEN + FROM_DEVICE_ACCESS_TOKEN
                     + " WHERE device_token_uid = :device_token_uid";
 
+    // Строка вставляется, только если токен устройства существует; истекший
+    // access-токен того же токена устройства заменяется, действующий - нет.
+    // Гонку одновременных выдач решает уникальный индекс по device_token_uid
     private static final String INSERT_DEVICE_ACCESS_TOKEN =
             "INSERT INTO access.device_access_token "
                     + "(uid, device_token_uid, token, created_at, expires_at) "
-                    + "VALUES (:uid, :device_token_uid, :token, :created_at, :expires_at)";
+                    + "SELECT :uid, dt.uid, :token, :created_at, :expires_at "
+                    + "FROM access.device_token dt WHERE dt.uid = :device_token_uid "
+                    + "ON CONFLICT (device_token_uid) DO UPDATE SET "
+                    + "uid = EXCLUDED.uid, token = EXCLUDED.token, "
+                    + "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at "
+                    + "WHERE access.device_access_token.expires_at <= NOW() "
+                    + "RETURNING uid";
 
     private static final String REVOKE_TOKEN =
             "DELETE FROM access.device_access_token WHERE uid = :uid";
@@ -45,6 +56,10 @@ public class DeviceAccessTokenRepositorySqlImpl
             "DELETE FROM access.device_access_token WHERE device_token_uid = :device_token_uid";
     private static final String CLEANUP_EXPIRED_TOKENS =
             "DELETE FROM access.device_access_token WHERE expires_at < NOW()";
+    private static final String DELETE_EXPIRED_CHUNK =
+            "DELETE FROM access.device_access_token WHERE uid IN ("
+                    + "SELECT uid FROM access.device_access_token WHERE expires_at < NOW() "
+                    + "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED)";
     private static final String HAS_ACTIVE_TOKEN =
             "SELECT COUNT(*) FROM access.device_access_token "
                     + "WHERE device_token_uid = :device_token_uid AND expires_at > NOW()";
@@ -83,37 +98,10 @@ public class DeviceAccessTokenRepositorySqlImpl
         // Валидация Blm модели
         validator.validate(deviceAccessTokenBlm);
 
-        // Проверяем существование device_token
-        if (!deviceTokenExists(deviceAccessTokenBlm.getDeviceTokenUid())) {
-            throw new DeviceTokenNotFoundException("Device token with UID "
-                    + deviceAccessTokenBlm.getDeviceTokenUid() + " not found");
-        }
-
-        // Проверяем, что нет активного токена для этого device_token_uid
-        if (hasDeviceAccessToken(deviceAccessTokenBlm.getDeviceTokenUid())) {
-            throw new DeviceAccessTokenExistsException(
-                    "Device access token already exists for device token UID "
-                            + deviceAccessTokenBlm.getDeviceTokenUid());
-        }
-
         // Конвертация Blm в Dalm
         DeviceAccessTokenDalm deviceAccessTokenDalm =
                 converter.toDalm(deviceAccessTokenBlm);
 
-        // Проверяем существование по uid
-        if (uidExists(deviceAccessTokenDalm.getUid())) {
-            throw new DeviceAccessTokenExistsException(
-                    "Device access token with UID "
-                            + deviceAccessTokenDalm.getUid()
-                            + " already exists");
-        }
-
-        // Проверяем существование по token
-        if (tokenExists(deviceAccessTokenDalm.getToken())) {
-            throw new DeviceAccessTokenExistsException(
-                    "Device access token already exists");
-        }
-
         MapSqlParameterSource params = new MapSqlParameterSource();
         params.addValue("uid", deviceAccessTokenDalm.getUid());
         params.addValue("device_token_uid",
@@ -124,7 +112,29 @@ public class DeviceAccessTokenRepositorySqlImpl
         params.addValue("expires_at",
                 new Timestamp(deviceAccessTokenDalm.getExpiresAt().getTime()));
 
-        jdbcTemplate.update(INSERT_DEVICE_ACCESS_TOKEN, params);
+        List<UUID> inserted;
+        try {
+            inserted = jdbcTemplate.queryForList(INSERT_DEVICE_ACCESS_TOKEN,
+                    params, UUID.class);
+        } catch (DuplicateKeyException e) {
+            // Совпали uid или строка токена
+            throw new DeviceAccessTokenExistsException(
+                    "Device access token with UID "
+                            + deviceAccessTokenDalm.getUid()
+                            + " already exists");
+        }
+        if (!inserted.isEmpty()) {
+            return;
+        }
+
+        // Строка не вставлена: причину уточняем отдельным запросом
+        if (!deviceTokenExists(deviceAccessTokenDalm.getDeviceTokenUid())) {
+            throw new DeviceTokenNotFoundException("Device token with UID "
+                    + deviceAccessTokenDalm.getDeviceTokenUid() + " not found");
+        }
+        throw new DeviceAccessTokenExistsException(
+                "Device access token already exists for device token UID "
+                        + deviceAccessTokenDalm.getDeviceTokenUid());
     }
 
     @Override
@@ -211,6 +221,15 @@ public class DeviceAccessTokenRepositorySqlImpl
                 new MapSqlParameterSource());
     }
 
+    @Override
+    @Transactional
+    public int deleteExpiredChunk(int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.update(DELETE_EXPIRED_CHUNK, params);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean hasDeviceAccessToken(UUID deviceTokenUid) {
@@ -243,17 +262,4 @@ public class DeviceAccessTokenRepositorySqlImpl
             return false;
         }
     }
-
-    @Transactional(readOnly = true)
-    boolean tokenExists(String token) {
-        MapSqlParameterSource params = new MapSqlParameterSource();
-        params.addValue("token", token);
-        try {
-            jdbcTemplate.queryForObject(SELECT_TOKEN_BY_TOKEN, params,
-                    deviceAccessTokenRowMapper);
-            return true;
-        } catch (EmptyResultDataAccessException e) {
-            return false;
-        }
-    }
 }
@@ -65,6 +65,23 @@ public interface DeviceTokenRepository {
      */
     void cleanUpExpired();
 
+    /**
+     * Удалить до limit истекших токенов, начиная с самых старых. Токен с
+     * действующим access-токеном остается до истечения access-токена, чтобы
+     * каскадное удаление не отзывало его досрочно. Строки, захваченные
+     * другими транзакциями, пропускаются.
+     *
+     * @return количество удаленных токенов
+     */
+    int deleteExpiredChunk(int limit);
+
+    /**
+     * Удалить до limit записей журнала отзывов об уже истекших токенах.
+     *
+     * @return количество удаленных записей
+     */
+    int deleteExpiredRevocationsChunk(int limit);
+
     /**
      * Проверить существование активного токена для устройства.
      * 
@@ -43,6 +43,16 @@ public class DeviceTokenRepositorySqlImpl implements DeviceTokenRepository {
             "DELETE FROM access.device_token WHERE device_uid = :device_uid";
     private static final String CLEANUP_EXPIRED_TOKENS =
             "DELETE FROM access.device_token WHERE expires_at < NOW()";
+    private static final String DELETE_EXPIRED_CHUNK =
+            "DELETE FROM access.device_token WHERE uid IN ("
+                    + "SELECT dt.uid FROM access.device_token dt WHERE dt.expires_at < NOW() "
+                    + "AND NOT EXISTS (SELECT 1 FROM access.device_access_token dat "
+                    + "WHERE dat.device_token_uid = dt.uid AND dat.expires_at > NOW()) "
+                    + "ORDER BY dt.expires_at LIMIT :limit FOR UPDATE SKIP LOCKED)";
+    private static final String DELETE_EXPIRED_REVOCATIONS_CHUNK =
+            "DELETE FROM access.device_token_revocation WHERE seq IN ("
+                    + "SELECT seq FROM access.device_token_revocation WHERE expires_at < NOW() "
+                    + "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED)";
     private static final String EXISTS_BY_DEVICE_UID =
             "SELECT COUNT(*) FROM access.device_token "
                     + "WHERE device_uid = :device_uid AND expires_at > NOW()";
@@ -193,6 +203,24 @@ public class DeviceTokenRepositorySqlImpl implements DeviceTokenRepository {
                 new MapSqlParameterSource());
     }
 
+    @Override
+    @Transactional
+    public int deleteExpiredChunk(int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.update(DELETE_EXPIRED_CHUNK, params);
+    }
+
+    @Override
+    @Transactional
+    public int deleteExpiredRevocationsChunk(int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.update(DELETE_EXPIRED_REVOCATIONS_CHUNK, params);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean existsByDeviceUid(UUID deviceUid) {
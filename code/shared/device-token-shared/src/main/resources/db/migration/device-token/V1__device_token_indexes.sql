@@ -0,0 +1,13 @@
+-- Токены устройства: выборка, отзыв и каскадное удаление по устройству
+create index if not exists idx_device_token_device_uid
+    on access.device_token (device_uid);
+
+create index if not exists idx_device_token_expires_at
+    on access.device_token (expires_at);
+
+-- Токены доступа по токену устройства
+create index if not exists idx_device_access_token_device_token_uid
+    on access.device_access_token (device_token_uid, expires_at);
+
+create index if not exists idx_device_access_token_expires_at
+    on access.device_access_token (expires_at);
@@ -0,0 +1,53 @@
+-- Журнал отзывов для проверки токенов без обращения к БД: узлы держат
+-- действующие записи в памяти и дочитывают новые по NOTIFY или опросом.
+-- Отзыв токена - удаление его строки, поэтому журнал пишут триггеры
+-- (включая каскадные удаления). Истекшие токены не записываются.
+create table if not exists access.device_token_revocation(
+    seq bigserial primary key,
+    device_access_token_uid uuid,
+    device_token_uid uuid,
+    revoked_at TIMESTAMP WITH TIME zone not null default clock_timestamp(),
+    expires_at TIMESTAMP WITH TIME zone not null,
+    check (device_access_token_uid is not null or device_token_uid is not null)
+);
+
+create index if not exists idx_device_token_revocation_revoked_at
+    on access.device_token_revocation (revoked_at);
+
+create index if not exists idx_device_token_revocation_expires_at
+    on access.device_token_revocation (expires_at);
+
+-- Одинаковые уведомления в транзакции Postgres доставляет один раз
+create or replace function access.record_device_access_token_revocation()
+returns trigger as $$
+begin
+    if old.expires_at > now() then
+        insert into access.device_token_revocation (device_access_token_uid, expires_at)
+        values (old.uid, old.expires_at);
+        perform pg_notify('device_token_revocation', '');
+    end if;
+    return old;
+end;
+$$ language plpgsql;
+
+create or replace function access.record_device_token_revocation()
+returns trigger as $$
+begin
+    if old.expires_at > now() then
+        insert into access.device_token_revocation (device_token_uid, expires_at)
+        values (old.uid, old.expires_at);
+        perform pg_notify('device_token_revocation', '');
+    end if;
+    return old;
+end;
+$$ language plpgsql;
+
+drop trigger if exists trg_device_access_token_revocation on access.device_access_token;
+create trigger trg_device_access_token_revocation
+    after delete on access.device_access_token
+    for each row execute function access.record_device_access_token_revocation();
+
+drop trigger if exists trg_device_token_revocation on access.device_token;
+create trigger trg_device_token_revocation
+    after delete on access.device_token
+    for each row execute function access.record_device_token_revocation();
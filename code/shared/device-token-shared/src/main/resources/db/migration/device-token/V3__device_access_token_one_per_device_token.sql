@@ -0,0 +1,14 @@
+-- Один access-токен на токен устройства: выдача - один INSERT с
+-- ON CONFLICT (device_token_uid), истекший токен заменяется на месте.
+-- Из накопившихся строк остается самая поздняя; удаление действующих
+-- дублей попадает в журнал отзывов.
+delete from access.device_access_token older
+    using access.device_access_token newer
+    where newer.device_token_uid = older.device_token_uid
+      and (newer.expires_at, newer.uid) > (older.expires_at, older.uid);
+
+create unique index if not exists uq_device_access_token_device_token_uid
+    on access.device_access_token (device_token_uid);
+
+-- Покрывается уникальным индексом
+drop index if exists access.idx_device_access_token_device_token_uid;
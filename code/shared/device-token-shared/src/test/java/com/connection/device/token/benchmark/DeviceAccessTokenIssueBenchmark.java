@@ -0,0 +1,249 @@
+package com.connection.device.token.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.connection.device.token.exception.DeviceAccessTokenExistsException;
+import com.connection.device.token.generator.DeviceAccessTokenGenerator;
+import com.connection.device.token.integration.DeviceTokenTestSchema;
+import com.connection.device.token.model.DeviceAccessTokenBlm;
+import com.connection.device.token.repository.DeviceAccessTokenRepository;
+import com.connection.device.token.repository.DeviceAccessTokenRepositorySqlImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import io.jsonwebtoken.security.Keys;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Шторм переподключений: все устройства одновременно получают access-токен
+ * через пул из 5 соединений, как у device-auth. Сравниваются прежняя выдача
+ * (проверка в сервисе и четыре проверки в репозитории перед INSERT в одной
+ * транзакции) и один условный INSERT. Второй раунд - повторные запросы
+ * при уже выданных токенах, все они отклоняются.
+ *
+ * <p>Запуск: {@code gradle benchmark} при поднятом docker-compose.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Device access token issue benchmark")
+class DeviceAccessTokenIssueBenchmark {
+
+    private static final int DEVICES = 2_000;
+    private static final int THREADS = 64;
+    private static final int POOL_SIZE = 5;
+
+    // Прежний путь DeviceAuthServiceImpl.createDeviceAccessToken + add
+    private static final String LEGACY_DEVICE_TOKEN_EXISTS =
+            "SELECT COUNT(*) FROM access.device_token WHERE uid = :device_token_uid";
+    private static final String LEGACY_HAS_ACTIVE_TOKEN =
+            "SELECT COUNT(*) FROM access.device_access_token "
+                    + "WHERE device_token_uid = :device_token_uid AND expires_at > NOW()";
+    private static final String LEGACY_SELECT_BY_UID =
+            "SELECT uid, device_token_uid, token, created_at, expires_at "
+                    + "FROM access.device_access_token WHERE uid = :uid";
+    private static final String LEGACY_SELECT_BY_TOKEN =
+            "SELECT uid, device_token_uid, token, created_at, expires_at "
+                    + "FROM access.device_access_token WHERE token = :token";
+    private static final String LEGACY_INSERT =
+            "INSERT INTO access.device_access_token "
+                    + "(uid, device_token_uid, token, created_at, expires_at) "
+                    + "VALUES (:uid, :device_token_uid, :token, :created_at, :expires_at)";
+
+    private HikariDataSource dataSource;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private DeviceAccessTokenRepository repository;
+
+    private final UUID clientUid = UUID.randomUUID();
+    private final List<UUID> deviceTokenUids = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:postgresql://localhost:5434/test_db");
+        dataSource.setUsername("test_user");
+        dataSource.setPassword("test_password");
+        dataSource.setMaximumPoolSize(POOL_SIZE);
+        DeviceTokenTestSchema.migrate(dataSource);
+
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(dataSource));
+        repository = new DeviceAccessTokenRepositorySqlImpl(jdbcTemplate,
+                new DeviceAccessTokenGenerator(Keys.hmacShaKeyFor(
+                        "benchmark-secret-key-1234567890-1234567890"
+                                .getBytes(StandardCharsets.UTF_8)),
+                        "bench", "device-access-token"));
+
+        jdbcTemplate.update("""
+            INSERT INTO core.client (uid, email, birth_date, username, password)
+            VALUES (:uid, :email, CURRENT_DATE, :username, 'BenchmarkPassword1')
+            """, Map.of("uid", clientUid,
+                "email", "bench." + clientUid + "@example.com",
+                "username", "bench_" + clientUid.toString().substring(0, 8)));
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp expiresAt = new Timestamp(now.getTime() + 24 * 3600 * 1000L);
+        List<MapSqlParameterSource> devices = new ArrayList<>(DEVICES);
+        List<MapSqlParameterSource> deviceTokens = new ArrayList<>(DEVICES);
+        for (int i = 0; i < DEVICES; i++) {
+            UUID deviceUid = UUID.randomUUID();
+            UUID deviceTokenUid = UUID.randomUUID();
+            deviceTokenUids.add(deviceTokenUid);
+            devices.add(new MapSqlParameterSource()
+                    .addValue("uid", deviceUid)
+                    .addValue("client_uid", clientUid)
+                    .addValue("name", "Benchmark device " + i));
+            deviceTokens.add(new MapSqlParameterSource()
+                    .addValue("uid", deviceTokenUid)
+                    .addValue("device_uid", deviceUid)
+                    .addValue("token", "bench-device-token-" + deviceTokenUid)
+                    .addValue("created_at", now)
+                    .addValue("expires_at", expiresAt));
+        }
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO core.device (uid, client_uuid, device_name, device_description)
+            VALUES (:uid, :client_uid, :name, 'Reconnect storm benchmark')
+            """, devices.toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO access.device_token (uid, device_uid, token, created_at, expires_at)
+            VALUES (:uid, :device_uid, :token, :created_at, :expires_at)
+            """, deviceTokens.toArray(MapSqlParameterSource[]::new));
+    }
+
+    @AfterAll
+    void tearDown() {
+        // Токены удаляются каскадно вместе с устройствами
+        jdbcTemplate.update("DELETE FROM core.device WHERE client_uuid = :uid",
+                Map.of("uid", clientUid));
+        jdbcTemplate.update("DELETE FROM core.client WHERE uid = :uid",
+                Map.of("uid", clientUid));
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("Reconnect storm: six statements vs one conditional insert")
+    void reconnectStorm() throws Exception {
+        log.info(String.format("%-18s %-8s %10s %10s %10s %10s", "variant", "round",
+                "ms total", "req/s", "p50, ms", "p99, ms"));
+
+        // Прогрев обоих путей
+        storm("legacy", "warmup", this::legacyIssue);
+        storm("conditional", "warmup", repository::add);
+
+        for (int i = 0; i < 3; i++) {
+            AtomicInteger issued = storm("legacy", "issue", this::legacyIssue);
+            assertThat(issued).hasValue(DEVICES);
+            assertThat(storm("legacy", "retry", this::legacyIssue)).hasValue(0);
+
+            issued = storm("conditional", "issue", repository::add);
+            assertThat(issued).hasValue(DEVICES);
+            assertThat(storm("conditional", "retry", repository::add)).hasValue(0);
+        }
+    }
+
+    private void legacyIssue(DeviceAccessTokenBlm token) {
+        transactionTemplate.executeWithoutResult(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("uid", token.getUid())
+                    .addValue("device_token_uid", token.getDeviceTokenUid())
+                    .addValue("token", token.getToken())
+                    .addValue("created_at", new Timestamp(token.getCreatedAt().getTime()))
+                    .addValue("expires_at", new Timestamp(token.getExpiresAt().getTime()));
+            // Проверка в сервисе, затем в репозитории
+            if (count(LEGACY_HAS_ACTIVE_TOKEN, params) > 0
+                    || count(LEGACY_DEVICE_TOKEN_EXISTS, params) == 0
+                    || count(LEGACY_HAS_ACTIVE_TOKEN, params) > 0
+                    || !jdbcTemplate.queryForList(LEGACY_SELECT_BY_UID, params).isEmpty()
+                    || !jdbcTemplate.queryForList(LEGACY_SELECT_BY_TOKEN, params).isEmpty()) {
+                throw new DeviceAccessTokenExistsException("Device access token exists");
+            }
+            jdbcTemplate.update(LEGACY_INSERT, params);
+        });
+    }
+
+    private int count(String sql, MapSqlParameterSource params) {
+        Integer count = jdbcTemplate.queryForObject(sql, params, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    // Каждое устройство один раз запрашивает токен; возвращает число выданных
+    private AtomicInteger storm(String variant, String round,
+            Consumer<DeviceAccessTokenBlm> issue) throws Exception {
+        if (!"retry".equals(round)) {
+            jdbcTemplate.update("""
+                DELETE FROM access.device_access_token dat
+                USING access.device_token dt, core.device d
+                WHERE dat.device_token_uid = dt.uid AND dt.device_uid = d.uid
+                  AND d.client_uuid = :uid
+                """, Map.of("uid", clientUid));
+        }
+
+        AtomicInteger issued = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        long[] latencies = new long[DEVICES];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < DEVICES;
+                            i = next.getAndIncrement()) {
+                        long requestStarted = System.nanoTime();
+                        try {
+                            issue.accept(token(deviceTokenUids.get(i)));
+                            issued.incrementAndGet();
+                        } catch (DeviceAccessTokenExistsException e) {
+                            // Повторный запрос при действующем токене
+                        }
+                        latencies[i] = System.nanoTime() - requestStarted;
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        if (!"warmup".equals(round)) {
+            Arrays.sort(latencies);
+            log.info(String.format("%-18s %-8s %10.1f %10.0f %10.2f %10.2f", variant,
+                    round, elapsed / 1_000_000.0, DEVICES * 1_000_000_000.0 / elapsed,
+                    latencies[DEVICES / 2] / 1_000_000.0,
+                    latencies[DEVICES * 99 / 100] / 1_000_000.0));
+        }
+        return issued;
+    }
+
+    private static DeviceAccessTokenBlm token(UUID deviceTokenUid) {
+        Date createdAt = new Date();
+        UUID uid = UUID.randomUUID();
+        return DeviceAccessTokenBlm.builder().uid(uid).deviceTokenUid(deviceTokenUid)
+                .token("bench-access-token-" + uid).createdAt(createdAt)
+                .expiresAt(new Date(createdAt.getTime() + 15 * 60 * 1000L)).build();
+    }
+}
@@ -56,9 +56,30 @@ class DeviceAccessTokenGeneratorTest {
         DeviceAccessTokenBlm result = generator.getDeviceAccessTokenBlm(tokenString);
         assertThat(result).isNotNull();
         assertThat(result.getDeviceTokenUid()).isEqualTo(createValidDeviceAccessTokenDalm().getDeviceTokenUid());
+        assertThat(result.getDeviceUid()).isNull();
+        assertThat(result.getUid()).isNull();
         assertThat(result.getToken()).isEqualTo(tokenString);
     }
 
+    @Test
+    @DisplayName("Parse device access token with device uid - Positive")
+    void testGetDeviceAccessTokenBlmWithDeviceUid_Positive() {
+        UUID deviceUid = UUID.randomUUID();
+        UUID uid = UUID.randomUUID();
+        String tokenString = generator.generateDeviceAccessToken(
+            createValidDeviceAccessTokenDalm().getDeviceTokenUid(),
+            deviceUid,
+            uid,
+            createValidDeviceAccessTokenDalm().getCreatedAt(),
+            createValidDeviceAccessTokenDalm().getExpiresAt()
+        );
+
+        DeviceAccessTokenBlm result = generator.getDeviceAccessTokenBlm(tokenString);
+        assertThat(result.getDeviceTokenUid()).isEqualTo(createValidDeviceAccessTokenDalm().getDeviceTokenUid());
+        assertThat(result.getDeviceUid()).isEqualTo(deviceUid);
+        assertThat(result.getUid()).isEqualTo(uid);
+    }
+
     @Test
     @DisplayName("Parse invalid device access token - Negative")
     void testGetDeviceAccessTokenBlmWithInvalidToken_Negative() {
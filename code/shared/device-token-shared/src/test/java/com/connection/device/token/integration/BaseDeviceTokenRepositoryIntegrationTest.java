@@ -1,6 +1,7 @@
 package com.connection.device.token.integration;
 
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.TestInstance;
 
@@ -24,16 +25,14 @@ public abstract class BaseDeviceTokenRepositoryIntegrationTest {
     protected UUID testDeviceAccessTokenUid;
     protected UUID testClientUid;
 
+    @BeforeAll
+    void migrateSchema() {
+        DeviceTokenTestSchema.migrate(createDataSource());
+    }
+
     @BeforeEach
     void setUp() {
-        // Создаем DataSource напрямую
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("org.postgresql.Driver");
-        dataSource.setUrl("jdbc:postgresql://localhost:5434/test_db");
-        dataSource.setUsername("test_user");
-        dataSource.setPassword("test_password");
-        
-        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(createDataSource());
         
         testClientUid = UUID.randomUUID();
         testDeviceUid = UUID.randomUUID();
@@ -49,6 +48,16 @@ public abstract class BaseDeviceTokenRepositoryIntegrationTest {
         cleanupTestData();
     }
 
+    private static DataSource createDataSource() {
+        // Создаем DataSource напрямую
+        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        dataSource.setDriverClassName("org.postgresql.Driver");
+        dataSource.setUrl("jdbc:postgresql://localhost:5434/test_db");
+        dataSource.setUsername("test_user");
+        dataSource.setPassword("test_password");
+        return dataSource;
+    }
+
     protected void cleanupTestData() {
         try {
             // Очищаем в правильном порядке из-за foreign key constraints
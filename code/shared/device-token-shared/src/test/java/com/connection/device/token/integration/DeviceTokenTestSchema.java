@@ -0,0 +1,27 @@
+package com.connection.device.token.integration;
+
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+
+/**
+ * Схема токенов устройств для тестов с базой: init-скрипты создают только
+ * исходные таблицы, остальное применяют миграции модуля - так же, как
+ * бин deviceTokenSchemaMigration в device-auth-service.
+ */
+public final class DeviceTokenTestSchema {
+
+    private DeviceTokenTestSchema() {
+    }
+
+    /** Применить миграции db/migration/device-token. */
+    public static void migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/device-token")
+                .table("device_token_schema_history")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+}
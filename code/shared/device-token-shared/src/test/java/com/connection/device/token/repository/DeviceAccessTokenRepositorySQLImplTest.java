@@ -12,6 +12,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +23,7 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -30,6 +32,7 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import com.connection.device.token.converter.DeviceAccessTokenConverter;
 import com.connection.device.token.exception.DeviceAccessTokenExistsException;
 import com.connection.device.token.exception.DeviceAccessTokenNotFoundException;
+import com.connection.device.token.exception.DeviceTokenNotFoundException;
 import com.connection.device.token.generator.DeviceAccessTokenGenerator;
 import com.connection.device.token.model.DeviceAccessTokenBlm;
 import com.connection.device.token.model.DeviceAccessTokenDalm;
@@ -61,77 +64,59 @@ class DeviceAccessTokenRepositorySqlImplTest {
         testTokenDalm = createValidDeviceAccessTokenDalm();
     }
 
-    @SuppressWarnings("unchecked")
     @Test
     @DisplayName("Add device access token - Positive")
     void testAddDeviceAccessToken_Positive() {
-        // Мокируем конвертацию
-        when(converter.toDalm(testTokenBlm)).thenReturn(testTokenDalm);
-        
-        // Мокируем проверку существования device_token - возвращаем true
-        when(jdbcTemplate.queryForObject(
-            eq("SELECT COUNT(*) FROM access.device_token WHERE uid = :device_token_uid"), 
-            any(MapSqlParameterSource.class), 
-            eq(Integer.class)
-        )).thenReturn(1);
-        
-        // Мокируем проверку активного токена - возвращаем false
-        when(jdbcTemplate.queryForObject(
-            eq("SELECT COUNT(*) FROM access.device_access_token WHERE device_token_uid = :device_token_uid AND expires_at > NOW()"), 
-            any(MapSqlParameterSource.class), 
-            eq(Integer.class)
-        )).thenReturn(0);
-        
-        // Мокируем проверки существования токена и uid - возвращаем исключения (не найдено)
-        when(jdbcTemplate.queryForObject(
-            anyString(), 
-            any(MapSqlParameterSource.class), 
-            any(RowMapper.class)
-        )).thenThrow(new EmptyResultDataAccessException(1));
-        
-        // Мокируем успешное выполнение INSERT
-        when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenReturn(1);
+        // Условная вставка вернула uid - токен выдан одним запросом
+        when(jdbcTemplate.queryForList(anyString(), any(MapSqlParameterSource.class), eq(UUID.class)))
+            .thenReturn(List.of(testTokenBlm.getUid()));
 
         repository.add(testTokenBlm);
 
-        // Проверяем, что была вызвана конвертация
-        
-        // Проверяем, что были вызваны все необходимые проверки
-        verify(jdbcTemplate, times(1)).queryForObject(
-            eq("SELECT COUNT(*) FROM access.device_token WHERE uid = :device_token_uid"), 
-            any(MapSqlParameterSource.class), 
-            eq(Integer.class)
-        );
-        
-        // Проверяем выполнение INSERT
-        verify(jdbcTemplate, times(1)).update(anyString(), any(MapSqlParameterSource.class));
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), any(MapSqlParameterSource.class), eq(UUID.class));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), any(MapSqlParameterSource.class), eq(Integer.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
     }
 
-    @SuppressWarnings("unchecked")
     @Test
     @DisplayName("Add existing device access token - Negative")
     void testAddExistingDeviceAccessToken_Negative() {
-        // Мокируем конвертацию
-        when(converter.toDalm(testTokenBlm)).thenReturn(testTokenDalm);
-        
-        // Мокируем проверку существования device_token - возвращаем true
+        // Вставка ничего не вернула, токен устройства существует - есть активный access-токен
+        when(jdbcTemplate.queryForList(anyString(), any(MapSqlParameterSource.class), eq(UUID.class)))
+            .thenReturn(List.of());
         when(jdbcTemplate.queryForObject(
             eq("SELECT COUNT(*) FROM access.device_token WHERE uid = :device_token_uid"), 
             any(MapSqlParameterSource.class), 
             eq(Integer.class)
         )).thenReturn(1);
-        
-        // Мокируем проверку активного токена - возвращаем true (уже существует)
+
+        assertThatThrownBy(() -> repository.add(testTokenBlm))
+                .isInstanceOf(DeviceAccessTokenExistsException.class);
+    }
+
+    @Test
+    @DisplayName("Add device access token for missing device token - Negative")
+    void testAddDeviceAccessTokenWithoutDeviceToken_Negative() {
+        when(jdbcTemplate.queryForList(anyString(), any(MapSqlParameterSource.class), eq(UUID.class)))
+            .thenReturn(List.of());
         when(jdbcTemplate.queryForObject(
-            eq("SELECT COUNT(*) FROM access.device_access_token WHERE device_token_uid = :device_token_uid AND expires_at > NOW()"), 
+            eq("SELECT COUNT(*) FROM access.device_token WHERE uid = :device_token_uid"), 
             any(MapSqlParameterSource.class), 
             eq(Integer.class)
-        )).thenReturn(1);
+        )).thenReturn(0);
 
         assertThatThrownBy(() -> repository.add(testTokenBlm))
-                .isInstanceOf(DeviceAccessTokenExistsException.class);
+                .isInstanceOf(DeviceTokenNotFoundException.class);
+    }
 
-        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+    @Test
+    @DisplayName("Add device access token with duplicate uid - Negative")
+    void testAddDeviceAccessTokenDuplicateKey_Negative() {
+        when(jdbcTemplate.queryForList(anyString(), any(MapSqlParameterSource.class), eq(UUID.class)))
+            .thenThrow(new DuplicateKeyException("device_access_token_pkey"));
+
+        assertThatThrownBy(() -> repository.add(testTokenBlm))
+                .isInstanceOf(DeviceAccessTokenExistsException.class);
     }
 
     @SuppressWarnings("unchecked")
@@ -232,4 +217,19 @@ class DeviceAccessTokenRepositorySqlImplTest {
 
         assertThat(result).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Delete expired chunk - Positive")
+    void testDeleteExpiredChunk_Positive() {
+        when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenReturn(7);
+
+        int deleted = repository.deleteExpiredChunk(100);
+
+        assertThat(deleted).isEqualTo(7);
+        verify(jdbcTemplate, times(1)).update(
+                eq("DELETE FROM access.device_access_token WHERE uid IN ("
+                        + "SELECT uid FROM access.device_access_token WHERE expires_at < NOW() "
+                        + "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED)"),
+                any(MapSqlParameterSource.class));
+    }
+}
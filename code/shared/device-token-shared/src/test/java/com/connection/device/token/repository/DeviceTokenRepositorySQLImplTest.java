@@ -192,4 +192,21 @@ class DeviceTokenRepositorySqlImplTest {
                 eq("DELETE FROM access.device_token WHERE uid = :uid"),
                 any(MapSqlParameterSource.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Delete expired chunk keeps tokens with live access tokens - Positive")
+    void testDeleteExpiredChunk_Positive() {
+        when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenReturn(3);
+
+        int deleted = repository.deleteExpiredChunk(100);
+
+        assertThat(deleted).isEqualTo(3);
+        verify(jdbcTemplate, times(1)).update(
+                eq("DELETE FROM access.device_token WHERE uid IN ("
+                        + "SELECT dt.uid FROM access.device_token dt WHERE dt.expires_at < NOW() "
+                        + "AND NOT EXISTS (SELECT 1 FROM access.device_access_token dat "
+                        + "WHERE dat.device_token_uid = dt.uid AND dat.expires_at > NOW()) "
+                        + "ORDER BY dt.expires_at LIMIT :limit FOR UPDATE SKIP LOCKED)"),
+                any(MapSqlParameterSource.class));
+    }
+}
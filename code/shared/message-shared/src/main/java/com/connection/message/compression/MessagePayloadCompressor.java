@@ -0,0 +1,103 @@
+package com.connection.message.compression;
+
+import com.connection.message.model.MessageCompression;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * Сжатие и распаковка тел сообщений. Deflate - java.util.zip (формат
+ * zlib), LZ4 - блочный формат lz4-java без заголовка: исходный размер
+ * хранится рядом с телом и нужен для распаковки.
+ */
+public final class MessagePayloadCompressor {
+
+    private static final LZ4Compressor LZ4_COMPRESSOR =
+            LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor LZ4_DECOMPRESSOR =
+            LZ4Factory.fastestInstance().safeDecompressor();
+
+    private MessagePayloadCompressor() {
+    }
+
+    /**
+     * Сжатие тела.
+     *
+     * @return сжатое тело или null, если оно не меньше исходного
+     */
+    public static byte[] compress(MessageCompression compression, byte[] data) {
+        return switch (compression) {
+            case DEFLATE -> deflate(data);
+            case LZ4 -> {
+                byte[] compressed = LZ4_COMPRESSOR.compress(data);
+                yield compressed.length < data.length ? compressed : null;
+            }
+        };
+    }
+
+    /**
+     * Распаковка тела.
+     *
+     * @param size размер тела до сжатия
+     */
+    public static byte[] decompress(MessageCompression compression, byte[] data,
+            int size) {
+        byte[] result = switch (compression) {
+            case DEFLATE -> inflate(data, size);
+            case LZ4 -> LZ4_DECOMPRESSOR.decompress(data, size);
+        };
+        if (result.length != size) {
+            throw new IllegalStateException("Corrupted " + compression
+                    + " payload: expected " + size + " bytes, got " + result.length);
+        }
+        return result;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            // Выход не длиннее входа: если не уместился, сжатие бесполезно
+            byte[] out = new byte[data.length];
+            int length = 0;
+            while (!deflater.finished() && length < out.length) {
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            return deflater.finished() && length < data.length
+                    ? Arrays.copyOf(out, length)
+                    : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int size) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            // Лишний байт: поток должен закончиться раньше, чем кончится место
+            byte[] out = new byte[size + 1];
+            int length = 0;
+            while (!inflater.finished() && length < out.length) {
+                int inflated = inflater.inflate(out, length, out.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (!inflater.finished()) {
+                throw new IllegalStateException("Truncated DEFLATE payload");
+            }
+            return Arrays.copyOf(out, length);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted DEFLATE payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -13,24 +13,28 @@ public class MessageConverter {
     /** . */
     public MessageBlm toBlm(MessageDto dto) {
         return new MessageBlm(dto.getUid(), dto.getBufferUid(),
-                dto.getContent(), dto.getContentType(), dto.getCreatedAt());
+                dto.getContent(), dto.getPayload(), dto.getContentType(),
+                dto.getCreatedAt());
     }
 
     /** . */
     public MessageBlm toBlm(MessageDalm dalm) {
         return new MessageBlm(dalm.getUid(), dalm.getBufferUid(),
-                dalm.getContent(), dalm.getContentType(), dalm.getCreatedAt());
+                dalm.getContent(), dalm.getPayload(), dalm.getContentType(),
+                dalm.getCreatedAt());
     }
 
     /** . */
     public MessageDto toDto(MessageBlm blm) {
         return new MessageDto(blm.getUid(), blm.getBufferUid(),
-                blm.getContent(), blm.getContentType(), blm.getCreatedAt());
+                blm.getContent(), blm.getPayload(), blm.getContentType(),
+                blm.getCreatedAt());
     }
 
     /** . */
     public MessageDalm toDalm(MessageBlm blm) {
         return new MessageDalm(blm.getUid(), blm.getBufferUid(),
-                blm.getContent(), blm.getContentType(), blm.getCreatedAt());
+                blm.getContent(), blm.getPayload(), blm.getContentType(),
+                blm.getCreatedAt());
     }
 }
@@ -0,0 +1,17 @@
+package com.connection.message.exception;
+
+/** . */
+public class BufferCapacityExceededException extends MessageAddException {
+    private final String description;
+
+    /** . */
+    public BufferCapacityExceededException(String description) {
+        super(description);
+        this.description = description;
+    }
+
+    /** . */
+    public String getDescription() {
+        return description;
+    }
+}
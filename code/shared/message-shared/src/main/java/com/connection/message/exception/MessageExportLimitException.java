@@ -0,0 +1,16 @@
+package com.connection.message.exception;
+
+/** Превышено число одновременных выгрузок сообщений. */
+public class MessageExportLimitException extends BaseMessageException {
+    /** . */
+    public MessageExportLimitException(String messageString) {
+        super(messageString);
+    }
+
+    /** . */
+    public String toString() {
+        String res = super.toString();
+        res += "\n" + "description: too many concurrent exports";
+        return res;
+    }
+}
@@ -10,6 +10,11 @@ public class MessageValidateException extends BaseMessageException {
         this.descriptionString = description;
     }
 
+    /** . */
+    public String getDescription() {
+        return descriptionString;
+    }
+
     /** . */
     public String toString() {
         String res = super.toString();
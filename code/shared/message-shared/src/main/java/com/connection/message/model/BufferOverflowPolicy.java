@@ -0,0 +1,9 @@
+package com.connection.message.model;
+
+/** Поведение при добавлении сообщения в заполненный буфер. */
+public enum BufferOverflowPolicy {
+    /** Новое сообщение отклоняется. */
+    REJECT,
+    /** Из буфера удаляются самые старые сообщения. */
+    EVICT_OLDEST
+}
@@ -0,0 +1,6 @@
+package com.connection.message.model;
+
+/** Алгоритм сжатия тела сообщения. */
+public enum MessageCompression {
+    DEFLATE, LZ4
+}
@@ -20,6 +20,8 @@ public class MessageDalm {
     protected UUID uid;
     protected UUID bufferUid;
     protected String content;
+    // Тело сообщения BINARY-буфера; content при этом null
+    protected byte[] payload;
     protected String contentType;
     protected Date createdAt;
 }
@@ -0,0 +1,17 @@
+package com.connection.message.model;
+
+import java.util.Date;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Событие из outbox, ожидающее публикации. */
+@AllArgsConstructor
+@Getter
+public class MessageOutboxEventBlm {
+    protected Long id;
+    protected String eventType;
+    protected UUID aggregateUid;
+    protected String payload;
+    protected Date createdAt;
+}
@@ -0,0 +1,34 @@
+package com.connection.message.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Кодек тела, записанный в processing.message.payload_codec. Хранится
+ * в каждой строке, поэтому смена сжатия буфера не мешает читать старые
+ * сообщения.
+ */
+@AllArgsConstructor
+@Getter
+public enum MessagePayloadCodec {
+    DEFLATE(MessageCompression.DEFLATE, false),
+    LZ4(MessageCompression.LZ4, false),
+    DEFLATE_JSON(MessageCompression.DEFLATE, true),
+    LZ4_JSON(MessageCompression.LZ4, true);
+
+    private final MessageCompression compression;
+
+    // До сжатия тело было JSON (content), а не двоичным payload
+    private final boolean json;
+
+    /** . */
+    public static MessagePayloadCodec of(MessageCompression compression,
+            boolean json) {
+        for (MessagePayloadCodec codec : values()) {
+            if (codec.compression == compression && codec.json == json) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown codec for " + compression);
+    }
+}
@@ -0,0 +1,24 @@
+package com.connection.message.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Сообщение, не добавленное в буфер, и причина отказа. */
+@AllArgsConstructor
+@Getter
+public class MessageRejection {
+    protected MessageBlm message;
+    protected String reason;
+    // Сообщение уже сохранено ранее: для отправителя это успех
+    protected boolean duplicate;
+
+    /** . */
+    public MessageRejection(MessageBlm message, String reason) {
+        this(message, reason, false);
+    }
+
+    /** Повтор уже сохраненного сообщения. */
+    public static MessageRejection duplicate(MessageBlm message) {
+        return new MessageRejection(message, "Message is already stored", true);
+    }
+}
@@ -0,0 +1,14 @@
+package com.connection.message.model;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Политика хранения сообщений буфера (null - ограничение не задано). */
+@AllArgsConstructor
+@Getter
+public class MessageRetentionPolicyBlm {
+    protected UUID bufferUid;
+    protected Integer retentionSeconds;
+    protected Integer retentionMessages;
+}
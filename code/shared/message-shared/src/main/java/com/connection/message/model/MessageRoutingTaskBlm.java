@@ -0,0 +1,16 @@
+package com.connection.message.model;
+
+import java.util.Date;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Отложенная задача маршрутизации OUTGOING сообщения. */
+@AllArgsConstructor
+@Getter
+public class MessageRoutingTaskBlm {
+    protected UUID messageUid;
+    protected UUID bufferUid;
+    protected int attempts;
+    protected Date parkedAt;
+}
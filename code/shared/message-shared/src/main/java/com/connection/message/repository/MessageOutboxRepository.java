@@ -0,0 +1,39 @@
+package com.connection.message.repository;
+
+import com.connection.message.model.MessageBlm;
+import com.connection.message.model.MessageOutboxEventBlm;
+import java.util.List;
+import java.util.UUID;
+
+/** . */
+public interface MessageOutboxRepository {
+
+    /**
+     * Записать события MESSAGE_CREATED для уже проверенных сообщений.
+     * Вызывается в транзакции, добавляющей сами сообщения.
+     *
+     * @param messageBlms .
+     */
+    public void addMessageCreated(List<MessageBlm> messageBlms);
+
+    /**
+     * Записать произвольное событие.
+     *
+     * @param eventType тип события
+     * @param aggregateUid ключ упорядочивания (буфер-источник)
+     * @param payload событие в JSON
+     */
+    public void add(String eventType, UUID aggregateUid, String payload);
+
+    /**
+     * Заблокировать до limit самых старых событий, пропуская захваченные
+     * другими транзакциями. Блокировка действует до конца транзакции.
+     *
+     * @param limit .
+     * @return события в порядке записи
+     */
+    public List<MessageOutboxEventBlm> lockBatch(int limit);
+
+    /** . */
+    public void deleteByIds(List<Long> ids);
+}
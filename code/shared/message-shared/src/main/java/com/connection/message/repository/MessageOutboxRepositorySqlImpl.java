@@ -0,0 +1,98 @@
+package com.connection.message.repository;
+
+import com.connection.message.model.MessageBlm;
+import com.connection.message.model.MessageOutboxEventBlm;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/** . */
+public class MessageOutboxRepositorySqlImpl implements MessageOutboxRepository {
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO processing.message_outbox (event_type, aggregate_uid, payload) "
+                    + "VALUES (:event_type, :aggregate_uid, :payload::jsonb)";
+
+    private static final String LOCK_BATCH =
+            "SELECT id, event_type, aggregate_uid, payload::text AS payload, created_at "
+                    + "FROM processing.message_outbox ORDER BY id LIMIT :limit "
+                    + "FOR UPDATE SKIP LOCKED";
+
+    private static final String DELETE_BY_IDS =
+            "DELETE FROM processing.message_outbox WHERE id IN (:ids)";
+
+    private static final String EVENT_MESSAGE_CREATED = "MESSAGE_CREATED";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Сериализация MessageCreatedEvent; сам класс события живет в модуле
+    // событий, который зависит от этого модуля, поэтому передается снаружи
+    private final Function<MessageBlm, String> messageCreatedSerializer;
+
+    private final RowMapper<MessageOutboxEventBlm> eventRowMapper =
+            (rs, rowNum) -> new MessageOutboxEventBlm(
+                    rs.getLong("id"),
+                    rs.getString("event_type"),
+                    UUID.fromString(rs.getString("aggregate_uid")),
+                    rs.getString("payload"),
+                    new Date(rs.getTimestamp("created_at").getTime()));
+
+    /** . */
+    public MessageOutboxRepositorySqlImpl(NamedParameterJdbcTemplate jdbcTemplate,
+            Function<MessageBlm, String> messageCreatedSerializer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messageCreatedSerializer = messageCreatedSerializer;
+    }
+
+    @Override
+    @Transactional
+    public void addMessageCreated(List<MessageBlm> messageBlms) {
+        if (messageBlms.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] batchParams = messageBlms.stream()
+                .map(messageBlm -> new MapSqlParameterSource()
+                        .addValue("event_type", EVENT_MESSAGE_CREATED)
+                        .addValue("aggregate_uid", messageBlm.getBufferUid())
+                        .addValue("payload", messageCreatedSerializer.apply(messageBlm)))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_EVENT, batchParams);
+    }
+
+    @Override
+    @Transactional
+    public void add(String eventType, UUID aggregateUid, String payload) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("event_type", eventType);
+        params.addValue("aggregate_uid", aggregateUid);
+        params.addValue("payload", payload);
+
+        jdbcTemplate.update(INSERT_EVENT, params);
+    }
+
+    @Override
+    @Transactional
+    public List<MessageOutboxEventBlm> lockBatch(int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(LOCK_BATCH, params, eventRowMapper);
+    }
+
+    @Override
+    @Transactional
+    public void deleteByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("ids", ids);
+
+        jdbcTemplate.update(DELETE_BY_IDS, params);
+    }
+}
@@ -0,0 +1,42 @@
+package com.connection.message.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Секции processing.message по суткам UTC (processing.message_pYYYYMMDD). */
+public interface MessagePartitionRepository {
+
+    /**
+     * Создать секцию за сутки, если ее еще нет.
+     *
+     * @return true, если секция создана
+     */
+    public boolean createPartition(LocalDate day);
+
+    /**
+     * Присоединенные секции за сутки раньше before.
+     *
+     * @return имена секций в порядке дат
+     */
+    public List<String> findPartitionsBefore(LocalDate before);
+
+    /**
+     * Отсоединить секцию от processing.message. Секция переименовывается
+     * в &lt;имя&gt;_detached и ждет {@link #releaseDetached}.
+     */
+    public void detachPartition(String partitionName);
+
+    /**
+     * Отсоединенные, но еще не обработанные секции
+     * (в том числе оставшиеся после сбоя).
+     */
+    public List<String> findDetachedPartitions();
+
+    /**
+     * Вычесть сообщения отсоединенной секции из счетчиков буферов и удалить
+     * таблицу (drop) или оставить ее как &lt;имя&gt;_archived.
+     *
+     * @return количество сообщений в секции
+     */
+    public long releaseDetached(String detachedName, boolean drop);
+}
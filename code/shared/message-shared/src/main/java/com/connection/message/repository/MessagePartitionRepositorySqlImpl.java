@@ -0,0 +1,154 @@
+package com.connection.message.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Управление секциями processing.message. Удаление секции разбито на две
+ * транзакции: отсоединение (короткая блокировка processing.message) и
+ * пересчет счетчиков с удалением таблицы, который идет уже без блокировки
+ * основной таблицы. Операции разных экземпляров сериализуются
+ * advisory-блокировкой.
+ */
+public class MessagePartitionRepositorySqlImpl implements MessagePartitionRepository {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("message_p\\d{8}");
+    private static final Pattern DETACHED_NAME = Pattern.compile("message_p\\d{8}_detached");
+    private static final String DETACHED_SUFFIX = "_detached";
+    private static final String ARCHIVED_SUFFIX = "_archived";
+
+    private static final String LOCK_PARTITIONS =
+            "SELECT 1 FROM pg_advisory_xact_lock(hashtext('processing.message partitions'))";
+
+    // Отсоединение ждет завершения чтений processing.message; дольше не
+    // задерживаем запросы, выстроившиеся за ним в очередь
+    private static final String SET_LOCK_TIMEOUT = "SET LOCAL lock_timeout = '5s'";
+
+    private static final String CREATE_PARTITION =
+            "SELECT processing.create_message_partition(:day)";
+
+    private static final String SELECT_PARTITIONS_BEFORE =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "WHERE i.inhparent = 'processing.message'::regclass "
+                    + "AND c.relname ~ '^message_p[0-9]{8}$' "
+                    + "AND to_date(substring(c.relname from 10), 'YYYYMMDD') < :before "
+                    + "ORDER BY c.relname";
+
+    private static final String SELECT_DETACHED_PARTITIONS =
+            "SELECT c.relname FROM pg_class c "
+                    + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+                    + "WHERE n.nspname = 'processing' AND c.relkind = 'r' "
+                    + "AND c.relname ~ '^message_p[0-9]{8}_detached$' ORDER BY c.relname";
+
+    private static final String EXISTS_TABLE =
+            "SELECT to_regclass(:table_name) IS NOT NULL";
+
+    private static final String DETACH_PARTITION =
+            "ALTER TABLE processing.message DETACH PARTITION processing.%s";
+
+    private static final String RENAME_TABLE = "ALTER TABLE processing.%s RENAME TO %s";
+
+    // Удаление секции не вызывает триггеры processing.message
+    private static final String SUBTRACT_MESSAGE_COUNTS =
+            "WITH d AS (SELECT buffer_uid, count(*) AS cnt FROM processing.%s "
+                    + "GROUP BY buffer_uid), "
+                    + "u AS (UPDATE processing.buffer_message_count c "
+                    + "SET message_count = greatest(c.message_count - d.cnt, 0) "
+                    + "FROM d WHERE c.buffer_uid = d.buffer_uid RETURNING d.cnt) "
+                    + "SELECT coalesce(sum(cnt), 0) FROM u";
+
+    private static final String DROP_TABLE = "DROP TABLE processing.%s";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /** . */
+    public MessagePartitionRepositorySqlImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public boolean createPartition(LocalDate day) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("day", Date.valueOf(day));
+
+        lockPartitions();
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                CREATE_PARTITION, params, Boolean.class));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> findPartitionsBefore(LocalDate before) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("before", Date.valueOf(before));
+
+        return jdbcTemplate.queryForList(SELECT_PARTITIONS_BEFORE, params, String.class);
+    }
+
+    @Override
+    @Transactional
+    public void detachPartition(String partitionName) {
+        checkName(PARTITION_NAME, partitionName);
+
+        lockPartitions();
+        jdbcTemplate.getJdbcOperations().execute(SET_LOCK_TIMEOUT);
+        jdbcTemplate.getJdbcOperations().execute(
+                String.format(DETACH_PARTITION, partitionName));
+        jdbcTemplate.getJdbcOperations().execute(String.format(RENAME_TABLE,
+                partitionName, partitionName + DETACHED_SUFFIX));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> findDetachedPartitions() {
+        return jdbcTemplate.queryForList(SELECT_DETACHED_PARTITIONS,
+                new MapSqlParameterSource(), String.class);
+    }
+
+    @Override
+    @Transactional
+    public long releaseDetached(String detachedName, boolean drop) {
+        checkName(DETACHED_NAME, detachedName);
+
+        lockPartitions();
+        // Другой экземпляр мог обработать секцию, пока мы ждали блокировку
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("table_name", "processing." + detachedName);
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                EXISTS_TABLE, params, Boolean.class))) {
+            return 0;
+        }
+
+        Long messages = jdbcTemplate.queryForObject(
+                String.format(SUBTRACT_MESSAGE_COUNTS, detachedName),
+                new MapSqlParameterSource(), Long.class);
+        if (drop) {
+            jdbcTemplate.getJdbcOperations().execute(
+                    String.format(DROP_TABLE, detachedName));
+        } else {
+            String partitionName = detachedName.substring(0,
+                    detachedName.length() - DETACHED_SUFFIX.length());
+            jdbcTemplate.getJdbcOperations().execute(String.format(RENAME_TABLE,
+                    detachedName, partitionName + ARCHIVED_SUFFIX));
+        }
+        return messages != null ? messages : 0;
+    }
+
+    private void lockPartitions() {
+        jdbcTemplate.queryForObject(LOCK_PARTITIONS, new MapSqlParameterSource(),
+                Integer.class);
+    }
+
+    // Имена подставляются в DDL, поэтому принимаются только имена секций
+    private static void checkName(Pattern pattern, String name) {
+        if (name == null || !pattern.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid message partition name: " + name);
+        }
+    }
+}
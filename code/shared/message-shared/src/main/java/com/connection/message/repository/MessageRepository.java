@@ -1,16 +1,41 @@
 package com.connection.message.repository;
 
 import com.connection.message.exception.MessageAddException;
+import com.connection.message.exception.MessageExportLimitException;
 import com.connection.message.exception.MessageNotFoundException;
 import com.connection.message.model.MessageBlm;
+import com.connection.message.model.MessageRejection;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /** . */
 public interface MessageRepository {
-    /** . */
-    public void add(MessageBlm messageBlm) throws MessageAddException;
+    /**
+     * Добавить сообщение. Повтор уже сохраненного сообщения (тот же uid
+     * в том же буфере) не добавляется и ошибкой не считается.
+     *
+     * @param messageBlm .
+     * @return true, если сообщение добавлено, false для повтора
+     * @throws MessageAddException .
+     */
+    public boolean add(MessageBlm messageBlm) throws MessageAddException;
+
+    /**
+     * Добавить несколько сообщений одним пакетом JDBC.
+     * Сообщения, не прошедшие проверку емкости буфера, не добавляются.
+     * Повторы уже сохраненных сообщений возвращаются с признаком
+     * duplicate.
+     *
+     * @param messageBlms .
+     * @return отклоненные сообщения с причинами (пустой список, если
+     *         добавлены все)
+     * @throws MessageAddException .
+     */
+    public List<MessageRejection> addAll(List<MessageBlm> messageBlms)
+            throws MessageAddException;
 
     /** . */
     public MessageBlm findByUid(UUID uuid) throws MessageNotFoundException;
@@ -19,11 +44,104 @@ public interface MessageRepository {
     public List<MessageBlm> findByBufferUid(UUID bufferUid)
             throws MessageNotFoundException;
 
+    /**
+     * Получить страницу сообщений буфера в порядке (created_at, uid).
+     *
+     * @param bufferUid .
+     * @param afterCreatedAt created_at последнего сообщения предыдущей
+     *        страницы, null для первой страницы
+     * @param afterUid uid последнего сообщения предыдущей страницы
+     * @param limit максимальное количество сообщений
+     * @return . (пустой список, если сообщений больше нет)
+     */
+    public List<MessageBlm> findByBufferUid(UUID bufferUid,
+            Date afterCreatedAt, UUID afterUid, int limit);
+
+    /**
+     * Последнее в порядке (created_at, uid) сообщение буфера.
+     *
+     * @return . (null, если буфер пуст)
+     */
+    public MessageBlm findLastByBufferUid(UUID bufferUid);
+
+    /**
+     * Получить страницу сообщений нескольких буферов одним запросом
+     * в общем порядке (created_at, uid).
+     *
+     * @param bufferUids .
+     * @param offset количество пропускаемых сообщений
+     * @param limit максимальное количество сообщений
+     * @return . (пустой список, если сообщений больше нет)
+     */
+    public List<MessageBlm> findByBufferUids(Collection<UUID> bufferUids,
+            int offset, int limit);
+
+    /**
+     * Keyset-пагинация по нескольким буферам в общем порядке
+     * (created_at, uid).
+     *
+     * @param bufferUids .
+     * @param afterCreatedAt created_at последнего сообщения предыдущей
+     *        страницы, null для первой страницы
+     * @param afterUid uid последнего сообщения предыдущей страницы
+     * @param limit максимальное количество сообщений
+     * @return . (пустой список, если сообщений больше нет)
+     */
+    public List<MessageBlm> findByBufferUids(Collection<UUID> bufferUids,
+            Date afterCreatedAt, UUID afterUid, int limit);
+
+    /**
+     * Передать все сообщения буфера в порядке (created_at, uid) по одному,
+     * не загружая их в память целиком.
+     *
+     * @param bufferUid .
+     * @param consumer получатель сообщений; исключение прерывает чтение
+     * @throws MessageExportLimitException если уже идет предельное число выгрузок
+     */
+    public void streamByBufferUid(UUID bufferUid, Consumer<MessageBlm> consumer)
+            throws MessageExportLimitException;
+
     /** . */
     public List<MessageBlm> findByBufferUidAndTimeRange(UUID bufferUid,
             Date startTime, Date endTime) throws MessageNotFoundException;
 
-    /** . */
+    /**
+     * Страница сообщений буфера за интервал [startTime, endTime) в порядке
+     * (created_at, uid). Читается только диапазон индекса за интервал.
+     *
+     * @param bufferUid .
+     * @param startTime начало интервала (включительно)
+     * @param endTime конец интервала (не включительно)
+     * @param afterCreatedAt created_at последнего сообщения предыдущей
+     *        страницы, null для первой страницы
+     * @param afterUid uid последнего сообщения предыдущей страницы
+     * @param limit максимальное количество сообщений
+     * @return . (пустой список, если сообщений больше нет)
+     */
+    public List<MessageBlm> findByBufferUidAndTimeRange(UUID bufferUid,
+            Date startTime, Date endTime, Date afterCreatedAt, UUID afterUid,
+            int limit);
+
+    /**
+     * Атомарно извлечь из буфера limit самых старых входящих сообщений.
+     * Конкурентные вызовы для одного буфера получают разные сообщения.
+     *
+     * @param bufferUid .
+     * @param limit .
+     * @return удалённые сообщения в порядке (created_at, uid)
+     */
+    public List<MessageBlm> dequeueIncoming(UUID bufferUid, int limit);
+
+    /**
+     * Удалить прочитанные сообщения по ключу (uid, created_at).
+     * Уже удаленные сообщения пропускаются.
+     *
+     * @param messageBlms сообщения с заполненными uid и createdAt
+     * @return количество удаленных сообщений
+     */
+    public int deleteAll(List<MessageBlm> messageBlms);
+
+    /** Удаление по uid просматривает все секции processing.message. */
     public void deleteByUid(UUID uuid) throws MessageNotFoundException;
 
     /** . */
@@ -1,16 +1,44 @@
 package com.connection.message.repository;
 
+import com.connection.message.compression.MessagePayloadCompressor;
 import com.connection.message.converter.MessageConverter;
+import com.connection.message.exception.BufferCapacityExceededException;
 import com.connection.message.exception.MessageAddException;
+import com.connection.message.exception.MessageExportLimitException;
 import com.connection.message.exception.MessageNotFoundException;
+import com.connection.message.model.BufferOverflowPolicy;
 import com.connection.message.model.MessageBlm;
+import com.connection.message.model.MessageCompression;
 import com.connection.message.model.MessageDalm;
+import com.connection.message.model.MessagePayloadCodec;
+import com.connection.message.model.MessageRejection;
 import com.connection.message.validator.MessageValidator;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -20,7 +48,8 @@ import org.springframework.transaction.annotation.Transactional;
 public class MessageRepositorySqlImpl implements MessageRepository {
 
     private static final String SELECT_MESSAGE =
-            "SELECT uid, buffer_uid, content, content_type, created_at";
+            "SELECT uid, buffer_uid, content, payload, payload_codec, payload_size, "
+                    + "content_type, created_at";
 
     private static final String SELECT_MESSAGE_BY_UID =
             SELECT_MESSAGE + " FROM processing.message WHERE uid = :uid";
@@ -28,14 +57,158 @@ public class MessageRepositorySqlImpl implements MessageRepository {
     private static final String SELECT_MESSAGES_BY_BUFFER_UID = SELECT_MESSAGE
             + " FROM processing.message WHERE buffer_uid = :buffer_uid ORDER BY created_at DESC";
 
+    private static final String SELECT_FIRST_MESSAGES_PAGE_BY_BUFFER_UID =
+            SELECT_MESSAGE
+                    + " FROM processing.message WHERE buffer_uid = :buffer_uid "
+                    + "ORDER BY created_at, uid LIMIT :limit";
+
+    private static final String SELECT_LAST_MESSAGE_BY_BUFFER_UID =
+            SELECT_MESSAGE
+                    + " FROM processing.message WHERE buffer_uid = :buffer_uid "
+                    + "ORDER BY created_at DESC, uid DESC LIMIT 1";
+
+    // Сравнение строк (created_at, uid) не отсекает секции processing.message,
+    // поэтому нижняя граница курсора продублирована условием по created_at
+    private static final String SELECT_NEXT_MESSAGES_PAGE_BY_BUFFER_UID =
+            SELECT_MESSAGE
+                    + " FROM processing.message WHERE buffer_uid = :buffer_uid "
+                    + "AND created_at >= :after_created_at "
+                    + "AND (created_at, uid) > (:after_created_at, :after_uid) "
+                    + "ORDER BY created_at, uid LIMIT :limit";
+
+    // Слияние буферов в одном запросе: из каждого буфера по индексу
+    // (buffer_uid, created_at, uid) читается не больше offset + limit строк
+    private static final String SELECT_MESSAGES_PAGE_BY_BUFFER_UIDS =
+            "SELECT m.uid, m.buffer_uid, m.content, m.payload, m.payload_codec, "
+                    + "m.payload_size, m.content_type, m.created_at "
+                    + "FROM processing.buffer b CROSS JOIN LATERAL ("
+                    + SELECT_MESSAGE + " FROM processing.message "
+                    + "WHERE buffer_uid = b.uid ORDER BY created_at, uid LIMIT :window) m "
+                    + "WHERE b.uid IN (:buffer_uids) "
+                    + "ORDER BY m.created_at, m.uid OFFSET :offset LIMIT :limit";
+
+    private static final String SELECT_NEXT_MESSAGES_PAGE_BY_BUFFER_UIDS =
+            "SELECT m.uid, m.buffer_uid, m.content, m.payload, m.payload_codec, "
+                    + "m.payload_size, m.content_type, m.created_at "
+                    + "FROM processing.buffer b CROSS JOIN LATERAL ("
+                    + SELECT_MESSAGE + " FROM processing.message "
+                    + "WHERE buffer_uid = b.uid AND created_at >= :after_created_at "
+                    + "AND (created_at, uid) > (:after_created_at, :after_uid) "
+                    + "ORDER BY created_at, uid LIMIT :limit) m "
+                    + "WHERE b.uid IN (:buffer_uids) "
+                    + "ORDER BY m.created_at, m.uid LIMIT :limit";
+
+    // Полуоткрытое окно [start_time, end_time): диапазон индекса
+    // (buffer_uid, created_at, uid) без сортировки
+    private static final String SELECT_FIRST_MESSAGES_PAGE_BY_TIME_RANGE =
+            SELECT_MESSAGE
+                    + " FROM processing.message WHERE buffer_uid = :buffer_uid "
+                    + "AND created_at >= :start_time AND created_at < :end_time "
+                    + "ORDER BY created_at, uid LIMIT :limit";
+
+    private static final String SELECT_NEXT_MESSAGES_PAGE_BY_TIME_RANGE =
+            SELECT_MESSAGE
+                    + " FROM processing.message WHERE buffer_uid = :buffer_uid "
+                    + "AND created_at >= :start_time AND created_at < :end_time "
+                    + "AND (created_at, uid) > (:after_created_at, :after_uid) "
+                    + "ORDER BY created_at, uid LIMIT :limit";
+
+    // Позиционный параметр: запрос выполняется с собственным PreparedStatement
+    private static final String SELECT_MESSAGES_FOR_EXPORT = SELECT_MESSAGE
+            + " FROM processing.message WHERE buffer_uid = ? ORDER BY created_at, uid";
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    // Ограничения действуют до конца транзакции выгрузки: сервер прерывает
+    // долгий запрос и обрывает сессию, если клиент перестал читать
+    private static final String SET_EXPORT_TIMEOUTS =
+            "SELECT set_config('statement_timeout', ?, true), "
+                    + "set_config('idle_in_transaction_session_timeout', ?, true)";
+
+    private static final int DEFAULT_MAX_CONCURRENT_EXPORTS = 2;
+    private static final long DEFAULT_EXPORT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private static final String BINARY_PAYLOAD_FORMAT = "BINARY";
+    private static final String NO_COMPRESSION = "NONE";
+
+    // Короткие тела почти не сжимаются, а CPU на них тратится так же
+    private static final int DEFAULT_COMPRESSION_MIN_SIZE = 1024;
+
     private static final String SELECT_MESSAGES_BY_BUFFER_UID_AND_TIME_RANGE =
             SELECT_MESSAGE
                     + " FROM processing.message WHERE buffer_uid = :buffer_uid "
                     + "AND created_at BETWEEN :start_time AND :end_time ORDER BY created_at DESC";
 
+    // У двоичного и сжатого сообщения content равен null и jsonb не разбирается
     private static final String INSERT_MESSAGE =
-            "INSERT INTO processing.message (uid, buffer_uid, content, content_type, created_at) "
-                    + "VALUES (:uid, :buffer_uid, :content::jsonb, :content_type, :created_at)";
+            "INSERT INTO processing.message "
+                    + "(uid, buffer_uid, content, payload, payload_codec, payload_size, "
+                    + "content_type, created_at) "
+                    + "VALUES (:uid, :buffer_uid, :content::jsonb, :payload, :payload_codec, "
+                    + ":payload_size, :content_type, :created_at) "
+                    + "ON CONFLICT (uid, created_at) DO NOTHING";
+
+    // Уникален только ключ (uid, created_at), а повтор с устройства может
+    // прийти с другим created_at, поэтому сохраненное сообщение ищется по uid
+    // в окне перед самым ранним created_at пакета
+    private static final String SELECT_STORED_MESSAGES =
+            "SELECT uid, buffer_uid FROM processing.message "
+                    + "WHERE uid IN (:uids) AND created_at >= :since";
+
+    private static final long DUPLICATE_LOOKBACK_MILLIS = 24 * 60 * 60 * 1000L;
+
+    // Одна инструкция: блокируем самые старые входящие строки, пропуская
+    // уже захваченные другими транзакциями, и сразу удаляем их.
+    // content_type задан литералом, чтобы планировщик мог использовать
+    // частичный индекс idx_message_incoming_buffer_created_at
+    private static final String DEQUEUE_INCOMING_MESSAGES =
+            "WITH dequeued AS (DELETE FROM processing.message WHERE (uid, created_at) IN ("
+                    + "SELECT uid, created_at FROM processing.message "
+                    + "WHERE buffer_uid = :buffer_uid AND content_type = 'INCOMING' "
+                    + "ORDER BY created_at, uid LIMIT :limit FOR UPDATE SKIP LOCKED) "
+                    + "RETURNING uid, buffer_uid, content, payload, payload_codec, payload_size, "
+                    + "content_type, created_at) "
+                    + SELECT_MESSAGE + " FROM dequeued ORDER BY created_at, uid";
+
+    // Строку счетчика создает триггер на processing.buffer; если ее нет,
+    // она заводится по фактическому числу сообщений, иначе проверка
+    // емкости пропустила бы буфер
+    private static final String INIT_MISSING_BUFFER_COUNTS =
+            "INSERT INTO processing.buffer_message_count (buffer_uid, message_count) "
+                    + "SELECT b.uid, (SELECT count(*) FROM processing.message m "
+                    + "WHERE m.buffer_uid = b.uid) FROM processing.buffer b "
+                    + "WHERE b.uid IN (:buffer_uids) AND NOT EXISTS ("
+                    + "SELECT 1 FROM processing.buffer_message_count c WHERE c.buffer_uid = b.uid) "
+                    + "ON CONFLICT (buffer_uid) DO NOTHING";
+
+    // Счетчики ведутся триггерами; блокировка строк счетчиков упорядочивает
+    // конкурентные вставки в буфер до конца транзакции
+    private static final String LOCK_BUFFER_CAPACITIES =
+            "SELECT c.buffer_uid, c.message_count, b.max_messages_number, b.max_message_size, "
+                    + "b.payload_format, b.compression "
+                    + "FROM processing.buffer_message_count c "
+                    + "JOIN processing.buffer b ON b.uid = c.buffer_uid "
+                    + "WHERE c.buffer_uid IN (:buffer_uids) ORDER BY c.buffer_uid FOR UPDATE OF c";
+
+    // Без политики переполнения счетчики не блокируются, и сжатие
+    // читается отдельно
+    private static final String SELECT_BUFFER_COMPRESSIONS =
+            "SELECT uid, compression FROM processing.buffer "
+                    + "WHERE uid IN (:buffer_uids) AND compression <> '" + NO_COMPRESSION + "'";
+
+    // Удаление по полному ключу (uid, created_at): каждая строка ищется
+    // только в своей секции
+    private static final String EVICT_OLDEST_MESSAGES =
+            "DELETE FROM processing.message WHERE (uid, created_at) IN ("
+                    + "SELECT uid, created_at FROM processing.message "
+                    + "WHERE buffer_uid = :buffer_uid "
+                    + "ORDER BY created_at, uid LIMIT :limit)";
+
+    // Границы по created_at отсекают секции, не содержащие удаляемых сообщений
+    private static final String DELETE_MESSAGES_BY_KEYS =
+            "DELETE FROM processing.message "
+                    + "WHERE created_at BETWEEN :min_created_at AND :max_created_at "
+                    + "AND (uid, created_at) IN (:keys)";
 
     private static final String DELETE_MESSAGE_BY_UID =
             "DELETE FROM processing.message WHERE uid = :uid";
@@ -46,6 +219,16 @@ public class MessageRepositorySqlImpl implements MessageRepository {
     private final MessageConverter converter = new MessageConverter();
     private final MessageValidator validator = new MessageValidator();
     private final NamedParameterJdbcTemplate jdbcTemplate;
+    // null - события в outbox не пишутся
+    private final MessageOutboxRepository outboxRepository;
+    // null - емкость буферов не проверяется
+    private final BufferOverflowPolicy overflowPolicy;
+    private final int compressionMinSize;
+    // null - выгрузка идет через источник jdbcTemplate
+    private final DataSource exportDataSource;
+    private final int maxConcurrentExports;
+    private final Semaphore exportPermits;
+    private final long exportTimeoutMillis;
 
     private final RowMapper<MessageDalm> messageRowMapper = (rs, rowNum) -> {
         MessageDalm message = new MessageDalm();
@@ -55,6 +238,21 @@ public class MessageRepositorySqlImpl implements MessageRepository {
         // Для чтения JSON из базы
         String contentJson = rs.getString("content");
         message.setContent(contentJson);
+        message.setPayload(rs.getBytes("payload"));
+
+        // Сжатое тело возвращается в исходном виде: JSON в content или байты
+        String codecName = rs.getString("payload_codec");
+        if (codecName != null) {
+            MessagePayloadCodec codec = MessagePayloadCodec.valueOf(codecName);
+            byte[] body = MessagePayloadCompressor.decompress(codec.getCompression(),
+                    message.getPayload(), rs.getInt("payload_size"));
+            if (codec.isJson()) {
+                message.setContent(new String(body, StandardCharsets.UTF_8));
+                message.setPayload(null);
+            } else {
+                message.setPayload(body);
+            }
+        }
 
         message.setContentType(rs.getString("content_type"));
         message.setCreatedAt(new Date(rs.getTimestamp("created_at").getTime()));
@@ -63,15 +261,348 @@ public class MessageRepositorySqlImpl implements MessageRepository {
 
     /** . */
     public MessageRepositorySqlImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, null, null);
+    }
+
+    /**
+     * Репозиторий, записывающий событие MESSAGE_CREATED в outbox
+     * в той же транзакции, что и сообщение.
+     */
+    public MessageRepositorySqlImpl(NamedParameterJdbcTemplate jdbcTemplate,
+            MessageOutboxRepository outboxRepository) {
+        this(jdbcTemplate, outboxRepository, null);
+    }
+
+    /**
+     * Репозиторий, ограничивающий буферы по max_messages_number и
+     * max_message_size с заданной политикой переполнения.
+     */
+    public MessageRepositorySqlImpl(NamedParameterJdbcTemplate jdbcTemplate,
+            MessageOutboxRepository outboxRepository,
+            BufferOverflowPolicy overflowPolicy) {
+        this(jdbcTemplate, outboxRepository, overflowPolicy,
+                DEFAULT_COMPRESSION_MIN_SIZE);
+    }
+
+    /**
+     * Репозиторий, который вдобавок сжимает тела сообщений буферов
+     * с заданным сжатием (processing.buffer.compression), начиная с
+     * compressionMinSize байт.
+     */
+    public MessageRepositorySqlImpl(NamedParameterJdbcTemplate jdbcTemplate,
+            MessageOutboxRepository outboxRepository,
+            BufferOverflowPolicy overflowPolicy, int compressionMinSize) {
+        this(jdbcTemplate, outboxRepository, overflowPolicy, compressionMinSize, null,
+                DEFAULT_MAX_CONCURRENT_EXPORTS, DEFAULT_EXPORT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Репозиторий, который выгружает буферы через exportDataSource.
+     * Выгрузка берет свое соединение вне XA-транзакций, одновременно
+     * идут не больше maxConcurrentExports выгрузок, каждая - не дольше
+     * exportTimeoutMillis.
+     */
+    public MessageRepositorySqlImpl(NamedParameterJdbcTemplate jdbcTemplate,
+            MessageOutboxRepository outboxRepository,
+            BufferOverflowPolicy overflowPolicy, int compressionMinSize,
+            DataSource exportDataSource, int maxConcurrentExports,
+            long exportTimeoutMillis) {
         this.jdbcTemplate = jdbcTemplate;
+        this.outboxRepository = outboxRepository;
+        this.overflowPolicy = overflowPolicy;
+        this.compressionMinSize = compressionMinSize;
+        this.exportDataSource = exportDataSource;
+        this.maxConcurrentExports = maxConcurrentExports;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+        this.exportTimeoutMillis = exportTimeoutMillis;
     }
 
     @Override
     @Transactional
-    public void add(MessageBlm messageBlm) throws MessageAddException {
+    public boolean add(MessageBlm messageBlm) throws MessageAddException {
         // Валидация Blm модели
         validator.validate(messageBlm);
 
+        Map<UUID, BufferCapacity> capacities = Map.of();
+        if (overflowPolicy != null) {
+            capacities = lockCapacities(List.of(messageBlm.getBufferUid()));
+        }
+        // Проверка после блокировки счетчиков: повторы в один буфер
+        // проверяются по очереди и видят уже зафиксированную вставку
+        List<MessageRejection> stored = findStored(List.of(messageBlm));
+        if (!stored.isEmpty()) {
+            if (stored.get(0).isDuplicate()) {
+                return false;
+            }
+            throw new MessageAddException(stored.get(0).getReason());
+        }
+        if (overflowPolicy != null) {
+            List<MessageRejection> rejections = admit(List.of(messageBlm), capacities);
+            if (!rejections.isEmpty()) {
+                throw new BufferCapacityExceededException(
+                        rejections.get(0).getReason());
+            }
+        }
+
+        MessageCompression compression = compressions(
+                List.of(messageBlm.getBufferUid()), capacities)
+                .get(messageBlm.getBufferUid());
+        int inserted = jdbcTemplate.update(INSERT_MESSAGE,
+                toInsertParams(messageBlm, compression));
+        if (inserted == 0) {
+            // Параллельный повтор успел вставить то же сообщение
+            return false;
+        }
+        if (outboxRepository != null) {
+            outboxRepository.addMessageCreated(List.of(messageBlm));
+        }
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public List<MessageRejection> addAll(List<MessageBlm> messageBlms)
+            throws MessageAddException {
+        if (messageBlms.isEmpty()) {
+            return List.of();
+        }
+        messageBlms.forEach(validator::validate);
+
+        List<UUID> bufferUids = messageBlms.stream()
+                .map(MessageBlm::getBufferUid).distinct().toList();
+        Map<UUID, BufferCapacity> capacities = Map.of();
+        if (overflowPolicy != null) {
+            capacities = lockCapacities(bufferUids);
+        }
+        // Повторы не проходят проверку емкости и не вытесняют сообщения
+        List<MessageRejection> rejections = new ArrayList<>(findStored(messageBlms));
+        List<MessageBlm> admitted = without(messageBlms, rejections);
+        if (overflowPolicy != null && !admitted.isEmpty()) {
+            List<MessageRejection> capacityRejections = admit(admitted, capacities);
+            rejections.addAll(capacityRejections);
+            admitted = without(admitted, capacityRejections);
+        }
+        if (admitted.isEmpty()) {
+            return rejections;
+        }
+
+        Map<UUID, MessageCompression> compressions = compressions(bufferUids, capacities);
+        MapSqlParameterSource[] batchParams = admitted.stream()
+                .map(m -> toInsertParams(m, compressions.get(m.getBufferUid())))
+                .toArray(MapSqlParameterSource[]::new);
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_MESSAGE, batchParams);
+        // Строку, пропущенную ON CONFLICT, успел вставить параллельный повтор
+        List<MessageRejection> concurrentDuplicates = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] == 0) {
+                concurrentDuplicates.add(MessageRejection.duplicate(admitted.get(i)));
+            }
+        }
+        rejections.addAll(concurrentDuplicates);
+        admitted = without(admitted, concurrentDuplicates);
+        if (outboxRepository != null && !admitted.isEmpty()) {
+            outboxRepository.addMessageCreated(admitted);
+        }
+        return rejections;
+    }
+
+    /**
+     * Сообщения пакета, uid которых уже сохранен. Повтор в тот же буфер
+     * (в том числе внутри пакета) отмечается как дубликат, совпадение
+     * uid с сообщением другого буфера - как отказ.
+     */
+    private List<MessageRejection> findStored(List<MessageBlm> messageBlms) {
+        List<UUID> uids = new ArrayList<>(messageBlms.size());
+        long since = System.currentTimeMillis();
+        for (MessageBlm messageBlm : messageBlms) {
+            if (messageBlm.getUid() != null) {
+                uids.add(messageBlm.getUid());
+            }
+            if (messageBlm.getCreatedAt() != null) {
+                since = Math.min(since, messageBlm.getCreatedAt().getTime());
+            }
+        }
+        if (uids.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("uids", uids);
+        params.addValue("since", new Timestamp(since - DUPLICATE_LOOKBACK_MILLIS));
+
+        Map<UUID, UUID> storedBuffers = new HashMap<>();
+        jdbcTemplate.query(SELECT_STORED_MESSAGES, params, (rs, rowNum) -> new UUID[] {
+            UUID.fromString(rs.getString("uid")),
+            UUID.fromString(rs.getString("buffer_uid"))})
+                .forEach(row -> storedBuffers.put(row[0], row[1]));
+
+        List<MessageRejection> stored = new ArrayList<>();
+        for (MessageBlm messageBlm : messageBlms) {
+            if (messageBlm.getUid() == null) {
+                continue;
+            }
+            UUID storedBuffer = storedBuffers.putIfAbsent(messageBlm.getUid(),
+                    messageBlm.getBufferUid());
+            if (storedBuffer == null) {
+                continue;
+            }
+            stored.add(storedBuffer.equals(messageBlm.getBufferUid())
+                    ? MessageRejection.duplicate(messageBlm)
+                    : new MessageRejection(messageBlm,
+                            "Message uid is already used in another buffer"));
+        }
+        return stored;
+    }
+
+    private static List<MessageBlm> without(List<MessageBlm> messageBlms,
+            List<MessageRejection> rejections) {
+        if (rejections.isEmpty()) {
+            return messageBlms;
+        }
+        Set<MessageBlm> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        rejections.forEach(r -> rejected.add(r.getMessage()));
+        return messageBlms.stream().filter(m -> !rejected.contains(m)).toList();
+    }
+
+    /**
+     * Проверка емкости буферов пакета по счетчикам, заблокированным
+     * lockCapacities. Буфер без строки счетчика (его нет в
+     * processing.buffer) не проверяется: вставку отклонит внешний ключ.
+     * При политике EVICT_OLDEST освобождает место, удаляя самые старые
+     * сообщения. Сообщения с телом не того формата, что задан буферу
+     * (payload_format), отклоняются. Возвращает сообщения, которые
+     * добавлять нельзя.
+     */
+    private List<MessageRejection> admit(List<MessageBlm> messageBlms,
+            Map<UUID, BufferCapacity> capacities) {
+        List<MessageRejection> rejections = new ArrayList<>();
+        Map<UUID, List<MessageBlm>> admittedByBuffer = new LinkedHashMap<>();
+        for (MessageBlm messageBlm : messageBlms) {
+            BufferCapacity capacity = capacities.get(messageBlm.getBufferUid());
+            if (capacity != null && capacity.binary != (messageBlm.getPayload() != null)) {
+                rejections.add(new MessageRejection(messageBlm, capacity.binary
+                        ? "Buffer accepts only binary payloads"
+                        : "Buffer accepts only JSON content"));
+                continue;
+            }
+            if (capacity != null && contentSize(messageBlm) > capacity.maxMessageSize) {
+                rejections.add(new MessageRejection(messageBlm,
+                        "Message exceeds max message size of buffer ("
+                                + capacity.maxMessageSize + " bytes)"));
+                continue;
+            }
+            admittedByBuffer.computeIfAbsent(messageBlm.getBufferUid(),
+                    uid -> new ArrayList<>()).add(messageBlm);
+        }
+
+        admittedByBuffer.forEach((bufferUid, admitted) -> {
+            BufferCapacity capacity = capacities.get(bufferUid);
+            if (capacity == null) {
+                return;
+            }
+            long overflow = capacity.messageCount + admitted.size()
+                    - capacity.maxMessagesNumber;
+            if (overflow <= 0) {
+                return;
+            }
+            if (overflowPolicy == BufferOverflowPolicy.REJECT) {
+                // Отклоняются последние сообщения пакета
+                int rejected = (int) Math.min(overflow, admitted.size());
+                admitted.subList(admitted.size() - rejected, admitted.size())
+                        .forEach(m -> rejections.add(new MessageRejection(m,
+                                "Buffer is full (" + capacity.maxMessagesNumber
+                                        + " messages)")));
+                return;
+            }
+            // Пакет больше буфера: первые сообщения пакета вытеснились бы сразу
+            int dropped = (int) Math.max(0, admitted.size() - capacity.maxMessagesNumber);
+            admitted.subList(0, dropped).forEach(m -> rejections.add(
+                    new MessageRejection(m, "Evicted by newer messages of the batch")));
+            evictOldest(bufferUid, Math.min(capacity.messageCount, overflow - dropped));
+        });
+        return rejections;
+    }
+
+    private Map<UUID, BufferCapacity> lockCapacities(List<UUID> bufferUids) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uids", bufferUids);
+        jdbcTemplate.update(INIT_MISSING_BUFFER_COUNTS, params);
+
+        Map<UUID, BufferCapacity> capacities = new HashMap<>();
+        jdbcTemplate.query(LOCK_BUFFER_CAPACITIES, params, rs -> {
+            capacities.put(UUID.fromString(rs.getString("buffer_uid")),
+                    new BufferCapacity(rs.getLong("message_count"),
+                            rs.getInt("max_messages_number"),
+                            rs.getInt("max_message_size"),
+                            BINARY_PAYLOAD_FORMAT.equals(rs.getString("payload_format")),
+                            compressionOf(rs.getString("compression"))));
+        });
+        return capacities;
+    }
+
+    /** Сжатие тел по буферам; буферы без сжатия в результат не входят. */
+    private Map<UUID, MessageCompression> compressions(List<UUID> bufferUids,
+            Map<UUID, BufferCapacity> capacities) {
+        Map<UUID, MessageCompression> compressions = new HashMap<>();
+        if (overflowPolicy != null) {
+            capacities.forEach((bufferUid, capacity) -> {
+                if (capacity.compression != null) {
+                    compressions.put(bufferUid, capacity.compression);
+                }
+            });
+            return compressions;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uids", bufferUids);
+        jdbcTemplate.query(SELECT_BUFFER_COMPRESSIONS, params, rs -> {
+            compressions.put(UUID.fromString(rs.getString("uid")),
+                    compressionOf(rs.getString("compression")));
+        });
+        return compressions;
+    }
+
+    private void evictOldest(UUID bufferUid, long count) {
+        if (count <= 0) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uid", bufferUid);
+        params.addValue("limit", count);
+
+        jdbcTemplate.update(EVICT_OLDEST_MESSAGES, params);
+    }
+
+    private static MessageCompression compressionOf(String compression) {
+        return compression == null || NO_COMPRESSION.equals(compression) ? null
+                : MessageCompression.valueOf(compression);
+    }
+
+    private static int contentSize(MessageBlm messageBlm) {
+        if (messageBlm.getPayload() != null) {
+            return messageBlm.getPayload().length;
+        }
+        return messageBlm.getContent() != null
+                ? messageBlm.getContent().getBytes(StandardCharsets.UTF_8).length
+                : 0;
+    }
+
+    @AllArgsConstructor
+    private static final class BufferCapacity {
+
+        private final long messageCount;
+
+        private final int maxMessagesNumber;
+
+        private final int maxMessageSize;
+
+        // Буфер хранит двоичные тела (payload_format = 'BINARY')
+        private final boolean binary;
+
+        // null - тела не сжимаются
+        private final MessageCompression compression;
+    }
+
+    private MapSqlParameterSource toInsertParams(MessageBlm messageBlm,
+            MessageCompression compression) {
         // Конвертация Blm в Dalm
         MessageDalm messageDalm = converter.toDalm(messageBlm);
 
@@ -83,18 +614,39 @@ public class MessageRepositorySqlImpl implements MessageRepository {
 
         // Важно: content должен быть валидным JSON
         String content = messageDalm.getContent();
-        if (content == null) {
+        byte[] payload = messageDalm.getPayload();
+        if (content == null && payload == null) {
             content = "{}"; // пустой JSON объект по умолчанию
         }
+
+        // Сжатое тело пишется в payload, кодек и исходный размер - рядом
+        MessagePayloadCodec codec = null;
+        Integer payloadSize = null;
+        if (compression != null) {
+            byte[] body = payload != null ? payload
+                    : content.getBytes(StandardCharsets.UTF_8);
+            byte[] compressed = body.length >= compressionMinSize
+                    ? MessagePayloadCompressor.compress(compression, body)
+                    : null;
+            if (compressed != null) {
+                codec = MessagePayloadCodec.of(compression, payload == null);
+                payloadSize = body.length;
+                content = null;
+                payload = compressed;
+            }
+        }
         params.addValue("content", content);
+        params.addValue("payload", payload, Types.BINARY);
+        params.addValue("payload_codec", codec != null ? codec.name() : null,
+                Types.VARCHAR);
+        params.addValue("payload_size", payloadSize, Types.INTEGER);
 
         params.addValue("content_type", messageDalm.getContentType());
         params.addValue("created_at",
                 messageDalm.getCreatedAt() != null
                         ? new Timestamp(messageDalm.getCreatedAt().getTime())
                         : new Timestamp(System.currentTimeMillis()));
-
-        jdbcTemplate.update(INSERT_MESSAGE, params);
+        return params;
     }
 
     @Override
@@ -134,6 +686,138 @@ public class MessageRepositorySqlImpl implements MessageRepository {
         }
     }
 
+    @Override
+    @Transactional
+    public List<MessageBlm> findByBufferUid(UUID bufferUid,
+            Date afterCreatedAt, UUID afterUid, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uid", bufferUid);
+        params.addValue("limit", limit);
+
+        // Keyset-пагинация: без курсора читаем с начала буфера
+        if (afterCreatedAt == null || afterUid == null) {
+            return jdbcTemplate.query(SELECT_FIRST_MESSAGES_PAGE_BY_BUFFER_UID,
+                    params, messageRowMapper).stream()
+                    .map(converter::toBlm).toList();
+        }
+
+        params.addValue("after_created_at",
+                new Timestamp(afterCreatedAt.getTime()));
+        params.addValue("after_uid", afterUid);
+        return jdbcTemplate.query(SELECT_NEXT_MESSAGES_PAGE_BY_BUFFER_UID,
+                params, messageRowMapper).stream().map(converter::toBlm)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public MessageBlm findLastByBufferUid(UUID bufferUid) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uid", bufferUid);
+        return jdbcTemplate.query(SELECT_LAST_MESSAGE_BY_BUFFER_UID, params,
+                messageRowMapper).stream().map(converter::toBlm).findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional
+    public List<MessageBlm> findByBufferUids(Collection<UUID> bufferUids,
+            int offset, int limit) {
+        if (bufferUids.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uids", bufferUids);
+        params.addValue("window", (int) Math.min((long) offset + limit,
+                Integer.MAX_VALUE));
+        params.addValue("offset", offset);
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(SELECT_MESSAGES_PAGE_BY_BUFFER_UIDS, params,
+                messageRowMapper).stream().map(converter::toBlm).toList();
+    }
+
+    @Override
+    @Transactional
+    public List<MessageBlm> findByBufferUids(Collection<UUID> bufferUids,
+            Date afterCreatedAt, UUID afterUid, int limit) {
+        if (afterCreatedAt == null || afterUid == null) {
+            return findByBufferUids(bufferUids, 0, limit);
+        }
+        if (bufferUids.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uids", bufferUids);
+        params.addValue("after_created_at",
+                new Timestamp(afterCreatedAt.getTime()));
+        params.addValue("after_uid", afterUid);
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(SELECT_NEXT_MESSAGES_PAGE_BY_BUFFER_UIDS,
+                params, messageRowMapper).stream().map(converter::toBlm)
+                .toList();
+    }
+
+    @Override
+    public void streamByBufferUid(UUID bufferUid, Consumer<MessageBlm> consumer)
+            throws MessageExportLimitException {
+        if (!exportPermits.tryAcquire()) {
+            throw new MessageExportLimitException("Too many concurrent exports, limit is "
+                    + maxConcurrentExports);
+        }
+        try {
+            export(bufferUid, consumer);
+        } catch (SQLException e) {
+            throw new DataRetrievalFailureException(
+                    "Failed to export messages of buffer " + bufferUid, e);
+        } finally {
+            exportPermits.release();
+        }
+    }
+
+    private void export(UUID bufferUid, Consumer<MessageBlm> consumer) throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(exportTimeoutMillis);
+        String timeout = Long.toString(exportTimeoutMillis);
+        DataSource dataSource = exportDataSource != null
+                ? exportDataSource : jdbcTemplate.getJdbcTemplate().getDataSource();
+        try (Connection connection = dataSource.getConnection()) {
+            // Драйвер PostgreSQL читает результат серверным курсором порциями
+            // по fetchSize строк только при выключенном autocommit
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try {
+                try (PreparedStatement settings =
+                        connection.prepareStatement(SET_EXPORT_TIMEOUTS)) {
+                    settings.setString(1, timeout);
+                    settings.setString(2, timeout);
+                    settings.execute();
+                }
+                try (PreparedStatement statement = connection.prepareStatement(
+                        SELECT_MESSAGES_FOR_EXPORT, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(EXPORT_FETCH_SIZE);
+                    statement.setObject(1, bufferUid);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            // Медленный клиент держит курсор между порциями:
+                            // общий срок проверяется и на стороне приложения
+                            if (System.nanoTime() - deadline > 0) {
+                                throw new QueryTimeoutException("Export of buffer "
+                                        + bufferUid + " exceeded " + exportTimeoutMillis
+                                        + " ms");
+                            }
+                            consumer.accept(converter.toBlm(
+                                    messageRowMapper.mapRow(rs, rs.getRow())));
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
     @Override
     @Transactional
     public List<MessageBlm> findByBufferUidAndTimeRange(UUID bufferUid,
@@ -161,6 +845,74 @@ public class MessageRepositorySqlImpl implements MessageRepository {
         }
     }
 
+    @Override
+    @Transactional
+    public List<MessageBlm> findByBufferUidAndTimeRange(UUID bufferUid,
+            Date startTime, Date endTime, Date afterCreatedAt, UUID afterUid,
+            int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uid", bufferUid);
+        params.addValue("start_time", new Timestamp(startTime.getTime()));
+        params.addValue("end_time", new Timestamp(endTime.getTime()));
+        params.addValue("limit", limit);
+
+        if (afterCreatedAt == null || afterUid == null) {
+            return jdbcTemplate.query(SELECT_FIRST_MESSAGES_PAGE_BY_TIME_RANGE,
+                    params, messageRowMapper).stream()
+                    .map(converter::toBlm).toList();
+        }
+
+        params.addValue("after_created_at",
+                new Timestamp(afterCreatedAt.getTime()));
+        params.addValue("after_uid", afterUid);
+        return jdbcTemplate.query(SELECT_NEXT_MESSAGES_PAGE_BY_TIME_RANGE,
+                params, messageRowMapper).stream().map(converter::toBlm)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public List<MessageBlm> dequeueIncoming(UUID bufferUid, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uid", bufferUid);
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(DEQUEUE_INCOMING_MESSAGES, params,
+                messageRowMapper).stream().map(converter::toBlm).toList();
+    }
+
+    @Override
+    @Transactional
+    public int deleteAll(List<MessageBlm> messageBlms) {
+        if (messageBlms.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> keys = new ArrayList<>(messageBlms.size());
+        Date minCreatedAt = null;
+        Date maxCreatedAt = null;
+        for (MessageBlm messageBlm : messageBlms) {
+            Date createdAt = messageBlm.getCreatedAt();
+            if (createdAt == null) {
+                throw new IllegalArgumentException(
+                        "Message " + messageBlm.getUid() + " has no created_at");
+            }
+            keys.add(new Object[] {messageBlm.getUid(),
+                    new Timestamp(createdAt.getTime())});
+            if (minCreatedAt == null || createdAt.before(minCreatedAt)) {
+                minCreatedAt = createdAt;
+            }
+            if (maxCreatedAt == null || createdAt.after(maxCreatedAt)) {
+                maxCreatedAt = createdAt;
+            }
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("keys", keys);
+        params.addValue("min_created_at", new Timestamp(minCreatedAt.getTime()));
+        params.addValue("max_created_at", new Timestamp(maxCreatedAt.getTime()));
+
+        return jdbcTemplate.update(DELETE_MESSAGES_BY_KEYS, params);
+    }
+
     @Override
     @Transactional
     public void deleteByUid(UUID uuid) throws MessageNotFoundException {
@@ -0,0 +1,33 @@
+package com.connection.message.repository;
+
+import com.connection.message.model.MessageRetentionPolicyBlm;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/** . */
+public interface MessageRetentionRepository {
+
+    /**
+     * Буферы, для которых задано хранение по возрасту или количеству.
+     *
+     * @return политики в порядке uid буфера
+     */
+    public List<MessageRetentionPolicyBlm> findRetentionPolicies();
+
+    /**
+     * Удалить до limit самых старых сообщений буфера, созданных раньше
+     * olderThan. Строки, захваченные другими транзакциями, пропускаются.
+     *
+     * @return количество удаленных сообщений
+     */
+    public int deleteExpiredChunk(UUID bufferUid, Date olderThan, int limit);
+
+    /**
+     * Удалить до limit самых старых сообщений буфера сверх keep последних.
+     * Превышение считается по счетчику processing.buffer_message_count.
+     *
+     * @return количество удаленных сообщений
+     */
+    public int deleteOverflowChunk(UUID bufferUid, int keep, int limit);
+}
@@ -0,0 +1,84 @@
+package com.connection.message.repository;
+
+import com.connection.message.model.MessageRetentionPolicyBlm;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Удаление сообщений по политикам хранения. Каждый вызов удаляет
+ * ограниченную порцию в порядке (created_at, uid) по индексу
+ * idx_message_buffer_created_at_uid и выполняется в собственной короткой
+ * транзакции, поэтому блокировки и объем WAL не растут с размером буфера.
+ */
+public class MessageRetentionRepositorySqlImpl implements MessageRetentionRepository {
+
+    private static final String SELECT_RETENTION_POLICIES =
+            "SELECT uid, retention_seconds, retention_messages FROM processing.buffer "
+                    + "WHERE retention_seconds IS NOT NULL OR retention_messages IS NOT NULL "
+                    + "ORDER BY uid";
+
+    private static final String DELETE_EXPIRED_CHUNK =
+            "DELETE FROM processing.message WHERE (uid, created_at) IN ("
+                    + "SELECT uid, created_at FROM processing.message "
+                    + "WHERE buffer_uid = :buffer_uid AND created_at < :older_than "
+                    + "ORDER BY created_at, uid LIMIT :limit FOR UPDATE SKIP LOCKED)";
+
+    // Без строки счетчика превышение считается нулевым: LIMIT NULL снял бы ограничение
+    private static final String DELETE_OVERFLOW_CHUNK =
+            "DELETE FROM processing.message WHERE (uid, created_at) IN ("
+                    + "SELECT uid, created_at FROM processing.message "
+                    + "WHERE buffer_uid = :buffer_uid "
+                    + "ORDER BY created_at, uid LIMIT coalesce(("
+                    + "SELECT least(:limit, greatest(0, c.message_count - :keep)) "
+                    + "FROM processing.buffer_message_count c "
+                    + "WHERE c.buffer_uid = :buffer_uid), 0) "
+                    + "FOR UPDATE SKIP LOCKED)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final RowMapper<MessageRetentionPolicyBlm> policyRowMapper =
+            (rs, rowNum) -> new MessageRetentionPolicyBlm(
+                    UUID.fromString(rs.getString("uid")),
+                    rs.getObject("retention_seconds", Integer.class),
+                    rs.getObject("retention_messages", Integer.class));
+
+    /** . */
+    public MessageRetentionRepositorySqlImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MessageRetentionPolicyBlm> findRetentionPolicies() {
+        return jdbcTemplate.query(SELECT_RETENTION_POLICIES,
+                new MapSqlParameterSource(), policyRowMapper);
+    }
+
+    @Override
+    @Transactional
+    public int deleteExpiredChunk(UUID bufferUid, Date olderThan, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uid", bufferUid);
+        params.addValue("older_than", new Timestamp(olderThan.getTime()));
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.update(DELETE_EXPIRED_CHUNK, params);
+    }
+
+    @Override
+    @Transactional
+    public int deleteOverflowChunk(UUID bufferUid, int keep, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("buffer_uid", bufferUid);
+        params.addValue("keep", keep);
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.update(DELETE_OVERFLOW_CHUNK, params);
+    }
+}
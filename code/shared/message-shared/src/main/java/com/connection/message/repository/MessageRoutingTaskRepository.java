@@ -0,0 +1,34 @@
+package com.connection.message.repository;
+
+import com.connection.message.model.MessageRoutingTaskBlm;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/** . */
+public interface MessageRoutingTaskRepository {
+
+    /**
+     * Отложить маршрутизацию сообщения. Повторно отложенная задача
+     * накапливает число попыток и снова ждет полный интервал.
+     *
+     * @param messageUid исходное OUTGOING сообщение
+     * @param bufferUid буфер-источник
+     * @param attempts число неудачных попыток
+     * @param lastError причина последней неудачи
+     */
+    public void park(UUID messageUid, UUID bufferUid, int attempts, String lastError);
+
+    /**
+     * Заблокировать до limit задач, отложенных раньше parkedBefore,
+     * пропуская захваченные другими транзакциями.
+     *
+     * @param parkedBefore .
+     * @param limit .
+     * @return задачи в порядке откладывания
+     */
+    public List<MessageRoutingTaskBlm> lockBatch(Date parkedBefore, int limit);
+
+    /** . */
+    public void delete(UUID messageUid);
+}
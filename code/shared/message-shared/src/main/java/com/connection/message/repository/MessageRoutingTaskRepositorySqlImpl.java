@@ -0,0 +1,77 @@
+package com.connection.message.repository;
+
+import com.connection.message.model.MessageRoutingTaskBlm;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/** . */
+public class MessageRoutingTaskRepositorySqlImpl implements MessageRoutingTaskRepository {
+
+    private static final String UPSERT_TASK =
+            "INSERT INTO processing.message_routing_task "
+                    + "(message_uid, buffer_uid, attempts, last_error) "
+                    + "VALUES (:message_uid, :buffer_uid, :attempts, :last_error) "
+                    + "ON CONFLICT (message_uid) DO UPDATE SET "
+                    + "attempts = processing.message_routing_task.attempts + EXCLUDED.attempts, "
+                    + "last_error = EXCLUDED.last_error, parked_at = now()";
+
+    private static final String LOCK_BATCH =
+            "SELECT message_uid, buffer_uid, attempts, parked_at "
+                    + "FROM processing.message_routing_task "
+                    + "WHERE parked_at < :parked_before ORDER BY parked_at LIMIT :limit "
+                    + "FOR UPDATE SKIP LOCKED";
+
+    private static final String DELETE_TASK =
+            "DELETE FROM processing.message_routing_task WHERE message_uid = :message_uid";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final RowMapper<MessageRoutingTaskBlm> taskRowMapper =
+            (rs, rowNum) -> new MessageRoutingTaskBlm(
+                    UUID.fromString(rs.getString("message_uid")),
+                    UUID.fromString(rs.getString("buffer_uid")),
+                    rs.getInt("attempts"),
+                    new Date(rs.getTimestamp("parked_at").getTime()));
+
+    /** . */
+    public MessageRoutingTaskRepositorySqlImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void park(UUID messageUid, UUID bufferUid, int attempts, String lastError) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("message_uid", messageUid);
+        params.addValue("buffer_uid", bufferUid);
+        params.addValue("attempts", attempts);
+        params.addValue("last_error", lastError);
+
+        jdbcTemplate.update(UPSERT_TASK, params);
+    }
+
+    @Override
+    @Transactional
+    public List<MessageRoutingTaskBlm> lockBatch(Date parkedBefore, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("parked_before", new Timestamp(parkedBefore.getTime()));
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(LOCK_BATCH, params, taskRowMapper);
+    }
+
+    @Override
+    @Transactional
+    public void delete(UUID messageUid) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("message_uid", messageUid);
+
+        jdbcTemplate.update(DELETE_TASK, params);
+    }
+}
@@ -10,6 +10,9 @@ import java.util.UUID;
 /** . */
 public class MessageValidator {
 
+    // Двоичный кадр не раздувается base64, поэтому предел задан в байтах
+    private static final int MAX_PAYLOAD_BYTES = 10000;
+
     /** . */
     public void validate(MessageDto message) {
         if (message == null) {
@@ -19,7 +22,7 @@ public class MessageValidator {
         try {
             validateUid(message.getUid());
             validateBufferUid(message.getBufferUid());
-            validateContent(message.getContent());
+            validateBody(message.getContent(), message.getPayload());
             validateContentType(message.getContentType());
             validateCreatedAt(message.getCreatedAt());
         } catch (IllegalArgumentException e) {
@@ -41,7 +44,7 @@ public class MessageValidator {
         try {
             validateUid(message.getUid());
             validateBufferUid(message.getBufferUid());
-            validateContent(message.getContent());
+            validateBody(message.getContent(), message.getPayload());
             validateContentType(message.getContentType());
             validateCreatedAt(message.getCreatedAt());
         } catch (IllegalArgumentException e) {
@@ -63,7 +66,7 @@ public class MessageValidator {
         try {
             validateUid(message.getUid());
             validateBufferUid(message.getBufferUid());
-            validateContent(message.getContent());
+            validateBody(message.getContent(), message.getPayload());
             validateContentType(message.getContentType());
             validateCreatedAt(message.getCreatedAt());
         } catch (IllegalArgumentException e) {
@@ -90,6 +93,30 @@ public class MessageValidator {
         }
     }
 
+    /** Тело сообщения: JSON в content или байты в payload, но не оба сразу. */
+    public void validateBody(String content, byte[] payload) {
+        if (payload == null) {
+            validateContent(content);
+            return;
+        }
+        if (content != null) {
+            throw new IllegalArgumentException(
+                    "Message cannot have both content and binary payload");
+        }
+        validatePayload(payload);
+    }
+
+    /** . */
+    public void validatePayload(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        if (payload.length > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException(
+                    "Payload too long (max " + MAX_PAYLOAD_BYTES + " bytes)");
+        }
+    }
+
     /** . */
     public void validateContent(String content) {
         if (content == null || content.trim().isEmpty()) {
@@ -0,0 +1,9 @@
+-- Outbox событий сообщений: строка пишется в той же транзакции, что и
+-- сообщение, и удаляется после публикации в Kafka
+create table if not exists processing.message_outbox(
+    id bigserial primary key,
+    event_type varchar(64) not null,
+    aggregate_uid uuid not null,
+    payload jsonb not null,
+    created_at TIMESTAMP WITH TIME zone not null default now()
+);
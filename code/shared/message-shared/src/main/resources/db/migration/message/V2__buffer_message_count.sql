@@ -0,0 +1,59 @@
+-- Счетчики сообщений буферов: проверка емкости без count(*) по processing.message.
+-- Ведутся триггерами уровня инструкции, пакетная вставка меняет строку счетчика один раз
+create table if not exists processing.buffer_message_count(
+    buffer_uid uuid primary key references processing.buffer(uid) on delete cascade,
+    message_count bigint not null default 0
+);
+
+-- Начальные значения по уже сохраненным сообщениям; до конца миграции
+-- запись в processing.message ждет, чтобы подсчет не разошелся с триггерами
+lock table processing.message in share mode;
+
+insert into processing.buffer_message_count (buffer_uid, message_count)
+select b.uid, count(m.uid)
+from processing.buffer b
+left join processing.message m on m.buffer_uid = b.uid
+group by b.uid
+on conflict do nothing;
+
+create or replace function processing.buffer_message_count_init() returns trigger as $$
+begin
+    insert into processing.buffer_message_count (buffer_uid) values (new.uid)
+    on conflict do nothing;
+    return null;
+end;
+$$ language plpgsql;
+
+create or replace trigger trg_buffer_message_count_init
+    after insert on processing.buffer
+    for each row execute function processing.buffer_message_count_init();
+
+create or replace function processing.buffer_message_count_increment() returns trigger as $$
+begin
+    update processing.buffer_message_count c
+    set message_count = c.message_count + n.cnt
+    from (select buffer_uid, count(*) as cnt from new_messages group by buffer_uid) n
+    where c.buffer_uid = n.buffer_uid;
+    return null;
+end;
+$$ language plpgsql;
+
+create or replace trigger trg_message_count_insert
+    after insert on processing.message
+    referencing new table as new_messages
+    for each statement execute function processing.buffer_message_count_increment();
+
+create or replace function processing.buffer_message_count_decrement() returns trigger as $$
+begin
+    update processing.buffer_message_count c
+    set message_count = greatest(c.message_count - o.cnt, 0)
+    from (select buffer_uid, count(*) as cnt from old_messages group by buffer_uid) o
+    where c.buffer_uid = o.buffer_uid;
+    return null;
+end;
+$$ language plpgsql;
+
+create or replace trigger trg_message_count_delete
+    after delete on processing.message
+    referencing old table as old_messages
+    for each statement execute function processing.buffer_message_count_decrement();
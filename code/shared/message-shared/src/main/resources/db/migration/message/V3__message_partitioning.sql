@@ -0,0 +1,75 @@
+-- Секционирование processing.message по created_at: сутки UTC на секцию
+-- (processing.message_pYYYYMMDD). Ключ секционирования входит в первичный
+-- ключ; устаревшие секции отсоединяются и удаляются целиком
+-- (MessagePartitionManager) вместо построчного DELETE.
+--
+-- Несекционированная таблица заменяется секционированной: строки
+-- копируются в секции своих суток, затем таблицы меняются местами.
+-- До конца миграции запись в processing.message заблокирована.
+
+create or replace function processing.create_message_partition(day date) returns boolean as $$
+declare
+    partition_name text := 'message_p' || to_char(day, 'YYYYMMDD');
+begin
+    if to_regclass('processing.' || partition_name) is not null then
+        return false;
+    end if;
+    execute format('create table processing.%I partition of processing.message '
+            || 'for values from (%L) to (%L)', partition_name,
+            (day::timestamp at time zone 'UTC'),
+            ((day + 1)::timestamp at time zone 'UTC'));
+    return true;
+end;
+$$ language plpgsql;
+
+do $$
+declare
+    today date := (now() at time zone 'UTC')::date;
+begin
+    if (select relkind from pg_class
+            where oid = 'processing.message'::regclass) = 'p' then
+        return;
+    end if;
+
+    lock table processing.message in access exclusive mode;
+
+    -- Имя индекса первичного ключа освобождается для новой таблицы
+    alter table processing.message rename to message_unpartitioned;
+    alter table processing.message_unpartitioned
+        rename constraint message_pkey to message_unpartitioned_pkey;
+
+    create table processing.message(
+        like processing.message_unpartitioned including defaults including constraints,
+        primary key (uid, created_at),
+        foreign key (buffer_uid) references processing.buffer(uid) on delete cascade
+    ) partition by range (created_at);
+
+    -- Строки вне созданных секций; менеджер создает секции заранее, чтобы она пустовала
+    create table processing.message_default
+        partition of processing.message default;
+
+    perform processing.create_message_partition(d.day)
+    from (select distinct (created_at at time zone 'UTC')::date as day
+            from processing.message_unpartitioned
+          union
+          select g::date from generate_series(today - 1, today + 7,
+                  interval '1 day') g) d;
+
+    -- Счетчики buffer_message_count уже учитывают эти строки: триггеры
+    -- создаются после копирования
+    insert into processing.message
+    select * from processing.message_unpartitioned;
+
+    drop table processing.message_unpartitioned;
+
+    create trigger trg_message_count_insert
+        after insert on processing.message
+        referencing new table as new_messages
+        for each statement execute function processing.buffer_message_count_increment();
+
+    create trigger trg_message_count_delete
+        after delete on processing.message
+        referencing old table as old_messages
+        for each statement execute function processing.buffer_message_count_decrement();
+end
+$$;
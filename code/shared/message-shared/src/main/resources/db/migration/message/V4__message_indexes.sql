@@ -0,0 +1,12 @@
+-- Индексы processing.message создаются на секционированной таблице
+-- и наследуются всеми секциями
+
+-- Сообщения буфера в порядке (created_at, uid): вытеснение при переполнении,
+-- keyset-страницы, выборки за интервал времени и очистка по хранению
+create index if not exists idx_message_buffer_created_at_uid
+    on processing.message (buffer_uid, created_at, uid);
+
+-- Очередь входящих сообщений устройства: выборка самых старых INCOMING
+create index if not exists idx_message_incoming_buffer_created_at
+    on processing.message (buffer_uid, created_at)
+    where content_type = 'INCOMING';
@@ -0,0 +1,16 @@
+-- Двоичное тело сообщения: у строки заполнено ровно одно из content и payload
+alter table processing.message alter column content drop not null;
+
+alter table processing.message add column if not exists payload bytea;
+
+-- Проверка ограничения читает все секции один раз
+do $$
+begin
+    if not exists (select 1 from pg_constraint
+            where conname = 'message_body_check'
+            and conrelid = 'processing.message'::regclass) then
+        alter table processing.message add constraint message_body_check
+            check ((content is null) <> (payload is null));
+    end if;
+end
+$$;
@@ -0,0 +1,5 @@
+-- Кодек сжатого тела и его исходный размер; строки без кодека читаются как раньше
+alter table processing.message
+    add column if not exists payload_codec varchar(16)
+        CHECK (payload_codec in ('DEFLATE', 'LZ4', 'DEFLATE_JSON', 'LZ4_JSON')),
+    add column if not exists payload_size integer;
@@ -0,0 +1,13 @@
+-- Задачи маршрутизации OUTGOING сообщений, которые не удалось разослать
+-- после всех повторов; их дорабатывает фоновый повтор маршрутизации
+create table if not exists processing.message_routing_task(
+    message_uid uuid primary key,
+    buffer_uid uuid not null,
+    attempts integer not null,
+    last_error text,
+    parked_at TIMESTAMP WITH TIME zone not null default now()
+);
+
+-- Выборка самых старых задач, ожидающих повтора
+create index if not exists idx_message_routing_task_parked_at
+    on processing.message_routing_task (parked_at);
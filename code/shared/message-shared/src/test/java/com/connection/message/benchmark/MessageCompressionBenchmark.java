@@ -0,0 +1,121 @@
+package com.connection.message.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.connection.message.compression.MessagePayloadCompressor;
+import com.connection.message.model.MessageCompression;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Цена сжатия тел сообщений по CPU против сэкономленных байт на типичных
+ * телах: снимок состояния устройства, короткая телеметрия, пакет двоичных
+ * кадров датчика и несжимаемые данные. Порог app.message.compression.min-size
+ * стоит выбирать по строкам, где экономия уже не окупает время.
+ *
+ * <p>Запуск: {@code gradle benchmark}; база данных не нужна.
+ */
+@Slf4j
+@DisplayName("Message compression benchmark")
+class MessageCompressionBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    @Test
+    @DisplayName("CPU cost vs bytes saved by codec and payload")
+    void cpuCostVersusBytesSaved() {
+        log.info(String.format("%-20s %-8s %8s %8s %8s %14s %14s", "payload",
+                "codec", "bytes", "stored", "ratio", "compress, us", "restore, us"));
+
+        for (Map.Entry<String, byte[]> payload : payloads().entrySet()) {
+            byte[] body = payload.getValue();
+            for (MessageCompression compression : MessageCompression.values()) {
+                runCompress(compression, body, WARMUP_ITERATIONS);
+                long compressNanos = runCompress(compression, body, MEASURED_ITERATIONS);
+
+                byte[] compressed = MessagePayloadCompressor.compress(compression, body);
+                long restoreNanos = 0;
+                if (compressed != null) {
+                    runRestore(compression, compressed, body.length, WARMUP_ITERATIONS);
+                    restoreNanos = runRestore(compression, compressed, body.length,
+                            MEASURED_ITERATIONS);
+                    assertThat(MessagePayloadCompressor.decompress(compression,
+                            compressed, body.length)).isEqualTo(body);
+                }
+
+                // Несжимаемое тело хранится как есть: stored = bytes
+                int stored = compressed != null ? compressed.length : body.length;
+                log.info(String.format("%-20s %-8s %8d %8d %8.2f %14.2f %14.2f",
+                        payload.getKey(), compression, body.length, stored,
+                        (double) stored / body.length,
+                        compressNanos / 1000.0 / MEASURED_ITERATIONS,
+                        restoreNanos / 1000.0 / MEASURED_ITERATIONS));
+            }
+        }
+    }
+
+    private long runCompress(MessageCompression compression, byte[] body,
+            int iterations) {
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            MessagePayloadCompressor.compress(compression, body);
+        }
+        return System.nanoTime() - started;
+    }
+
+    private long runRestore(MessageCompression compression, byte[] compressed,
+            int size, int iterations) {
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            MessagePayloadCompressor.decompress(compression, compressed, size);
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static Map<String, byte[]> payloads() {
+        Random random = new Random(42);
+        Map<String, byte[]> payloads = new LinkedHashMap<>();
+
+        // Полный снимок состояния: повторяющиеся ключи и близкие значения
+        StringBuilder snapshot = new StringBuilder("{\"device\": \"gw-17\", \"ports\": [");
+        for (int i = 0; i < 64; i++) {
+            snapshot.append(String.format(
+                    "{\"port\": %d, \"state\": \"%s\", \"voltage\": %.2f, \"errors\": %d},",
+                    i, random.nextInt(10) == 0 ? "fault" : "ok",
+                    3.2 + random.nextDouble() / 10, random.nextInt(3)));
+        }
+        snapshot.setLength(snapshot.length() - 1);
+        snapshot.append("]}");
+        payloads.put("state snapshot", bytes(snapshot.toString()));
+
+        payloads.put("telemetry", bytes("{\"temperature\": 21.5, \"humidity\": 40, "
+                + "\"pressure\": 1013.2, \"battery\": 87}"));
+
+        // Пакет кадров датчика: метка времени, номер канала, 16-битное значение
+        ByteBuffer frames = ByteBuffer.allocate(128 * 8).order(ByteOrder.LITTLE_ENDIAN);
+        int value = 2048;
+        for (int i = 0; i < 128; i++) {
+            value += random.nextInt(9) - 4;
+            frames.putInt(1_700_000_000 + i).putShort((short) (i % 4))
+                    .putShort((short) value);
+        }
+        payloads.put("sensor frames", frames.array());
+
+        byte[] noise = new byte[4096];
+        random.nextBytes(noise);
+        payloads.put("encrypted blob", noise);
+        return payloads;
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
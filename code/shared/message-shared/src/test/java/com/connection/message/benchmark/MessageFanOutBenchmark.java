@@ -0,0 +1,143 @@
+package com.connection.message.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.connection.message.model.MessageBlm;
+import com.connection.message.repository.MessageRepository;
+import com.connection.message.repository.MessageRepositorySqlImpl;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Латентность записи OUTGOING-сообщения вместе с INCOMING-копиями в
+ * зависимости от ширины маршрутизации: по одному INSERT на копию (как было)
+ * против одного пакетного INSERT (addAll).
+ *
+ * <p>Запуск: {@code gradle benchmark} при поднятом docker-compose.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Message fan-out benchmark")
+class MessageFanOutBenchmark {
+
+    private static final int[] FAN_OUT_WIDTHS = {1, 5, 20, 50};
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private MessageRepository repository;
+
+    private final UUID clientUid = UUID.randomUUID();
+    private final UUID deviceUid = UUID.randomUUID();
+    private final UUID sourceBufferUid = UUID.randomUUID();
+    private final List<UUID> targetBufferUids = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        dataSource.setDriverClassName("org.postgresql.Driver");
+        // Те же настройки драйвера, что и в MessageJdbcConfig
+        dataSource.setUrl("jdbc:postgresql://localhost:5434/test_db");
+        dataSource.setUsername("test_user");
+        dataSource.setPassword("test_password");
+
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        repository = new MessageRepositorySqlImpl(jdbcTemplate);
+
+        jdbcTemplate.update("""
+            INSERT INTO core.client (uid, email, birth_date, username, password)
+            VALUES (:uid, :email, CURRENT_DATE, :username, 'BenchmarkPassword1')
+            """, Map.of("uid", clientUid,
+                "email", "bench." + clientUid + "@example.com",
+                "username", "bench_" + clientUid.toString().substring(0, 8)));
+        jdbcTemplate.update("""
+            INSERT INTO core.device (uid, client_uuid, device_name, device_description)
+            VALUES (:uid, :client_uid, 'Benchmark device', 'Fan-out benchmark')
+            """, Map.of("uid", deviceUid, "client_uid", clientUid));
+
+        createBuffer(sourceBufferUid);
+        int maxWidth = FAN_OUT_WIDTHS[FAN_OUT_WIDTHS.length - 1];
+        for (int i = 0; i < maxWidth; i++) {
+            UUID targetBufferUid = UUID.randomUUID();
+            createBuffer(targetBufferUid);
+            targetBufferUids.add(targetBufferUid);
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        // Буферы и сообщения удаляются каскадно вместе с устройством
+        jdbcTemplate.update("DELETE FROM core.device WHERE uid = :uid",
+                Map.of("uid", deviceUid));
+        jdbcTemplate.update("DELETE FROM core.client WHERE uid = :uid",
+                Map.of("uid", clientUid));
+    }
+
+    @Test
+    @DisplayName("Ingest latency by fan-out width: per-row inserts vs batch")
+    void ingestLatencyByFanOutWidth() {
+        log.info(String.format("%-8s %18s %18s %10s", "width",
+                "per-row, us/msg", "batch, us/msg", "speedup"));
+
+        for (int width : FAN_OUT_WIDTHS) {
+            List<UUID> targets = targetBufferUids.subList(0, width);
+
+            runIngest(targets, WARMUP_ITERATIONS, false);
+            runIngest(targets, WARMUP_ITERATIONS, true);
+            long perRowNanos = runIngest(targets, MEASURED_ITERATIONS, false);
+            long batchNanos = runIngest(targets, MEASURED_ITERATIONS, true);
+
+            log.info(String.format("%-8d %18.1f %18.1f %9.2fx", width,
+                    perRowNanos / 1000.0 / MEASURED_ITERATIONS,
+                    batchNanos / 1000.0 / MEASURED_ITERATIONS,
+                    (double) perRowNanos / batchNanos));
+        }
+
+        Integer copies = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM processing.message WHERE buffer_uid = :uid",
+                Map.of("uid", targetBufferUids.get(0)), Integer.class);
+        assertThat(copies).isEqualTo(FAN_OUT_WIDTHS.length * 2
+                * (WARMUP_ITERATIONS + MEASURED_ITERATIONS));
+    }
+
+    private long runIngest(List<UUID> targets, int iterations, boolean batch) {
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            MessageBlm outgoing = message(sourceBufferUid, "OUTGOING");
+            repository.add(outgoing);
+
+            List<MessageBlm> copies = targets.stream()
+                    .map(target -> message(target, "INCOMING")).toList();
+            if (batch) {
+                repository.addAll(copies);
+            } else {
+                copies.forEach(repository::add);
+            }
+        }
+        return System.nanoTime() - started;
+    }
+
+    private MessageBlm message(UUID bufferUid, String contentType) {
+        return MessageBlm.builder().uid(UUID.randomUUID()).bufferUid(bufferUid)
+                .content("{\"temperature\": 21.5, \"humidity\": 40}")
+                .contentType(contentType).createdAt(new Date()).build();
+    }
+
+    private void createBuffer(UUID bufferUid) {
+        jdbcTemplate.update("""
+            INSERT INTO processing.buffer (uid, device_uid, max_messages_number, max_message_size, message_prototype)
+            VALUES (:uid, :device_uid, 1000000, 1024, '{}')
+            """, Map.of("uid", bufferUid, "device_uid", deviceUid));
+    }
+}
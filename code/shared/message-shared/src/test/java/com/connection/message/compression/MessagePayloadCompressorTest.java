@@ -0,0 +1,52 @@
+package com.connection.message.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.connection.message.model.MessageCompression;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+@DisplayName("Message Payload Compressor Tests")
+class MessagePayloadCompressorTest {
+
+    private static final byte[] SNAPSHOT = ("{\"device\": \"sensor-1\", \"readings\": ["
+            + "{\"t\": 21.5, \"h\": 40}, ".repeat(100) + "{\"t\": 21.5, \"h\": 40}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    @ParameterizedTest
+    @EnumSource(MessageCompression.class)
+    @DisplayName("Compressed payload is restored - Positive")
+    void testRoundTrip_Positive(MessageCompression compression) {
+        byte[] compressed = MessagePayloadCompressor.compress(compression, SNAPSHOT);
+
+        assertThat(compressed).isNotNull();
+        assertThat(compressed.length).isLessThan(SNAPSHOT.length);
+        assertThat(MessagePayloadCompressor.decompress(compression, compressed,
+                SNAPSHOT.length)).isEqualTo(SNAPSHOT);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MessageCompression.class)
+    @DisplayName("Incompressible payload is not compressed - Positive")
+    void testIncompressiblePayload_Positive(MessageCompression compression) {
+        byte[] noise = new byte[512];
+        new Random(42).nextBytes(noise);
+
+        assertThat(MessagePayloadCompressor.compress(compression, noise)).isNull();
+    }
+
+    @ParameterizedTest
+    @EnumSource(MessageCompression.class)
+    @DisplayName("Wrong recorded size is rejected - Negative")
+    void testWrongSize_Negative(MessageCompression compression) {
+        byte[] compressed = MessagePayloadCompressor.compress(compression, SNAPSHOT);
+
+        assertThatThrownBy(() -> MessagePayloadCompressor.decompress(compression,
+                compressed, SNAPSHOT.length - 1))
+                .isInstanceOf(RuntimeException.class);
+    }
+}
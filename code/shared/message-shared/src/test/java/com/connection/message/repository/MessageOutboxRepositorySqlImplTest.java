@@ -0,0 +1,72 @@
+package com.connection.message.repository;
+
+import static com.connection.message.mother.MessageObjectMother.createValidMessageBlm;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.connection.message.model.MessageBlm;
+
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+@DisplayName("Message Outbox Repository Tests - Sql implementation tests")
+class MessageOutboxRepositorySqlImplTest {
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private MessageOutboxRepositorySqlImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        repository = new MessageOutboxRepositorySqlImpl(jdbcTemplate,
+                messageBlm -> "{\"messageUid\":\"" + messageBlm.getUid() + "\"}");
+    }
+
+    @Test
+    @DisplayName("Add message created - Positive: serialized events inserted in one batch")
+    void testAddMessageCreated_Positive() {
+        MessageBlm first = createValidMessageBlm();
+        MessageBlm second = createValidMessageBlm();
+
+        repository.addMessageCreated(List.of(first, second));
+
+        ArgumentCaptor<MapSqlParameterSource[]> captor =
+                ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(eq(
+                "INSERT INTO processing.message_outbox (event_type, aggregate_uid, payload) "
+                        + "VALUES (:event_type, :aggregate_uid, :payload::jsonb)"),
+                captor.capture());
+        MapSqlParameterSource[] batch = captor.getValue();
+        assertThat(batch).hasSize(2);
+        assertThat(batch[0].getValue("event_type")).isEqualTo("MESSAGE_CREATED");
+        assertThat(batch[0].getValue("aggregate_uid")).isEqualTo(first.getBufferUid());
+        assertThat(batch[0].getValue("payload"))
+                .isEqualTo("{\"messageUid\":\"" + first.getUid() + "\"}");
+        assertThat(batch[1].getValue("payload"))
+                .isEqualTo("{\"messageUid\":\"" + second.getUid() + "\"}");
+    }
+
+    @Test
+    @DisplayName("Add message created - Negative: empty list does not touch the database")
+    void testAddMessageCreated_Empty() {
+        repository.addMessageCreated(Collections.emptyList());
+
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class),
+                any(MapSqlParameterSource[].class));
+    }
+}
@@ -5,36 +5,53 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 import com.connection.message.converter.MessageConverter;
 import com.connection.message.exception.MessageAddException;
+import com.connection.message.exception.MessageExportLimitException;
 import com.connection.message.exception.MessageNotFoundException;
+import com.connection.message.model.BufferOverflowPolicy;
 import com.connection.message.model.MessageBlm;
 import com.connection.message.model.MessageDalm;
+import com.connection.message.model.MessageRejection;
 import com.connection.message.validator.MessageValidator;
 
 @TestMethodOrder(MethodOrderer.DisplayName.class)
@@ -66,6 +83,13 @@ class MessageRepositorySqlImplTest {
         testMessageDalm.setContent(testMessageBlm.getContent());
         testMessageDalm.setContentType(testMessageBlm.getContentType());
         testMessageDalm.setCreatedAt(testMessageBlm.getCreatedAt());
+        // Каждая строка пакета вставлена
+        when(jdbcTemplate.batchUpdate(anyString(), any(MapSqlParameterSource[].class)))
+                .thenAnswer(invocation -> {
+                    int[] inserted = new int[invocation.<MapSqlParameterSource[]>getArgument(1).length];
+                    Arrays.fill(inserted, 1);
+                    return inserted;
+                });
     }
 
     @SuppressWarnings("unchecked")
@@ -92,6 +116,273 @@ class MessageRepositorySqlImplTest {
 
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Add already stored message - Positive")
+    void testAddStoredMessage_Positive() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.<Object>of(new UUID[] {testMessageBlm.getUid(),
+                    testMessageBlm.getBufferUid()}));
+
+        assertThat(repository.add(testMessageBlm)).isFalse();
+
+        verify(jdbcTemplate, times(1)).query(
+                eq("SELECT uid, buffer_uid FROM processing.message "
+                        + "WHERE uid IN (:uids) AND created_at >= :since"),
+                any(MapSqlParameterSource.class), any(RowMapper.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Add message with uid of another buffer - Negative")
+    void testAddMessageWithForeignUid_Negative() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.<Object>of(new UUID[] {testMessageBlm.getUid(),
+                    UUID.randomUUID()}));
+
+        assertThatThrownBy(() -> repository.add(testMessageBlm))
+                .isInstanceOf(MessageAddException.class);
+        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+    }
+
+    @Test
+    @DisplayName("Add messages batch with repeated uid - Positive")
+    void testAddAllRepeatedMessage_Positive() {
+        MessageBlm retriedMessageBlm = createValidMessageBlm();
+        retriedMessageBlm.setUid(testMessageBlm.getUid());
+        retriedMessageBlm.setBufferUid(testMessageBlm.getBufferUid());
+
+        List<MessageRejection> rejections =
+                repository.addAll(List.of(testMessageBlm, retriedMessageBlm));
+
+        assertThat(rejections).hasSize(1);
+        assertThat(rejections.get(0).getMessage()).isSameAs(retriedMessageBlm);
+        assertThat(rejections.get(0).isDuplicate()).isTrue();
+        ArgumentCaptor<MapSqlParameterSource[]> batch =
+                ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getValue()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Add messages batch - Positive")
+    void testAddAllMessages_Positive() {
+        MessageBlm secondMessageBlm = createValidMessageBlm();
+        secondMessageBlm.setUid(UUID.randomUUID());
+
+        repository.addAll(Arrays.asList(testMessageBlm, secondMessageBlm));
+
+        verify(jdbcTemplate, times(1)).batchUpdate(
+                eq("INSERT INTO processing.message (uid, buffer_uid, content, payload, payload_codec, payload_size, "
+                        + "content_type, created_at) "
+                        + "VALUES (:uid, :buffer_uid, :content::jsonb, :payload, :payload_codec, :payload_size, "
+                        + ":content_type, :created_at) ON CONFLICT (uid, created_at) DO NOTHING"),
+                any(MapSqlParameterSource[].class));
+        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+    }
+
+    @Test
+    @DisplayName("Add empty messages batch - Positive")
+    void testAddAllEmptyMessages_Positive() {
+        repository.addAll(Collections.emptyList());
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(MapSqlParameterSource[].class));
+    }
+
+    @Test
+    @DisplayName("Add messages batch with outbox - Positive")
+    void testAddAllMessagesWithOutbox_Positive() {
+        MessageOutboxRepository outboxRepository = mock(MessageOutboxRepository.class);
+        MessageRepositorySqlImpl outboxRepositoryAware =
+                new MessageRepositorySqlImpl(jdbcTemplate, outboxRepository);
+        List<MessageBlm> messages = List.of(testMessageBlm);
+
+        outboxRepositoryAware.addAll(messages);
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), any(MapSqlParameterSource[].class));
+        verify(outboxRepository, times(1)).addMessageCreated(messages);
+    }
+
+    @Test
+    @DisplayName("Add messages batch racing a concurrent retry - Positive")
+    void testAddAllConcurrentDuplicate_Positive() {
+        MessageOutboxRepository outboxRepository = mock(MessageOutboxRepository.class);
+        MessageRepositorySqlImpl outboxRepositoryAware =
+                new MessageRepositorySqlImpl(jdbcTemplate, outboxRepository);
+        MessageBlm secondMessageBlm = createValidMessageBlm();
+        secondMessageBlm.setUid(UUID.randomUUID());
+        // Первую строку пакета вставила параллельная транзакция
+        when(jdbcTemplate.batchUpdate(anyString(), any(MapSqlParameterSource[].class)))
+                .thenReturn(new int[] {0, 1});
+
+        List<MessageRejection> rejections =
+                outboxRepositoryAware.addAll(List.of(testMessageBlm, secondMessageBlm));
+
+        assertThat(rejections).hasSize(1);
+        assertThat(rejections.get(0).getMessage()).isSameAs(testMessageBlm);
+        assertThat(rejections.get(0).isDuplicate()).isTrue();
+        verify(outboxRepository, times(1)).addMessageCreated(List.of(secondMessageBlm));
+    }
+
+    @Test
+    @DisplayName("Add messages batch to full buffer with REJECT policy - Negative")
+    void testAddAllMessagesToFullBuffer_Negative() throws Exception {
+        MessageRepositorySqlImpl capacityAware = new MessageRepositorySqlImpl(
+                jdbcTemplate, null, BufferOverflowPolicy.REJECT);
+        MessageBlm secondMessageBlm = createValidMessageBlm();
+        secondMessageBlm.setUid(UUID.randomUUID());
+        secondMessageBlm.setBufferUid(testMessageBlm.getBufferUid());
+
+        // В буфере на 10 сообщений уже 9: второе сообщение пакета не помещается
+        ResultSet capacity = mock(ResultSet.class);
+        when(capacity.getString("buffer_uid"))
+                .thenReturn(testMessageBlm.getBufferUid().toString());
+        when(capacity.getLong("message_count")).thenReturn(9L);
+        when(capacity.getInt("max_messages_number")).thenReturn(10);
+        when(capacity.getInt("max_message_size")).thenReturn(1024);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(2).processRow(capacity);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(MapSqlParameterSource.class),
+                any(RowCallbackHandler.class));
+
+        List<MessageRejection> rejections =
+                capacityAware.addAll(List.of(testMessageBlm, secondMessageBlm));
+
+        assertThat(rejections).hasSize(1);
+        assertThat(rejections.get(0).getMessage()).isSameAs(secondMessageBlm);
+        ArgumentCaptor<MapSqlParameterSource[]> batch =
+                ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getValue()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Add message creates a missing buffer counter before locking - Positive")
+    void testAddCreatesMissingBufferCounter_Positive() {
+        MessageRepositorySqlImpl capacityAware = new MessageRepositorySqlImpl(
+                jdbcTemplate, null, BufferOverflowPolicy.REJECT);
+        when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenReturn(1);
+
+        capacityAware.add(testMessageBlm);
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(
+                startsWith("INSERT INTO processing.buffer_message_count"),
+                any(MapSqlParameterSource.class));
+        order.verify(jdbcTemplate).query(
+                contains("FOR UPDATE OF c"), any(MapSqlParameterSource.class),
+                any(RowCallbackHandler.class));
+        order.verify(jdbcTemplate).update(
+                startsWith("INSERT INTO processing.message "),
+                any(MapSqlParameterSource.class));
+    }
+
+    @Test
+    @DisplayName("Add JSON message to binary buffer - Negative")
+    void testAddAllJsonMessageToBinaryBuffer_Negative() throws Exception {
+        MessageRepositorySqlImpl capacityAware = new MessageRepositorySqlImpl(
+                jdbcTemplate, null, BufferOverflowPolicy.REJECT);
+        MessageBlm binaryMessageBlm = createValidMessageBlm();
+        binaryMessageBlm.setUid(UUID.randomUUID());
+        binaryMessageBlm.setBufferUid(testMessageBlm.getBufferUid());
+        binaryMessageBlm.setContent(null);
+        binaryMessageBlm.setPayload(new byte[] {0x01, 0x02, 0x03});
+
+        ResultSet capacity = mock(ResultSet.class);
+        when(capacity.getString("buffer_uid"))
+                .thenReturn(testMessageBlm.getBufferUid().toString());
+        when(capacity.getLong("message_count")).thenReturn(0L);
+        when(capacity.getInt("max_messages_number")).thenReturn(10);
+        when(capacity.getInt("max_message_size")).thenReturn(1024);
+        when(capacity.getString("payload_format")).thenReturn("BINARY");
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(2).processRow(capacity);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(MapSqlParameterSource.class),
+                any(RowCallbackHandler.class));
+
+        List<MessageRejection> rejections =
+                capacityAware.addAll(List.of(testMessageBlm, binaryMessageBlm));
+
+        assertThat(rejections).hasSize(1);
+        assertThat(rejections.get(0).getMessage()).isSameAs(testMessageBlm);
+        ArgumentCaptor<MapSqlParameterSource[]> batch =
+                ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getValue()).hasSize(1);
+        assertThat(batch.getValue()[0].getValue("content")).isNull();
+        assertThat((byte[]) batch.getValue()[0].getValue("payload"))
+                .containsExactly(0x01, 0x02, 0x03);
+    }
+
+    @Test
+    @DisplayName("Add large JSON message to compressed buffer - Positive")
+    void testAddAllMessageToCompressedBuffer_Positive() throws Exception {
+        MessageRepositorySqlImpl compressing = new MessageRepositorySqlImpl(
+                jdbcTemplate, null, BufferOverflowPolicy.REJECT, 64);
+        String snapshot = "{\"state\": \"" + "idle ".repeat(200) + "\"}";
+        testMessageBlm.setContent(snapshot);
+
+        ResultSet capacity = mock(ResultSet.class);
+        when(capacity.getString("buffer_uid"))
+                .thenReturn(testMessageBlm.getBufferUid().toString());
+        when(capacity.getLong("message_count")).thenReturn(0L);
+        when(capacity.getInt("max_messages_number")).thenReturn(10);
+        when(capacity.getInt("max_message_size")).thenReturn(4096);
+        when(capacity.getString("payload_format")).thenReturn("JSON");
+        when(capacity.getString("compression")).thenReturn("DEFLATE");
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(2).processRow(capacity);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(MapSqlParameterSource.class),
+                any(RowCallbackHandler.class));
+
+        compressing.addAll(List.of(testMessageBlm));
+
+        ArgumentCaptor<MapSqlParameterSource[]> batch =
+                ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        MapSqlParameterSource params = batch.getValue()[0];
+        assertThat(params.getValue("content")).isNull();
+        assertThat(params.getValue("payload_codec")).isEqualTo("DEFLATE_JSON");
+        assertThat(params.getValue("payload_size")).isEqualTo(snapshot.length());
+        assertThat(((byte[]) params.getValue("payload")).length)
+                .isLessThan(snapshot.length());
+    }
+
+    @Test
+    @DisplayName("Add large JSON message to compressed buffer without overflow policy - Positive")
+    void testAddAllMessageToCompressedBufferWithoutPolicy_Positive() throws Exception {
+        MessageRepositorySqlImpl compressing = new MessageRepositorySqlImpl(
+                jdbcTemplate, null, null, 64);
+        String snapshot = "{\"state\": \"" + "idle ".repeat(200) + "\"}";
+        testMessageBlm.setContent(snapshot);
+
+        // Счетчики не блокируются: читается только сжатие буфера
+        ResultSet compression = mock(ResultSet.class);
+        when(compression.getString("uid"))
+                .thenReturn(testMessageBlm.getBufferUid().toString());
+        when(compression.getString("compression")).thenReturn("DEFLATE");
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(2).processRow(compression);
+            return null;
+        }).when(jdbcTemplate).query(eq("SELECT uid, compression FROM processing.buffer "
+                        + "WHERE uid IN (:buffer_uids) AND compression <> 'NONE'"),
+                any(MapSqlParameterSource.class), any(RowCallbackHandler.class));
+
+        compressing.addAll(List.of(testMessageBlm));
+
+        ArgumentCaptor<MapSqlParameterSource[]> batch =
+                ArgumentCaptor.forClass(MapSqlParameterSource[].class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        MapSqlParameterSource params = batch.getValue()[0];
+        assertThat(params.getValue("content")).isNull();
+        assertThat(params.getValue("payload_codec")).isEqualTo("DEFLATE_JSON");
+        assertThat(params.getValue("payload_size")).isEqualTo(snapshot.length());
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     @DisplayName("Find message by UID - Positive")
@@ -104,7 +395,7 @@ class MessageRepositorySqlImplTest {
 
         assertThat(result).isEqualTo(testMessageBlm);
         verify(jdbcTemplate, times(1)).queryForObject(
-                eq("SELECT uid, buffer_uid, content, content_type, created_at FROM processing.message WHERE uid = :uid"),
+                eq("SELECT uid, buffer_uid, content, payload, payload_codec, payload_size, content_type, created_at FROM processing.message WHERE uid = :uid"),
                 any(MapSqlParameterSource.class),
                 any(RowMapper.class));
     }
@@ -137,7 +428,7 @@ class MessageRepositorySqlImplTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0)).isEqualTo(testMessageBlm);
         verify(jdbcTemplate, times(1)).query(
-                eq("SELECT uid, buffer_uid, content, content_type, created_at FROM processing.message WHERE buffer_uid = :buffer_uid ORDER BY created_at DESC"),
+                eq("SELECT uid, buffer_uid, content, payload, payload_codec, payload_size, content_type, created_at FROM processing.message WHERE buffer_uid = :buffer_uid ORDER BY created_at DESC"),
                 any(MapSqlParameterSource.class),
                 any(RowMapper.class));
     }
@@ -153,6 +444,79 @@ class MessageRepositorySqlImplTest {
                 .isInstanceOf(MessageNotFoundException.class);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Find first messages page by buffer UID - Positive")
+    void testFindFirstPageByBufferUid_Positive() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(Arrays.asList(testMessageDalm));
+
+        List<MessageBlm> result = repository.findByBufferUid(testMessageBlm.getBufferUid(), null, null, 10);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0)).isEqualTo(testMessageBlm);
+        verify(jdbcTemplate, times(1)).query(
+                eq("SELECT uid, buffer_uid, content, payload, payload_codec, payload_size, content_type, created_at FROM processing.message WHERE buffer_uid = :buffer_uid ORDER BY created_at, uid LIMIT :limit"),
+                any(MapSqlParameterSource.class),
+                any(RowMapper.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Find messages page by several buffer UIDs - Positive")
+    void testFindPageByBufferUids_Positive() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(Arrays.asList(testMessageDalm));
+
+        List<MessageBlm> result = repository.findByBufferUids(
+                List.of(testMessageBlm.getBufferUid(), UUID.randomUUID()), 20, 10);
+
+        assertThat(result).containsExactly(testMessageBlm);
+        ArgumentCaptor<MapSqlParameterSource> params =
+                ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate, times(1)).query(anyString(), params.capture(),
+                any(RowMapper.class));
+        // Из каждого буфера читается не больше offset + limit строк
+        assertThat(params.getValue().getValue("window")).isEqualTo(30);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Find next messages page by time range - Positive")
+    void testFindNextPageByTimeRange_Positive() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(Collections.emptyList());
+        Date from = new Date(System.currentTimeMillis() - 300_000);
+
+        List<MessageBlm> result = repository.findByBufferUidAndTimeRange(testMessageBlm.getBufferUid(),
+                from, new Date(), testMessageBlm.getCreatedAt(), testMessageBlm.getUid(), 10);
+
+        assertThat(result).isEmpty();
+        verify(jdbcTemplate, times(1)).query(
+                eq("SELECT uid, buffer_uid, content, payload, payload_codec, payload_size, content_type, created_at FROM processing.message WHERE buffer_uid = :buffer_uid "
+                        + "AND created_at >= :start_time AND created_at < :end_time "
+                        + "AND (created_at, uid) > (:after_created_at, :after_uid) ORDER BY created_at, uid LIMIT :limit"),
+                any(MapSqlParameterSource.class),
+                any(RowMapper.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Find next messages page by buffer UID - Positive")
+    void testFindNextPageByBufferUid_Positive() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(Collections.emptyList());
+
+        List<MessageBlm> result = repository.findByBufferUid(testMessageBlm.getBufferUid(),
+                testMessageBlm.getCreatedAt(), testMessageBlm.getUid(), 10);
+
+        assertThat(result).isEmpty();
+        verify(jdbcTemplate, times(1)).query(
+                eq("SELECT uid, buffer_uid, content, payload, payload_codec, payload_size, content_type, created_at FROM processing.message WHERE buffer_uid = :buffer_uid AND created_at >= :after_created_at AND (created_at, uid) > (:after_created_at, :after_uid) ORDER BY created_at, uid LIMIT :limit"),
+                any(MapSqlParameterSource.class),
+                any(RowMapper.class));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     @DisplayName("Find messages by buffer UID and time range - Positive")
@@ -171,7 +535,7 @@ class MessageRepositorySqlImplTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0)).isEqualTo(testMessageBlm);
         verify(jdbcTemplate, times(1)).query(
-                eq("SELECT uid, buffer_uid, content, content_type, created_at FROM processing.message WHERE buffer_uid = :buffer_uid AND created_at BETWEEN :start_time AND :end_time ORDER BY created_at DESC"),
+                eq("SELECT uid, buffer_uid, content, payload, payload_codec, payload_size, content_type, created_at FROM processing.message WHERE buffer_uid = :buffer_uid AND created_at BETWEEN :start_time AND :end_time ORDER BY created_at DESC"),
                 any(MapSqlParameterSource.class),
                 any(RowMapper.class));
     }
@@ -191,6 +555,29 @@ class MessageRepositorySqlImplTest {
 
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Dequeue incoming messages - Positive")
+    void testDequeueIncoming_Positive() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(Arrays.asList(testMessageDalm));
+
+        List<MessageBlm> result = repository.dequeueIncoming(testMessageBlm.getBufferUid(), 1);
+
+        assertThat(result).containsExactly(testMessageBlm);
+        verify(jdbcTemplate, times(1)).query(
+                eq("WITH dequeued AS (DELETE FROM processing.message WHERE (uid, created_at) IN ("
+                        + "SELECT uid, created_at FROM processing.message "
+                        + "WHERE buffer_uid = :buffer_uid AND content_type = 'INCOMING' "
+                        + "ORDER BY created_at, uid LIMIT :limit FOR UPDATE SKIP LOCKED) "
+                        + "RETURNING uid, buffer_uid, content, payload, payload_codec, payload_size, content_type, created_at) "
+                        + "SELECT uid, buffer_uid, content, payload, payload_codec, payload_size, content_type, created_at "
+                        + "FROM dequeued ORDER BY created_at, uid"),
+                any(MapSqlParameterSource.class),
+                any(RowMapper.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     @DisplayName("Delete message by UID - Positive")
@@ -220,6 +607,41 @@ class MessageRepositorySqlImplTest {
         verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
     }
 
+    @Test
+    @DisplayName("Delete read messages by key - Positive")
+    void testDeleteAll_Positive() {
+        MessageBlm later = MessageBlm.builder().uid(UUID.randomUUID())
+                .bufferUid(testMessageBlm.getBufferUid()).content("{}")
+                .contentType("INCOMING")
+                .createdAt(new Date(testMessageBlm.getCreatedAt().getTime() + 1000))
+                .build();
+        when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenReturn(2);
+
+        assertThat(repository.deleteAll(List.of(later, testMessageBlm))).isEqualTo(2);
+
+        ArgumentCaptor<MapSqlParameterSource> params =
+                ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate, times(1)).update(
+                eq("DELETE FROM processing.message "
+                        + "WHERE created_at BETWEEN :min_created_at AND :max_created_at "
+                        + "AND (uid, created_at) IN (:keys)"),
+                params.capture());
+        // Границы по created_at нужны для отсечения секций
+        assertThat(((Date) params.getValue().getValue("min_created_at")).getTime())
+                .isEqualTo(testMessageBlm.getCreatedAt().getTime());
+        assertThat(((Date) params.getValue().getValue("max_created_at")).getTime())
+                .isEqualTo(later.getCreatedAt().getTime());
+        assertThat((List<?>) params.getValue().getValue("keys")).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Delete nothing by empty key list - Positive")
+    void testDeleteAllEmpty_Positive() {
+        assertThat(repository.deleteAll(List.of())).isZero();
+
+        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     @DisplayName("Delete messages by buffer UID - Positive")
@@ -251,4 +673,56 @@ class MessageRepositorySqlImplTest {
 
         verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Export streams over its own read-only connection - Positive")
+    void testStreamByBufferUid_Positive() throws Exception {
+        DataSource exportDataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement settings = mock(PreparedStatement.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet rows = mock(ResultSet.class);
+        when(exportDataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(startsWith("SELECT set_config")))
+                .thenReturn(settings);
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY),
+                eq(ResultSet.CONCUR_READ_ONLY))).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(rows);
+        MessageRepositorySqlImpl exporting = new MessageRepositorySqlImpl(jdbcTemplate,
+                null, null, 1024, exportDataSource, 1, 60000);
+
+        exporting.streamByBufferUid(testMessageBlm.getBufferUid(), message -> { });
+
+        InOrder order = inOrder(connection, settings, statement);
+        order.verify(connection).setAutoCommit(false);
+        order.verify(settings).setString(1, "60000");
+        order.verify(settings).execute();
+        order.verify(statement).setFetchSize(500);
+        order.verify(statement).executeQuery();
+        order.verify(connection).rollback();
+        order.verify(connection).close();
+        verify(jdbcTemplate, never()).getJdbcTemplate();
+    }
+
+    @Test
+    @DisplayName("Export over the concurrency limit is rejected - Negative")
+    void testStreamByBufferUidLimit_Negative() throws Exception {
+        DataSource exportDataSource = mock(DataSource.class);
+        MessageRepositorySqlImpl exporting = new MessageRepositorySqlImpl(jdbcTemplate,
+                null, null, 1024, exportDataSource, 1, 60000);
+        UUID bufferUid = testMessageBlm.getBufferUid();
+        // Пока первая выгрузка берет соединение, вторая не допускается
+        when(exportDataSource.getConnection()).thenAnswer(invocation -> {
+            assertThatThrownBy(() -> exporting.streamByBufferUid(bufferUid, message -> { }))
+                    .isInstanceOf(MessageExportLimitException.class);
+            throw new SQLException("stop");
+        });
+
+        assertThatThrownBy(() -> exporting.streamByBufferUid(bufferUid, message -> { }))
+                .isInstanceOf(DataRetrievalFailureException.class);
+        // Разрешение возвращено и после ошибки
+        assertThatThrownBy(() -> exporting.streamByBufferUid(bufferUid, message -> { }))
+                .isInstanceOf(DataRetrievalFailureException.class);
+        verify(exportDataSource, times(2)).getConnection();
+    }
+}
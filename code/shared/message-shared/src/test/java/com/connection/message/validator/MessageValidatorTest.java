@@ -122,6 +122,48 @@ class MessageValidatorTest {
                 .isInstanceOf(MessageValidateException.class);
     }
 
+    @Test
+    @DisplayName("Validate MessageBlm with binary payload - Positive")
+    void testValidateMessageBlmWithBinaryPayload_Positive() {
+        MessageBlm message = MessageBlm.builder()
+                .uid(UUID.randomUUID())
+                .bufferUid(UUID.randomUUID())
+                .payload(new byte[] {0x00, 0x7f, (byte) 0xff})
+                .contentType("OUTGOING")
+                .createdAt(new Date())
+                .build();
+        validator.validate(message);
+    }
+
+    @Test
+    @DisplayName("Validate MessageBlm with content and payload - Negative")
+    void testValidateMessageBlmWithContentAndPayload_Negative() {
+        MessageBlm message = MessageBlm.builder()
+                .uid(UUID.randomUUID())
+                .bufferUid(UUID.randomUUID())
+                .content("{}")
+                .payload(new byte[] {0x01})
+                .contentType("OUTGOING")
+                .createdAt(new Date())
+                .build();
+        assertThatThrownBy(() -> validator.validate(message))
+                .isInstanceOf(MessageValidateException.class);
+    }
+
+    @Test
+    @DisplayName("Validate MessageBlm with long payload - Negative")
+    void testValidateMessageBlmWithLongPayload_Negative() {
+        MessageBlm message = MessageBlm.builder()
+                .uid(UUID.randomUUID())
+                .bufferUid(UUID.randomUUID())
+                .payload(new byte[10001])
+                .contentType("OUTGOING")
+                .createdAt(new Date())
+                .build();
+        assertThatThrownBy(() -> validator.validate(message))
+                .isInstanceOf(MessageValidateException.class);
+    }
+
     @Test
     @DisplayName("Validate MessageDto with null buffer UID - Negative")
     void testValidateMessageDtoWithNullBufferUid_Negative() {
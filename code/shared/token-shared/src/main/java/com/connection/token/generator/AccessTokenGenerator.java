@@ -4,25 +4,50 @@ import com.connection.token.exception.AccessTokenValidateException;
 import com.connection.token.model.AccessTokenBlm;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import java.util.Date;
 import java.util.UUID;
 import javax.crypto.SecretKey;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /** . */
-@RequiredArgsConstructor
 public class AccessTokenGenerator {
-    @NonNull
     private final SecretKey jwtSecretKey;
 
-    @NonNull
     private final String appNameString;
 
-    @NonNull
     private final String jwtSubjecString;
 
+    // Парсер неизменяем и потокобезопасен: собирается один раз
+    private final JwtParser jwtParser;
+
+    // null - каждый токен проверяется заново
+    private final VerifiedTokenCache<AccessTokenBlm> verifiedTokens;
+
+    /** . */
+    public AccessTokenGenerator(@NonNull SecretKey jwtSecretKey,
+            @NonNull String appNameString, @NonNull String jwtSubjecString) {
+        this(jwtSecretKey, appNameString, jwtSubjecString, 0);
+    }
+
+    /**
+     * Генератор, запоминающий до verifiedCacheSize проверенных токенов
+     * до истечения их срока (0 - без кэша).
+     */
+    public AccessTokenGenerator(@NonNull SecretKey jwtSecretKey,
+            @NonNull String appNameString, @NonNull String jwtSubjecString,
+            int verifiedCacheSize) {
+        this.jwtSecretKey = jwtSecretKey;
+        this.appNameString = appNameString;
+        this.jwtSubjecString = jwtSubjecString;
+        this.jwtParser = Jwts.parser().verifyWith(jwtSecretKey).build();
+        this.verifiedTokens = verifiedCacheSize > 0
+                ? new VerifiedTokenCache<>(verifiedCacheSize,
+                        AccessTokenBlm::getExpiresAt)
+                : null;
+    }
+
     /** . */
     public String generateAccessToken(UUID clientUuid, Date createdAtDate,
             Date expiresAtDate) {
@@ -36,9 +61,14 @@ public class AccessTokenGenerator {
 
     /** . */
     public AccessTokenBlm getAccessTokenBlm(String token) {
+        return verifiedTokens != null
+                ? verifiedTokens.get(token, this::parseAccessToken)
+                : parseAccessToken(token);
+    }
+
+    private AccessTokenBlm parseAccessToken(String token) {
         try {
-            Jws<Claims> jws = Jwts.parser().verifyWith(jwtSecretKey).build()
-                    .parseSignedClaims(token);
+            Jws<Claims> jws = jwtParser.parseSignedClaims(token);
 
             Claims claims = jws.getPayload();
 
@@ -5,25 +5,32 @@ import com.connection.token.model.RefreshTokenBlm;
 import com.connection.token.model.RefreshTokenDalm;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import java.util.Date;
 import java.util.UUID;
 import javax.crypto.SecretKey;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /** . */
-@RequiredArgsConstructor
 public class RefreshTokenGenerator {
-    @NonNull
     private final SecretKey jwtSecretKey;
 
-    @NonNull
     private final String appNameString;
 
-    @NonNull
     private final String jwtSubjecString;
 
+    private final JwtParser jwtParser;
+
+    /** . */
+    public RefreshTokenGenerator(@NonNull SecretKey jwtSecretKey,
+            @NonNull String appNameString, @NonNull String jwtSubjecString) {
+        this.jwtSecretKey = jwtSecretKey;
+        this.appNameString = appNameString;
+        this.jwtSubjecString = jwtSubjecString;
+        this.jwtParser = Jwts.parser().verifyWith(jwtSecretKey).build();
+    }
+
     /** . */
     public String generateRefreshToken(RefreshTokenDalm dalm) {
         String token = Jwts.builder().issuer(appNameString)
@@ -47,8 +54,7 @@ public class RefreshTokenGenerator {
     /** . */
     public RefreshTokenBlm getRefreshToken(String token) {
         try {
-            Jws<Claims> jws = Jwts.parser().verifyWith(jwtSecretKey).build()
-                    .parseSignedClaims(token);
+            Jws<Claims> jws = jwtParser.parseSignedClaims(token);
 
             Claims claims = jws.getPayload();
 
@@ -0,0 +1,123 @@
+package com.connection.token.generator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+
+/**
+ * Кэш результатов проверки JWT: повторный запрос с тем же токеном не
+ * разбирает его и не пересчитывает подпись. Ключ - SHA-256 токена,
+ * запись живет до exp токена. Ошибки проверки не кэшируются. Записи
+ * упорядочены по сроку: каждая вставка снимает с головы очереди только
+ * истекшие записи, без обхода всего кэша. Если места нет и после этого,
+ * результат не кэшируется. Все вызывающие получают один и тот же
+ * экземпляр результата, изменять его нельзя.
+ *
+ * @param <T> результат проверки токена
+ */
+public class VerifiedTokenCache<T> {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 =
+            ThreadLocal.withInitial(() -> {
+                try {
+                    return MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("SHA-256 is not available", e);
+                }
+            });
+
+    private final int maxEntries;
+    private final Function<T, Date> expiresAt;
+    private final Map<ByteBuffer, Entry<T>> entries = new ConcurrentHashMap<>();
+    // Вставки идут только на промахах, поэтому общая блокировка очереди
+    // не мешает попаданиям
+    private final PriorityQueue<Entry<T>> expiryOrder =
+            new PriorityQueue<>(Comparator.comparingLong(entry -> entry.expiresAt));
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** Кэш на maxEntries токенов; срок записи берется из expiresAt. */
+    public VerifiedTokenCache(int maxEntries, Function<T, Date> expiresAt) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Результат проверки токена из кэша или от verifier при промахе.
+     * Исключения verifier передаются вызывающему.
+     */
+    public T get(String token, Function<String, T> verifier) {
+        ByteBuffer key = ByteBuffer.wrap(SHA_256.get()
+                .digest(token.getBytes(StandardCharsets.UTF_8)));
+        long now = System.currentTimeMillis();
+        Entry<T> entry = entries.get(key);
+        if (entry != null) {
+            if (now < entry.expiresAt) {
+                hits.increment();
+                return entry.value;
+            }
+            entries.remove(key, entry);
+        }
+        misses.increment();
+
+        T value = verifier.apply(token);
+        Date expiration = expiresAt.apply(value);
+        if (expiration != null && now < expiration.getTime()) {
+            put(key, new Entry<>(key, value, expiration.getTime()), now);
+        }
+        return value;
+    }
+
+    /** Количество токенов в кэше. */
+    public int size() {
+        return entries.size();
+    }
+
+    /** Количество проверок, обслуженных из кэша. */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /** Количество проверок с разбором токена. */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private void put(ByteBuffer key, Entry<T> entry, long now) {
+        synchronized (expiryOrder) {
+            // Каждая запись снимается с очереди один раз
+            Entry<T> head;
+            while ((head = expiryOrder.peek()) != null && head.expiresAt <= now) {
+                expiryOrder.poll();
+                entries.remove(head.key, head);
+            }
+            if (entries.size() < maxEntries) {
+                expiryOrder.add(entry);
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Entry<T> {
+
+        private final ByteBuffer key;
+
+        private final T value;
+
+        private final long expiresAt;
+    }
+}
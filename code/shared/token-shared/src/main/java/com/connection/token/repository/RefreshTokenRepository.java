@@ -43,4 +43,12 @@ public interface RefreshTokenRepository {
      * Отозвать все закончившиеся токены.
      */
     public void cleanUpExpired();
+
+    /**
+     * Удалить до limit истекших токенов, начиная с самых старых. Строки,
+     * захваченные другими транзакциями, пропускаются.
+     *
+     * @return количество удаленных токенов
+     */
+    public int deleteExpiredChunk(int limit);
 }
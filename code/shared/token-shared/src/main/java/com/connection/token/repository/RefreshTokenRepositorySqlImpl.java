@@ -40,6 +40,10 @@ public class RefreshTokenRepositorySqlImpl implements RefreshTokenRepository {
             "DELETE FROM \"access\".refresh_token WHERE client_id = :client_id";
     private static final String CLEANUP_EXPIRED_TOKENS =
             "DELETE FROM \"access\".refresh_token WHERE expires_at < NOW()";
+    private static final String DELETE_EXPIRED_CHUNK =
+            "DELETE FROM \"access\".refresh_token WHERE uid IN ("
+                    + "SELECT uid FROM \"access\".refresh_token WHERE expires_at < NOW() "
+                    + "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED)";
 
     private final NamedParameterJdbcTemplate jdbcTemplate;
 
@@ -148,6 +152,15 @@ public class RefreshTokenRepositorySqlImpl implements RefreshTokenRepository {
                 new MapSqlParameterSource());
     }
 
+    @Override
+    @Transactional
+    public int deleteExpiredChunk(int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.update(DELETE_EXPIRED_CHUNK, params);
+    }
+
     // Вспомогательные методы
     @Transactional(readOnly = true)
     boolean uidExists(UUID uid) {
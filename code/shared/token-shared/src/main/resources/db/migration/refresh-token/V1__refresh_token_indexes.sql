@@ -0,0 +1,7 @@
+-- Отзыв всех токенов клиента и каскадное удаление клиента
+create index if not exists idx_refresh_token_client_id
+    on access.refresh_token (client_id);
+
+-- Очистка истекших токенов
+create index if not exists idx_refresh_token_expires_at
+    on access.refresh_token (expires_at);
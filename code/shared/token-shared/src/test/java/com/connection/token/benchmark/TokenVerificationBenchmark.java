@@ -0,0 +1,113 @@
+package com.connection.token.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.connection.token.generator.AccessTokenGenerator;
+import com.connection.token.model.AccessTokenBlm;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import javax.crypto.SecretKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Проверка access-токена на пути запроса: парсер, собираемый на каждый
+ * вызов (как было), заранее собранный парсер и кэш проверенных токенов.
+ * Токены выбираются по кругу из пула, как у устройств, повторно
+ * шлющих один и тот же токен весь его срок.
+ *
+ * <p>Запуск: {@code gradle benchmark}; база данных не нужна.
+ */
+@DisplayName("Token verification benchmark")
+class TokenVerificationBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVerificationBenchmark.class);
+
+    private static final int TOKENS = 1_000;
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+    private static final int THREADS = 8;
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(
+            "benchmark-secret-key-1234567890-1234567890".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    @DisplayName("Per-call parser vs prebuilt parser vs verified cache")
+    void verificationCost() throws Exception {
+        AccessTokenGenerator plain = new AccessTokenGenerator(KEY, "bench", "access-token");
+        AccessTokenGenerator caching =
+                new AccessTokenGenerator(KEY, "bench", "access-token", TOKENS * 2);
+        List<String> tokens = tokens(plain);
+
+        // Прежняя реализация: парсер собирается заново на каждый токен
+        Function<String, Object> perCallParser = token -> Jwts.parser().verifyWith(KEY)
+                .build().parseSignedClaims(token).getPayload();
+
+        log.info(String.format("%-18s %8s %14s %14s", "variant", "threads", "us/op",
+                "ops/s"));
+        for (int threads : new int[] {1, THREADS}) {
+            report("per-call parser", threads, perCallParser, tokens);
+            report("prebuilt parser", threads, plain::getAccessTokenBlm, tokens);
+            report("verified cache", threads, caching::getAccessTokenBlm, tokens);
+        }
+
+        AccessTokenBlm cached = caching.getAccessTokenBlm(tokens.get(0));
+        assertThat(cached.getClientUid())
+                .isEqualTo(plain.getAccessTokenBlm(tokens.get(0)).getClientUid());
+    }
+
+    private static List<String> tokens(AccessTokenGenerator generator) {
+        Date now = new Date();
+        Date expiresAt = new Date(now.getTime() + 15 * 60 * 1000L);
+        List<String> tokens = new ArrayList<>(TOKENS);
+        for (int i = 0; i < TOKENS; i++) {
+            tokens.add(generator.generateAccessToken(UUID.randomUUID(), now, expiresAt));
+        }
+        return tokens;
+    }
+
+    private static void report(String variant, int threads,
+            Function<String, ?> verifier, List<String> tokens) throws Exception {
+        run(threads, verifier, tokens, WARMUP_ITERATIONS);
+        long nanos = run(threads, verifier, tokens, MEASURED_ITERATIONS);
+        long operations = (long) threads * MEASURED_ITERATIONS;
+        log.info(String.format("%-18s %8d %14.2f %14.0f", variant, threads,
+                nanos / 1000.0 / MEASURED_ITERATIONS,
+                operations * 1_000_000_000.0 / nanos));
+    }
+
+    // Время, за которое каждый из threads потоков выполняет iterations проверок
+    private static long run(int threads, Function<String, ?> verifier,
+            List<String> tokens, int iterations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * 7;
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        verifier.apply(tokens.get((offset + i) % tokens.size()));
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
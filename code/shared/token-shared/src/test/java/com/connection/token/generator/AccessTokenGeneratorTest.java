@@ -80,6 +80,28 @@ class AccessTokenGeneratorTest {
                 .isInstanceOf(RuntimeException.class);
     }
 
+    @Test
+    @DisplayName("Parse access token from verified cache - Positive")
+    void testGetAccessTokenBlmFromCache_Positive() {
+        AccessTokenGenerator cachingGenerator =
+                new AccessTokenGenerator(secretKey, "test-app", "access-token", 10);
+        AccessTokenDalm dalM = createValidAccessTokenDalm();
+        String tokenString = cachingGenerator.generateAccessToken(
+            dalM.getClientUid(),
+            dalM.getCreatedAt(),
+            dalM.getExpiresAt()
+        );
+
+        AccessTokenBlm first = cachingGenerator.getAccessTokenBlm(tokenString);
+        AccessTokenBlm second = cachingGenerator.getAccessTokenBlm(tokenString);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getClientUid()).isEqualTo(dalM.getClientUid());
+        // Подделанный токен не совпадает с кэшированным и проверяется заново
+        assertThatThrownBy(() -> cachingGenerator.getAccessTokenBlm(tokenString + "x"))
+                .isInstanceOf(RuntimeException.class);
+    }
+
     @Test
     @DisplayName("Generate and parse round trip - Positive")
     void testGenerateAndParseRoundTrip_Positive() {
@@ -0,0 +1,101 @@
+package com.connection.token.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+@TestMethodOrder(MethodOrderer.DisplayName.class)
+@DisplayName("Verified Token Cache Tests")
+class VerifiedTokenCacheTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private Function<String, Date> verifier(long ttlMillis) {
+        return token -> {
+            verifications.incrementAndGet();
+            return new Date(System.currentTimeMillis() + ttlMillis);
+        };
+    }
+
+    @Test
+    @DisplayName("Token is verified once until it expires - Positive")
+    void testVerifiedOnce_Positive() {
+        VerifiedTokenCache<Date> cache = new VerifiedTokenCache<>(10, Function.identity());
+
+        Date first = cache.get("token", verifier(60_000));
+        Date second = cache.get("token", verifier(60_000));
+
+        assertThat(second).isSameAs(first);
+        assertThat(verifications).hasValue(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Expired token is verified again - Positive")
+    void testExpiredTokenVerifiedAgain_Positive() {
+        VerifiedTokenCache<Date> cache = new VerifiedTokenCache<>(10, Function.identity());
+
+        cache.get("token", verifier(0));
+        cache.get("token", verifier(0));
+
+        assertThat(verifications).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Verification errors are not cached - Negative")
+    void testErrorsNotCached_Negative() {
+        VerifiedTokenCache<Date> cache = new VerifiedTokenCache<>(10, Function.identity());
+        Function<String, Date> failing = token -> {
+            verifications.incrementAndGet();
+            throw new IllegalArgumentException("Invalid jwt");
+        };
+
+        assertThatThrownBy(() -> cache.get("token", failing))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cache.get("token", failing))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Full cache does not grow - Positive")
+    void testBoundedSize_Positive() {
+        VerifiedTokenCache<Date> cache = new VerifiedTokenCache<>(2, Function.identity());
+
+        for (int i = 0; i < 5; i++) {
+            cache.get("token-" + i, verifier(60_000));
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.get("token-0", verifier(60_000));
+        assertThat(verifications).hasValue(5);
+    }
+
+    @Test
+    @DisplayName("Insert evicts expired tokens in expiry order - Positive")
+    void testExpiredTokensEvictedOnInsert_Positive() throws InterruptedException {
+        VerifiedTokenCache<Date> cache = new VerifiedTokenCache<>(3, Function.identity());
+
+        cache.get("short-0", verifier(20));
+        cache.get("short-1", verifier(20));
+        cache.get("long", verifier(60_000));
+        Thread.sleep(50);
+
+        // Кэш полон, но две записи истекли: новая вставка их вытесняет
+        cache.get("fresh", verifier(60_000));
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.get("long", verifier(60_000));
+        cache.get("fresh", verifier(60_000));
+        assertThat(verifications).hasValue(4);
+    }
+}
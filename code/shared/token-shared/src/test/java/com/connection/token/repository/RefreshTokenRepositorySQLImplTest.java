@@ -123,6 +123,21 @@ class RefreshTokenRepositorySqlImplTest {
                 any(MapSqlParameterSource.class));
     }
 
+    @Test
+    @DisplayName("Delete expired chunk - Positive")
+    void testDeleteExpiredChunk_Positive() {
+        when(jdbcTemplate.update(anyString(), any(MapSqlParameterSource.class))).thenReturn(5);
+
+        int deleted = repository.deleteExpiredChunk(100);
+
+        assertThat(deleted).isEqualTo(5);
+        verify(jdbcTemplate, times(1)).update(
+                eq("DELETE FROM \"access\".refresh_token WHERE uid IN ("
+                        + "SELECT uid FROM \"access\".refresh_token WHERE expires_at < NOW() "
+                        + "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED)"),
+                any(MapSqlParameterSource.class));
+    }
+
     @SuppressWarnings("unchecked")
 @Test
     @DisplayName("Check token exists - Positive")